@@ -4,6 +4,8 @@ import org.green.cab.Cab;
 import org.green.cab.CabBackingOff;
 import org.green.cab.CabBlocking;
 import org.green.cab.CabBusySpinning;
+import org.green.cab.CabMultiLane;
+import org.green.cab.CabSingleProducer;
 import org.green.cab.CabYielding;
 import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Scope;
@@ -15,6 +17,7 @@ public class CabBenchmark {
     private static final int CAB_SIZE = 100_000;
     private static final int BACKING_OFF_MAX_SPINS = 1_000;
     private static final int BACKING_OFF_MAX_YIELDS = 100_000;
+    private static final int NUMBER_OF_LANES = 2;
 
     private abstract static class CabSetup {
         Cab<Object, Object> cab;
@@ -67,4 +70,69 @@ public class CabBenchmark {
             return new CabYielding<>(CAB_SIZE);
         }
     }
+
+    @State(Scope.Benchmark)
+    public static class CabSingleProducerBusySpinningSetup extends CabSetup {
+        @Override
+        protected Cab<Object, Object> prepareCab() {
+            return CabSingleProducer.busySpinning(CAB_SIZE);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CabSingleProducerBlockingSetup extends CabSetup {
+        @Override
+        protected Cab<Object, Object> prepareCab() {
+            return CabSingleProducer.blocking(CAB_SIZE);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CabSingleProducerBackingOffSetup extends CabSetup {
+        @Override
+        protected Cab<Object, Object> prepareCab() {
+            return CabSingleProducer.backingOff(CAB_SIZE, BACKING_OFF_MAX_SPINS, BACKING_OFF_MAX_YIELDS);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CabSingleProducerYieldingSetup extends CabSetup {
+        @Override
+        protected Cab<Object, Object> prepareCab() {
+            return CabSingleProducer.yielding(CAB_SIZE);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CabMultiLaneBusySpinningSetup extends CabSetup {
+        @Override
+        protected Cab<Object, Object> prepareCab() {
+            return CabMultiLane.busySpinning(CAB_SIZE, NUMBER_OF_LANES);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CabMultiLaneBlockingSetup extends CabSetup {
+        @Override
+        protected Cab<Object, Object> prepareCab() {
+            return CabMultiLane.blocking(CAB_SIZE, NUMBER_OF_LANES);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CabMultiLaneBackingOffSetup extends CabSetup {
+        @Override
+        protected Cab<Object, Object> prepareCab() {
+            return CabMultiLane.backingOff(CAB_SIZE, NUMBER_OF_LANES, BACKING_OFF_MAX_SPINS,
+                    BACKING_OFF_MAX_YIELDS);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CabMultiLaneYieldingSetup extends CabSetup {
+        @Override
+        protected Cab<Object, Object> prepareCab() {
+            return CabMultiLane.yielding(CAB_SIZE, NUMBER_OF_LANES);
+        }
+    }
 }
\ No newline at end of file
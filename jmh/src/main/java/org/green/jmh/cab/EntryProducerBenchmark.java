@@ -120,4 +120,108 @@ public class EntryProducerBenchmark extends CabBenchmark {
         blackhole.consume(cab.getEntry(ps));
         cab.producerCommit(ps);
     }
+
+    @Benchmark
+    @Threads(1)
+    public void oneEntryProducerWithCabSingleProducerBusySpinning(
+            final CabSingleProducerBusySpinningSetup cabSetup, final Blackhole blackhole)
+            throws ConsumerInterruptedException, InterruptedException {
+
+        final Cab<Object, Object> cab = cabSetup.cab;
+
+        final long ps = cab.producerNext();
+        blackhole.consume(cab.getEntry(ps));
+        cab.producerCommit(ps);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void oneEntryProducerWithCabSingleProducerBlocking(
+            final CabSingleProducerBlockingSetup cabSetup, final Blackhole blackhole)
+            throws ConsumerInterruptedException, InterruptedException {
+
+        final Cab<Object, Object> cab = cabSetup.cab;
+
+        final long ps = cab.producerNext();
+        blackhole.consume(cab.getEntry(ps));
+        cab.producerCommit(ps);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void oneEntryProducerWithCabSingleProducerBackingOff(
+            final CabSingleProducerBackingOffSetup cabSetup, final Blackhole blackhole)
+            throws ConsumerInterruptedException, InterruptedException {
+
+        final Cab<Object, Object> cab = cabSetup.cab;
+
+        final long ps = cab.producerNext();
+        blackhole.consume(cab.getEntry(ps));
+        cab.producerCommit(ps);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void oneEntryProducerWithCabSingleProducerYielding(
+            final CabSingleProducerYieldingSetup cabSetup, final Blackhole blackhole)
+            throws ConsumerInterruptedException, InterruptedException {
+
+        final Cab<Object, Object> cab = cabSetup.cab;
+
+        final long ps = cab.producerNext();
+        blackhole.consume(cab.getEntry(ps));
+        cab.producerCommit(ps);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void twoEntryProducersWithCabMultiLaneBusySpinning(
+            final CabMultiLaneBusySpinningSetup cabSetup, final Blackhole blackhole)
+            throws ConsumerInterruptedException, InterruptedException {
+
+        final Cab<Object, Object> cab = cabSetup.cab;
+
+        final long ps = cab.producerNext();
+        blackhole.consume(cab.getEntry(ps));
+        cab.producerCommit(ps);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void twoEntryProducersWithCabMultiLaneBlocking(
+            final CabMultiLaneBlockingSetup cabSetup, final Blackhole blackhole)
+            throws ConsumerInterruptedException, InterruptedException {
+
+        final Cab<Object, Object> cab = cabSetup.cab;
+
+        final long ps = cab.producerNext();
+        blackhole.consume(cab.getEntry(ps));
+        cab.producerCommit(ps);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void twoEntryProducersWithCabMultiLaneBackingOff(
+            final CabMultiLaneBackingOffSetup cabSetup, final Blackhole blackhole)
+            throws ConsumerInterruptedException, InterruptedException {
+
+        final Cab<Object, Object> cab = cabSetup.cab;
+
+        final long ps = cab.producerNext();
+        blackhole.consume(cab.getEntry(ps));
+        cab.producerCommit(ps);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void twoEntryProducersWithCabMultiLaneYielding(
+            final CabMultiLaneYieldingSetup cabSetup, final Blackhole blackhole)
+            throws ConsumerInterruptedException, InterruptedException {
+
+        final Cab<Object, Object> cab = cabSetup.cab;
+
+        final long ps = cab.producerNext();
+        blackhole.consume(cab.getEntry(ps));
+        cab.producerCommit(ps);
+    }
 }
\ No newline at end of file
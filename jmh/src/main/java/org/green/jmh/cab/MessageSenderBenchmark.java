@@ -87,4 +87,31 @@ public class MessageSenderBenchmark extends CabBenchmark {
 
         cabSetup.cab.send(this);
     }
+
+    @Benchmark
+    @Threads(8)
+    public void eightMessageSendersWithCabBlocking(
+            final CabBlockingSetup cabSetup, final Blackhole blackhole)
+            throws ConsumerInterruptedException, InterruptedException {
+
+        cabSetup.cab.send(this);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void eightMessageSendersWithCabBackingOff(
+            final CabBackingOffSetup cabSetup, final Blackhole blackhole)
+            throws ConsumerInterruptedException, InterruptedException {
+
+        cabSetup.cab.send(this);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void eightMessageSendersWithCabYielding(
+            final CabYieldingSetup cabSetup, final Blackhole blackhole)
+            throws ConsumerInterruptedException, InterruptedException {
+
+        cabSetup.cab.send(this);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,157 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2019-2023 Anatoly Gudkov
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.green.jmh.cab;
+
+import org.green.cab.Cab;
+import org.green.cab.CabShared;
+import org.green.cab.CabSharedProducer;
+import org.green.cab.OffHeapEntry;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * A standalone two-process latency benchmark of {@link CabShared}. The consumer's process creates the Cab and
+ * starts a producer's process which sends timestamps with {@link CabSharedProducer} at a fixed pace. The consumer
+ * measures how long each entry took to come from the other process and prints the percentiles. Both processes
+ * use System.nanoTime(), which is the same monotonic clock for all the processes of the host.
+ * <p>
+ * Usage: SharedCabLatencyBenchmark [numberOfEntries [intervalNanos]]
+ */
+public class SharedCabLatencyBenchmark {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int DEFAULT_NUMBER_OF_ENTRIES = 1_000_000;
+    private static final long DEFAULT_INTERVAL_NANOS = 1_000;
+    private static final String PRODUCER = "producer";
+
+    public static void main(final String[] args) throws Exception {
+        if (args.length > 0 && PRODUCER.equals(args[0])) {
+            produce(Paths.get(args[1]), Integer.parseInt(args[2]), Long.parseLong(args[3]));
+            return;
+        }
+
+        final int numberOfEntries = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NUMBER_OF_ENTRIES;
+        final long intervalNanos = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_INTERVAL_NANOS;
+
+        final Path shm = Paths.get("/dev/shm");
+        final Path file = Files.isDirectory(shm) ?
+                Files.createTempFile(shm, "cab", ".shm") : Files.createTempFile("cab", ".shm");
+        try {
+            consume(file, numberOfEntries, intervalNanos);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void consume(final Path file, final int numberOfEntries, final long intervalNanos)
+            throws Exception {
+
+        final CabShared<TimestampView, Object> cab =
+                CabShared.busySpinning(file, BUFFER_SIZE, Long.BYTES, TimestampView::new);
+
+        final Process producer = new ProcessBuilder(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                SharedCabLatencyBenchmark.class.getName(), PRODUCER,
+                file.toString(), Integer.toString(numberOfEntries), Long.toString(intervalNanos))
+                .redirectOutput(ProcessBuilder.Redirect.INHERIT)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .redirectInput(new File(System.getProperty("os.name").startsWith("Windows") ? "NUL" : "/dev/null"))
+                .start();
+
+        final long[] latencies = new long[numberOfEntries];
+        try {
+            int received = 0;
+            while (received < numberOfEntries) {
+                final long sequence = cab.consumerNext();
+                final long lastSequence = cab.consumerNextBatch(sequence, BUFFER_SIZE);
+                for (long s = sequence; s <= lastSequence; s++) {
+                    latencies[received++] = System.nanoTime() - cab.getEntry(s).timestamp();
+                }
+                cab.consumerCommitBatch(lastSequence);
+            }
+        } finally {
+            cab.consumerInterrupt();
+            producer.waitFor();
+        }
+
+        // the first half warms both processes up
+        final long[] measured = Arrays.copyOfRange(latencies, numberOfEntries / 2, numberOfEntries);
+        Arrays.sort(measured);
+
+        System.out.printf("%s: %d entries, interval %d ns%n",
+                SharedCabLatencyBenchmark.class.getSimpleName(), measured.length, intervalNanos);
+        for (final double percentile : new double[]{50, 90, 99, 99.9, 99.99}) {
+            System.out.printf("  p%-6s %,10d ns%n", percentile, measured[(int) (measured.length * percentile / 100)]);
+        }
+        System.out.printf("  max     %,10d ns%n", measured[measured.length - 1]);
+    }
+
+    private static void produce(final Path file, final int numberOfEntries, final long intervalNanos)
+            throws Exception {
+
+        final CabSharedProducer producer = CabSharedProducer.open(file);
+        final TimestampView view = new TimestampView();
+
+        long nextNanos = System.nanoTime();
+        for (int i = 0; i < numberOfEntries; i++) {
+            while (System.nanoTime() < nextNanos) {
+                Thread.onSpinWait();
+            }
+            nextNanos += intervalNanos;
+
+            final long sequence = producer.producerNext();
+            producer.wrapEntry(sequence, view);
+            view.timestamp(System.nanoTime());
+            producer.producerCommit(sequence);
+        }
+
+        while (!producer.isConsumerInterrupted()) { // the consumer closes the Cab once all entries are received
+            Thread.sleep(1);
+        }
+    }
+
+    static class TimestampView implements OffHeapEntry {
+        private ByteBuffer buffer;
+        private int offset;
+
+        @Override
+        public void wrap(final ByteBuffer buffer, final int offset) {
+            this.buffer = buffer;
+            this.offset = offset;
+        }
+
+        long timestamp() {
+            return buffer.getLong(offset);
+        }
+
+        void timestamp(final long nanos) {
+            buffer.putLong(offset, nanos);
+        }
+    }
+}
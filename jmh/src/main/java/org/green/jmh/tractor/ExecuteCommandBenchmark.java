@@ -23,7 +23,9 @@
  */
 package org.green.jmh.tractor;
 
+import org.green.tractor.Future;
 import org.green.tractor.TractorClosedException;
+import org.green.tractor.VoidResult;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
@@ -32,11 +34,14 @@ import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.Threads;
 import org.openjdk.jmh.annotations.Warmup;
 
+import java.util.function.Function;
+
 @Fork(3)
 @Measurement(iterations = 3)
 @Warmup(iterations = 3)
 @BenchmarkMode(Mode.Throughput)
 public class ExecuteCommandBenchmark extends TractorBenchmark {
+    private static final Function<VoidResult, Boolean> NO_ERROR = result -> Boolean.TRUE;
 
     @Benchmark
     @Threads(1)
@@ -91,4 +96,259 @@ public class ExecuteCommandBenchmark extends TractorBenchmark {
 
         processSetup.process.start();
     }
+
+    @Benchmark
+    @Threads(1)
+    public void oneStartCallerWithCabBusySpinning(
+            final CabBusySpinningBasedProcessSetup processSetup)
+            throws TractorClosedException, InterruptedException {
+
+        processSetup.process.start();
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void twoStartCallersWithCabBusySpinning(
+            final CabBusySpinningBasedProcessSetup processSetup)
+            throws TractorClosedException, InterruptedException {
+
+        processSetup.process.start();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void oneStartCallerWithCabSpinHint(
+            final CabSpinHintBasedProcessSetup processSetup)
+            throws TractorClosedException, InterruptedException {
+
+        processSetup.process.start();
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void twoStartCallersWithCabSpinHint(
+            final CabSpinHintBasedProcessSetup processSetup)
+            throws TractorClosedException, InterruptedException {
+
+        processSetup.process.start();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void oneStartCallerWithCabParking(
+            final CabParkingBasedProcessSetup processSetup)
+            throws TractorClosedException, InterruptedException {
+
+        processSetup.process.start();
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void twoStartCallersWithCabParking(
+            final CabParkingBasedProcessSetup processSetup)
+            throws TractorClosedException, InterruptedException {
+
+        processSetup.process.start();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void oneStartCallerWithCabSleeping(
+            final CabSleepingBasedProcessSetup processSetup)
+            throws TractorClosedException, InterruptedException {
+
+        processSetup.process.start();
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void twoStartCallersWithCabSleeping(
+            final CabSleepingBasedProcessSetup processSetup)
+            throws TractorClosedException, InterruptedException {
+
+        processSetup.process.start();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void oneStartCallerWithCabAdaptiveBackingOff(
+            final CabAdaptiveBackingOffBasedProcessSetup processSetup)
+            throws TractorClosedException, InterruptedException {
+
+        processSetup.process.start();
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void twoStartCallersWithCabAdaptiveBackingOff(
+            final CabAdaptiveBackingOffBasedProcessSetup processSetup)
+            throws TractorClosedException, InterruptedException {
+
+        processSetup.process.start();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void eightStartCallersWithCabBlocking(
+            final CabBlockingBasedProcessSetup processSetup)
+            throws TractorClosedException, InterruptedException {
+
+        processSetup.process.start();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void eightPipelinedStartCallersWithCabBlocking(
+            final CabBlockingBasedProcessSetup processSetup)
+            throws TractorClosedException, InterruptedException {
+
+        Future.syncAll( // four commands are in flight at once
+                processSetup.process.start(),
+                processSetup.process.start(),
+                processSetup.process.start(),
+                processSetup.process.start());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void eightStartCallersWithCabBackingOff(
+            final CabBackingOffBasedProcessSetup processSetup)
+            throws TractorClosedException, InterruptedException {
+
+        processSetup.process.start();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void eightPipelinedStartCallersWithCabBackingOff(
+            final CabBackingOffBasedProcessSetup processSetup)
+            throws TractorClosedException, InterruptedException {
+
+        Future.syncAll( // four commands are in flight at once
+                processSetup.process.start(),
+                processSetup.process.start(),
+                processSetup.process.start(),
+                processSetup.process.start());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void eightStartCallersWithCabYielding(
+            final CabYieldingBasedProcessSetup processSetup)
+            throws TractorClosedException, InterruptedException {
+
+        processSetup.process.start();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void eightPipelinedStartCallersWithCabYielding(
+            final CabYieldingBasedProcessSetup processSetup)
+            throws TractorClosedException, InterruptedException {
+
+        Future.syncAll( // four commands are in flight at once
+                processSetup.process.start(),
+                processSetup.process.start(),
+                processSetup.process.start(),
+                processSetup.process.start());
+    }
+
+    @Benchmark
+    @Threads(32)
+    public void thirtyTwoSyncedStartCallersWithCabBlocking(
+            final CabBlockingBasedProcessSetup processSetup)
+            throws TractorClosedException, InterruptedException {
+
+        processSetup.process.start().sync(); // the Worker wakes up this caller only
+    }
+
+    @Benchmark
+    @Threads(32)
+    public void thirtyTwoSyncedStartCallersWithCabBackingOff(
+            final CabBackingOffBasedProcessSetup processSetup)
+            throws TractorClosedException, InterruptedException {
+
+        processSetup.process.start().sync(); // the Worker wakes up this caller only
+    }
+
+    @Benchmark
+    @Threads(32)
+    public void thirtyTwoSyncedStartCallersWithCabYielding(
+            final CabYieldingBasedProcessSetup processSetup)
+            throws TractorClosedException, InterruptedException {
+
+        processSetup.process.start().sync(); // the Worker wakes up this caller only
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void oneSyncedStartCallerWithCabBusySpinning(
+            final CabBusySpinningBasedProcessSetup processSetup)
+            throws TractorClosedException, InterruptedException {
+
+        processSetup.process.start().sync(); // parks, so, the Worker unparks it
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void oneSpinSyncedStartCallerWithCabBusySpinning(
+            final CabBusySpinningBasedProcessSetup processSetup)
+            throws TractorClosedException, InterruptedException {
+
+        processSetup.process.start().sync(SYNC_MAX_SPINS, SYNC_MAX_YIELDS); // nothing to unpark mostly
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void oneSyncedStartCallerWithCabYielding(
+            final CabYieldingBasedProcessSetup processSetup)
+            throws TractorClosedException, InterruptedException {
+
+        processSetup.process.start().sync(); // parks, so, the Worker unparks it
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void oneSpinSyncedStartCallerWithCabYielding(
+            final CabYieldingBasedProcessSetup processSetup)
+            throws TractorClosedException, InterruptedException {
+
+        processSetup.process.start().sync(SYNC_MAX_SPINS, SYNC_MAX_YIELDS); // nothing to unpark mostly
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void oneSyncedStartCallerWithCabBackingOff(
+            final CabBackingOffBasedProcessSetup processSetup)
+            throws TractorClosedException, InterruptedException {
+
+        processSetup.process.start().sync(); // parks, so, the Worker unparks it
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void oneSpinSyncedStartCallerWithCabBackingOff(
+            final CabBackingOffBasedProcessSetup processSetup)
+            throws TractorClosedException, InterruptedException {
+
+        processSetup.process.start().sync(SYNC_MAX_SPINS, SYNC_MAX_YIELDS); // nothing to unpark mostly
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Boolean oneCompletableFutureStartCallerWithCabBackingOff(
+            final CabBackingOffBasedProcessSetup processSetup)
+            throws TractorClosedException, InterruptedException {
+
+        return processSetup.process.start().toCompletableFuture(NO_ERROR).join(); // completed by the Worker
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Boolean oneCompletableFutureStartCallerWithCabYielding(
+            final CabYieldingBasedProcessSetup processSetup)
+            throws TractorClosedException, InterruptedException {
+
+        return processSetup.process.start().toCompletableFuture(NO_ERROR).join(); // completed by the Worker
+    }
 }
\ No newline at end of file
@@ -24,23 +24,30 @@
 package org.green.jmh.tractor;
 
 import org.green.tractor.TractorClosedException;
+import org.green.tractor.EntryBatchEnvelope;
 import org.green.tractor.EntryEnvelope;
 import org.green.tractor.EntrySender;
+import org.green.tractor.LongEntrySender;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Threads;
 import org.openjdk.jmh.annotations.Warmup;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 @Fork(3)
 @Measurement(iterations = 3)
 @Warmup(iterations = 3)
 @BenchmarkMode(Mode.Throughput)
 public class SendEntryBenchmark extends TractorBenchmark {
+    private static final int BATCH_SIZE = 32;
+
     @State(Scope.Thread)
     public static class EntrySenderSetup {
         private EntrySender<LongEntry> entrySender;
@@ -50,6 +57,28 @@ public class SendEntryBenchmark extends TractorBenchmark {
         }
     }
 
+    @State(Scope.Thread)
+    public static class LongEntrySenderSetup {
+        private LongEntrySender longSender;
+
+        public void doSetup(final AbstractProcessSetup processSetup) {
+            longSender = processSetup.process.newLongEntrySender();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class PrioritizedEntrySenderSetup {
+        private static final AtomicInteger NEXT_PRIORITY = new AtomicInteger();
+
+        private EntrySender<LongEntry> entrySender;
+
+        public void doSetup(final AbstractProcessSetup processSetup) {
+            // each sending thread gets its own priority
+            final int priority = NEXT_PRIORITY.getAndIncrement() % NUMBER_OF_PRIORITIES;
+            entrySender = processSetup.process.newEntrySender(LongEntry.class, priority);
+        }
+    }
+
     @Benchmark
     @Threads(1)
     public void oneSenderWithCabBlocking(
@@ -145,4 +174,670 @@ public class SendEntryBenchmark extends TractorBenchmark {
         envelope.entry().value = 100;
         envelope.send();
     }
-}
\ No newline at end of file
+
+    @Benchmark
+    @Threads(1)
+    public void oneSenderWithCabSingleProducerBlocking(
+            final CabSingleProducerBlockingBasedProcessSetup processSetup,
+            final EntrySenderSetup entrySetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (entrySetup.entrySender == null) {
+            entrySetup.doSetup(processSetup);
+        }
+
+        final EntryEnvelope<LongEntry> envelope = entrySetup.entrySender.nextEnvelope();
+        envelope.entry().value = 100;
+        envelope.send();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void oneSenderWithCabSingleProducerBackingOff(
+            final CabSingleProducerBackingOffBasedProcessSetup processSetup,
+            final EntrySenderSetup entrySetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (entrySetup.entrySender == null) {
+            entrySetup.doSetup(processSetup);
+        }
+
+        final EntryEnvelope<LongEntry> envelope = entrySetup.entrySender.nextEnvelope();
+        envelope.entry().value = 100;
+        envelope.send();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void oneSenderWithCabSingleProducerYielding(
+            final CabSingleProducerYieldingBasedProcessSetup processSetup,
+            final EntrySenderSetup entrySetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (entrySetup.entrySender == null) {
+            entrySetup.doSetup(processSetup);
+        }
+
+        final EntryEnvelope<LongEntry> envelope = entrySetup.entrySender.nextEnvelope();
+        envelope.entry().value = 100;
+        envelope.send();
+    }
+
+    @Benchmark
+    @Threads(1)
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void oneBatchSenderWithCabBlocking(
+            final CabBlockingBasedProcessSetup processSetup,
+            final EntrySenderSetup entrySetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (entrySetup.entrySender == null) {
+            entrySetup.doSetup(processSetup);
+        }
+
+        sendBatch(entrySetup.entrySender);
+    }
+
+    @Benchmark
+    @Threads(1)
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void oneBatchSenderWithCabBackingOff(
+            final CabBackingOffBasedProcessSetup processSetup,
+            final EntrySenderSetup entrySetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (entrySetup.entrySender == null) {
+            entrySetup.doSetup(processSetup);
+        }
+
+        sendBatch(entrySetup.entrySender);
+    }
+
+    @Benchmark
+    @Threads(1)
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void oneBatchSenderWithCabYielding(
+            final CabYieldingBasedProcessSetup processSetup,
+            final EntrySenderSetup entrySetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (entrySetup.entrySender == null) {
+            entrySetup.doSetup(processSetup);
+        }
+
+        sendBatch(entrySetup.entrySender);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void twoSendersWithCabMultiLaneBlocking(
+            final CabMultiLaneBlockingBasedProcessSetup processSetup,
+            final EntrySenderSetup entrySetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (entrySetup.entrySender == null) {
+            entrySetup.doSetup(processSetup);
+        }
+
+        final EntryEnvelope<LongEntry> envelope = entrySetup.entrySender.nextEnvelope();
+        envelope.entry().value = 100;
+        envelope.send();
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void twoSendersWithCabMultiLaneBackingOff(
+            final CabMultiLaneBackingOffBasedProcessSetup processSetup,
+            final EntrySenderSetup entrySetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (entrySetup.entrySender == null) {
+            entrySetup.doSetup(processSetup);
+        }
+
+        final EntryEnvelope<LongEntry> envelope = entrySetup.entrySender.nextEnvelope();
+        envelope.entry().value = 100;
+        envelope.send();
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void twoSendersWithCabMultiLaneYielding(
+            final CabMultiLaneYieldingBasedProcessSetup processSetup,
+            final EntrySenderSetup entrySetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (entrySetup.entrySender == null) {
+            entrySetup.doSetup(processSetup);
+        }
+
+        final EntryEnvelope<LongEntry> envelope = entrySetup.entrySender.nextEnvelope();
+        envelope.entry().value = 100;
+        envelope.send();
+    }
+
+    private static void sendBatch(final EntrySender<LongEntry> entrySender)
+            throws TractorClosedException, InterruptedException {
+
+        final EntryBatchEnvelope<LongEntry> envelope = entrySender.nextBatchEnvelope(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            envelope.entry(i).value = 100;
+        }
+        envelope.send();
+    }
+    @Benchmark
+    @Threads(1)
+    public void oneSenderWithCabBusySpinning(
+            final CabBusySpinningBasedProcessSetup processSetup,
+            final EntrySenderSetup entrySetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (entrySetup.entrySender == null) {
+            entrySetup.doSetup(processSetup);
+        }
+
+        final EntryEnvelope<LongEntry> envelope = entrySetup.entrySender.nextEnvelope();
+        envelope.entry().value = 100;
+        envelope.send();
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void twoSendersWithCabBusySpinning(
+            final CabBusySpinningBasedProcessSetup processSetup,
+            final EntrySenderSetup entrySetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (entrySetup.entrySender == null) {
+            entrySetup.doSetup(processSetup);
+        }
+
+        final EntryEnvelope<LongEntry> envelope = entrySetup.entrySender.nextEnvelope();
+        envelope.entry().value = 100;
+        envelope.send();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void oneSenderWithCabSpinHint(
+            final CabSpinHintBasedProcessSetup processSetup,
+            final EntrySenderSetup entrySetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (entrySetup.entrySender == null) {
+            entrySetup.doSetup(processSetup);
+        }
+
+        final EntryEnvelope<LongEntry> envelope = entrySetup.entrySender.nextEnvelope();
+        envelope.entry().value = 100;
+        envelope.send();
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void twoSendersWithCabSpinHint(
+            final CabSpinHintBasedProcessSetup processSetup,
+            final EntrySenderSetup entrySetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (entrySetup.entrySender == null) {
+            entrySetup.doSetup(processSetup);
+        }
+
+        final EntryEnvelope<LongEntry> envelope = entrySetup.entrySender.nextEnvelope();
+        envelope.entry().value = 100;
+        envelope.send();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void oneSenderWithCabParking(
+            final CabParkingBasedProcessSetup processSetup,
+            final EntrySenderSetup entrySetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (entrySetup.entrySender == null) {
+            entrySetup.doSetup(processSetup);
+        }
+
+        final EntryEnvelope<LongEntry> envelope = entrySetup.entrySender.nextEnvelope();
+        envelope.entry().value = 100;
+        envelope.send();
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void twoSendersWithCabParking(
+            final CabParkingBasedProcessSetup processSetup,
+            final EntrySenderSetup entrySetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (entrySetup.entrySender == null) {
+            entrySetup.doSetup(processSetup);
+        }
+
+        final EntryEnvelope<LongEntry> envelope = entrySetup.entrySender.nextEnvelope();
+        envelope.entry().value = 100;
+        envelope.send();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void oneSenderWithCabSleeping(
+            final CabSleepingBasedProcessSetup processSetup,
+            final EntrySenderSetup entrySetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (entrySetup.entrySender == null) {
+            entrySetup.doSetup(processSetup);
+        }
+
+        final EntryEnvelope<LongEntry> envelope = entrySetup.entrySender.nextEnvelope();
+        envelope.entry().value = 100;
+        envelope.send();
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void twoSendersWithCabSleeping(
+            final CabSleepingBasedProcessSetup processSetup,
+            final EntrySenderSetup entrySetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (entrySetup.entrySender == null) {
+            entrySetup.doSetup(processSetup);
+        }
+
+        final EntryEnvelope<LongEntry> envelope = entrySetup.entrySender.nextEnvelope();
+        envelope.entry().value = 100;
+        envelope.send();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void oneSenderWithCabAdaptiveBackingOff(
+            final CabAdaptiveBackingOffBasedProcessSetup processSetup,
+            final EntrySenderSetup entrySetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (entrySetup.entrySender == null) {
+            entrySetup.doSetup(processSetup);
+        }
+
+        final EntryEnvelope<LongEntry> envelope = entrySetup.entrySender.nextEnvelope();
+        envelope.entry().value = 100;
+        envelope.send();
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void twoSendersWithCabAdaptiveBackingOff(
+            final CabAdaptiveBackingOffBasedProcessSetup processSetup,
+            final EntrySenderSetup entrySetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (entrySetup.entrySender == null) {
+            entrySetup.doSetup(processSetup);
+        }
+
+        final EntryEnvelope<LongEntry> envelope = entrySetup.entrySender.nextEnvelope();
+        envelope.entry().value = 100;
+        envelope.send();
+    }
+
+    @Benchmark
+    @Threads(3)
+    public void threePrioritizedSendersWithCabPrioritizedBlocking(
+            final CabPrioritizedBlockingBasedProcessSetup processSetup,
+            final PrioritizedEntrySenderSetup entrySetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (entrySetup.entrySender == null) {
+            entrySetup.doSetup(processSetup);
+        }
+
+        final EntryEnvelope<LongEntry> envelope = entrySetup.entrySender.nextEnvelope();
+        envelope.entry().value = 100;
+        envelope.send();
+    }
+
+    @Benchmark
+    @Threads(3)
+    public void threePrioritizedSendersWithCabPrioritizedBackingOff(
+            final CabPrioritizedBackingOffBasedProcessSetup processSetup,
+            final PrioritizedEntrySenderSetup entrySetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (entrySetup.entrySender == null) {
+            entrySetup.doSetup(processSetup);
+        }
+
+        final EntryEnvelope<LongEntry> envelope = entrySetup.entrySender.nextEnvelope();
+        envelope.entry().value = 100;
+        envelope.send();
+    }
+
+    @Benchmark
+    @Threads(3)
+    public void threePrioritizedSendersWithCabPrioritizedYielding(
+            final CabPrioritizedYieldingBasedProcessSetup processSetup,
+            final PrioritizedEntrySenderSetup entrySetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (entrySetup.entrySender == null) {
+            entrySetup.doSetup(processSetup);
+        }
+
+        final EntryEnvelope<LongEntry> envelope = entrySetup.entrySender.nextEnvelope();
+        envelope.entry().value = 100;
+        envelope.send();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void oneSenderWithCabStampedBlocking(
+            final CabStampedBlockingBasedProcessSetup processSetup,
+            final EntrySenderSetup entrySetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (entrySetup.entrySender == null) {
+            entrySetup.doSetup(processSetup);
+        }
+
+        final EntryEnvelope<LongEntry> envelope = entrySetup.entrySender.nextEnvelope();
+        envelope.entry().value = 100;
+        envelope.send();
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void twoSendersWithCabStampedBlocking(
+            final CabStampedBlockingBasedProcessSetup processSetup,
+            final EntrySenderSetup entrySetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (entrySetup.entrySender == null) {
+            entrySetup.doSetup(processSetup);
+        }
+
+        final EntryEnvelope<LongEntry> envelope = entrySetup.entrySender.nextEnvelope();
+        envelope.entry().value = 100;
+        envelope.send();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void oneSenderWithCabStampedBackingOff(
+            final CabStampedBackingOffBasedProcessSetup processSetup,
+            final EntrySenderSetup entrySetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (entrySetup.entrySender == null) {
+            entrySetup.doSetup(processSetup);
+        }
+
+        final EntryEnvelope<LongEntry> envelope = entrySetup.entrySender.nextEnvelope();
+        envelope.entry().value = 100;
+        envelope.send();
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void twoSendersWithCabStampedBackingOff(
+            final CabStampedBackingOffBasedProcessSetup processSetup,
+            final EntrySenderSetup entrySetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (entrySetup.entrySender == null) {
+            entrySetup.doSetup(processSetup);
+        }
+
+        final EntryEnvelope<LongEntry> envelope = entrySetup.entrySender.nextEnvelope();
+        envelope.entry().value = 100;
+        envelope.send();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void oneSenderWithCabStampedYielding(
+            final CabStampedYieldingBasedProcessSetup processSetup,
+            final EntrySenderSetup entrySetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (entrySetup.entrySender == null) {
+            entrySetup.doSetup(processSetup);
+        }
+
+        final EntryEnvelope<LongEntry> envelope = entrySetup.entrySender.nextEnvelope();
+        envelope.entry().value = 100;
+        envelope.send();
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void twoSendersWithCabStampedYielding(
+            final CabStampedYieldingBasedProcessSetup processSetup,
+            final EntrySenderSetup entrySetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (entrySetup.entrySender == null) {
+            entrySetup.doSetup(processSetup);
+        }
+
+        final EntryEnvelope<LongEntry> envelope = entrySetup.entrySender.nextEnvelope();
+        envelope.entry().value = 100;
+        envelope.send();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void oneSenderWithCabStampedBusySpinning(
+            final CabStampedBusySpinningBasedProcessSetup processSetup,
+            final EntrySenderSetup entrySetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (entrySetup.entrySender == null) {
+            entrySetup.doSetup(processSetup);
+        }
+
+        final EntryEnvelope<LongEntry> envelope = entrySetup.entrySender.nextEnvelope();
+        envelope.entry().value = 100;
+        envelope.send();
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void twoSendersWithCabStampedBusySpinning(
+            final CabStampedBusySpinningBasedProcessSetup processSetup,
+            final EntrySenderSetup entrySetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (entrySetup.entrySender == null) {
+            entrySetup.doSetup(processSetup);
+        }
+
+        final EntryEnvelope<LongEntry> envelope = entrySetup.entrySender.nextEnvelope();
+        envelope.entry().value = 100;
+        envelope.send();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void oneSenderWithCabGrowableBlocking(
+            final CabGrowableBlockingBasedProcessSetup processSetup,
+            final EntrySenderSetup entrySetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (entrySetup.entrySender == null) {
+            entrySetup.doSetup(processSetup);
+        }
+
+        final EntryEnvelope<LongEntry> envelope = entrySetup.entrySender.nextEnvelope();
+        envelope.entry().value = 100;
+        envelope.send();
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void twoSendersWithCabGrowableBlocking(
+            final CabGrowableBlockingBasedProcessSetup processSetup,
+            final EntrySenderSetup entrySetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (entrySetup.entrySender == null) {
+            entrySetup.doSetup(processSetup);
+        }
+
+        final EntryEnvelope<LongEntry> envelope = entrySetup.entrySender.nextEnvelope();
+        envelope.entry().value = 100;
+        envelope.send();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void oneSenderWithCabGrowableBackingOff(
+            final CabGrowableBackingOffBasedProcessSetup processSetup,
+            final EntrySenderSetup entrySetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (entrySetup.entrySender == null) {
+            entrySetup.doSetup(processSetup);
+        }
+
+        final EntryEnvelope<LongEntry> envelope = entrySetup.entrySender.nextEnvelope();
+        envelope.entry().value = 100;
+        envelope.send();
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void twoSendersWithCabGrowableBackingOff(
+            final CabGrowableBackingOffBasedProcessSetup processSetup,
+            final EntrySenderSetup entrySetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (entrySetup.entrySender == null) {
+            entrySetup.doSetup(processSetup);
+        }
+
+        final EntryEnvelope<LongEntry> envelope = entrySetup.entrySender.nextEnvelope();
+        envelope.entry().value = 100;
+        envelope.send();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void oneSenderWithCabGrowableYielding(
+            final CabGrowableYieldingBasedProcessSetup processSetup,
+            final EntrySenderSetup entrySetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (entrySetup.entrySender == null) {
+            entrySetup.doSetup(processSetup);
+        }
+
+        final EntryEnvelope<LongEntry> envelope = entrySetup.entrySender.nextEnvelope();
+        envelope.entry().value = 100;
+        envelope.send();
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void twoSendersWithCabGrowableYielding(
+            final CabGrowableYieldingBasedProcessSetup processSetup,
+            final EntrySenderSetup entrySetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (entrySetup.entrySender == null) {
+            entrySetup.doSetup(processSetup);
+        }
+
+        final EntryEnvelope<LongEntry> envelope = entrySetup.entrySender.nextEnvelope();
+        envelope.entry().value = 100;
+        envelope.send();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void oneLongSenderWithCabBlocking(
+            final CabBlockingWithLongsBasedProcessSetup processSetup,
+            final LongEntrySenderSetup longSetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (longSetup.longSender == null) {
+            longSetup.doSetup(processSetup);
+        }
+
+        longSetup.longSender.send(100);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void oneLongSenderWithCabBackingOff(
+            final CabBackingOffWithLongsBasedProcessSetup processSetup,
+            final LongEntrySenderSetup longSetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (longSetup.longSender == null) {
+            longSetup.doSetup(processSetup);
+        }
+
+        longSetup.longSender.send(100);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void oneLongSenderWithCabYielding(
+            final CabYieldingWithLongsBasedProcessSetup processSetup,
+            final LongEntrySenderSetup longSetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (longSetup.longSender == null) {
+            longSetup.doSetup(processSetup);
+        }
+
+        longSetup.longSender.send(100);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void twoLongSendersWithCabBlocking(
+            final CabBlockingWithLongsBasedProcessSetup processSetup,
+            final LongEntrySenderSetup longSetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (longSetup.longSender == null) {
+            longSetup.doSetup(processSetup);
+        }
+
+        longSetup.longSender.send(100);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void twoLongSendersWithCabBackingOff(
+            final CabBackingOffWithLongsBasedProcessSetup processSetup,
+            final LongEntrySenderSetup longSetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (longSetup.longSender == null) {
+            longSetup.doSetup(processSetup);
+        }
+
+        longSetup.longSender.send(100);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void twoLongSendersWithCabYielding(
+            final CabYieldingWithLongsBasedProcessSetup processSetup,
+            final LongEntrySenderSetup longSetup)
+            throws TractorClosedException, InterruptedException {
+
+        if (longSetup.longSender == null) {
+            longSetup.doSetup(processSetup);
+        }
+
+        longSetup.longSender.send(100);
+    }
+}
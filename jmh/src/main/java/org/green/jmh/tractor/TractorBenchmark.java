@@ -23,10 +23,21 @@
  */
 package org.green.jmh.tractor;
 
+import org.green.cab.AdaptiveBackingOffWaitStrategy;
 import org.green.cab.Cab;
 import org.green.cab.CabBackingOff;
 import org.green.cab.CabBlocking;
+import org.green.cab.CabBusySpinning;
+import org.green.cab.CabGrowable;
+import org.green.cab.CabMultiLane;
+import org.green.cab.CabPrioritized;
+import org.green.cab.CabSingleProducer;
+import org.green.cab.CabStamped;
+import org.green.cab.CabWithWaitStrategy;
 import org.green.cab.CabYielding;
+import org.green.cab.ParkingWaitStrategy;
+import org.green.cab.SleepingWaitStrategy;
+import org.green.cab.SpinHintWaitStrategy;
 import org.green.tractor.Command;
 import org.green.tractor.Entry;
 import org.green.tractor.Tractor;
@@ -42,8 +53,16 @@ import org.openjdk.jmh.annotations.TearDown;
 
 public class TractorBenchmark {
     public static final int CAB_SIZE = 1_000;
+    public static final int GROWABLE_CAB_INITIAL_SIZE = CAB_SIZE / 16;
     public static final int BACKING_OFF_MAX_SPINS = 1_000;
     public static final int BACKING_OFF_MAX_YIELDS = 10_000;
+    public static final long SYNC_MAX_SPINS = 10_000;
+    public static final long SYNC_MAX_YIELDS = 100;
+    public static final int NUMBER_OF_LANES = 2;
+    public static final int NUMBER_OF_PRIORITIES = 3;
+    public static final long PARKING_MIN_NANOS = 1_000;
+    public static final long PARKING_MAX_NANOS = 1_000_000;
+    public static final long SLEEPING_MILLIS = 1;
 
     abstract static class AbstractProcessSetup {
         Tractor<Executor, TractorListener<Executor>> process;
@@ -85,4 +104,206 @@ public class TractorBenchmark {
             return new CabYielding<>(CAB_SIZE);
         }
     }
-}
\ No newline at end of file
+
+    @State(Scope.Benchmark)
+    public static class CabBusySpinningBasedProcessSetup extends AbstractProcessSetup {
+        @Override
+        protected Cab<Entry, Command<?>> prepareCab() {
+            return new CabBusySpinning<>(CAB_SIZE);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CabSpinHintBasedProcessSetup extends AbstractProcessSetup {
+        @Override
+        protected Cab<Entry, Command<?>> prepareCab() {
+            return new CabWithWaitStrategy<>(CAB_SIZE, new SpinHintWaitStrategy());
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CabParkingBasedProcessSetup extends AbstractProcessSetup {
+        @Override
+        protected Cab<Entry, Command<?>> prepareCab() {
+            return new CabWithWaitStrategy<>(CAB_SIZE, new ParkingWaitStrategy(PARKING_MIN_NANOS, PARKING_MAX_NANOS));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CabSleepingBasedProcessSetup extends AbstractProcessSetup {
+        @Override
+        protected Cab<Entry, Command<?>> prepareCab() {
+            return new CabWithWaitStrategy<>(CAB_SIZE, new SleepingWaitStrategy(SLEEPING_MILLIS));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CabAdaptiveBackingOffBasedProcessSetup extends AbstractProcessSetup {
+        @Override
+        protected Cab<Entry, Command<?>> prepareCab() {
+            return new CabWithWaitStrategy<>(CAB_SIZE, new AdaptiveBackingOffWaitStrategy());
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CabSingleProducerBlockingBasedProcessSetup extends AbstractProcessSetup {
+        @Override
+        protected Cab<Entry, Command<?>> prepareCab() {
+            return CabSingleProducer.blocking(CAB_SIZE);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CabSingleProducerBackingOffBasedProcessSetup extends AbstractProcessSetup {
+        @Override
+        protected Cab<Entry, Command<?>> prepareCab() {
+            return CabSingleProducer.backingOff(CAB_SIZE, BACKING_OFF_MAX_SPINS, BACKING_OFF_MAX_YIELDS);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CabSingleProducerYieldingBasedProcessSetup extends AbstractProcessSetup {
+        @Override
+        protected Cab<Entry, Command<?>> prepareCab() {
+            return CabSingleProducer.yielding(CAB_SIZE);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CabMultiLaneBlockingBasedProcessSetup extends AbstractProcessSetup {
+        @Override
+        protected Cab<Entry, Command<?>> prepareCab() {
+            return CabMultiLane.blocking(CAB_SIZE, NUMBER_OF_LANES);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CabMultiLaneBackingOffBasedProcessSetup extends AbstractProcessSetup {
+        @Override
+        protected Cab<Entry, Command<?>> prepareCab() {
+            return CabMultiLane.backingOff(CAB_SIZE, NUMBER_OF_LANES, BACKING_OFF_MAX_SPINS,
+                    BACKING_OFF_MAX_YIELDS);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CabMultiLaneYieldingBasedProcessSetup extends AbstractProcessSetup {
+        @Override
+        protected Cab<Entry, Command<?>> prepareCab() {
+            return CabMultiLane.yielding(CAB_SIZE, NUMBER_OF_LANES);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CabPrioritizedBlockingBasedProcessSetup extends AbstractProcessSetup {
+        @Override
+        protected Cab<Entry, Command<?>> prepareCab() {
+            return CabPrioritized.blocking(CAB_SIZE, NUMBER_OF_PRIORITIES);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CabPrioritizedBackingOffBasedProcessSetup extends AbstractProcessSetup {
+        @Override
+        protected Cab<Entry, Command<?>> prepareCab() {
+            return CabPrioritized.backingOff(CAB_SIZE, NUMBER_OF_PRIORITIES, BACKING_OFF_MAX_SPINS,
+                    BACKING_OFF_MAX_YIELDS);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CabPrioritizedYieldingBasedProcessSetup extends AbstractProcessSetup {
+        @Override
+        protected Cab<Entry, Command<?>> prepareCab() {
+            return CabPrioritized.yielding(CAB_SIZE, NUMBER_OF_PRIORITIES);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CabStampedBlockingBasedProcessSetup extends AbstractProcessSetup {
+        @Override
+        protected Cab<Entry, Command<?>> prepareCab() {
+            return CabStamped.blocking(CAB_SIZE);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CabStampedBackingOffBasedProcessSetup extends AbstractProcessSetup {
+        @Override
+        protected Cab<Entry, Command<?>> prepareCab() {
+            return CabStamped.backingOff(CAB_SIZE, BACKING_OFF_MAX_SPINS, BACKING_OFF_MAX_YIELDS);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CabStampedYieldingBasedProcessSetup extends AbstractProcessSetup {
+        @Override
+        protected Cab<Entry, Command<?>> prepareCab() {
+            return CabStamped.yielding(CAB_SIZE);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CabStampedBusySpinningBasedProcessSetup extends AbstractProcessSetup {
+        @Override
+        protected Cab<Entry, Command<?>> prepareCab() {
+            return CabStamped.busySpinning(CAB_SIZE);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CabGrowableBlockingBasedProcessSetup extends AbstractProcessSetup {
+        @Override
+        protected Cab<Entry, Command<?>> prepareCab() {
+            return CabGrowable.blocking(GROWABLE_CAB_INITIAL_SIZE, CAB_SIZE);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CabGrowableBackingOffBasedProcessSetup extends AbstractProcessSetup {
+        @Override
+        protected Cab<Entry, Command<?>> prepareCab() {
+            return CabGrowable.backingOff(GROWABLE_CAB_INITIAL_SIZE, CAB_SIZE,
+                    BACKING_OFF_MAX_SPINS, BACKING_OFF_MAX_YIELDS);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CabGrowableYieldingBasedProcessSetup extends AbstractProcessSetup {
+        @Override
+        protected Cab<Entry, Command<?>> prepareCab() {
+            return CabGrowable.yielding(GROWABLE_CAB_INITIAL_SIZE, CAB_SIZE);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CabBlockingWithLongsBasedProcessSetup extends AbstractProcessSetup {
+        @Override
+        protected Cab<Entry, Command<?>> prepareCab() {
+            final Cab<Entry, Command<?>> cab = new CabBlocking<>(CAB_SIZE);
+            cab.attachLongCab(CAB_SIZE);
+            return cab;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CabBackingOffWithLongsBasedProcessSetup extends AbstractProcessSetup {
+        @Override
+        protected Cab<Entry, Command<?>> prepareCab() {
+            final Cab<Entry, Command<?>> cab = new CabBackingOff<>(CAB_SIZE, BACKING_OFF_MAX_SPINS,
+                    BACKING_OFF_MAX_YIELDS);
+            cab.attachLongCab(CAB_SIZE);
+            return cab;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CabYieldingWithLongsBasedProcessSetup extends AbstractProcessSetup {
+        @Override
+        protected Cab<Entry, Command<?>> prepareCab() {
+            final Cab<Entry, Command<?>> cab = new CabYielding<>(CAB_SIZE);
+            cab.attachLongCab(CAB_SIZE);
+            return cab;
+        }
+    }
+}
@@ -0,0 +1,296 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2019-2023 Anatoly Gudkov
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.green.cab;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Spins, then yields and finally parks like {@link BackingOffWaitStrategy} does, but the budgets of spins and
+ * yields are tuned at runtime by the consumer according to how long its waits actually take compared to the
+ * target latency. A wait not longer than the target is short, the consumer should catch its end as soon as a busy
+ * spinning one does, a longer wait is long, burning the CPU for it is a waste:
+ * <ul>
+ * <li>a short wait which ended in the second half of the spinning phase doubles the spin budget to keep some
+ * reserve, and a long one halves it, since the spinning alone took longer than the target;</li>
+ * <li>a short wait which ended after the spinning phase doubles the spin budget, since more spins would have
+ * caught it, and a long one halves it, since the spinning didn't help;</li>
+ * <li>a short wait which ended in the second half of the yielding phase or reached the parking phase doubles the
+ * yield budget, and a long wait which reached the parking phase halves it.</li>
+ * </ul>
+ * So, under the load the consumer spins and reacts almost as fast as a busy spinning one, and when the traffic
+ * is light it releases the CPU soon. A wait is timed with {@link System#nanoTime()} when it starts, at every
+ * yielding or parking iteration and at every {@link #SPIN_SAMPLING_PERIOD}-th spinning iteration only, so, the
+ * clock doesn't slow the spinning down, and a wait which ended while spinning is measured short by less than
+ * the sampling period. A wait is accounted when the next one starts.
+ * <p>
+ * The budgets describe how soon new entries come to the consumer, not how soon the consumer frees the Channel,
+ * so, senders waiting for the Channel don't use them: they spin and yield for the minimal budgets and park then,
+ * giving their CPU to the consumer which is behind.
+ * <p>
+ * Parking timeouts start with minParkNanos and are doubled with each parking iteration up to maxParkNanos,
+ * so, no signalling is required and producers never pay for it.
+ * <p>
+ * The current budgets and the numbers of their adjustments are exposed for monitoring.
+ */
+public final class AdaptiveBackingOffWaitStrategy implements WaitStrategy {
+    public static final long DEFAULT_MIN_SPINS = 16;
+    public static final long DEFAULT_MAX_SPINS = 1 << 16;
+    public static final long DEFAULT_MIN_YIELDS = 1;
+    public static final long DEFAULT_MAX_YIELDS = 1 << 10;
+    public static final long DEFAULT_MIN_PARK_NANOS = 1_000;
+    public static final long DEFAULT_MAX_PARK_NANOS = 1_000_000;
+    public static final long DEFAULT_TARGET_LATENCY_NANOS = 50_000;
+    public static final long SPIN_SAMPLING_PERIOD = 16; // a power of two
+
+    private static final AtomicLongFieldUpdater<AdaptiveBackingOffWaitStrategy> SPIN_BUDGET_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(AdaptiveBackingOffWaitStrategy.class, "spinBudget");
+    private static final AtomicLongFieldUpdater<AdaptiveBackingOffWaitStrategy> YIELD_BUDGET_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(AdaptiveBackingOffWaitStrategy.class, "yieldBudget");
+    private static final AtomicLongFieldUpdater<AdaptiveBackingOffWaitStrategy> SPIN_BUDGET_INCREASES_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(AdaptiveBackingOffWaitStrategy.class, "numberOfSpinBudgetIncreases");
+    private static final AtomicLongFieldUpdater<AdaptiveBackingOffWaitStrategy> SPIN_BUDGET_DECREASES_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(AdaptiveBackingOffWaitStrategy.class, "numberOfSpinBudgetDecreases");
+    private static final AtomicLongFieldUpdater<AdaptiveBackingOffWaitStrategy> YIELD_BUDGET_INCREASES_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(AdaptiveBackingOffWaitStrategy.class, "numberOfYieldBudgetIncreases");
+    private static final AtomicLongFieldUpdater<AdaptiveBackingOffWaitStrategy> YIELD_BUDGET_DECREASES_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(AdaptiveBackingOffWaitStrategy.class, "numberOfYieldBudgetDecreases");
+
+    private final long minSpins;
+    private final long maxSpins;
+    private final long minYields;
+    private final long maxYields;
+    private final long minParkNanos;
+    private final long maxParkNanos;
+    private final long targetLatencyNanos;
+
+    // written by the consumer only, read by anyone
+    private volatile long spinBudget;
+    private volatile long yieldBudget;
+
+    private volatile long numberOfSpinBudgetIncreases;
+    private volatile long numberOfSpinBudgetDecreases;
+    private volatile long numberOfYieldBudgetIncreases;
+    private volatile long numberOfYieldBudgetDecreases;
+
+    // used by Consumer only, no any membars required
+    private long consumerLastIdles = -1;
+    private long consumerWaitStartNanos;
+    private long consumerLastSampleNanos;
+
+    public AdaptiveBackingOffWaitStrategy() {
+        this(DEFAULT_MIN_SPINS, DEFAULT_MAX_SPINS, DEFAULT_MIN_YIELDS, DEFAULT_MAX_YIELDS,
+                DEFAULT_MIN_PARK_NANOS, DEFAULT_MAX_PARK_NANOS, DEFAULT_TARGET_LATENCY_NANOS);
+    }
+
+    public AdaptiveBackingOffWaitStrategy(
+            final long minSpins,
+            final long maxSpins,
+            final long minYields,
+            final long maxYields,
+            final long minParkNanos,
+            final long maxParkNanos) {
+
+        this(minSpins, maxSpins, minYields, maxYields, minParkNanos, maxParkNanos, DEFAULT_TARGET_LATENCY_NANOS);
+    }
+
+    public AdaptiveBackingOffWaitStrategy(
+            final long minSpins,
+            final long maxSpins,
+            final long minYields,
+            final long maxYields,
+            final long minParkNanos,
+            final long maxParkNanos,
+            final long targetLatencyNanos) {
+
+        if (minSpins < 1 || maxSpins < minSpins) {
+            throw new IllegalArgumentException("Wrong spin budget range: [" + minSpins + ", " + maxSpins + "]");
+        }
+        if (minYields < 1 || maxYields < minYields) {
+            throw new IllegalArgumentException("Wrong yield budget range: [" + minYields + ", " + maxYields + "]");
+        }
+        if (minParkNanos < 1 || maxParkNanos < minParkNanos) {
+            throw new IllegalArgumentException("Wrong park period: [" + minParkNanos + ", " + maxParkNanos + "]");
+        }
+        if (targetLatencyNanos < 1) {
+            throw new IllegalArgumentException("Wrong target latency: " + targetLatencyNanos);
+        }
+
+        this.minSpins = minSpins;
+        this.maxSpins = maxSpins;
+        this.minYields = minYields;
+        this.maxYields = maxYields;
+        this.minParkNanos = minParkNanos;
+        this.maxParkNanos = maxParkNanos;
+        this.targetLatencyNanos = targetLatencyNanos;
+
+        SPIN_BUDGET_UPDATER.set(this, minSpins);
+        YIELD_BUDGET_UPDATER.set(this, minYields);
+    }
+
+    public long targetLatencyNanos() {
+        return targetLatencyNanos;
+    }
+
+    public long spinBudget() {
+        return spinBudget;
+    }
+
+    public long yieldBudget() {
+        return yieldBudget;
+    }
+
+    public long numberOfSpinBudgetIncreases() {
+        return numberOfSpinBudgetIncreases;
+    }
+
+    public long numberOfSpinBudgetDecreases() {
+        return numberOfSpinBudgetDecreases;
+    }
+
+    public long numberOfYieldBudgetIncreases() {
+        return numberOfYieldBudgetIncreases;
+    }
+
+    public long numberOfYieldBudgetDecreases() {
+        return numberOfYieldBudgetDecreases;
+    }
+
+    @Override
+    public long consumerIdle(final long idles, final BooleanSupplier wakeupCondition) {
+        final long spins = spinBudget;
+
+        if (idles == 0) { // a new wait, so, the previous one is over
+            final long now = System.nanoTime();
+            adapt(consumerLastIdles, consumerLastSampleNanos - consumerWaitStartNanos);
+            consumerWaitStartNanos = now;
+            consumerLastSampleNanos = now;
+        } else if (idles >= spins || (idles & (SPIN_SAMPLING_PERIOD - 1)) == 0) { // yields and parks cost more
+            consumerLastSampleNanos = System.nanoTime();
+        }
+        consumerLastIdles = idles;
+
+        return backOff(idles, spins, yieldBudget);
+    }
+
+    @Override
+    public void signalConsumer() {
+    }
+
+    @Override
+    public long producerIdle(final long idles, final BooleanSupplier wakeupCondition) {
+        return backOff(idles, minSpins, minYields);
+    }
+
+    @Override
+    public void signalProducers() {
+    }
+
+    private long backOff(final long idles, final long spins, final long yields) {
+        if (idles < spins) {
+            Thread.onSpinWait();
+        } else {
+            if (idles < spins + yields) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(parkNanos(idles - spins - yields));
+            }
+        }
+        return idles + 1;
+    }
+
+    private void adapt(final long lastIdles, final long waitNanos) {
+        if (lastIdles < 0) {
+            return; // no wait yet
+        }
+
+        final long spins = spinBudget;
+        final long yields = yieldBudget;
+        final boolean shortWait = waitNanos <= targetLatencyNanos;
+
+        if (lastIdles < spins) {
+            if (!shortWait) {
+                decreaseSpinBudget(spins);
+            } else if (lastIdles >= spins >> 1) { // close to the end of spinning, let's have some reserve
+                increaseSpinBudget(spins);
+            }
+        } else {
+            if (shortWait) {
+                increaseSpinBudget(spins);
+            } else {
+                decreaseSpinBudget(spins);
+            }
+
+            if (lastIdles < spins + yields) {
+                if (shortWait && lastIdles >= spins + (yields >> 1)) {
+                    increaseYieldBudget(yields);
+                }
+            } else if (shortWait) {
+                increaseYieldBudget(yields);
+            } else {
+                decreaseYieldBudget(yields);
+            }
+        }
+    }
+
+    private void increaseSpinBudget(final long spins) {
+        final long newSpins = Math.min(spins << 1, maxSpins);
+        if (newSpins != spins) {
+            SPIN_BUDGET_UPDATER.lazySet(this, newSpins);
+            SPIN_BUDGET_INCREASES_UPDATER.lazySet(this, numberOfSpinBudgetIncreases + 1);
+        }
+    }
+
+    private void decreaseSpinBudget(final long spins) {
+        final long newSpins = Math.max(spins >> 1, minSpins);
+        if (newSpins != spins) {
+            SPIN_BUDGET_UPDATER.lazySet(this, newSpins);
+            SPIN_BUDGET_DECREASES_UPDATER.lazySet(this, numberOfSpinBudgetDecreases + 1);
+        }
+    }
+
+    private void increaseYieldBudget(final long yields) {
+        final long newYields = Math.min(yields << 1, maxYields);
+        if (newYields != yields) {
+            YIELD_BUDGET_UPDATER.lazySet(this, newYields);
+            YIELD_BUDGET_INCREASES_UPDATER.lazySet(this, numberOfYieldBudgetIncreases + 1);
+        }
+    }
+
+    private void decreaseYieldBudget(final long yields) {
+        final long newYields = Math.max(yields >> 1, minYields);
+        if (newYields != yields) {
+            YIELD_BUDGET_UPDATER.lazySet(this, newYields);
+            YIELD_BUDGET_DECREASES_UPDATER.lazySet(this, numberOfYieldBudgetDecreases + 1);
+        }
+    }
+
+    private long parkNanos(final long parks) {
+        if (parks >= Long.numberOfLeadingZeros(minParkNanos) - 1) {
+            return maxParkNanos; // the shift would overflow
+        }
+        return Math.min(minParkNanos << parks, maxParkNanos);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,108 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2019-2023 Anatoly Gudkov
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.green.cab;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Blocks waiting threads until the wakeup condition is met. The waiting threads don't consume the CPU.
+ * <p>
+ * The consumer parks itself and is recorded as the parked one, so, a producer signals it with
+ * a volatile read only while the consumer is awake, and unparks exactly this thread otherwise.
+ * Senders waiting for the Channel wait on a monitor which the consumer enters only if there are
+ * such waiting senders.
+ */
+public final class BlockingWaitStrategy implements WaitStrategy {
+    private static final AtomicReferenceFieldUpdater<BlockingWaitStrategy, Thread> PARKED_CONSUMER_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(BlockingWaitStrategy.class, Thread.class, "parkedConsumer");
+    private static final AtomicIntegerFieldUpdater<BlockingWaitStrategy> NUMBER_OF_WAITING_PRODUCERS_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(BlockingWaitStrategy.class, "numberOfWaitingProducers");
+
+    private final Object producersMutex = new Object();
+
+    private volatile Thread parkedConsumer;
+    private volatile int numberOfWaitingProducers;
+
+    @Override
+    public long consumerIdle(final long idles, final BooleanSupplier wakeupCondition) {
+        final Thread currentThread = Thread.currentThread();
+
+        // must be published before the condition is checked, see signalConsumer()
+        PARKED_CONSUMER_UPDATER.set(this, currentThread);
+        try {
+            while (!wakeupCondition.getAsBoolean() && !currentThread.isInterrupted()) {
+                LockSupport.park(this);
+            }
+        } finally {
+            PARKED_CONSUMER_UPDATER.lazySet(this, null);
+        }
+        return idles + 1;
+    }
+
+    @Override
+    public void signalConsumer() {
+        // The entry's state is published with a release store, which can be reordered with the read below.
+        // Without the fence the consumer, which is going to park right now, could miss both the entry and
+        // the signal.
+        VarHandle.fullFence();
+
+        final Thread consumer = parkedConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    @Override
+    public long producerIdle(final long idles, final BooleanSupplier wakeupCondition) throws InterruptedException {
+        final Object mtx = producersMutex;
+
+        synchronized (mtx) {
+            NUMBER_OF_WAITING_PRODUCERS_UPDATER.incrementAndGet(this);
+            try {
+                while (!wakeupCondition.getAsBoolean()) {
+                    mtx.wait();
+                }
+            } finally {
+                NUMBER_OF_WAITING_PRODUCERS_UPDATER.decrementAndGet(this);
+            }
+        }
+        return idles + 1;
+    }
+
+    @Override
+    public void signalProducers() {
+        // the consumer publishes its progress with a volatile store, so, the volatile read is enough here
+        if (numberOfWaitingProducers != 0) {
+            final Object mtx = producersMutex;
+
+            synchronized (mtx) {
+                mtx.notifyAll();
+            }
+        }
+    }
+}
\ No newline at end of file
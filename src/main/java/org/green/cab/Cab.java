@@ -23,10 +23,12 @@
  */
 package org.green.cab;
 
-import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicLongFieldUpdater;
-import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 
 import static org.green.cab.Utils.ARRAY_PAD;
@@ -63,19 +65,24 @@ abstract class CabPad2 extends UncommittedProducersSequence {
     protected long p28, p29, p210, p211, p212, p213, p214, p215;
 }
 
-abstract class Message extends CabPad2 {
-    protected static final AtomicReferenceFieldUpdater<Message, Object> MESSAGE_UPDATER =
-            AtomicReferenceFieldUpdater.newUpdater(Message.class, Object.class, "message");
+abstract class MessageSendersSequence extends CabPad2 {
+    protected static final AtomicLongFieldUpdater<MessageSendersSequence> MESSAGE_SENDERS_SEQUENCE_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(MessageSendersSequence.class, "messageSendersSequence");
 
-    protected volatile Object message;
+    protected volatile long messageSendersSequence;
 }
 
-abstract class CabPad3 extends Message {
+abstract class CabPad3 extends MessageSendersSequence {
     protected long p30, p31, p32, p33, p34, p35, p36, p37;
     protected long p38, p39, p310, p311, p312, p313, p314, p315;
 }
 
 abstract class MessageCache extends CabPad3 {
+    protected static final AtomicLongFieldUpdater<MessageCache> MESSAGE_CONSUMER_SEQUENCE_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(MessageCache.class, "messageConsumerSequence");
+
+    protected volatile long messageConsumerSequence; // written by Consumer only, read by senders
+
     protected Object messageCache; // used by Consumer only, no any membars required
 }
 
@@ -84,26 +91,36 @@ abstract class CabPad4 extends MessageCache {
     protected long p48, p49, p410, p411, p412, p413, p414, p415;
 }
 
-abstract class NotifyAllRequired extends CabPad4 {
-    protected static final AtomicIntegerFieldUpdater<NotifyAllRequired> MUTEX_SIGNAL_REQUIRED_HANDLE =
-            AtomicIntegerFieldUpdater.newUpdater(NotifyAllRequired.class, "mutexSignalRequired");
+abstract class NumberOfOverloads extends CabPad4 {
+    protected static final AtomicLongFieldUpdater<NumberOfOverloads> NUMBER_OF_OVERLOADS_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(NumberOfOverloads.class, "numberOfOverloads");
 
-    protected volatile int mutexSignalRequired;
-}
+    protected static final AtomicLongFieldUpdater<NumberOfOverloads> OVERLOAD_NANOS_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(NumberOfOverloads.class, "overloadNanos");
 
-abstract class CabPad5 extends NotifyAllRequired {
-    protected long p50, p51, p52, p53, p54, p55, p56, p57;
-    protected long p58, p59, p510, p511, p512, p513, p514, p515;
-}
+    protected static final AtomicLongFieldUpdater<NumberOfOverloads> NUMBER_OF_REJECTS_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(NumberOfOverloads.class, "numberOfRejects");
 
-abstract class NumberOfOverloads extends CabPad5 {
-    protected static final AtomicLongFieldUpdater<NumberOfOverloads> NUMBER_OF_OVERLOADS_UPDATER =
-            AtomicLongFieldUpdater.newUpdater(NumberOfOverloads.class, "numberOfOverloads");
+    protected static final AtomicLongFieldUpdater<NumberOfOverloads> NUMBER_OF_DROPPED_NEWEST_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(NumberOfOverloads.class, "numberOfDroppedNewest");
+
+    protected static final AtomicLongFieldUpdater<NumberOfOverloads> NUMBER_OF_DROPPED_OLDEST_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(NumberOfOverloads.class, "numberOfDroppedOldest");
+
+    protected static final AtomicLongFieldUpdater<NumberOfOverloads> STALE_SEQUENCE_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(NumberOfOverloads.class, "staleSequence");
 
     protected volatile long numberOfOverloads;
+    protected volatile long overloadNanos;
+
+    protected volatile long numberOfRejects;
+    protected volatile long numberOfDroppedNewest;
+    protected volatile long numberOfDroppedOldest; // written by Consumer only
+
+    protected volatile long staleSequence; // entries up to this one are skipped by Consumer, raised by Producers
 }
 
-abstract class CabPad6 extends NumberOfOverloads {
+abstract class CabPad5 extends NumberOfOverloads {
     protected long p50, p51, p52, p53, p54, p55, p56, p57;
     protected long p58, p59, p510, p511, p512, p513, p514, p515;
 }
@@ -177,28 +194,96 @@ abstract class CabPad6 extends NumberOfOverloads {
  *
  *      cab.consumerCommit(sequence);
  * </pre>
+ * <p>
+ * A consumer draining entries in batches:
+ * <pre>
+ *      long sequence = cab.consumerNext();
+ *
+ *      if (sequence == Cab.MESSAGE_RECEIVED_SEQUENCE) {
+ *
+ *          // ... process the message ...
+ *
+ *          cab.consumerCommit(sequence);
+ *      } else {
+ *          long lastSequence = cab.consumerNextBatch(sequence, maxBatchSize);
+ *
+ *          for (long s = sequence; s &lt;= lastSequence; s++) {
+ *              Object entry = cab.getEntry(s);
+ *
+ *              // ... process the entry ...
+ *          }
+ *
+ *          cab.consumerCommitBatch(lastSequence);
+ *      }
+ * </pre>
+ * <p>
+ * The way the consumer waits for entries and messages and senders wait for the Channel is defined by
+ * a {@link WaitStrategy} the Cab was created with.
+ * <p>
+ * A producer which must not wait for the consumer claims sequences with producerNext(n, policy) or
+ * producerNext(n, policy, timeout, unit). These methods never claim more than the free space of the Ring Buffer
+ * and follow the {@link OverflowPolicy} given if the Ring Buffer is full:
+ * <pre>
+ *      long sequence = cab.producerNext(1, OverflowPolicy.REJECT);
+ *
+ *      if (sequence != Cab.NO_SEQUENCE) {
+ *
+ *          // ... set the entry ...
+ *
+ *          cab.producerCommit(sequence);
+ *      } else {
+ *
+ *          // ... the Ring Buffer is full ...
+ *
+ *      }
+ * </pre>
  *
  * @param <E> types of entries in the Ring Buffer
  * @param <M> type of message in the Channel
  */
-public abstract class Cab<E, M> extends CabPad6 {
-
-    enum WaitingStaregy {
-        BUSY_SPINNING, YIELDING, BACKING_OFF, BLOCKING
-    }
+public abstract class Cab<E, M> extends CabPad5 {
 
     public static final long MESSAGE_RECEIVED_SEQUENCE = Long.MAX_VALUE;
 
+    /**
+     * Returned by consumerNext() if the {@link LongCab} attached has values to be taken, see attachLongCab().
+     */
+    public static final long LONGS_RECEIVED_SEQUENCE = Long.MAX_VALUE - 1;
+
+    /**
+     * Returned by consumerNext() once wakeUpConsumer() is called, there is nothing to be committed.
+     */
+    public static final long WOKEN_UP_SEQUENCE = Long.MAX_VALUE - 2;
+
     public static final long CONSUMER_INTERRUPTED_SEQUENCE = Long.MIN_VALUE;
 
+    public static final long NO_SEQUENCE = -1;
+
+    /**
+     * Number of messages the Channel holds if the size isn't given explicitly. Can be set with
+     * org.green.cab.channel.size system property.
+     */
+    public static final int DEFAULT_CHANNEL_SIZE = Integer.getInteger("org.green.cab.channel.size", 16);
+
+    /**
+     * Number of checks in a row a producer with {@link OverflowPolicy#DROP_OLDEST} policy sees the consumer
+     * not moving before it gives up. Can be set with org.green.cab.drop.oldest.max.stalled.checks system property.
+     */
+    public static final int DROP_OLDEST_MAX_STALLED_CHECKS =
+            Integer.getInteger("org.green.cab.drop.oldest.max.stalled.checks", 64);
+
     private static final long INITIAL_SEQUENCE = -1;
 
-    private static final int BACKING_OFF_SPINNING_STATE = 0;
-    private static final int BACKING_OFF_YIELDING_STATE = 1;
-    private static final int BACKING_OFF_WAIT_ON_MUTEX_STATE = 2;
+    private static final long GIVEN_UP_SEQUENCE = INITIAL_SEQUENCE - 1; // less than any sequence a producer waits for
 
     private static final String BUFFER_SIZE_MUST_NOT_BE_LESS_THAN_1_MESSAGE = "bufferSize must not be less than 1";
+    private static final String CHANNEL_SIZE_MUST_NOT_BE_LESS_THAN_1_MESSAGE = "channelSize must not be less than 1";
     private static final String CONSUMER_WAS_CLOSED_MESSAGE = "Consumer was closed";
+    private static final String WAIT_STRATEGY_MUST_NOT_BE_NULL_MESSAGE = "waitStrategy must not be null";
+    static final String NUMBER_OF_SEQUENCES_OUT_OF_RANGE_MESSAGE = "Number of sequences out of range: ";
+    private static final String LOW_WATER_MARK_OUT_OF_RANGE_MESSAGE = "Low-water mark out of range: ";
+    private static final String OVERFLOW_POLICY_MUST_NOT_BE_NULL_MESSAGE = "policy must not be null";
+    private static final String LONG_CAB_ALREADY_ATTACHED_MESSAGE = "LongCab is already attached";
 
     private final long indexMask;
 
@@ -207,37 +292,84 @@ public abstract class Cab<E, M> extends CabPad6 {
     private final Object[] entries;
     private final int[] entryStates;
 
-    private final WaitingStaregy waitingStaregy;
+    private final int channelSize;
+    private final long messageIndexMask;
+    private final Object[] messages; // a non-null message is sent and not consumed yet
+
+    private final WaitStrategy waitStrategy;
+
+    private final BooleanSupplier consumerWakeupCondition = this::isConsumerWakeupRequired;
+    private final BooleanSupplier producerWakeupCondition = this::isProducerWakeupRequired;
 
-    private final Object mutex = new Object();
+    private final OverloadGate overloadGate = new OverloadGate();
+    private final LongSupplier consumerSequenceSupplier = () -> CONSUMER_SEQUENCE_UPDATER.get(this);
 
-    private final long maxSpins;
-    private final long maxYields;
+    private volatile int overloadLowWaterMark;
+
+    private volatile Consumer<? super E> droppedEntryHandler;
+
+    private LongCab longCab; // attached before the consumer starts, null if no longs are expected
+    private boolean longsFirst; // used by Consumer only, the longs and the entries take turns
+
+    private volatile boolean wakeUpRequested; // set by wakeUpConsumer(), cleared by the consumer
 
     protected Cab(
             final int bufferSize,
-            final WaitingStaregy waitingStaregy,
-            final long maxSpins,
-            final long maxYields,
+            final WaitStrategy waitStrategy,
             final Supplier<E> supplier) {
 
+        this(bufferSize, DEFAULT_CHANNEL_SIZE, waitStrategy, supplier);
+    }
+
+    protected Cab(
+            final int bufferSize,
+            final int channelSize,
+            final WaitStrategy waitStrategy,
+            final Supplier<E> supplier) {
+
+        this(bufferSize, channelSize, waitStrategy, supplier, true);
+    }
+
+    /**
+     * Creates a Cab whose Ring Buffer may be kept outside of the heap. If heapRing is false, the arrays of entries
+     * and their states aren't allocated, so, the subclass must override all the methods which access entries
+     * and their states.
+     *
+     * @param bufferSize   size of the Ring Buffer, rounded up to the next power of two
+     * @param channelSize  size of the Channel, rounded up to the next power of two
+     * @param waitStrategy the wait strategy
+     * @param supplier     supplier of entries to prefill the Ring Buffer, may be null
+     * @param heapRing     whether the Ring Buffer is kept in the heap
+     */
+    Cab(
+            final int bufferSize,
+            final int channelSize,
+            final WaitStrategy waitStrategy,
+            final Supplier<E> supplier,
+            final boolean heapRing) {
+
         if (bufferSize < 1) {
             throw new IllegalArgumentException(BUFFER_SIZE_MUST_NOT_BE_LESS_THAN_1_MESSAGE);
         }
+        if (channelSize < 1) {
+            throw new IllegalArgumentException(CHANNEL_SIZE_MUST_NOT_BE_LESS_THAN_1_MESSAGE);
+        }
         final int normalizedBufferSize = nextPowerOfTwo(bufferSize);
 
         this.indexMask = normalizedBufferSize - 1;
 
         this.bufferSize = normalizedBufferSize;
-        this.entries = new Object[normalizedBufferSize + 2 * ARRAY_PAD];
-        this.entryStates = new int[entries.length];
+        this.entries = heapRing ? new Object[normalizedBufferSize + 2 * ARRAY_PAD] : null;
+        this.entryStates = heapRing ? new int[entries.length] : null;
 
-        this.waitingStaregy = waitingStaregy;
-        this.maxSpins = maxSpins;
-        this.maxYields = maxYields;
+        if (waitStrategy == null) {
+            throw new NullPointerException(WAIT_STRATEGY_MUST_NOT_BE_NULL_MESSAGE);
+        }
+        this.waitStrategy = waitStrategy;
 
         CONSUMER_SEQUENCE_UPDATER.set(this, INITIAL_SEQUENCE);
         UNCOMMITTED_PRODUCER_SEQUENCE_UPDATER.set(this, INITIAL_SEQUENCE);
+        STALE_SEQUENCE_UPDATER.set(this, INITIAL_SEQUENCE);
 
         if (supplier != null) {
             for (int i = 0; i < normalizedBufferSize; i++) {
@@ -245,7 +377,15 @@ public abstract class Cab<E, M> extends CabPad6 {
             }
         }
 
-        MESSAGE_UPDATER.set(this, null);
+        final int normalizedChannelSize = nextPowerOfTwo(channelSize);
+
+        this.messageIndexMask = normalizedChannelSize - 1;
+
+        this.channelSize = normalizedChannelSize;
+        this.messages = new Object[normalizedChannelSize + 2 * ARRAY_PAD];
+
+        MESSAGE_CONSUMER_SEQUENCE_UPDATER.set(this, INITIAL_SEQUENCE);
+        MESSAGE_SENDERS_SEQUENCE_UPDATER.set(this, INITIAL_SEQUENCE);
     }
 
     /**
@@ -257,10 +397,123 @@ public abstract class Cab<E, M> extends CabPad6 {
         return bufferSize;
     }
 
+    /**
+     * Returns actual Channel's size which is the next power of two of a value passed to the constructor.
+     * This many messages can be sent before the consumer receives the first of them.
+     *
+     * @return actual channel size
+     */
+    public int channelSize() {
+        return channelSize;
+    }
+
+    /**
+     * Attaches a Ring Buffer of primitive longs, so, the consumer receives {@link #LONGS_RECEIVED_SEQUENCE}
+     * from consumerNext() when the values are available. The Ring Buffer shares the wait strategy of this Cab.
+     * Must be called before the consumer starts.
+     *
+     * @param bufferSize size of the Ring Buffer, rounded up to the next power of two
+     * @return the Ring Buffer attached
+     * @throws IllegalStateException if a Ring Buffer of longs is already attached
+     */
+    public final LongCab attachLongCab(final int bufferSize) {
+        if (longCab != null) {
+            throw new IllegalStateException(LONG_CAB_ALREADY_ATTACHED_MESSAGE);
+        }
+        longCab = new LongCab(bufferSize, waitStrategy);
+        return longCab;
+    }
+
+    /**
+     * Returns the Ring Buffer of longs attached with attachLongCab().
+     *
+     * @return the Ring Buffer or null if nothing is attached
+     */
+    public final LongCab longCab() {
+        return longCab;
+    }
+
+    /**
+     * Returns the strategy this Cab waits and signals with.
+     *
+     * @return the wait strategy
+     */
+    public WaitStrategy waitStrategy() {
+        return waitStrategy;
+    }
+
     public long numberOfOverloads() {
         return NUMBER_OF_OVERLOADS_UPDATER.get(this);
     }
 
+    /**
+     * Returns total time in nanoseconds producers spent stalled because the Ring Buffer was full.
+     *
+     * @return total stall time
+     */
+    public long overloadNanos() {
+        return OVERLOAD_NANOS_UPDATER.get(this);
+    }
+
+    /**
+     * Returns the number of claims rejected because the Ring Buffer was full, either immediately by
+     * {@link OverflowPolicy#REJECT} or after the timeout elapsed.
+     *
+     * @return number of rejected claims
+     */
+    public long numberOfRejects() {
+        return NUMBER_OF_REJECTS_UPDATER.get(this);
+    }
+
+    /**
+     * Returns the number of claims rejected by {@link OverflowPolicy#DROP_NEWEST} because the Ring Buffer was full.
+     *
+     * @return number of dropped new entries
+     */
+    public long numberOfDroppedNewest() {
+        return NUMBER_OF_DROPPED_NEWEST_UPDATER.get(this);
+    }
+
+    /**
+     * Returns the number of stale entries the consumer has skipped because of {@link OverflowPolicy#DROP_OLDEST}.
+     *
+     * @return number of dropped old entries
+     */
+    public long numberOfDroppedOldest() {
+        return NUMBER_OF_DROPPED_OLDEST_UPDATER.get(this);
+    }
+
+    /**
+     * Sets a handler the consumer passes stale entries to when it skips them, so, the entries can be
+     * recycled. The handler is called by the consumer thread.
+     *
+     * @param handler the handler, or null if dropped entries need no handling
+     */
+    public void setDroppedEntryHandler(final Consumer<? super E> handler) {
+        this.droppedEntryHandler = handler;
+    }
+
+    public int overloadLowWaterMark() {
+        return overloadLowWaterMark;
+    }
+
+    /**
+     * Sets the way producers wait for free space when the Ring Buffer is full. If the low-water mark is 0
+     * (the default), stalled producers poll the consumer's sequence with parkNanos(1), which doesn't let
+     * the CPU go in practice. Otherwise, stalled producers are blocked and the consumer wakes them up only once
+     * the number of free entries is not less than the low-water mark (or all the entries the producer waits for
+     * are consumed), so, the producers and the consumer don't fight for the CPU while the overload lasts.
+     *
+     * @param lowWaterMark number of entries to be freed before stalled producers are woken up,
+     *                     in range [0, bufferSize()]
+     */
+    public void setOverloadLowWaterMark(final int lowWaterMark) {
+        if (lowWaterMark < 0 || lowWaterMark > bufferSize) {
+            throw new IllegalArgumentException(LOW_WATER_MARK_OUT_OF_RANGE_MESSAGE + lowWaterMark);
+        }
+        this.overloadLowWaterMark = lowWaterMark;
+    }
+
     /**
      * Returns a sequence for a producer thread to address the next available entry with getEntry(sequence),
      * setEntry(sequence) or removeEntry(sequence).
@@ -270,35 +523,121 @@ public abstract class Cab<E, M> extends CabPad6 {
      * @throws InterruptedException         if the current thread was interrupted
      */
     public long producerNext() throws ConsumerInterruptedException, InterruptedException {
-        final long nextSequence = UNCOMMITTED_PRODUCER_SEQUENCE_UPDATER.incrementAndGet(this);
+        return producerNext(1);
+    }
+
+    /**
+     * Claims a contiguous range of n sequences with one single atomic operation. The sequences from
+     * (returned value - n + 1) up to the returned value inclusively address available entries and must be
+     * committed with producerCommit(firstSequence, lastSequence) or one by one with producerCommit(sequence).
+     *
+     * @param n number of sequences to be claimed, must not be greater than the size of the Ring Buffer
+     * @return the last sequence of the claimed range
+     * @throws ConsumerInterruptedException if the consumer was interrupted
+     * @throws InterruptedException         if the current thread was interrupted
+     */
+    public long producerNext(final int n) throws ConsumerInterruptedException, InterruptedException {
+        if (n < 1 || n > bufferSize) {
+            throw new IllegalArgumentException(NUMBER_OF_SEQUENCES_OUT_OF_RANGE_MESSAGE + n);
+        }
+
+        final long nextSequence = UNCOMMITTED_PRODUCER_SEQUENCE_UPDATER.addAndGet(this, n);
+
+        final long consumerSequence = CONSUMER_SEQUENCE_UPDATER.get(this);
+
+        if (consumerSequence == CONSUMER_INTERRUPTED_SEQUENCE) {
+            throw new ConsumerInterruptedException();
+        }
+
+        if (nextSequence - consumerSequence > bufferSize) { // the buffer is full
+            awaitConsumer(nextSequence - bufferSize, nextSequence - n);
+        }
 
-        boolean overloaded = false;
+        return nextSequence;
+    }
+
+    /**
+     * Claims a contiguous range of n sequences like producerNext(n), but never claims more than the free space
+     * of the Ring Buffer. If the Ring Buffer is full, the policy decides whether to wait or to give up.
+     *
+     * @param n      number of sequences to be claimed, must not be greater than the size of the Ring Buffer
+     * @param policy what to do if the Ring Buffer is full
+     * @return the last sequence of the claimed range or NO_SEQUENCE if the claim was rejected
+     * @throws ConsumerInterruptedException if the consumer was interrupted
+     * @throws InterruptedException         if the current thread was interrupted
+     */
+    public long producerNext(final int n, final OverflowPolicy policy)
+            throws ConsumerInterruptedException, InterruptedException {
+
+        return producerClaim(n, policy, false, 0);
+    }
+
+    /**
+     * Claims a contiguous range of n sequences like producerNext(n, policy), but the policies which wait for
+     * the consumer give up once the timeout elapses.
+     *
+     * @param n       number of sequences to be claimed, must not be greater than the size of the Ring Buffer
+     * @param policy  what to do if the Ring Buffer is full
+     * @param timeout max time to wait for the consumer
+     * @param unit    unit of the timeout
+     * @return the last sequence of the claimed range or NO_SEQUENCE if the claim was rejected or timed out
+     * @throws ConsumerInterruptedException if the consumer was interrupted
+     * @throws InterruptedException         if the current thread was interrupted
+     */
+    public long producerNext(final int n, final OverflowPolicy policy, final long timeout, final TimeUnit unit)
+            throws ConsumerInterruptedException, InterruptedException {
+
+        return producerClaim(n, policy, true, System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    /**
+     * Implements producerNext(n, policy) and producerNext(n, policy, timeout, unit). The shared producers'
+     * sequence is advanced with CAS only when the range fits, so, a rejected claim leaves no trace.
+     *
+     * @param n             number of sequences to be claimed
+     * @param policy        what to do if the Ring Buffer is full
+     * @param timed         true if the wait is bounded by the deadline
+     * @param deadlineNanos the deadline in terms of System.nanoTime()
+     * @return the last sequence of the claimed range or NO_SEQUENCE
+     * @throws ConsumerInterruptedException if the consumer was interrupted
+     * @throws InterruptedException         if the current thread was interrupted
+     */
+    protected long producerClaim(
+            final int n,
+            final OverflowPolicy policy,
+            final boolean timed,
+            final long deadlineNanos) throws ConsumerInterruptedException, InterruptedException {
+
+        checkClaim(n, policy);
 
         while (true) {
+            final long currentSequence = UNCOMMITTED_PRODUCER_SEQUENCE_UPDATER.get(this);
+            final long nextSequence = currentSequence + n;
+
             final long consumerSequence = CONSUMER_SEQUENCE_UPDATER.get(this);
 
             if (consumerSequence == CONSUMER_INTERRUPTED_SEQUENCE) {
                 throw new ConsumerInterruptedException();
             }
 
-            if (nextSequence - consumerSequence <= bufferSize) { // there is some free space in the buffer
-                if (overloaded) {
-                    NUMBER_OF_OVERLOADS_UPDATER.incrementAndGet(this);
+            if (nextSequence - consumerSequence <= bufferSize) {
+                if (UNCOMMITTED_PRODUCER_SEQUENCE_UPDATER.compareAndSet(this, currentSequence, nextSequence)) {
+                    return nextSequence;
                 }
-                break;
+                continue; // another producer was faster
             }
 
-            overloaded = true;
+            // the buffer is full
+            final long requiredSequence = nextSequence - bufferSize;
 
-            // we are here because the buffer is full, so...
-            LockSupport.parkNanos(1); // let's give a good chance to the consumer
+            if (policy == OverflowPolicy.DROP_OLDEST) {
+                raiseStaleSequence(requiredSequence);
+            }
 
-            if (Thread.interrupted()) {
-                throw new InterruptedException();
+            if (awaitConsumer(policy, requiredSequence, currentSequence, timed, deadlineNanos) < requiredSequence) {
+                return NO_SEQUENCE;
             }
         }
-
-        return nextSequence;
     }
 
     /**
@@ -309,331 +648,168 @@ public abstract class Cab<E, M> extends CabPad6 {
     public void producerCommit(final long sequence) {
         INT_ARRAY_HANDLE.setRelease(entryStates, arrayIndex(sequence), 1);
 
-        switch (waitingStaregy) {
-            case BUSY_SPINNING:
-            case YIELDING:
-                break;
-
-            case BACKING_OFF:
-            case BLOCKING:
-                final Object mtx = mutex;
+        signalConsumer();
+    }
 
-                synchronized (mtx) {
-                    if (MUTEX_SIGNAL_REQUIRED_HANDLE.compareAndSet(this, 1, 0)) {
-                        mtx.notifyAll();
-                    }
-                }
-                break;
+    /**
+     * Commits the range of sequences claimed with producerNext(n) to make them available for the consumer thread
+     * to be read. The consumer is signaled only once for the whole range.
+     *
+     * @param firstSequence the first sequence of the range
+     * @param lastSequence  the last sequence of the range
+     */
+    public void producerCommit(final long firstSequence, final long lastSequence) {
+        final int[] states = entryStates;
 
-            default:
-                throw new IllegalStateException();
+        for (long sequence = firstSequence; sequence <= lastSequence; sequence++) {
+            INT_ARRAY_HANDLE.setRelease(states, arrayIndex(sequence), 1);
         }
+
+        signalConsumer();
     }
 
     /**
-     * Sends a message to the Channel.
+     * Sends a message to the Channel. The Channel is a bounded queue, so, the method waits only if channelSize()
+     * messages have been sent and not received by the consumer yet. Messages are received in the order they
+     * were sent and always before entries of the Ring Buffer.
      *
      * @param msg a message to be sent
      * @throws ConsumerInterruptedException if the consumer was interrupted
      * @throws InterruptedException         if the current thread was interrupted
      */
     public void send(final M msg) throws ConsumerInterruptedException, InterruptedException {
-        long consumerSequence = CONSUMER_SEQUENCE_UPDATER.get(this);
-        if (consumerSequence == CONSUMER_INTERRUPTED_SEQUENCE) {
+        if (CONSUMER_SEQUENCE_UPDATER.get(this) == CONSUMER_INTERRUPTED_SEQUENCE) {
             throw new ConsumerInterruptedException();
         }
 
-        switch (waitingStaregy) {
-            case BUSY_SPINNING: {
-                while (!MESSAGE_UPDATER.compareAndSet(this, null, msg)) {
-                    if (Thread.interrupted()) {
-                        throw new InterruptedException();
-                    }
-
-                    consumerSequence = CONSUMER_SEQUENCE_UPDATER.get(this);
-                    if (consumerSequence == CONSUMER_INTERRUPTED_SEQUENCE) {
-                        throw new ConsumerInterruptedException();
-                    }
-                }
-                break;
-            }
+        final WaitStrategy strategy = waitStrategy;
 
-            case YIELDING: {
-                while (!MESSAGE_UPDATER.compareAndSet(this, null, msg)) {
-                    if (Thread.interrupted()) {
-                        throw new InterruptedException();
-                    }
+        long idles = 0;
 
-                    consumerSequence = CONSUMER_SEQUENCE_UPDATER.get(this);
-                    if (consumerSequence == CONSUMER_INTERRUPTED_SEQUENCE) {
-                        throw new ConsumerInterruptedException();
-                    }
+        long nextSequence;
 
-                    Thread.yield();
-                }
-                break;
-            }
+        while (true) {
+            final long currentSequence = MESSAGE_SENDERS_SEQUENCE_UPDATER.get(this);
 
-            case BACKING_OFF: {
-                int state = BACKING_OFF_SPINNING_STATE;
-                long spins = 0;
-                long yields = 0;
-
-                final Object mtx = mutex;
-
-                _endOfWaiting:
-                while (!MESSAGE_UPDATER.compareAndSet(this, null, msg)) {
-
-                    switch (state) {
-                        case BACKING_OFF_SPINNING_STATE:
-                            if (++spins > maxSpins) {
-                                state = BACKING_OFF_YIELDING_STATE;
-                            }
-                            break;
-
-                        case BACKING_OFF_YIELDING_STATE:
-                            if (++yields > maxYields) {
-                                state = BACKING_OFF_WAIT_ON_MUTEX_STATE;
-                            } else {
-                                Thread.yield();
-                            }
-                            break;
-
-                        case BACKING_OFF_WAIT_ON_MUTEX_STATE:
-                            synchronized (mtx) {
-                                while (!MESSAGE_UPDATER.compareAndSet(this, null, msg)) {
-
-                                    consumerSequence = CONSUMER_SEQUENCE_UPDATER.get(this);
-                                    if (consumerSequence == CONSUMER_INTERRUPTED_SEQUENCE) {
-                                        throw new ConsumerInterruptedException();
-                                    }
-
-                                    MUTEX_SIGNAL_REQUIRED_HANDLE.set(this, 1);
-                                    mtx.wait();
-                                }
-                            }
-                            break _endOfWaiting;
-
-                        default:
-                            throw new IllegalStateException();
-                    }
-
-                    // we are here while spinning and yielding
-
-                    consumerSequence = CONSUMER_SEQUENCE_UPDATER.get(this);
-                    if (consumerSequence == CONSUMER_INTERRUPTED_SEQUENCE) {
-                        throw new ConsumerInterruptedException();
-                    }
-
-                    if (Thread.interrupted()) {
-                        throw new InterruptedException();
-                    }
-                }
+            nextSequence = currentSequence + 1;
 
-                synchronized (mtx) {
-                    if (MUTEX_SIGNAL_REQUIRED_HANDLE.compareAndSet(this, 1, 0)) {
-                        mtx.notifyAll();
-                    }
+            if (nextSequence - MESSAGE_CONSUMER_SEQUENCE_UPDATER.get(this) <= channelSize) {
+                if (MESSAGE_SENDERS_SEQUENCE_UPDATER.compareAndSet(this, currentSequence, nextSequence)) {
+                    break;
                 }
+                continue; // another sender has claimed the slot, let's try the next one
+            }
 
-                break;
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
             }
 
-            case BLOCKING: {
-                final Object mtx = mutex;
-                synchronized (mtx) {
-                    while (!MESSAGE_UPDATER.compareAndSet(this, null, msg)) {
+            idles = strategy.producerIdle(idles, producerWakeupCondition);
 
-                        consumerSequence = CONSUMER_SEQUENCE_UPDATER.get(this);
-                        if (consumerSequence == CONSUMER_INTERRUPTED_SEQUENCE) {
-                            throw new ConsumerInterruptedException();
-                        }
+            if (CONSUMER_SEQUENCE_UPDATER.get(this) == CONSUMER_INTERRUPTED_SEQUENCE) {
+                throw new ConsumerInterruptedException();
+            }
+        }
 
-                        MUTEX_SIGNAL_REQUIRED_HANDLE.set(this, 1);
-                        mtx.wait();
-                    }
+        OBJECT_ARRAY_HANDLE.setRelease(messages, messageIndex(nextSequence), msg);
 
-                    if (MUTEX_SIGNAL_REQUIRED_HANDLE.compareAndSet(this, 1, 0)) {
-                        mtx.notifyAll();
-                    }
-                }
-                break;
-            }
+        strategy.signalConsumer();
+    }
 
-            default:
-                throw new IllegalStateException();
-        }
+    /**
+     * Makes consumerNext() return WOKEN_UP_SEQUENCE, so, the consumer can check a source of its own which
+     * isn't a part of the Cab. Several calls before the consumer wakes up are received as one.
+     * <p>
+     * This method can be called from any thread.
+     */
+    public void wakeUpConsumer() {
+        wakeUpRequested = true;
+
+        waitStrategy.signalConsumer();
     }
 
     /**
      * Returns a sequence for the consumer thread to address next available message or entry.
      *
      * @return sequence to be read. If the value is MESSAGE_RECEIVED_SEQUENCE, a message is ready to be read
-     * with getMessage(), otherwise new entry can be accessed with getEntry(sequence).
+     * with getMessage(), if it is LONGS_RECEIVED_SEQUENCE, values of the {@link LongCab} attached are ready
+     * to be taken, if it is WOKEN_UP_SEQUENCE, wakeUpConsumer() has been called, otherwise new entry can be
+     * accessed with getEntry(sequence).
      * <p>
      * This method can be called from one single consumer thread only.
      * @throws InterruptedException if the current thread was interrupted
      */
     public long consumerNext() throws InterruptedException {
-        long nextConsumerSequence = consumerSequence;
-
-        if (nextConsumerSequence == CONSUMER_INTERRUPTED_SEQUENCE) {
+        if (consumerSequence == CONSUMER_INTERRUPTED_SEQUENCE) {
             throw new IllegalStateException(CONSUMER_WAS_CLOSED_MESSAGE, new ConsumerInterruptedException());
         }
 
-        // check the message first
-        Object msg;
+        final WaitStrategy strategy = waitStrategy;
 
-        msg = MESSAGE_UPDATER.get(this);
-        if (msg != null) {
-            messageCache = msg;
-            return MESSAGE_RECEIVED_SEQUENCE;
-        }
-
-        // continue with the buffer and the message again
-        nextConsumerSequence++;
+        long idles = 0;
 
-        final int stateIndex = arrayIndex(nextConsumerSequence);
-
-        final int[] states = entryStates;
-
-        switch (waitingStaregy) {
-            case BUSY_SPINNING: {
-                while (true) {
-                    if (Thread.interrupted()) {
-                        throw new InterruptedException();
-                    }
-
-                    if ((int) INT_ARRAY_HANDLE.getVolatile(states, stateIndex) != 0) {
-                        break;
-                    }
-
-                    msg = MESSAGE_UPDATER.get(this);
-                    if (msg != null) {
-                        messageCache = msg;
-                        return MESSAGE_RECEIVED_SEQUENCE;
-                    }
-                }
-                break;
+        while (true) {
+            // check the messages first
+            final Object msg = OBJECT_ARRAY_HANDLE.getAcquire(messages, messageIndex(messageConsumerSequence + 1));
+            if (msg != null) {
+                messageCache = msg;
+                return MESSAGE_RECEIVED_SEQUENCE;
             }
 
-            case YIELDING: {
-                while (true) {
-                    if (Thread.interrupted()) {
-                        throw new InterruptedException();
-                    }
-
-                    if ((int) INT_ARRAY_HANDLE.getVolatile(states, stateIndex) != 0) {
-                        break;
-                    }
+            if (wakeUpRequested) {
+                wakeUpRequested = false;
+                return WOKEN_UP_SEQUENCE;
+            }
 
-                    msg = MESSAGE_UPDATER.get(this);
-                    if (msg != null) {
-                        messageCache = msg;
-                        return MESSAGE_RECEIVED_SEQUENCE;
-                    }
+            // continue with the buffer and the longs, if attached, which take turns
+            final LongCab longs = longCab;
+            if (longs != null && longsFirst && longs.consumerPoll() != NO_SEQUENCE) {
+                longsFirst = false;
+                return LONGS_RECEIVED_SEQUENCE;
+            }
 
-                    Thread.yield();
-                }
-                break;
+            final long nextConsumerSequence = consumerPoll();
+            if (nextConsumerSequence != NO_SEQUENCE) {
+                longsFirst = true;
+                return nextConsumerSequence;
             }
 
-            case BACKING_OFF: {
-                int state = BACKING_OFF_SPINNING_STATE;
-                long spins = 0;
-                long yields = 0;
-
-                _endOfBackingOff:
-                while (true) {
-                    if (Thread.interrupted()) {
-                        throw new InterruptedException();
-                    }
-
-                    if ((int) INT_ARRAY_HANDLE.getVolatile(states, stateIndex) != 0) {
-                        break;
-                    }
-
-                    msg = MESSAGE_UPDATER.get(this);
-                    if (msg != null) {
-                        messageCache = msg;
-                        return MESSAGE_RECEIVED_SEQUENCE;
-                    }
-                    Thread.yield();
-
-                    switch (state) {
-                        case BACKING_OFF_SPINNING_STATE:
-                            if (++spins > maxSpins) {
-                                state = BACKING_OFF_YIELDING_STATE;
-                            }
-                            break;
-
-                        case BACKING_OFF_YIELDING_STATE:
-                            if (++yields > maxYields) {
-                                state = BACKING_OFF_SPINNING_STATE;
-                            } else {
-                                Thread.yield();
-                            }
-                            break;
-
-                        case BACKING_OFF_WAIT_ON_MUTEX_STATE:
-                            final Object mtx = mutex;
-
-                            synchronized (mtx) {
-                                while (true) {
-                                    msg = MESSAGE_UPDATER.get(this);
-                                    if (msg != null) {
-                                        messageCache = msg;
-                                        return MESSAGE_RECEIVED_SEQUENCE;
-                                    }
-
-                                    if ((int) INT_ARRAY_HANDLE.getVolatile(states, stateIndex) != 0) {
-                                        break;
-                                    }
-
-                                    MUTEX_SIGNAL_REQUIRED_HANDLE.set(this, 1);
-                                    mtx.wait();
-                                }
-                            }
-                            break _endOfBackingOff;
-
-                        default:
-                            throw new IllegalStateException();
-                    }
+            if (longs != null && longs.consumerPoll() != NO_SEQUENCE) {
+                longsFirst = false;
+                return LONGS_RECEIVED_SEQUENCE;
+            }
 
-                }
-                break;
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
             }
 
-            case BLOCKING: {
-                final Object mtx = mutex;
+            idles = strategy.consumerIdle(idles, consumerWakeupCondition);
+        }
+    }
 
-                if ((int) INT_ARRAY_HANDLE.getVolatile(states, stateIndex) != 0) {
-                    break;
-                }
-                synchronized (mtx) {
-                    while (true) {
-                        msg = MESSAGE_UPDATER.get(this);
-                        if (msg != null) {
-                            messageCache = msg;
-                            return MESSAGE_RECEIVED_SEQUENCE;
-                        }
-
-                        if ((int) INT_ARRAY_HANDLE.getVolatile(states, stateIndex) != 0) {
-                            break;
-                        }
-
-                        MUTEX_SIGNAL_REQUIRED_HANDLE.set(this, 1);
-                        mtx.wait();
-                    }
-                }
-                break;
+    /**
+     * Returns a sequence of the next committed entry or NO_SEQUENCE if no committed entry is available yet.
+     * consumerNext() calls this method while waiting for the entry, so, a subclass with its own layout of
+     * the Ring Buffer can override it together with other consumer's and producer's methods.
+     * <p>
+     * This method can be called from one single consumer thread only.
+     *
+     * @return sequence of the next available entry or NO_SEQUENCE
+     */
+    protected long consumerPoll() {
+        long nextConsumerSequence = consumerSequence + 1;
+
+        while ((int) INT_ARRAY_HANDLE.getVolatile(entryStates, arrayIndex(nextConsumerSequence)) != 0) {
+            if (nextConsumerSequence > staleSequence) {
+                return nextConsumerSequence;
             }
 
-            default:
-                throw new IllegalStateException();
+            skipEntry(nextConsumerSequence); // the entry was dropped by a producer with DROP_OLDEST policy
+
+            nextConsumerSequence++;
         }
 
-        return nextConsumerSequence;
+        return NO_SEQUENCE;
     }
 
     /**
@@ -645,31 +821,68 @@ public abstract class Cab<E, M> extends CabPad6 {
      */
     public void consumerCommit(final long sequence) {
         if (sequence == MESSAGE_RECEIVED_SEQUENCE) {
-            MESSAGE_UPDATER.set(this, null);
+            final long messageSequence = messageConsumerSequence + 1;
+
+            messageCache = null;
+            OBJECT_ARRAY_HANDLE.set(messages, messageIndex(messageSequence), null);
+            MESSAGE_CONSUMER_SEQUENCE_UPDATER.set(this, messageSequence);
         } else {
             INT_ARRAY_HANDLE.set(entryStates, arrayIndex(sequence), 0);
-            CONSUMER_SEQUENCE_UPDATER.set(this, sequence);
+
+            publishConsumerSequence(sequence);
         }
 
-        switch (waitingStaregy) {
-            case BUSY_SPINNING:
-            case YIELDING:
-                break;
+        signalProducers();
+    }
 
-            case BACKING_OFF:
-            case BLOCKING:
-                final Object mtx = mutex;
+    /**
+     * Returns the last sequence of a contiguous range of committed entries which starts with the sequence
+     * returned by consumerNext(). All entries of the range can be read with getEntry(sequence) and then
+     * committed at once with consumerCommitBatch(lastSequence).
+     * <p>
+     * The range never exceeds maxBatchSize entries as well as the size of the Ring Buffer. Since a message
+     * from the Channel is not checked until the batch is committed, maxBatchSize also limits the delay
+     * of the message delivery.
+     * <p>
+     * This method can be called from one single consumer thread only.
+     *
+     * @param sequence     an entry's sequence returned by consumerNext()
+     * @param maxBatchSize max number of entries in the range
+     * @return the last sequence of the range, which is equal to the sequence passed if no more entries available
+     */
+    public long consumerNextBatch(final long sequence, final int maxBatchSize) {
+        final long limitSequence = sequence + Math.min(maxBatchSize, bufferSize) - 1;
 
-                synchronized (mtx) {
-                    if (MUTEX_SIGNAL_REQUIRED_HANDLE.compareAndSet(this, 1, 0)) {
-                        mtx.notifyAll();
-                    }
-                }
-                break;
+        final int[] states = entryStates;
+
+        long lastSequence = sequence;
 
-            default:
-                throw new IllegalStateException();
+        while (lastSequence < limitSequence &&
+                (int) INT_ARRAY_HANDLE.getVolatile(states, arrayIndex(lastSequence + 1)) != 0) {
+            lastSequence++;
         }
+
+        return lastSequence;
+    }
+
+    /**
+     * Commits all entries from the one next to the last committed up to lastSequence inclusively.
+     * The consumer's sequence is published and the waiting threads are signaled only once for the whole batch.
+     * <p>
+     * This method can be called from one single consumer thread only.
+     *
+     * @param lastSequence the last sequence of the batch returned by consumerNextBatch()
+     */
+    public void consumerCommitBatch(final long lastSequence) {
+        final int[] states = entryStates;
+
+        for (long sequence = consumerSequence + 1; sequence <= lastSequence; sequence++) {
+            INT_ARRAY_HANDLE.set(states, arrayIndex(sequence), 0);
+        }
+
+        publishConsumerSequence(lastSequence);
+
+        signalProducers();
     }
 
     /**
@@ -677,12 +890,16 @@ public abstract class Cab<E, M> extends CabPad6 {
      * after this call.
      */
     public void consumerInterrupt() {
+        final LongCab longs = longCab;
+        if (longs != null) {
+            longs.consumerInterrupt();
+        }
+
         CONSUMER_SEQUENCE_UPDATER.set(this, CONSUMER_INTERRUPTED_SEQUENCE);
 
-        final Object mtx = mutex;
-        synchronized (mtx) {
-            mtx.notifyAll();
-        }
+        overloadGate.wakeUp();
+
+        waitStrategy.signalProducers();
     }
 
     /**
@@ -728,7 +945,377 @@ public abstract class Cab<E, M> extends CabPad6 {
         return (M) messageCache;
     }
 
+    /**
+     * Signals the consumer that new entries or a message are available.
+     */
+    protected final void signalConsumer() {
+        waitStrategy.signalConsumer();
+    }
+
+    /**
+     * Signals producers and senders that the consumer has consumed something or was interrupted.
+     */
+    protected final void signalProducers() {
+        waitStrategy.signalProducers();
+    }
+
+    /**
+     * Skips a stale entry of the Ring Buffer as if it were consumed and committed. Must be called by the consumer
+     * for the entry next to the last committed one.
+     *
+     * @param sequence the stale entry's sequence
+     */
+    final void skipEntry(final long sequence) {
+        dropEntry(getEntry(sequence));
+
+        INT_ARRAY_HANDLE.set(entryStates, arrayIndex(sequence), 0);
+
+        publishConsumerSequence(sequence);
+    }
+
+    /**
+     * Publishes the consumer's sequence once all the entries up to it are freed and signals the producers
+     * stalled on the overload gate. Must be called by the consumer.
+     *
+     * @param sequence the last consumed sequence
+     */
+    final void publishConsumerSequence(final long sequence) {
+        CONSUMER_SEQUENCE_UPDATER.set(this, sequence);
+
+        overloadGate.signal(sequence);
+    }
+
+    /**
+     * Raises the consumer's sequence to the given one unless it is already greater or the consumer was
+     * interrupted, and signals the producers stalled on the overload gate. Can be called by several threads
+     * which consume the Ring Buffer together.
+     *
+     * @param sequence the sequence all the entries up to are freed
+     * @return true if the sequence was raised
+     */
+    final boolean raiseConsumerSequence(final long sequence) {
+        long current;
+        while ((current = CONSUMER_SEQUENCE_UPDATER.get(this)) < sequence &&
+                current != CONSUMER_INTERRUPTED_SEQUENCE) {
+            if (CONSUMER_SEQUENCE_UPDATER.compareAndSet(this, current, sequence)) {
+                overloadGate.signal(sequence);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if consumerInterrupt() was called.
+     *
+     * @return true if the consumer was interrupted
+     */
+    final boolean isConsumerInterrupted() {
+        return CONSUMER_SEQUENCE_UPDATER.get(this) == CONSUMER_INTERRUPTED_SEQUENCE;
+    }
+
+    /**
+     * Returns the state of the entry, 0 means the entry is free, 1 means it is committed. Subclasses may use
+     * their own states of committed entries.
+     *
+     * @param sequence identifier of the entry's position
+     * @return the state
+     */
+    final int entryState(final long sequence) {
+        return (int) INT_ARRAY_HANDLE.getVolatile(entryStates, arrayIndex(sequence));
+    }
+
+    /**
+     * Atomically changes the state of the entry if it is the expected one.
+     *
+     * @param sequence identifier of the entry's position
+     * @param expected expected state
+     * @param state    new state
+     * @return true if the state was changed
+     */
+    final boolean compareAndSetEntryState(final long sequence, final int expected, final int state) {
+        return INT_ARRAY_HANDLE.compareAndSet(entryStates, arrayIndex(sequence), expected, state);
+    }
+
+    /**
+     * Sets the state of the entry with release semantics, so, all the writes made before are visible to
+     * the thread which reads the state.
+     *
+     * @param sequence identifier of the entry's position
+     * @param state    new state
+     */
+    final void setEntryStateRelease(final long sequence, final int state) {
+        INT_ARRAY_HANDLE.setRelease(entryStates, arrayIndex(sequence), state);
+    }
+
+    /**
+     * Passes a stale entry skipped by the consumer to the dropped entry handler and accounts it
+     * in numberOfDroppedOldest(). Must be called by the consumer.
+     *
+     * @param entry the dropped entry
+     */
+    final void dropEntry(final E entry) {
+        NUMBER_OF_DROPPED_OLDEST_UPDATER.lazySet(this, numberOfDroppedOldest + 1);
+
+        final Consumer<? super E> handler = droppedEntryHandler;
+        if (handler != null) {
+            handler.accept(entry);
+        }
+    }
+
+    /**
+     * Validates arguments of producerClaim().
+     *
+     * @param n      number of sequences to be claimed
+     * @param policy the overflow policy
+     */
+    final void checkClaim(final int n, final OverflowPolicy policy) {
+        if (n < 1 || n > bufferSize) {
+            throw new IllegalArgumentException(NUMBER_OF_SEQUENCES_OUT_OF_RANGE_MESSAGE + n);
+        }
+        if (policy == null) {
+            throw new NullPointerException(OVERFLOW_POLICY_MUST_NOT_BE_NULL_MESSAGE);
+        }
+    }
+
+    /**
+     * Waits until the consumer's sequence of the Ring Buffer reaches requiredSequence.
+     *
+     * @param requiredSequence consumer's sequence the producer can continue with
+     * @param limitSequence    max consumer's sequence which can be reached while the producer waits
+     * @return last consumer's sequence seen
+     */
+    final long awaitConsumer(final long requiredSequence, final long limitSequence)
+            throws ConsumerInterruptedException, InterruptedException {
+
+        return awaitConsumer(overloadGate, consumerSequenceSupplier, requiredSequence, limitSequence);
+    }
+
+    /**
+     * Waits while the Ring Buffer (or a part of it) is full, until the consumer's sequence reaches requiredSequence.
+     * The wait is accounted in numberOfOverloads() and overloadNanos().
+     *
+     * @param gate             the gate stalled producers are blocked with if the low-water mark is set
+     * @param consumerSequence returns current consumer's sequence
+     * @param requiredSequence consumer's sequence the producer can continue with
+     * @param limitSequence    max consumer's sequence which can be reached while the producer waits,
+     *                         usually the sequence before the first one claimed by the producer
+     * @return last consumer's sequence seen
+     */
+    final long awaitConsumer(
+            final OverloadGate gate,
+            final LongSupplier consumerSequence,
+            final long requiredSequence,
+            final long limitSequence) throws ConsumerInterruptedException, InterruptedException {
+
+        return awaitConsumer(gate, consumerSequence, requiredSequence, limitSequence, false, 0);
+    }
+
+    /**
+     * Handles the full Ring Buffer according to the overflow policy.
+     *
+     * @param policy           the overflow policy
+     * @param requiredSequence consumer's sequence the producer can continue with
+     * @param limitSequence    max consumer's sequence which can be reached while the producer waits
+     * @param timed            true if the wait is bounded by the deadline
+     * @param deadlineNanos    the deadline in terms of System.nanoTime()
+     * @return last consumer's sequence seen, which is less than requiredSequence if the claim was given up
+     */
+    final long awaitConsumer(
+            final OverflowPolicy policy,
+            final long requiredSequence,
+            final long limitSequence,
+            final boolean timed,
+            final long deadlineNanos) throws ConsumerInterruptedException, InterruptedException {
+
+        return awaitConsumer(policy, overloadGate, consumerSequenceSupplier,
+                requiredSequence, limitSequence, timed, deadlineNanos);
+    }
+
+    /**
+     * Handles a full Ring Buffer (or a part of it) according to the overflow policy. REJECT and DROP_NEWEST
+     * give up immediately, BLOCK waits until the consumer's sequence reaches requiredSequence or the deadline
+     * passes. DROP_OLDEST waits only while the consumer skips the stale entries, see awaitStaleSkipped().
+     * A claim given up is accounted in the policy's counter, a DROP_OLDEST one in numberOfRejects().
+     *
+     * @param policy           the overflow policy
+     * @param gate             the gate stalled producers are blocked with if the low-water mark is set
+     * @param consumerSequence returns current consumer's sequence
+     * @param requiredSequence consumer's sequence the producer can continue with
+     * @param limitSequence    max consumer's sequence which can be reached while the producer waits
+     * @param timed            true if the wait is bounded by the deadline
+     * @param deadlineNanos    the deadline in terms of System.nanoTime()
+     * @return last consumer's sequence seen, which is less than requiredSequence if the claim was given up
+     */
+    final long awaitConsumer(
+            final OverflowPolicy policy,
+            final OverloadGate gate,
+            final LongSupplier consumerSequence,
+            final long requiredSequence,
+            final long limitSequence,
+            final boolean timed,
+            final long deadlineNanos) throws ConsumerInterruptedException, InterruptedException {
+
+        if (policy == OverflowPolicy.REJECT) {
+            NUMBER_OF_REJECTS_UPDATER.incrementAndGet(this);
+            return GIVEN_UP_SEQUENCE;
+        }
+        if (policy == OverflowPolicy.DROP_NEWEST) {
+            NUMBER_OF_DROPPED_NEWEST_UPDATER.incrementAndGet(this);
+            return GIVEN_UP_SEQUENCE;
+        }
+
+        final long cs = policy == OverflowPolicy.DROP_OLDEST ?
+                awaitStaleSkipped(consumerSequence, requiredSequence, timed, deadlineNanos) :
+                awaitConsumer(gate, consumerSequence, requiredSequence, limitSequence, timed, deadlineNanos);
+        if (cs < requiredSequence) { // timed out or the consumer is stalled
+            NUMBER_OF_REJECTS_UPDATER.incrementAndGet(this);
+        }
+        return cs;
+    }
+
+    /**
+     * Waits while the Ring Buffer (or a part of it) is full, until the consumer's sequence reaches requiredSequence
+     * or the deadline passes. The wait is accounted in numberOfOverloads() and overloadNanos().
+     *
+     * @param gate             the gate stalled producers are blocked with if the low-water mark is set
+     * @param consumerSequence returns current consumer's sequence
+     * @param requiredSequence consumer's sequence the producer can continue with
+     * @param limitSequence    max consumer's sequence which can be reached while the producer waits
+     * @param timed            true if the wait is bounded by the deadline
+     * @param deadlineNanos    the deadline in terms of System.nanoTime()
+     * @return last consumer's sequence seen, which is less than requiredSequence if the deadline passed
+     */
+    private long awaitConsumer(
+            final OverloadGate gate,
+            final LongSupplier consumerSequence,
+            final long requiredSequence,
+            final long limitSequence,
+            final boolean timed,
+            final long deadlineNanos) throws ConsumerInterruptedException, InterruptedException {
+
+        final long startNanos = System.nanoTime();
+        final int lowWaterMark = overloadLowWaterMark;
+        final long wakeupSequence = Math.min(requiredSequence + lowWaterMark - 1, limitSequence);
+
+        while (true) {
+            final long cs = consumerSequence.getAsLong();
+
+            if (cs == CONSUMER_INTERRUPTED_SEQUENCE) {
+                throw new ConsumerInterruptedException();
+            }
+
+            if (cs >= requiredSequence) { // there is some free space in the buffer
+                return overloaded(startNanos, cs);
+            }
+
+            if (timed && deadlineNanos - System.nanoTime() <= 0) {
+                return overloaded(startNanos, cs);
+            }
+
+            // we are here because the buffer is full, so...
+            if (lowWaterMark == 0) {
+                LockSupport.parkNanos(1); // let's give a good chance to the consumer
+            } else {
+                gate.await(wakeupSequence, consumerSequence, timed, deadlineNanos);
+            }
+
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    /**
+     * Waits while the consumer skips the entries marked as stale, until the consumer's sequence reaches
+     * requiredSequence. A consumer busy with a slow entry doesn't skip anything, so, the producer gives up
+     * once the consumer's sequence hasn't moved for DROP_OLDEST_MAX_STALLED_CHECKS checks in a row (a yield
+     * each) or the deadline passes. The stale entries stay marked, so, the consumer skips them later anyway.
+     * The wait is accounted in numberOfOverloads() and overloadNanos().
+     *
+     * @param consumerSequence returns current consumer's sequence
+     * @param requiredSequence consumer's sequence the producer can continue with
+     * @param timed            true if the wait is bounded by the deadline
+     * @param deadlineNanos    the deadline in terms of System.nanoTime()
+     * @return last consumer's sequence seen, which is less than requiredSequence if the producer gave up
+     */
+    private long awaitStaleSkipped(
+            final LongSupplier consumerSequence,
+            final long requiredSequence,
+            final boolean timed,
+            final long deadlineNanos) throws ConsumerInterruptedException, InterruptedException {
+
+        final long startNanos = System.nanoTime();
+
+        long lastCs = consumerSequence.getAsLong();
+        int stalledChecks = 0;
+
+        while (true) {
+            if (lastCs == CONSUMER_INTERRUPTED_SEQUENCE) {
+                throw new ConsumerInterruptedException();
+            }
+
+            if (lastCs >= requiredSequence) { // the stale entries are skipped
+                return overloaded(startNanos, lastCs);
+            }
+
+            if (++stalledChecks > DROP_OLDEST_MAX_STALLED_CHECKS || timed && deadlineNanos - System.nanoTime() <= 0) {
+                return overloaded(startNanos, lastCs);
+            }
+
+            Thread.yield(); // let's give a good chance to the consumer
+
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+
+            final long cs = consumerSequence.getAsLong();
+            if (cs != lastCs) { // the consumer is moving
+                lastCs = cs;
+                stalledChecks = 0;
+            }
+        }
+    }
+
+    // counts a stall which has ended with some free space or with the deadline, not with an interruption
+    private long overloaded(final long startNanos, final long consumerSequence) {
+        NUMBER_OF_OVERLOADS_UPDATER.incrementAndGet(this);
+        OVERLOAD_NANOS_UPDATER.addAndGet(this, System.nanoTime() - startNanos);
+        return consumerSequence;
+    }
+
+    /**
+     * Makes the consumer skip all the entries of the Ring Buffer up to the sequence inclusively.
+     *
+     * @param sequence the last stale sequence
+     */
+    final void raiseStaleSequence(final long sequence) {
+        long stale;
+        while ((stale = STALE_SEQUENCE_UPDATER.get(this)) < sequence &&
+                !STALE_SEQUENCE_UPDATER.compareAndSet(this, stale, sequence)) {
+            // another producer has raised it
+        }
+    }
+
+    private boolean isConsumerWakeupRequired() {
+        final LongCab longs = longCab;
+        return OBJECT_ARRAY_HANDLE.getAcquire(messages, messageIndex(messageConsumerSequence + 1)) != null ||
+                wakeUpRequested ||
+                consumerPoll() != NO_SEQUENCE ||
+                longs != null && longs.consumerPoll() != NO_SEQUENCE;
+    }
+
+    private boolean isProducerWakeupRequired() {
+        return MESSAGE_SENDERS_SEQUENCE_UPDATER.get(this) - MESSAGE_CONSUMER_SEQUENCE_UPDATER.get(this) <
+                channelSize ||
+                CONSUMER_SEQUENCE_UPDATER.get(this) == CONSUMER_INTERRUPTED_SEQUENCE;
+    }
+
     private int arrayIndex(final long sequence) {
         return ARRAY_PAD + (int) (sequence & indexMask);
     }
+
+    private int messageIndex(final long sequence) {
+        return ARRAY_PAD + (int) (sequence & messageIndexMask);
+    }
 }
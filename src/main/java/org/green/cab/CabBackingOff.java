@@ -31,7 +31,7 @@ public class CabBackingOff<E, M> extends Cab<E, M> {
             final long maxSpins,
             final long maxYields) {
 
-        super(bufferSize, WaitingStaregy.BACKING_OFF, maxSpins, maxYields, null);
+        super(bufferSize, new BackingOffWaitStrategy(maxSpins, maxYields), null);
     }
 
     public CabBackingOff(
@@ -40,6 +40,6 @@ public class CabBackingOff<E, M> extends Cab<E, M> {
             final long maxYields,
             final Supplier<E> supplier) {
 
-        super(bufferSize, WaitingStaregy.BACKING_OFF, maxSpins, maxYields, supplier);
+        super(bufferSize, new BackingOffWaitStrategy(maxSpins, maxYields), supplier);
     }
 }
\ No newline at end of file
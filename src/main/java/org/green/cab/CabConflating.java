@@ -0,0 +1,396 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2019-2023 Anatoly Gudkov
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.green.cab;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.function.Supplier;
+
+import static org.green.cab.Utils.ARRAY_PAD;
+import static org.green.cab.Utils.LONG_ARRAY_HANDLE;
+import static org.green.cab.Utils.nextPowerOfTwo;
+
+abstract class CabConflatingPad0<E, M> extends Cab<E, M> {
+    protected long p00, p01, p02, p03, p04, p05, p06, p07;
+    protected long p08, p09, p010, p011, p012, p013, p014, p015;
+
+    CabConflatingPad0(
+            final int bufferSize,
+            final WaitStrategy waitStrategy,
+            final Supplier<E> supplier) {
+        super(bufferSize, waitStrategy, supplier);
+    }
+}
+
+abstract class NumberOfConflations<E, M> extends CabConflatingPad0<E, M> {
+    @SuppressWarnings("rawtypes")
+    protected static final AtomicLongFieldUpdater<NumberOfConflations> NUMBER_OF_CONFLATIONS_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(NumberOfConflations.class, "numberOfConflations");
+
+    protected volatile long numberOfConflations;
+
+    NumberOfConflations(
+            final int bufferSize,
+            final WaitStrategy waitStrategy,
+            final Supplier<E> supplier) {
+        super(bufferSize, waitStrategy, supplier);
+    }
+}
+
+abstract class CabConflatingPad1<E, M> extends NumberOfConflations<E, M> {
+    protected long p10, p11, p12, p13, p14, p15, p16, p17;
+    protected long p18, p19, p110, p111, p112, p113, p114, p115;
+
+    CabConflatingPad1(
+            final int bufferSize,
+            final WaitStrategy waitStrategy,
+            final Supplier<E> supplier) {
+        super(bufferSize, waitStrategy, supplier);
+    }
+}
+
+/**
+ * A flavour of the {@link Cab} for streams where only the latest value per key matters, like price ticks
+ * per instrument.
+ * <p>
+ * An entry claimed with producerNextByKey(key) carries the key. If an entry with the same key is still queued,
+ * that is committed but not taken by the consumer yet, the producer gets the sequence of the queued entry
+ * instead of a new one and overwrites the entry in place. So, if the consumer falls behind, the Ring Buffer holds
+ * one entry per key at most and the consumer processes the latest values only.
+ * <p>
+ * The values of a key produced by one thread are consumed in order, since a value either overwrites
+ * the queued one or takes a new position after it. The order between entries of different keys is not kept
+ * once an entry was overwritten.
+ * <p>
+ * A sequence returned by producerNextByKey(key) must be treated as an opaque value, isConflated(sequence) tells
+ * whether it addresses a queued entry to be overwritten.
+ * <p>
+ * To make it work, the consumer marks each entry as taken with an atomic operation before it reads the entry,
+ * and a producer overwriting an entry locks it with an atomic operation as well. The consumer waits while
+ * the next entry is being overwritten.
+ *
+ * @param <E> types of entries in the Ring Buffer
+ * @param <M> type of message in the Channel
+ */
+public class CabConflating<E, M> extends CabConflatingPad1<E, M> {
+
+    private static final long CONFLATED_FLAG = 1L << 62;
+
+    private static final int COMMITTED = 1; // 0 means free, see Cab
+    private static final int WRITING = 2; // a producer overwrites the entry
+    private static final int TAKEN = 3; // the consumer reads the entry
+
+    private static final long NO_LAST_SEQUENCE = -1;
+
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    public static <E, M> CabConflating<E, M> busySpinning(final int bufferSize) {
+        return new CabConflating<>(bufferSize, new BusySpinningWaitStrategy(), null);
+    }
+
+    public static <E, M> CabConflating<E, M> busySpinning(final int bufferSize, final Supplier<E> supplier) {
+        return new CabConflating<>(bufferSize, new BusySpinningWaitStrategy(), supplier);
+    }
+
+    public static <E, M> CabConflating<E, M> yielding(final int bufferSize) {
+        return new CabConflating<>(bufferSize, new YieldingWaitStrategy(), null);
+    }
+
+    public static <E, M> CabConflating<E, M> yielding(final int bufferSize, final Supplier<E> supplier) {
+        return new CabConflating<>(bufferSize, new YieldingWaitStrategy(), supplier);
+    }
+
+    public static <E, M> CabConflating<E, M> backingOff(
+            final int bufferSize,
+            final long maxSpins,
+            final long maxYields) {
+
+        return new CabConflating<>(bufferSize, new BackingOffWaitStrategy(maxSpins, maxYields), null);
+    }
+
+    public static <E, M> CabConflating<E, M> backingOff(
+            final int bufferSize,
+            final long maxSpins,
+            final long maxYields,
+            final Supplier<E> supplier) {
+
+        return new CabConflating<>(bufferSize, new BackingOffWaitStrategy(maxSpins, maxYields), supplier);
+    }
+
+    public static <E, M> CabConflating<E, M> blocking(final int bufferSize) {
+        return new CabConflating<>(bufferSize, new BlockingWaitStrategy(), null);
+    }
+
+    public static <E, M> CabConflating<E, M> blocking(final int bufferSize, final Supplier<E> supplier) {
+        return new CabConflating<>(bufferSize, new BlockingWaitStrategy(), supplier);
+    }
+
+    public static <E, M> CabConflating<E, M> withWaitStrategy(
+            final int bufferSize,
+            final WaitStrategy waitStrategy) {
+
+        return new CabConflating<>(bufferSize, waitStrategy, null);
+    }
+
+    public static <E, M> CabConflating<E, M> withWaitStrategy(
+            final int bufferSize,
+            final WaitStrategy waitStrategy,
+            final Supplier<E> supplier) {
+
+        return new CabConflating<>(bufferSize, waitStrategy, supplier);
+    }
+
+    private final long indexMask;
+
+    private final long[] keys; // a key per entry, published with the entry's commit
+
+    private final int bucketShift;
+    private final long[] lastSequences; // the last keyed sequence per bucket of keys
+
+    CabConflating(
+            final int bufferSize,
+            final WaitStrategy waitStrategy,
+            final Supplier<E> supplier) {
+
+        super(bufferSize, waitStrategy, supplier);
+
+        final int size = bufferSize();
+
+        this.indexMask = size - 1;
+        this.keys = new long[size + 2 * ARRAY_PAD];
+
+        final int numberOfBuckets = nextPowerOfTwo(size * 2); // keeps collisions of different keys rare
+        this.bucketShift = Long.SIZE - Integer.numberOfTrailingZeros(numberOfBuckets);
+        this.lastSequences = new long[numberOfBuckets + 2 * ARRAY_PAD];
+
+        for (int i = 0; i < numberOfBuckets; i++) {
+            LONG_ARRAY_HANDLE.setVolatile(lastSequences, ARRAY_PAD + i, NO_LAST_SEQUENCE);
+        }
+    }
+
+    /**
+     * Returns true if the sequence returned by producerNextByKey() addresses a queued entry with the same key,
+     * which is overwritten by the producer.
+     *
+     * @param sequence a sequence returned by producerNextByKey()
+     * @return true if the entry is overwritten
+     */
+    public static boolean isConflated(final long sequence) {
+        return (sequence & CONFLATED_FLAG) != 0;
+    }
+
+    /**
+     * Returns the position in the Ring Buffer a sequence returned by producerNextByKey() addresses.
+     *
+     * @param sequence a sequence returned by producerNextByKey()
+     * @return the plain sequence
+     */
+    public static long sequenceOf(final long sequence) {
+        return sequence & ~CONFLATED_FLAG;
+    }
+
+    /**
+     * Returns the number of entries which were overwritten instead of taking new positions in the Ring Buffer.
+     *
+     * @return number of conflations
+     */
+    public long numberOfConflations() {
+        return NUMBER_OF_CONFLATIONS_UPDATER.get(this);
+    }
+
+    /**
+     * Returns a sequence for a producer thread to address an entry with the key. If an entry with the same key
+     * is queued, its sequence is returned and the entry must be overwritten, otherwise the next available entry
+     * is claimed like with producerNext(). In both cases the entry must be committed with producerCommit(sequence).
+     *
+     * @param key the entry's key
+     * @return sequence to address the entry
+     * @throws ConsumerInterruptedException if the consumer was interrupted
+     * @throws InterruptedException         if the current thread was interrupted
+     */
+    public long producerNextByKey(final long key) throws ConsumerInterruptedException, InterruptedException {
+        final long conflatedSequence = conflate(key);
+        if (conflatedSequence != NO_SEQUENCE) {
+            return conflatedSequence;
+        }
+
+        return keyed(key, producerNext(1));
+    }
+
+    /**
+     * Returns a sequence for a producer thread to address an entry with the key like producerNextByKey(key),
+     * but if a new entry must be claimed, it is claimed like with producerNext(1, policy).
+     *
+     * @param key    the entry's key
+     * @param policy what to do if the Ring Buffer is full
+     * @return sequence to address the entry or NO_SEQUENCE if the claim was rejected
+     * @throws ConsumerInterruptedException if the consumer was interrupted
+     * @throws InterruptedException         if the current thread was interrupted
+     */
+    public long producerNextByKey(final long key, final OverflowPolicy policy)
+            throws ConsumerInterruptedException, InterruptedException {
+
+        final long conflatedSequence = conflate(key);
+        if (conflatedSequence != NO_SEQUENCE) {
+            return conflatedSequence;
+        }
+
+        return keyed(key, producerNext(1, policy));
+    }
+
+    /**
+     * Returns a sequence for a producer thread to address an entry with the key like producerNextByKey(key),
+     * but if a new entry must be claimed, it is claimed like with producerNext(1, policy, timeout, unit).
+     *
+     * @param key     the entry's key
+     * @param policy  what to do if the Ring Buffer is full
+     * @param timeout max time to wait for the consumer
+     * @param unit    unit of the timeout
+     * @return sequence to address the entry or NO_SEQUENCE if the claim was rejected or timed out
+     * @throws ConsumerInterruptedException if the consumer was interrupted
+     * @throws InterruptedException         if the current thread was interrupted
+     */
+    public long producerNextByKey(
+            final long key,
+            final OverflowPolicy policy,
+            final long timeout,
+            final TimeUnit unit) throws ConsumerInterruptedException, InterruptedException {
+
+        final long conflatedSequence = conflate(key);
+        if (conflatedSequence != NO_SEQUENCE) {
+            return conflatedSequence;
+        }
+
+        return keyed(key, producerNext(1, policy, timeout, unit));
+    }
+
+    @Override
+    public void producerCommit(final long sequence) {
+        super.producerCommit(sequence & ~CONFLATED_FLAG);
+    }
+
+    @Override
+    public void producerCommit(final long firstSequence, final long lastSequence) {
+        super.producerCommit(firstSequence & ~CONFLATED_FLAG, lastSequence & ~CONFLATED_FLAG);
+    }
+
+    @Override
+    protected long consumerPoll() {
+        while (true) {
+            final long nextConsumerSequence = consumerSequence + 1;
+
+            switch (entryState(nextConsumerSequence)) {
+                case COMMITTED:
+                    if (!compareAndSetEntryState(nextConsumerSequence, COMMITTED, TAKEN)) {
+                        continue; // a producer has just started to overwrite it
+                    }
+                    break;
+                case TAKEN: // already taken by the previous poll
+                    break;
+                default: // free or being overwritten
+                    return NO_SEQUENCE;
+            }
+
+            if (nextConsumerSequence > staleSequence) {
+                return nextConsumerSequence;
+            }
+
+            skipEntry(nextConsumerSequence); // the entry was dropped by a producer with DROP_OLDEST policy
+        }
+    }
+
+    @Override
+    public long consumerNextBatch(final long sequence, final int maxBatchSize) {
+        final long limitSequence = sequence + Math.min(maxBatchSize, bufferSize()) - 1;
+
+        long lastSequence = sequence;
+
+        while (lastSequence < limitSequence) {
+            final long nextSequence = lastSequence + 1;
+            final int state = entryState(nextSequence);
+
+            if (state != COMMITTED) {
+                break; // free or being overwritten
+            }
+            if (compareAndSetEntryState(nextSequence, COMMITTED, TAKEN)) {
+                lastSequence = nextSequence;
+            } // otherwise, a producer has just started to overwrite it, let's check again
+        }
+
+        return lastSequence;
+    }
+
+    @Override
+    public E getEntry(final long sequence) {
+        return super.getEntry(sequence & ~CONFLATED_FLAG);
+    }
+
+    @Override
+    public E removeEntry(final long sequence) {
+        return super.removeEntry(sequence & ~CONFLATED_FLAG);
+    }
+
+    @Override
+    public void setEntry(final long sequence, final E entry) {
+        super.setEntry(sequence & ~CONFLATED_FLAG, entry);
+    }
+
+    private long conflate(final long key) {
+        final int bucket = bucketIndex(key);
+        final long lastSequence = (long) LONG_ARRAY_HANDLE.getVolatile(lastSequences, bucket);
+
+        if (lastSequence <= CONSUMER_SEQUENCE_UPDATER.get(this) || // already consumed or there is no one
+                !compareAndSetEntryState(lastSequence, COMMITTED, WRITING)) { // not committed or already taken
+            return NO_SEQUENCE;
+        }
+
+        // the entry is locked, but the position could be reused by the sequence from the next round
+        if (lastSequence <= CONSUMER_SEQUENCE_UPDATER.get(this) || keys[keyIndex(lastSequence)] != key) {
+            setEntryStateRelease(lastSequence, COMMITTED);
+            signalConsumer(); // the consumer could see it being overwritten
+            return NO_SEQUENCE;
+        }
+
+        NUMBER_OF_CONFLATIONS_UPDATER.incrementAndGet(this);
+
+        return lastSequence | CONFLATED_FLAG;
+    }
+
+    private long keyed(final long key, final long sequence) {
+        if (sequence != NO_SEQUENCE) {
+            keys[keyIndex(sequence)] = key; // published by producerCommit()
+
+            LONG_ARRAY_HANDLE.setVolatile(lastSequences, bucketIndex(key), sequence);
+        }
+        return sequence;
+    }
+
+    private int keyIndex(final long sequence) {
+        return ARRAY_PAD + (int) (sequence & indexMask);
+    }
+
+    private int bucketIndex(final long key) {
+        return ARRAY_PAD + (int) ((key * GOLDEN_RATIO) >>> bucketShift);
+    }
+}
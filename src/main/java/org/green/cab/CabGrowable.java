@@ -0,0 +1,465 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2019-2023 Anatoly Gudkov
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.green.cab;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.green.cab.Utils.LONG_ARRAY_HANDLE;
+import static org.green.cab.Utils.nextPowerOfTwo;
+
+/**
+ * A flavour of the {@link Cab} whose Ring Buffer starts small and grows with power-of-two chunks up to a hard cap
+ * when producers find it full, and shrinks back once the chunks have been unused for a while. The chunks are
+ * kept in a table indexed with the number of the chunk a sequence belongs to, and each slot of a chunk keeps
+ * the sequence its entry was committed for like {@link CabStamped} does, so, a chunk can be moved from one
+ * number to another without resetting its slots.
+ * <p>
+ * The Ring Buffer is a window of the installed chunks starting with the chunk of the next sequence to be consumed.
+ * Its capacity is one chunk less than the window, so, the window always has a spare chunk producers can't reach.
+ * The window is maintained by the consumer only: a chunk the consumer has left is moved to the end of the window
+ * before the consumer's sequence is published, so, the Ring Buffer doesn't allocate anything once it has grown.
+ * A producer which finds the Ring Buffer full requests a growth, and the consumer installs a new chunk
+ * at the end of the window before it publishes its sequence next time. If there was no growth request within
+ * the shrink delay, the consumer lowers the capacity first and drops the chunk it has left instead of moving it.
+ * <p>
+ * The capacity is never less than the initial one, which is also the size returned by bufferSize(), so,
+ * a claim of up to bufferSize() sequences never waits for a growth. A producer which finds the Ring Buffer full
+ * waits for the consumer like with a fixed Ring Buffer, and DROP_OLDEST policy drops entries only once
+ * the hard cap is reached.
+ *
+ * @param <E> types of entries in the Ring Buffer
+ * @param <M> type of message in the Channel
+ */
+public class CabGrowable<E, M> extends Cab<E, M> {
+
+    private static final String MAX_CAPACITY_MUST_NOT_BE_LESS_THAN_INITIAL_CAPACITY_MESSAGE =
+            "maxCapacity must not be less than initialCapacity";
+    private static final String MAX_CAPACITY_OUT_OF_RANGE_MESSAGE = "maxCapacity out of range: ";
+    private static final String SHRINK_DELAY_MUST_NOT_BE_NEGATIVE_MESSAGE = "Shrink delay must not be negative";
+
+    private static final int MAX_CAPACITY_LIMIT = 1 << 30;
+
+    private static final int CHUNKS_PER_INITIAL_CAPACITY = 4; // the capacity grows by a quarter of the initial one
+
+    private static final long NO_STAMP = -1; // sequences start with 0, so, no sequence matches a fresh slot
+
+    public static final long DEFAULT_SHRINK_DELAY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    public static <E, M> CabGrowable<E, M> busySpinning(final int initialCapacity, final int maxCapacity) {
+        return new CabGrowable<>(initialCapacity, maxCapacity, new BusySpinningWaitStrategy());
+    }
+
+    public static <E, M> CabGrowable<E, M> yielding(final int initialCapacity, final int maxCapacity) {
+        return new CabGrowable<>(initialCapacity, maxCapacity, new YieldingWaitStrategy());
+    }
+
+    public static <E, M> CabGrowable<E, M> backingOff(
+            final int initialCapacity,
+            final int maxCapacity,
+            final long maxSpins,
+            final long maxYields) {
+
+        return new CabGrowable<>(initialCapacity, maxCapacity, new BackingOffWaitStrategy(maxSpins, maxYields));
+    }
+
+    public static <E, M> CabGrowable<E, M> blocking(final int initialCapacity, final int maxCapacity) {
+        return new CabGrowable<>(initialCapacity, maxCapacity, new BlockingWaitStrategy());
+    }
+
+    public static <E, M> CabGrowable<E, M> withWaitStrategy(
+            final int initialCapacity,
+            final int maxCapacity,
+            final WaitStrategy waitStrategy) {
+
+        return new CabGrowable<>(initialCapacity, maxCapacity, waitStrategy);
+    }
+
+    static final class Chunk {
+        final long[] stamps; // the sequences the entries were committed for, accessed via LONG_ARRAY_HANDLE
+        final Object[] entries;
+
+        Chunk(final int size) {
+            stamps = new long[size];
+            Arrays.fill(stamps, NO_STAMP);
+            entries = new Object[size];
+        }
+    }
+
+    private final int maxCapacity;
+    private final int chunkSize;
+    private final int chunkShift;
+    private final int chunkMask;
+    private final int minChunks;
+    private final int maxChunks;
+    private final long tableMask;
+
+    private final Chunk[] table;
+
+    private volatile int capacity; // written by Consumer only, read by Producers after the consumer's sequence
+    private volatile boolean growthRequested; // set by Producers, reset by Consumer
+
+    private volatile long shrinkDelayNanos = DEFAULT_SHRINK_DELAY_NANOS;
+
+    private volatile long numberOfGrowths; // written by Consumer only
+    private volatile long numberOfShrinks; // written by Consumer only
+
+    // consumer's state
+    private long headChunk; // the chunk of the next sequence to be consumed
+    private int chunks; // number of the installed chunks
+    private long lastPressureNanos; // the last time a growth was requested or the capacity was changed
+
+    CabGrowable(
+            final int initialCapacity,
+            final int maxCapacity,
+            final WaitStrategy waitStrategy) {
+
+        super(initialCapacity, DEFAULT_CHANNEL_SIZE, waitStrategy, null, false);
+
+        if (maxCapacity < bufferSize()) {
+            throw new IllegalArgumentException(MAX_CAPACITY_MUST_NOT_BE_LESS_THAN_INITIAL_CAPACITY_MESSAGE);
+        }
+        if (maxCapacity > MAX_CAPACITY_LIMIT) {
+            throw new IllegalArgumentException(MAX_CAPACITY_OUT_OF_RANGE_MESSAGE + maxCapacity);
+        }
+
+        this.maxCapacity = nextPowerOfTwo(maxCapacity);
+        this.chunkSize = Math.max(1, bufferSize() / CHUNKS_PER_INITIAL_CAPACITY);
+        this.chunkShift = Integer.numberOfTrailingZeros(chunkSize);
+        this.chunkMask = chunkSize - 1;
+        this.minChunks = bufferSize() / chunkSize + 1;
+        this.maxChunks = this.maxCapacity / chunkSize + 1;
+
+        this.table = new Chunk[nextPowerOfTwo(maxChunks)];
+        this.tableMask = table.length - 1;
+
+        for (int i = 0; i < minChunks; i++) {
+            table[i] = new Chunk(chunkSize);
+        }
+        this.chunks = minChunks;
+        this.capacity = bufferSize();
+        this.lastPressureNanos = System.nanoTime();
+    }
+
+    /**
+     * Returns current capacity of the Ring Buffer, which is in range [bufferSize(), maxCapacity()].
+     *
+     * @return current capacity
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the hard cap the capacity of the Ring Buffer grows up to, rounded up to the next power of two.
+     *
+     * @return max capacity
+     */
+    public int maxCapacity() {
+        return maxCapacity;
+    }
+
+    /**
+     * Returns the number of entries the capacity grows or shrinks by at once.
+     *
+     * @return size of a chunk
+     */
+    public int chunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Returns how many times the Ring Buffer has grown by a chunk.
+     *
+     * @return number of growths
+     */
+    public long numberOfGrowths() {
+        return numberOfGrowths;
+    }
+
+    /**
+     * Returns how many times the Ring Buffer has shrunk by a chunk.
+     *
+     * @return number of shrinks
+     */
+    public long numberOfShrinks() {
+        return numberOfShrinks;
+    }
+
+    /**
+     * Sets how long the Ring Buffer should be free of growth requests before it shrinks by a chunk.
+     * The chunk is released once the consumer leaves it, so, an idle Ring Buffer keeps its capacity until
+     * the next entries pass through it.
+     *
+     * @param delay the delay, Long.MAX_VALUE nanoseconds to never shrink
+     * @param unit  unit of the delay
+     */
+    public void setShrinkDelay(final long delay, final TimeUnit unit) {
+        if (delay < 0) {
+            throw new IllegalArgumentException(SHRINK_DELAY_MUST_NOT_BE_NEGATIVE_MESSAGE);
+        }
+        this.shrinkDelayNanos = unit.toNanos(delay);
+    }
+
+    @Override
+    public long producerNext(final int n) throws ConsumerInterruptedException, InterruptedException {
+        if (n < 1 || n > bufferSize()) {
+            throw new IllegalArgumentException(NUMBER_OF_SEQUENCES_OUT_OF_RANGE_MESSAGE + n);
+        }
+
+        final long nextSequence = UNCOMMITTED_PRODUCER_SEQUENCE_UPDATER.addAndGet(this, n);
+
+        while (true) {
+            final long consumerSequence = CONSUMER_SEQUENCE_UPDATER.get(this);
+
+            if (consumerSequence == CONSUMER_INTERRUPTED_SEQUENCE) {
+                throw new ConsumerInterruptedException();
+            }
+
+            final int c = capacity; // read after the consumer's sequence, see finishChunk()
+
+            if (nextSequence - consumerSequence <= c) {
+                return nextSequence;
+            }
+
+            // the buffer is full, and it may be grown or shrunk while the producer waits
+            requestGrowth();
+            awaitConsumer(nextSequence - c, nextSequence - n);
+        }
+    }
+
+    @Override
+    protected long producerClaim(
+            final int n,
+            final OverflowPolicy policy,
+            final boolean timed,
+            final long deadlineNanos) throws ConsumerInterruptedException, InterruptedException {
+
+        checkClaim(n, policy);
+
+        while (true) {
+            final long currentSequence = UNCOMMITTED_PRODUCER_SEQUENCE_UPDATER.get(this);
+            final long nextSequence = currentSequence + n;
+
+            final long consumerSequence = CONSUMER_SEQUENCE_UPDATER.get(this);
+
+            if (consumerSequence == CONSUMER_INTERRUPTED_SEQUENCE) {
+                throw new ConsumerInterruptedException();
+            }
+
+            final int c = capacity; // read after the consumer's sequence, see finishChunk()
+
+            if (nextSequence - consumerSequence <= c) {
+                if (UNCOMMITTED_PRODUCER_SEQUENCE_UPDATER.compareAndSet(this, currentSequence, nextSequence)) {
+                    return nextSequence;
+                }
+                continue; // another producer was faster
+            }
+
+            // the buffer is full
+            requestGrowth();
+
+            final long requiredSequence = nextSequence - c;
+
+            OverflowPolicy p = policy;
+            if (p == OverflowPolicy.DROP_OLDEST) {
+                if (c < maxCapacity) { // the buffer will rather grow
+                    p = OverflowPolicy.BLOCK;
+                } else {
+                    raiseStaleSequence(requiredSequence);
+                }
+            }
+
+            if (awaitConsumer(p, requiredSequence, currentSequence, timed, deadlineNanos) < requiredSequence) {
+                return NO_SEQUENCE;
+            }
+        }
+    }
+
+    @Override
+    public void producerCommit(final long sequence) {
+        final Chunk chunk = chunk(sequence);
+        LONG_ARRAY_HANDLE.setRelease(chunk.stamps, slotIndex(sequence), sequence);
+
+        signalConsumer();
+    }
+
+    @Override
+    public void producerCommit(final long firstSequence, final long lastSequence) {
+        for (long sequence = firstSequence; sequence <= lastSequence; sequence++) {
+            final Chunk chunk = chunk(sequence);
+            LONG_ARRAY_HANDLE.setRelease(chunk.stamps, slotIndex(sequence), sequence);
+        }
+
+        signalConsumer();
+    }
+
+    @Override
+    protected long consumerPoll() {
+        long nextConsumerSequence = consumerSequence + 1;
+
+        while (isCommitted(nextConsumerSequence)) {
+            if (nextConsumerSequence > staleSequence) {
+                return nextConsumerSequence;
+            }
+
+            // the entry was dropped by a producer with DROP_OLDEST policy
+            dropEntry(getEntry(nextConsumerSequence));
+
+            consumed(nextConsumerSequence);
+
+            nextConsumerSequence++;
+        }
+
+        return NO_SEQUENCE;
+    }
+
+    @Override
+    public void consumerCommit(final long sequence) {
+        if (sequence == MESSAGE_RECEIVED_SEQUENCE) {
+            super.consumerCommit(sequence);
+            return;
+        }
+
+        consumed(sequence);
+
+        signalProducers();
+    }
+
+    @Override
+    public long consumerNextBatch(final long sequence, final int maxBatchSize) {
+        final long limitSequence = sequence + Math.min(maxBatchSize, (chunks - 1) * chunkSize) - 1;
+
+        long lastSequence = sequence;
+
+        while (lastSequence < limitSequence &&
+                isCommitted(lastSequence + 1)) {
+            lastSequence++;
+        }
+
+        return lastSequence;
+    }
+
+    @Override
+    public void consumerCommitBatch(final long lastSequence) {
+        consumed(lastSequence);
+
+        signalProducers();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public E getEntry(final long sequence) {
+        return (E) chunk(sequence).entries[slotIndex(sequence)];
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public E removeEntry(final long sequence) {
+        final Object[] entries = chunk(sequence).entries;
+        final int index = slotIndex(sequence);
+        final Object entry = entries[index];
+        entries[index] = null;
+        return (E) entry;
+    }
+
+    @Override
+    public void setEntry(final long sequence, final E entry) {
+        chunk(sequence).entries[slotIndex(sequence)] = entry;
+    }
+
+    private boolean isCommitted(final long sequence) {
+        return (long) LONG_ARRAY_HANDLE.getAcquire(chunk(sequence).stamps, slotIndex(sequence)) == sequence;
+    }
+
+    private void requestGrowth() {
+        if (!growthRequested) {
+            growthRequested = true;
+        }
+    }
+
+    /**
+     * Maintains the window of the chunks and publishes the consumer's sequence. The chunks the consumer
+     * has left are moved or dropped, and a new chunk is installed if a growth was requested, before the sequence
+     * is published. A producer reads the consumer's sequence before the capacity, so, any sequence it claims
+     * belongs to a chunk of the window which is not moved or dropped until the sequence is consumed.
+     *
+     * @param sequence the last consumed sequence
+     */
+    private void consumed(final long sequence) {
+        final long nextChunk = (sequence + 1) >>> chunkShift;
+        while (headChunk < nextChunk) {
+            finishChunk(headChunk);
+            headChunk++;
+        }
+
+        if (growthRequested) {
+            grow();
+        }
+
+        publishConsumerSequence(sequence);
+    }
+
+    private void finishChunk(final long number) {
+        final int position = (int) (number & tableMask);
+
+        if (chunks > minChunks) {
+            final long now = System.nanoTime();
+            if (now - lastPressureNanos >= shrinkDelayNanos) {
+                // the producers which have read the lowered capacity can't reach the end of the window anymore
+                capacity -= chunkSize;
+                table[position] = null;
+                chunks--;
+                lastPressureNanos = now;
+                numberOfShrinks++;
+                return;
+            }
+        }
+
+        table[(int) ((number + chunks) & tableMask)] = table[position];
+    }
+
+    private void grow() {
+        growthRequested = false;
+
+        lastPressureNanos = System.nanoTime();
+
+        if (chunks == maxChunks) {
+            return;
+        }
+
+        table[(int) ((headChunk + chunks) & tableMask)] = new Chunk(chunkSize);
+        chunks++;
+        capacity += chunkSize; // the chunk is visible to the producers which have read the raised capacity
+        numberOfGrowths++;
+    }
+
+    private Chunk chunk(final long sequence) {
+        return table[(int) ((sequence >>> chunkShift) & tableMask)];
+    }
+
+    private int slotIndex(final long sequence) {
+        return (int) (sequence & chunkMask);
+    }
+}
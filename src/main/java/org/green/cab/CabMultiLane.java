@@ -0,0 +1,637 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2019-2023 Anatoly Gudkov
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.green.cab;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.function.LongSupplier;
+
+import static org.green.cab.Utils.ARRAY_PAD;
+import static org.green.cab.Utils.INT_ARRAY_HANDLE;
+import static org.green.cab.Utils.OBJECT_ARRAY_HANDLE;
+
+abstract class LanePad0 {
+    protected long p00, p01, p02, p03, p04, p05, p06, p07;
+    protected long p08, p09, p010, p011, p012, p013, p014, p015;
+}
+
+abstract class LaneProducerState extends LanePad0 {
+    protected long producerSequence; // used by the lane's Producer only, no any membars required
+    protected long consumerSequenceCache; // used by the lane's Producer only, no any membars required
+
+    protected volatile boolean consumerInterrupted; // set once by the consumer
+}
+
+abstract class LanePad1 extends LaneProducerState {
+    protected long p10, p11, p12, p13, p14, p15, p16, p17;
+    protected long p18, p19, p110, p111, p112, p113, p114, p115;
+}
+
+abstract class LaneConsumerSequence extends LanePad1 {
+    protected static final AtomicLongFieldUpdater<LaneConsumerSequence> LANE_CONSUMER_SEQUENCE_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(LaneConsumerSequence.class, "consumerSequence");
+
+    protected volatile long consumerSequence;
+}
+
+abstract class LanePad2 extends LaneConsumerSequence {
+    protected long p20, p21, p22, p23, p24, p25, p26, p27;
+    protected long p28, p29, p210, p211, p212, p213, p214, p215;
+}
+
+abstract class LaneStaleSequence extends LanePad2 {
+    protected volatile long staleSequence; // raised by the lane's Producer, entries up to it are skipped by Consumer
+}
+
+abstract class LanePad3 extends LaneStaleSequence {
+    protected long p30, p31, p32, p33, p34, p35, p36, p37;
+    protected long p38, p39, p310, p311, p312, p313, p314, p315;
+}
+
+/**
+ * Single-producer single-consumer sub-ring of a {@link Cab} with several lanes.
+ */
+final class Lane extends LanePad3 {
+    final int id;
+
+    Thread owner; // guarded by the lanes of the Cab, null if the lane is free
+    Thread lastOwner; // guarded by the lanes of the Cab, the thread which released the lane takes it back first
+
+    private final long indexMask;
+
+    final Object[] entries;
+    final int[] states;
+
+    final OverloadGate overloadGate = new OverloadGate();
+    final LongSupplier consumerSequenceSupplier = () -> consumerInterrupted ?
+            Cab.CONSUMER_INTERRUPTED_SEQUENCE : LANE_CONSUMER_SEQUENCE_UPDATER.get(this);
+
+    Lane(final int id, final int bufferSize) {
+        this.id = id;
+        this.indexMask = bufferSize - 1;
+        this.entries = new Object[bufferSize + 2 * ARRAY_PAD];
+        this.states = new int[entries.length];
+
+        producerSequence = -1;
+        consumerSequenceCache = -1;
+        LANE_CONSUMER_SEQUENCE_UPDATER.set(this, -1);
+        staleSequence = -1;
+    }
+
+    int arrayIndex(final long laneSequence) {
+        return ARRAY_PAD + (int) (laneSequence & indexMask);
+    }
+}
+
+abstract class CabMultiLanePad0<E, M> extends Cab<E, M> {
+    protected long p00, p01, p02, p03, p04, p05, p06, p07;
+    protected long p08, p09, p010, p011, p012, p013, p014, p015;
+
+    CabMultiLanePad0(
+            final int bufferSize,
+            final WaitStrategy waitStrategy) {
+        super(bufferSize, waitStrategy, null);
+    }
+}
+
+abstract class ConsumerLaneCursor<E, M> extends CabMultiLanePad0<E, M> {
+    protected int consumerLaneCursor; // used by Consumer only, no any membars required
+
+    ConsumerLaneCursor(
+            final int bufferSize,
+            final WaitStrategy waitStrategy) {
+        super(bufferSize, waitStrategy);
+    }
+}
+
+abstract class CabMultiLanePad1<E, M> extends ConsumerLaneCursor<E, M> {
+    protected long p10, p11, p12, p13, p14, p15, p16, p17;
+    protected long p18, p19, p110, p111, p112, p113, p114, p115;
+
+    CabMultiLanePad1(
+            final int bufferSize,
+            final WaitStrategy waitStrategy) {
+        super(bufferSize, waitStrategy);
+    }
+}
+
+/**
+ * A flavour of the {@link Cab} which gives each producing thread its own padded single-producer sub-ring (a lane),
+ * so, producers don't contend on the shared producers' sequence. The consumer drains the lanes round-robin
+ * and the Channel still has priority over all the lanes.
+ * <p>
+ * A lane is bound to a producing thread on its first claim until the thread releases it with
+ * {@link #releaseProducerLane()} or terminates, then the lane is bound to the next producing thread, so,
+ * short-lived producing threads don't use the lanes up. If all the lanes are taken, next producing threads
+ * share the Ring Buffer of the base {@link Cab} (the shared lane) until they release it.
+ * Entries produced by one thread are consumed in order, but there is no order between entries of different
+ * threads. To keep the order, a released lane is bound to another thread only once the consumer has drained it,
+ * and a thread whose entries haven't been consumed yet gets its previous lane (or the shared lane) back.
+ * The lane of a terminated thread is taken over only if all the sequences claimed by the thread are committed,
+ * otherwise the lane is abandoned.
+ * <p>
+ * Sequences returned by this Cab carry the lane's identifier in their upper bits and must be treated as opaque
+ * values.
+ *
+ * @param <E> types of entries in the Ring Buffer
+ * @param <M> type of message in the Channel
+ */
+public class CabMultiLane<E, M> extends CabMultiLanePad1<E, M> {
+
+    public static final int MAX_NUMBER_OF_LANES = 126;
+
+    private static final int LANE_SHIFT = 56;
+    private static final long LANE_SEQUENCE_MASK = (1L << LANE_SHIFT) - 1;
+
+    private static final int SHARED_LANE_ID = 0;
+
+    private static final Lane SHARED_LANE = new Lane(SHARED_LANE_ID, 1);
+
+    private static final String NUMBER_OF_LANES_OUT_OF_RANGE_MESSAGE = "numberOfLanes must be in range [1, " +
+            MAX_NUMBER_OF_LANES + "]";
+
+    public static <E, M> CabMultiLane<E, M> busySpinning(final int bufferSize, final int numberOfLanes) {
+        return new CabMultiLane<>(bufferSize, numberOfLanes, new BusySpinningWaitStrategy());
+    }
+
+    public static <E, M> CabMultiLane<E, M> yielding(final int bufferSize, final int numberOfLanes) {
+        return new CabMultiLane<>(bufferSize, numberOfLanes, new YieldingWaitStrategy());
+    }
+
+    public static <E, M> CabMultiLane<E, M> backingOff(
+            final int bufferSize,
+            final int numberOfLanes,
+            final long maxSpins,
+            final long maxYields) {
+
+        return new CabMultiLane<>(bufferSize, numberOfLanes, new BackingOffWaitStrategy(maxSpins, maxYields));
+    }
+
+    public static <E, M> CabMultiLane<E, M> blocking(final int bufferSize, final int numberOfLanes) {
+        return new CabMultiLane<>(bufferSize, numberOfLanes, new BlockingWaitStrategy());
+    }
+
+    public static <E, M> CabMultiLane<E, M> withWaitStrategy(
+            final int bufferSize,
+            final int numberOfLanes,
+            final WaitStrategy waitStrategy) {
+
+        return new CabMultiLane<>(bufferSize, numberOfLanes, waitStrategy);
+    }
+
+    private final ThreadLocal<Lane> producerLanes = new ThreadLocal<>();
+
+    // the producers' sequence of the shared lane when the current thread released it, not consumed yet maybe
+    private final ThreadLocal<Long> sharedLaneReleases = new ThreadLocal<>();
+
+    private final Lane[] lanes;
+
+    private volatile int numberOfRegisteredLanes; // guarded by lanes for writes
+
+    CabMultiLane(
+            final int bufferSize,
+            final int numberOfLanes,
+            final WaitStrategy waitStrategy) {
+
+        super(bufferSize, waitStrategy);
+
+        if (numberOfLanes < 1 || numberOfLanes > MAX_NUMBER_OF_LANES) {
+            throw new IllegalArgumentException(NUMBER_OF_LANES_OUT_OF_RANGE_MESSAGE);
+        }
+
+        this.lanes = new Lane[numberOfLanes];
+    }
+
+    /**
+     * Returns the number of lanes created so far. A released lane is reused once it's drained, so, the number
+     * doesn't exceed the number of threads which produce at the same time unless the consumer falls behind.
+     *
+     * @return number of the lanes created
+     */
+    public int numberOfRegisteredLanes() {
+        return numberOfRegisteredLanes;
+    }
+
+    /**
+     * Unbinds the lane of the current thread, so, it can be bound to another producing thread once the consumer
+     * has drained it. Must be called after the last claimed sequence is committed. The current thread gets a lane
+     * again on its next claim, the same one if its entries haven't been consumed yet.
+     */
+    public void releaseProducerLane() {
+        final Lane lane = producerLanes.get();
+
+        if (lane == null) {
+            return;
+        }
+
+        producerLanes.remove();
+
+        if (lane.id == SHARED_LANE_ID) {
+            sharedLaneReleases.set(UNCOMMITTED_PRODUCER_SEQUENCE_UPDATER.get(this)); // covers all the thread's claims
+            return;
+        }
+
+        synchronized (lanes) {
+            lane.owner = null;
+            lane.lastOwner = Thread.currentThread();
+        }
+    }
+
+    @Override
+    public long producerNext(final int n) throws ConsumerInterruptedException, InterruptedException {
+        final Lane lane = producerLane();
+
+        if (lane.id == SHARED_LANE_ID) {
+            return super.producerNext(n);
+        }
+
+        final int bufferSize = bufferSize();
+
+        if (n < 1 || n > bufferSize) {
+            throw new IllegalArgumentException(NUMBER_OF_SEQUENCES_OUT_OF_RANGE_MESSAGE + n);
+        }
+
+        if (lane.consumerInterrupted) {
+            throw new ConsumerInterruptedException();
+        }
+
+        final long nextSequence = lane.producerSequence + n;
+
+        if (nextSequence - lane.consumerSequenceCache > bufferSize) { // the cache says the lane is full, let's check
+            final long consumerSequence = LaneConsumerSequence.LANE_CONSUMER_SEQUENCE_UPDATER.get(lane);
+
+            lane.consumerSequenceCache = nextSequence - consumerSequence <= bufferSize ?
+                    consumerSequence :
+                    awaitConsumer(lane.overloadGate, lane.consumerSequenceSupplier,
+                            nextSequence - bufferSize, lane.producerSequence);
+        }
+
+        lane.producerSequence = nextSequence;
+
+        return sequence(lane.id, nextSequence);
+    }
+
+    @Override
+    protected long producerClaim(
+            final int n,
+            final OverflowPolicy policy,
+            final boolean timed,
+            final long deadlineNanos) throws ConsumerInterruptedException, InterruptedException {
+
+        final Lane lane = producerLane();
+
+        if (lane.id == SHARED_LANE_ID) {
+            return super.producerClaim(n, policy, timed, deadlineNanos);
+        }
+
+        checkClaim(n, policy);
+
+        if (lane.consumerInterrupted) {
+            throw new ConsumerInterruptedException();
+        }
+
+        final int bufferSize = bufferSize();
+        final long nextSequence = lane.producerSequence + n;
+
+        if (nextSequence - lane.consumerSequenceCache > bufferSize) { // the cache says the lane is full, let's check
+            final long consumerSequence = LaneConsumerSequence.LANE_CONSUMER_SEQUENCE_UPDATER.get(lane);
+
+            if (nextSequence - consumerSequence <= bufferSize) {
+                lane.consumerSequenceCache = consumerSequence;
+            } else {
+                final long requiredSequence = nextSequence - bufferSize;
+
+                if (policy == OverflowPolicy.DROP_OLDEST) {
+                    lane.staleSequence = requiredSequence; // the lane has one single producer
+                }
+
+                final long cs = awaitConsumer(policy, lane.overloadGate, lane.consumerSequenceSupplier,
+                        requiredSequence, lane.producerSequence, timed, deadlineNanos);
+                if (cs < requiredSequence) {
+                    return NO_SEQUENCE;
+                }
+                lane.consumerSequenceCache = cs;
+            }
+        }
+
+        lane.producerSequence = nextSequence;
+
+        return sequence(lane.id, nextSequence);
+    }
+
+    @Override
+    public void producerCommit(final long sequence) {
+        final int laneId = laneId(sequence);
+
+        if (laneId == SHARED_LANE_ID) {
+            super.producerCommit(sequence);
+            return;
+        }
+
+        final Lane lane = lanes[laneId - 1];
+
+        INT_ARRAY_HANDLE.setRelease(lane.states, lane.arrayIndex(laneSequence(sequence)), 1);
+
+        signalConsumer();
+    }
+
+    @Override
+    public void producerCommit(final long firstSequence, final long lastSequence) {
+        final int laneId = laneId(firstSequence);
+
+        if (laneId == SHARED_LANE_ID) {
+            super.producerCommit(firstSequence, lastSequence);
+            return;
+        }
+
+        final Lane lane = lanes[laneId - 1];
+        final int[] states = lane.states;
+
+        final long lastLaneSequence = laneSequence(lastSequence);
+        for (long s = laneSequence(firstSequence); s <= lastLaneSequence; s++) {
+            INT_ARRAY_HANDLE.setRelease(states, lane.arrayIndex(s), 1);
+        }
+
+        signalConsumer();
+    }
+
+    @Override
+    protected long consumerPoll() {
+        final int numberOfPositions = numberOfRegisteredLanes + 1; // the shared lane has position 0
+
+        int cursor = consumerLaneCursor;
+
+        for (int i = 0; i < numberOfPositions; i++) {
+            if (cursor >= numberOfPositions) {
+                cursor = 0;
+            }
+
+            final long sequence = cursor == 0 ? super.consumerPoll() : pollLane(lanes[cursor - 1]);
+
+            cursor++;
+
+            if (sequence != NO_SEQUENCE) {
+                consumerLaneCursor = cursor; // next time start from the next lane
+                return sequence;
+            }
+        }
+
+        return NO_SEQUENCE;
+    }
+
+    @Override
+    public long consumerNextBatch(final long sequence, final int maxBatchSize) {
+        final int laneId = laneId(sequence);
+
+        if (laneId == SHARED_LANE_ID) {
+            return super.consumerNextBatch(sequence, maxBatchSize);
+        }
+
+        final Lane lane = lanes[laneId - 1];
+        final int[] states = lane.states;
+
+        final long firstLaneSequence = laneSequence(sequence);
+        final long limitLaneSequence = firstLaneSequence + Math.min(maxBatchSize, bufferSize()) - 1;
+
+        long lastLaneSequence = firstLaneSequence;
+
+        while (lastLaneSequence < limitLaneSequence &&
+                (int) INT_ARRAY_HANDLE.getVolatile(states, lane.arrayIndex(lastLaneSequence + 1)) != 0) {
+            lastLaneSequence++;
+        }
+
+        return sequence(laneId, lastLaneSequence);
+    }
+
+    @Override
+    public void consumerCommit(final long sequence) {
+        if (sequence == MESSAGE_RECEIVED_SEQUENCE || laneId(sequence) == SHARED_LANE_ID) {
+            super.consumerCommit(sequence);
+            return;
+        }
+
+        consumerCommitBatch(sequence);
+    }
+
+    @Override
+    public void consumerCommitBatch(final long lastSequence) {
+        final int laneId = laneId(lastSequence);
+
+        if (laneId == SHARED_LANE_ID) {
+            super.consumerCommitBatch(lastSequence);
+            return;
+        }
+
+        final Lane lane = lanes[laneId - 1];
+        final int[] states = lane.states;
+
+        final long lastLaneSequence = laneSequence(lastSequence);
+        for (long s = lane.consumerSequence + 1; s <= lastLaneSequence; s++) {
+            INT_ARRAY_HANDLE.set(states, lane.arrayIndex(s), 0);
+        }
+        LaneConsumerSequence.LANE_CONSUMER_SEQUENCE_UPDATER.set(lane, lastLaneSequence);
+
+        lane.overloadGate.signal(lastLaneSequence);
+
+        signalProducers();
+    }
+
+    @Override
+    public void consumerInterrupt() {
+        synchronized (lanes) {
+            for (int i = 0; i < numberOfRegisteredLanes; i++) {
+                final Lane lane = lanes[i];
+
+                lane.consumerInterrupted = true;
+                lane.overloadGate.wakeUp();
+            }
+
+            super.consumerInterrupt();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E getEntry(final long sequence) {
+        final int laneId = laneId(sequence);
+
+        if (laneId == SHARED_LANE_ID) {
+            return super.getEntry(sequence);
+        }
+
+        final Lane lane = lanes[laneId - 1];
+        return (E) OBJECT_ARRAY_HANDLE.getVolatile(lane.entries, lane.arrayIndex(laneSequence(sequence)));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E removeEntry(final long sequence) {
+        final int laneId = laneId(sequence);
+
+        if (laneId == SHARED_LANE_ID) {
+            return super.removeEntry(sequence);
+        }
+
+        final Lane lane = lanes[laneId - 1];
+        return (E) OBJECT_ARRAY_HANDLE.getAndSet(lane.entries, lane.arrayIndex(laneSequence(sequence)), null);
+    }
+
+    @Override
+    public void setEntry(final long sequence, final E entry) {
+        final int laneId = laneId(sequence);
+
+        if (laneId == SHARED_LANE_ID) {
+            super.setEntry(sequence, entry);
+            return;
+        }
+
+        final Lane lane = lanes[laneId - 1];
+        OBJECT_ARRAY_HANDLE.setVolatile(lane.entries, lane.arrayIndex(laneSequence(sequence)), entry);
+    }
+
+    private Lane producerLane() {
+        Lane lane = producerLanes.get();
+
+        if (lane == null) {
+            final Thread current = Thread.currentThread();
+            final Long sharedLaneRelease = sharedLaneReleases.get();
+
+            synchronized (lanes) {
+                final int laneIndex = numberOfRegisteredLanes;
+
+                lane = releasedLane(current);
+
+                if (lane == null && sharedLaneRelease != null && consumerSequence < sharedLaneRelease) {
+                    lane = SHARED_LANE; // the entries the thread has sent through the shared lane aren't consumed
+                }
+                if (lane == null) {
+                    lane = freeLane();
+                }
+                if (lane == null && laneIndex < lanes.length) {
+                    lane = new Lane(laneIndex + 1, bufferSize());
+                    lane.consumerInterrupted = consumerSequence == CONSUMER_INTERRUPTED_SEQUENCE;
+
+                    lanes[laneIndex] = lane;
+                    numberOfRegisteredLanes = laneIndex + 1;
+                }
+                if (lane == null) {
+                    lane = SHARED_LANE;
+                }
+
+                if (lane != SHARED_LANE) { // the shared lane isn't owned
+                    lane.owner = current;
+                    lane.lastOwner = null;
+                }
+            }
+
+            if (sharedLaneRelease != null) {
+                sharedLaneReleases.remove();
+            }
+            producerLanes.set(lane);
+        }
+
+        return lane;
+    }
+
+    // called under the monitor of the lanes, returns the lane the thread has released if nobody has taken it since
+    private Lane releasedLane(final Thread thread) {
+        for (int i = 0; i < numberOfRegisteredLanes; i++) {
+            final Lane lane = lanes[i];
+
+            if (lane.owner == null && lane.lastOwner == thread) {
+                return lane;
+            }
+        }
+
+        return null;
+    }
+
+    // called under the monitor of the lanes, a released lane is taken once it's drained, so, the entries of
+    // the thread which has released it aren't reordered, and the lane of a terminated owner is taken over
+    // once all its claims are committed, otherwise the consumer would wait for the rest forever
+    private Lane freeLane() {
+        for (int i = 0; i < numberOfRegisteredLanes; i++) {
+            final Lane lane = lanes[i];
+            final Thread owner = lane.owner;
+
+            if (owner == null ? isDrained(lane) : !owner.isAlive() && isCommitted(lane)) {
+                return lane;
+            }
+        }
+
+        return null;
+    }
+
+    // the producer's sequence was published by the monitor of the lanes or by the termination of the producer
+    private static boolean isDrained(final Lane lane) {
+        return LaneConsumerSequence.LANE_CONSUMER_SEQUENCE_UPDATER.get(lane) >= lane.producerSequence;
+    }
+
+    private static boolean isCommitted(final Lane lane) {
+        for (long s = lane.producerSequence; s > LaneConsumerSequence.LANE_CONSUMER_SEQUENCE_UPDATER.get(lane); s--) {
+            if ((int) INT_ARRAY_HANDLE.getVolatile(lane.states, lane.arrayIndex(s)) == 0 &&
+                    s > LaneConsumerSequence.LANE_CONSUMER_SEQUENCE_UPDATER.get(lane)) { // not consumed meanwhile
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private long pollLane(final Lane lane) {
+        final int[] states = lane.states;
+
+        long nextLaneSequence = lane.consumerSequence + 1;
+
+        while ((int) INT_ARRAY_HANDLE.getVolatile(states, lane.arrayIndex(nextLaneSequence)) != 0) {
+            if (nextLaneSequence > lane.staleSequence) {
+                return sequence(lane.id, nextLaneSequence);
+            }
+
+            // the entry was dropped by the lane's producer with DROP_OLDEST policy
+            dropEntry((E) OBJECT_ARRAY_HANDLE.getVolatile(lane.entries, lane.arrayIndex(nextLaneSequence)));
+
+            INT_ARRAY_HANDLE.set(states, lane.arrayIndex(nextLaneSequence), 0);
+            LaneConsumerSequence.LANE_CONSUMER_SEQUENCE_UPDATER.set(lane, nextLaneSequence);
+
+            lane.overloadGate.signal(nextLaneSequence);
+
+            nextLaneSequence++;
+        }
+
+        return NO_SEQUENCE;
+    }
+
+    private static long sequence(final int laneId, final long laneSequence) {
+        return ((long) laneId << LANE_SHIFT) | laneSequence;
+    }
+
+    private static int laneId(final long sequence) {
+        return (int) (sequence >>> LANE_SHIFT);
+    }
+
+    private static long laneSequence(final long sequence) {
+        return sequence & LANE_SEQUENCE_MASK;
+    }
+}
\ No newline at end of file
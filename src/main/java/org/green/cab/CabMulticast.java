@@ -0,0 +1,265 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2019-2023 Anatoly Gudkov
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.green.cab;
+
+import java.util.function.Supplier;
+
+/**
+ * A flavour of the {@link CabStamped} whose entries are read by several consumer threads, the stages, each with
+ * its own sequence, so, an entry written once is processed by independent stages in parallel, e.g. by
+ * a journaler, a replicator and a business logic. Stages are created with newStage(dependencies) before
+ * the consumers start, a stage receives an entry only after all its dependencies have committed it.
+ * The consumer of the Cab, which receives the messages of the Channel too, is one of the stages and
+ * can be gated with gateConsumer(dependencies).
+ * <p>
+ * A slot of the Ring Buffer is reused by producers only after all the stages have committed its entry.
+ * Entries are never dropped for some stages only, so, {@link OverflowPolicy#DROP_OLDEST} drops nothing: producers
+ * wait while the stages keep moving and reject the claim like {@link OverflowPolicy#REJECT} once they stall.
+ * <p>
+ * Each stage waits with its own instance of the wait strategy got from the supplier given, the consumer of
+ * the Cab and the producers use the first one.
+ *
+ * @param <E> types of entries in the Ring Buffer
+ * @param <M> type of message in the Channel
+ */
+public class CabMulticast<E, M> extends CabStamped<E, M> {
+
+    private static final CabStage<?>[] NO_STAGES = new CabStage<?>[0];
+
+    private static final String STAGE_OF_ANOTHER_CAB_MESSAGE = "The stage belongs to another Cab";
+    private static final String CONSUMER_ALREADY_GATED_MESSAGE = "The consumer is already gated";
+    private static final String NO_DEPENDENCIES_MESSAGE = "At least one dependency is required";
+
+    public static <E, M> CabMulticast<E, M> busySpinning(final int bufferSize) {
+        return new CabMulticast<>(bufferSize, BusySpinningWaitStrategy::new, null);
+    }
+
+    public static <E, M> CabMulticast<E, M> yielding(final int bufferSize) {
+        return new CabMulticast<>(bufferSize, YieldingWaitStrategy::new, null);
+    }
+
+    public static <E, M> CabMulticast<E, M> backingOff(
+            final int bufferSize,
+            final long maxSpins,
+            final long maxYields) {
+
+        return new CabMulticast<>(bufferSize, () -> new BackingOffWaitStrategy(maxSpins, maxYields), null);
+    }
+
+    public static <E, M> CabMulticast<E, M> blocking(final int bufferSize) {
+        return new CabMulticast<>(bufferSize, BlockingWaitStrategy::new, null);
+    }
+
+    public static <E, M> CabMulticast<E, M> withWaitStrategies(
+            final int bufferSize,
+            final Supplier<WaitStrategy> waitStrategies,
+            final Supplier<E> supplier) {
+
+        return new CabMulticast<>(bufferSize, waitStrategies, supplier);
+    }
+
+    private final Supplier<WaitStrategy> waitStrategies;
+
+    // set up before the consumers start
+    private CabStage<E> consumerStage;
+    private CabStage<?>[] leafStages;
+    private WaitStrategy[] rootStrategies = new WaitStrategy[0]; // of the stages signaled by producers
+    private CabStage<?>[] stages = NO_STAGES; // all but the consumer's one
+
+    CabMulticast(
+            final int bufferSize,
+            final Supplier<WaitStrategy> waitStrategies,
+            final Supplier<E> supplier) {
+
+        super(bufferSize, waitStrategies.get(), supplier);
+
+        this.waitStrategies = waitStrategies;
+
+        this.consumerStage = new CabStage<>(this, waitStrategy(), NO_STAGES);
+        this.leafStages = new CabStage<?>[] {consumerStage};
+    }
+
+    /**
+     * Creates a new stage which receives the entries after all the dependencies have committed them.
+     * Must be called before the consumers start.
+     *
+     * @param dependencies stages of this Cab the new stage waits for, none if the stage reads the entries
+     *                     as soon as they are committed by producers
+     * @return the stage
+     * @throws IllegalArgumentException if a dependency is a stage of another Cab
+     */
+    public final CabStage<E> newStage(final CabStage<?>... dependencies) {
+        checkDependencies(dependencies);
+
+        final CabStage<E> stage = new CabStage<>(this, waitStrategies.get(), dependencies.clone());
+
+        for (final CabStage<?> dependency : dependencies) {
+            dependency.addDependent(stage.waitStrategy());
+        }
+        if (stage.isRoot()) {
+            rootStrategies = append(rootStrategies, stage.waitStrategy());
+        }
+        stages = append(stages, stage);
+
+        updateLeafStages();
+
+        return stage;
+    }
+
+    /**
+     * Makes the consumer of the Cab receive the entries after all the dependencies have committed them.
+     * Messages of the Channel are received by the consumer as soon as they are sent regardless of the stages.
+     * Must be called before the consumers start.
+     *
+     * @param dependencies stages of this Cab the consumer waits for
+     * @throws IllegalArgumentException if there is no dependency or a dependency is a stage of another Cab
+     * @throws IllegalStateException    if the consumer is already gated
+     */
+    public final void gateConsumer(final CabStage<?>... dependencies) {
+        if (!consumerStage.isRoot()) {
+            throw new IllegalStateException(CONSUMER_ALREADY_GATED_MESSAGE);
+        }
+        if (dependencies.length == 0) {
+            throw new IllegalArgumentException(NO_DEPENDENCIES_MESSAGE);
+        }
+        checkDependencies(dependencies);
+
+        consumerStage = new CabStage<>(this, waitStrategy(), dependencies.clone());
+
+        for (final CabStage<?> dependency : dependencies) {
+            dependency.addDependent(waitStrategy());
+        }
+
+        updateLeafStages();
+    }
+
+    @Override
+    public void producerCommit(final long sequence) {
+        super.producerCommit(sequence);
+
+        signalStages();
+    }
+
+    @Override
+    public void producerCommit(final long firstSequence, final long lastSequence) {
+        super.producerCommit(firstSequence, lastSequence);
+
+        signalStages();
+    }
+
+    @Override
+    protected long consumerPoll() {
+        return consumerStage.poll();
+    }
+
+    @Override
+    public void consumerCommit(final long sequence) {
+        if (sequence == MESSAGE_RECEIVED_SEQUENCE) {
+            super.consumerCommit(sequence);
+            return;
+        }
+
+        consumerStage.consumerCommit(sequence);
+    }
+
+    @Override
+    public long consumerNextBatch(final long sequence, final int maxBatchSize) {
+        return consumerStage.consumerNextBatch(sequence, maxBatchSize);
+    }
+
+    @Override
+    public void consumerCommitBatch(final long lastSequence) {
+        consumerStage.consumerCommitBatch(lastSequence);
+    }
+
+    /**
+     * Interrupts the consumer and all the stages. Producers, message senders and the stages will get
+     * an {@link ConsumerInterruptedException} after this call.
+     */
+    @Override
+    public void consumerInterrupt() {
+        super.consumerInterrupt();
+
+        final CabStage<?>[] ss = stages;
+        for (int i = 0; i < ss.length; i++) {
+            ss[i].waitStrategy().signalConsumer();
+        }
+    }
+
+    /**
+     * Frees the entries all the stages have committed for producers. Called by a stage no other stage depends on
+     * after it has committed entries.
+     */
+    void stageCommitted() {
+        final CabStage<?>[] ls = leafStages;
+
+        long sequence = Long.MAX_VALUE;
+        for (int i = 0; i < ls.length; i++) {
+            sequence = Math.min(sequence, ls[i].sequence());
+        }
+
+        if (raiseConsumerSequence(sequence)) {
+            signalProducers();
+        }
+    }
+
+    private void signalStages() {
+        final WaitStrategy[] rs = rootStrategies;
+        for (int i = 0; i < rs.length; i++) {
+            rs[i].signalConsumer();
+        }
+    }
+
+    private void checkDependencies(final CabStage<?>[] dependencies) {
+        for (final CabStage<?> dependency : dependencies) {
+            if (!dependency.belongsTo(this)) {
+                throw new IllegalArgumentException(STAGE_OF_ANOTHER_CAB_MESSAGE);
+            }
+        }
+    }
+
+    private void updateLeafStages() {
+        CabStage<?>[] ls = new CabStage<?>[] {consumerStage}; // no stage depends on the consumer
+        for (final CabStage<?> stage : stages) {
+            if (stage.isLeaf()) {
+                ls = append(ls, stage);
+            }
+        }
+        leafStages = ls;
+    }
+
+    private static CabStage<?>[] append(final CabStage<?>[] array, final CabStage<?> stage) {
+        final CabStage<?>[] result = new CabStage<?>[array.length + 1];
+        System.arraycopy(array, 0, result, 0, array.length);
+        result[array.length] = stage;
+        return result;
+    }
+
+    private static WaitStrategy[] append(final WaitStrategy[] array, final WaitStrategy strategy) {
+        final WaitStrategy[] result = new WaitStrategy[array.length + 1];
+        System.arraycopy(array, 0, result, 0, array.length);
+        result[array.length] = strategy;
+        return result;
+    }
+}
@@ -0,0 +1,369 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2019-2023 Anatoly Gudkov
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.green.cab;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.function.Supplier;
+
+import static org.green.cab.Utils.CACHE_LINE_SIZE;
+import static org.green.cab.Utils.copyBytes;
+
+/**
+ * A flavour of the {@link Cab} which keeps fixed-size binary entries in a direct buffer outside of the heap instead
+ * of references to objects. So, a Ring Buffer of millions of entries adds nothing the GC has to scan or copy.
+ * <p>
+ * Each slot of the Ring Buffer holds the state of the entry followed by slotSize() bytes of the entry. Entries
+ * are accessed through flyweight views, see {@link OffHeapEntry}: a producer points its own view to a claimed
+ * sequence with wrapEntry(sequence, view) or copies prepared bytes there with putEntry(sequence, src, offset),
+ * and then commits the sequence as usual. The consumer's view is created once with the supplier given and
+ * getEntry(sequence) returns it pointed to the entry, so, the view returned must not be kept after the entry is
+ * committed. setEntry(sequence, entry) and removeEntry(sequence) are not supported since there are no objects
+ * in the Ring Buffer.
+ *
+ * @param <E> type of the consumer's view of entries, must implement {@link OffHeapEntry}
+ * @param <M> type of message in the Channel
+ */
+public class CabOffHeap<E, M> extends Cab<E, M> implements OffHeapProducer {
+
+    private static final VarHandle STATE_HANDLE =
+            MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    static final int STATE_SIZE = 8; // keeps entries aligned to 8 bytes
+
+    private static final int RING_PAD = CACHE_LINE_SIZE * 2;
+
+    private static final String SLOT_SIZE_MUST_NOT_BE_LESS_THAN_1_MESSAGE = "slotSize must not be less than 1";
+    private static final String RING_IS_TOO_LARGE_MESSAGE = "The Ring Buffer is too large: ";
+    private static final String NOT_OFF_HEAP_ENTRY_MESSAGE = "The view must implement " +
+            OffHeapEntry.class.getSimpleName() + ": ";
+    private static final String NO_ENTRY_OBJECTS_MESSAGE = "Entries of " + CabOffHeap.class.getSimpleName() +
+            " are not objects";
+
+    public static <E, M> CabOffHeap<E, M> busySpinning(
+            final int bufferSize,
+            final int slotSize,
+            final Supplier<E> viewSupplier) {
+
+        return new CabOffHeap<>(bufferSize, slotSize, new BusySpinningWaitStrategy(), viewSupplier);
+    }
+
+    public static <E, M> CabOffHeap<E, M> yielding(
+            final int bufferSize,
+            final int slotSize,
+            final Supplier<E> viewSupplier) {
+
+        return new CabOffHeap<>(bufferSize, slotSize, new YieldingWaitStrategy(), viewSupplier);
+    }
+
+    public static <E, M> CabOffHeap<E, M> backingOff(
+            final int bufferSize,
+            final int slotSize,
+            final long maxSpins,
+            final long maxYields,
+            final Supplier<E> viewSupplier) {
+
+        return new CabOffHeap<>(bufferSize, slotSize, new BackingOffWaitStrategy(maxSpins, maxYields), viewSupplier);
+    }
+
+    public static <E, M> CabOffHeap<E, M> blocking(
+            final int bufferSize,
+            final int slotSize,
+            final Supplier<E> viewSupplier) {
+
+        return new CabOffHeap<>(bufferSize, slotSize, new BlockingWaitStrategy(), viewSupplier);
+    }
+
+    public static <E, M> CabOffHeap<E, M> withWaitStrategy(
+            final int bufferSize,
+            final int slotSize,
+            final WaitStrategy waitStrategy,
+            final Supplier<E> viewSupplier) {
+
+        return new CabOffHeap<>(bufferSize, slotSize, waitStrategy, viewSupplier);
+    }
+
+    private final int slotSize;
+    private final int stride;
+    private final int indexMask;
+
+    private final ByteBuffer ring;
+
+    private final E consumerView;
+
+    CabOffHeap(
+            final int bufferSize,
+            final int slotSize,
+            final WaitStrategy waitStrategy,
+            final Supplier<E> viewSupplier) {
+
+        this(bufferSize, slotSize, waitStrategy, viewSupplier, null);
+    }
+
+    /**
+     * Creates a Cab whose Ring Buffer is kept in the buffer given. The buffer must be at least
+     * ringSize(bufferSize(), slotSize) bytes long, aligned to 8 bytes, zeroed and have native byte order.
+     *
+     * @param bufferSize   size of the Ring Buffer, rounded up to the next power of two
+     * @param slotSize     number of bytes of one entry
+     * @param waitStrategy the wait strategy
+     * @param viewSupplier supplier of the consumer's view
+     * @param ring         the buffer to keep the Ring Buffer in, or null to allocate a direct one
+     */
+    CabOffHeap(
+            final int bufferSize,
+            final int slotSize,
+            final WaitStrategy waitStrategy,
+            final Supplier<E> viewSupplier,
+            final ByteBuffer ring) {
+
+        super(bufferSize, DEFAULT_CHANNEL_SIZE, waitStrategy, null, false);
+
+        if (slotSize < 1) {
+            throw new IllegalArgumentException(SLOT_SIZE_MUST_NOT_BE_LESS_THAN_1_MESSAGE);
+        }
+        final long ringSize = ringSize(bufferSize(), slotSize);
+
+        if (ringSize > Integer.MAX_VALUE - CACHE_LINE_SIZE) {
+            throw new IllegalArgumentException(RING_IS_TOO_LARGE_MESSAGE + ringSize);
+        }
+
+        this.slotSize = slotSize;
+        this.stride = stride(slotSize);
+        this.indexMask = bufferSize() - 1;
+
+        this.ring = ring != null ? ring : ByteBuffer.allocateDirect((int) ringSize + CACHE_LINE_SIZE)
+                .alignedSlice(CACHE_LINE_SIZE)
+                .order(ByteOrder.nativeOrder());
+
+        final E view = viewSupplier.get();
+        if (!(view instanceof OffHeapEntry)) {
+            throw new IllegalArgumentException(NOT_OFF_HEAP_ENTRY_MESSAGE + view);
+        }
+        this.consumerView = view;
+    }
+
+    /**
+     * Returns the number of bytes of one entry.
+     *
+     * @return size of the entry
+     */
+    @Override
+    public int slotSize() {
+        return slotSize;
+    }
+
+    /**
+     * Points the producer's view to the entry of the sequence claimed, so, the entry can be written in place.
+     * The view must not be used after the sequence is committed.
+     *
+     * @param sequence the sequence claimed with producerNext()
+     * @param view     the producer's own view
+     */
+    @Override
+    public void wrapEntry(final long sequence, final OffHeapEntry view) {
+        view.wrap(ring, entryOffset(sequence));
+    }
+
+    /**
+     * Copies slotSize() bytes which start at the offset of the source buffer to the entry of the sequence claimed.
+     * The position and the limit of the source buffer are not changed.
+     *
+     * @param sequence the sequence claimed with producerNext()
+     * @param src      the source buffer
+     * @param offset   the offset of the first byte to be copied
+     */
+    @Override
+    public void putEntry(final long sequence, final ByteBuffer src, final int offset) {
+        copyBytes(src, offset, ring, entryOffset(sequence), slotSize);
+    }
+
+    @Override
+    public void producerCommit(final long sequence) {
+        STATE_HANDLE.setRelease(ring, stateOffset(sequence), 1);
+
+        signalConsumer();
+    }
+
+    @Override
+    public void producerCommit(final long firstSequence, final long lastSequence) {
+        final ByteBuffer buffer = ring;
+
+        for (long sequence = firstSequence; sequence <= lastSequence; sequence++) {
+            STATE_HANDLE.setRelease(buffer, stateOffset(sequence), 1);
+        }
+
+        signalConsumer();
+    }
+
+    @Override
+    protected long consumerPoll() {
+        long nextConsumerSequence = consumerSequence + 1;
+
+        while ((int) STATE_HANDLE.getVolatile(ring, stateOffset(nextConsumerSequence)) != 0) {
+            if (nextConsumerSequence > staleSequence) {
+                return nextConsumerSequence;
+            }
+
+            // the entry was dropped by a producer with DROP_OLDEST policy
+            dropEntry(getEntry(nextConsumerSequence));
+
+            STATE_HANDLE.set(ring, stateOffset(nextConsumerSequence), 0);
+
+            consumed(nextConsumerSequence);
+
+            nextConsumerSequence++;
+        }
+
+        return NO_SEQUENCE;
+    }
+
+    @Override
+    public void consumerCommit(final long sequence) {
+        if (sequence == MESSAGE_RECEIVED_SEQUENCE) {
+            super.consumerCommit(sequence);
+            return;
+        }
+
+        STATE_HANDLE.set(ring, stateOffset(sequence), 0);
+
+        consumed(sequence);
+
+        signalProducers();
+    }
+
+    @Override
+    public long consumerNextBatch(final long sequence, final int maxBatchSize) {
+        final long limitSequence = sequence + Math.min(maxBatchSize, bufferSize()) - 1;
+
+        final ByteBuffer buffer = ring;
+
+        long lastSequence = sequence;
+
+        while (lastSequence < limitSequence &&
+                (int) STATE_HANDLE.getVolatile(buffer, stateOffset(lastSequence + 1)) != 0) {
+            lastSequence++;
+        }
+
+        return lastSequence;
+    }
+
+    @Override
+    public void consumerCommitBatch(final long lastSequence) {
+        final ByteBuffer buffer = ring;
+
+        for (long sequence = consumerSequence + 1; sequence <= lastSequence; sequence++) {
+            STATE_HANDLE.set(buffer, stateOffset(sequence), 0);
+        }
+
+        consumed(lastSequence);
+
+        signalProducers();
+    }
+
+    /**
+     * Returns the consumer's view pointed to the entry of the sequence. The same view is returned for all
+     * the sequences, so, the entry must not be accessed via the view after another call of this method.
+     * <p>
+     * This method can be called from one single consumer thread only.
+     *
+     * @param sequence identifier of the entry's position
+     * @return the consumer's view
+     */
+    @Override
+    public E getEntry(final long sequence) {
+        final E view = consumerView;
+        ((OffHeapEntry) view).wrap(ring, entryOffset(sequence));
+        return view;
+    }
+
+    /**
+     * Not supported since entries are not objects.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public E removeEntry(final long sequence) {
+        throw new UnsupportedOperationException(NO_ENTRY_OBJECTS_MESSAGE);
+    }
+
+    /**
+     * Not supported since entries are not objects, use wrapEntry(sequence, view) or putEntry(sequence, src, offset).
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void setEntry(final long sequence, final E entry) {
+        throw new UnsupportedOperationException(NO_ENTRY_OBJECTS_MESSAGE);
+    }
+
+    /**
+     * Publishes the consumer's sequence once the entries up to it are freed. Must be called by the consumer.
+     *
+     * @param sequence the last consumed sequence
+     */
+    void consumed(final long sequence) {
+        publishConsumerSequence(sequence);
+    }
+
+    /**
+     * Returns the number of bytes between the states of two neighbour entries.
+     *
+     * @param slotSize number of bytes of one entry
+     * @return the stride
+     */
+    static int stride(final int slotSize) {
+        return (int) ((STATE_SIZE + slotSize + 7L) & ~7L);
+    }
+
+    /**
+     * Returns the number of bytes the Ring Buffer of the size occupies.
+     *
+     * @param bufferSize size of the Ring Buffer, a power of two
+     * @param slotSize   number of bytes of one entry
+     * @return size of the Ring Buffer in bytes
+     */
+    static long ringSize(final int bufferSize, final int slotSize) {
+        return (long) bufferSize * stride(slotSize) + 2 * RING_PAD;
+    }
+
+    /**
+     * Returns the offset of the first entry's state in the Ring Buffer.
+     *
+     * @return the offset
+     */
+    static int ringPad() {
+        return RING_PAD;
+    }
+
+    private int stateOffset(final long sequence) {
+        return RING_PAD + (int) (sequence & indexMask) * stride;
+    }
+
+    private int entryOffset(final long sequence) {
+        return stateOffset(sequence) + STATE_SIZE;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,566 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2019-2023 Anatoly Gudkov
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.green.cab;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.Consumer;
+
+abstract class CabPrioritizedPad0<E, M> extends Cab<E, M> {
+    protected long p00, p01, p02, p03, p04, p05, p06, p07;
+    protected long p08, p09, p010, p011, p012, p013, p014, p015;
+
+    CabPrioritizedPad0(
+            final int bufferSize,
+            final WaitStrategy waitStrategy) {
+        super(bufferSize, waitStrategy, null);
+    }
+}
+
+abstract class PendingPriorities<E, M> extends CabPrioritizedPad0<E, M> {
+    @SuppressWarnings("rawtypes")
+    protected static final AtomicIntegerFieldUpdater<PendingPriorities> PENDING_PRIORITIES_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(PendingPriorities.class, "pendingPriorities");
+
+    protected volatile int pendingPriorities; // a bit is set if the priority's ring may have committed entries
+
+    PendingPriorities(
+            final int bufferSize,
+            final WaitStrategy waitStrategy) {
+        super(bufferSize, waitStrategy);
+    }
+}
+
+abstract class CabPrioritizedPad1<E, M> extends PendingPriorities<E, M> {
+    protected long p10, p11, p12, p13, p14, p15, p16, p17;
+    protected long p18, p19, p110, p111, p112, p113, p114, p115;
+
+    CabPrioritizedPad1(
+            final int bufferSize,
+            final WaitStrategy waitStrategy) {
+        super(bufferSize, waitStrategy);
+    }
+}
+
+/**
+ * A flavour of the {@link Cab} with several Ring Buffers, one per priority of entries. Priority 0 is the highest
+ * one and is served by the Ring Buffer of the base {@link Cab}, so, producerNext() claims entries of priority 0.
+ * Entries of other priorities are claimed with producerNextByPriority(). The Channel still has priority over all
+ * the entries.
+ * <p>
+ * The consumer takes an entry of the highest priority available. To not starve lower priorities, the consumer
+ * counts how many times higher priorities were committed while a lower priority had entries waiting. Once
+ * the counter reaches the starvation bound, the lower priority is served next.
+ * <p>
+ * Producers mark the priority as pending in a bit mask when they commit entries and the consumer clears the bit
+ * once it finds the priority's Ring Buffer empty, so, the consumer doesn't look into empty Ring Buffers.
+ * <p>
+ * Sequences of priorities other than 0 carry the priority in their upper bits and must be treated as opaque
+ * values.
+ *
+ * @param <E> types of entries in the Ring Buffers
+ * @param <M> type of message in the Channel
+ */
+public class CabPrioritized<E, M> extends CabPrioritizedPad1<E, M> {
+
+    public static final int MAX_NUMBER_OF_PRIORITIES = Integer.SIZE;
+
+    public static final int DEFAULT_STARVATION_BOUND = 16;
+
+    private static final int PRIORITY_SHIFT = 56;
+    private static final long PRIORITY_SEQUENCE_MASK = (1L << PRIORITY_SHIFT) - 1;
+
+    private static final int COMMITTED = 1; // see Cab
+
+    private static final String NUMBER_OF_PRIORITIES_OUT_OF_RANGE_MESSAGE = "numberOfPriorities must be in " +
+            "range [1, " + MAX_NUMBER_OF_PRIORITIES + "]";
+    private static final String PRIORITY_OUT_OF_RANGE_MESSAGE = "Priority out of range: ";
+    private static final String STARVATION_BOUND_MUST_NOT_BE_NEGATIVE_MESSAGE = "starvationBound must not be negative";
+
+    public static <E, M> CabPrioritized<E, M> busySpinning(final int bufferSize, final int numberOfPriorities) {
+        return new CabPrioritized<>(bufferSize, numberOfPriorities, new BusySpinningWaitStrategy());
+    }
+
+    public static <E, M> CabPrioritized<E, M> yielding(final int bufferSize, final int numberOfPriorities) {
+        return new CabPrioritized<>(bufferSize, numberOfPriorities, new YieldingWaitStrategy());
+    }
+
+    public static <E, M> CabPrioritized<E, M> backingOff(
+            final int bufferSize,
+            final int numberOfPriorities,
+            final long maxSpins,
+            final long maxYields) {
+
+        return new CabPrioritized<>(bufferSize, numberOfPriorities, new BackingOffWaitStrategy(maxSpins, maxYields));
+    }
+
+    public static <E, M> CabPrioritized<E, M> blocking(final int bufferSize, final int numberOfPriorities) {
+        return new CabPrioritized<>(bufferSize, numberOfPriorities, new BlockingWaitStrategy());
+    }
+
+    public static <E, M> CabPrioritized<E, M> withWaitStrategy(
+            final int bufferSize,
+            final int numberOfPriorities,
+            final WaitStrategy waitStrategy) {
+
+        return new CabPrioritized<>(bufferSize, numberOfPriorities, waitStrategy);
+    }
+
+    private final Cab<E, M>[] rings; // rings[0] is null, priority 0 is served by the base Cab
+
+    private final int[] servedAhead; // used by Consumer only, how many times higher priorities were served
+    // while the priority was pending
+
+    private volatile int starvationBound = DEFAULT_STARVATION_BOUND;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    CabPrioritized(
+            final int bufferSize,
+            final int numberOfPriorities,
+            final WaitStrategy waitStrategy) {
+
+        super(bufferSize, waitStrategy);
+
+        if (numberOfPriorities < 1 || numberOfPriorities > MAX_NUMBER_OF_PRIORITIES) {
+            throw new IllegalArgumentException(NUMBER_OF_PRIORITIES_OUT_OF_RANGE_MESSAGE);
+        }
+
+        this.rings = new Cab[numberOfPriorities]; // unchecked
+        for (int i = 1; i < numberOfPriorities; i++) {
+            // the rings share the wait strategy, so, the consumer is woken up by any of them
+            rings[i] = new CabWithWaitStrategy<>(bufferSize, 1, waitStrategy, null);
+        }
+
+        this.servedAhead = new int[numberOfPriorities];
+    }
+
+    public int numberOfPriorities() {
+        return rings.length;
+    }
+
+    public int starvationBound() {
+        return starvationBound;
+    }
+
+    /**
+     * Sets how many times the consumer may serve higher priorities while entries of a lower priority are waiting.
+     * A batch of entries committed at once is counted as one time.
+     *
+     * @param starvationBound the bound, 0 means lower priorities are served only if higher ones are empty
+     */
+    public void setStarvationBound(final int starvationBound) {
+        if (starvationBound < 0) {
+            throw new IllegalArgumentException(STARVATION_BOUND_MUST_NOT_BE_NEGATIVE_MESSAGE);
+        }
+        this.starvationBound = starvationBound;
+    }
+
+    @Override
+    public long numberOfOverloads() {
+        long result = super.numberOfOverloads();
+        for (int i = 1; i < rings.length; i++) {
+            result += rings[i].numberOfOverloads();
+        }
+        return result;
+    }
+
+    @Override
+    public long overloadNanos() {
+        long result = super.overloadNanos();
+        for (int i = 1; i < rings.length; i++) {
+            result += rings[i].overloadNanos();
+        }
+        return result;
+    }
+
+    @Override
+    public long numberOfRejects() {
+        long result = super.numberOfRejects();
+        for (int i = 1; i < rings.length; i++) {
+            result += rings[i].numberOfRejects();
+        }
+        return result;
+    }
+
+    @Override
+    public long numberOfDroppedNewest() {
+        long result = super.numberOfDroppedNewest();
+        for (int i = 1; i < rings.length; i++) {
+            result += rings[i].numberOfDroppedNewest();
+        }
+        return result;
+    }
+
+    @Override
+    public long numberOfDroppedOldest() {
+        long result = super.numberOfDroppedOldest();
+        for (int i = 1; i < rings.length; i++) {
+            result += rings[i].numberOfDroppedOldest();
+        }
+        return result;
+    }
+
+    @Override
+    public void setDroppedEntryHandler(final Consumer<? super E> handler) {
+        super.setDroppedEntryHandler(handler);
+        for (int i = 1; i < rings.length; i++) {
+            rings[i].setDroppedEntryHandler(handler);
+        }
+    }
+
+    @Override
+    public void setOverloadLowWaterMark(final int lowWaterMark) {
+        super.setOverloadLowWaterMark(lowWaterMark);
+        for (int i = 1; i < rings.length; i++) {
+            rings[i].setOverloadLowWaterMark(lowWaterMark);
+        }
+    }
+
+    /**
+     * Claims a contiguous range of n sequences of the priority like producerNext(n) does.
+     *
+     * @param priority priority of the entries, 0 is the highest one
+     * @param n        number of sequences to be claimed
+     * @return the last sequence of the range
+     * @throws ConsumerInterruptedException if the consumer was interrupted
+     * @throws InterruptedException         if the current thread was interrupted
+     */
+    public long producerNextByPriority(final int priority, final int n)
+            throws ConsumerInterruptedException, InterruptedException {
+
+        checkPriority(priority);
+
+        if (priority == 0) {
+            return producerNext(n);
+        }
+        return sequence(priority, rings[priority].producerNext(n));
+    }
+
+    /**
+     * Claims a contiguous range of n sequences of the priority like producerNext(n, policy) does.
+     *
+     * @param priority priority of the entries, 0 is the highest one
+     * @param n        number of sequences to be claimed
+     * @param policy   what to do if the Ring Buffer of the priority is full
+     * @return the last sequence of the range or NO_SEQUENCE if the claim was rejected
+     * @throws ConsumerInterruptedException if the consumer was interrupted
+     * @throws InterruptedException         if the current thread was interrupted
+     */
+    public long producerNextByPriority(final int priority, final int n, final OverflowPolicy policy)
+            throws ConsumerInterruptedException, InterruptedException {
+
+        checkPriority(priority);
+
+        if (priority == 0) {
+            return producerNext(n, policy);
+        }
+        return sequence(priority, rings[priority].producerNext(n, policy));
+    }
+
+    /**
+     * Claims a contiguous range of n sequences of the priority like producerNext(n, policy, timeout, unit) does.
+     *
+     * @param priority priority of the entries, 0 is the highest one
+     * @param n        number of sequences to be claimed
+     * @param policy   what to do if the Ring Buffer of the priority is full
+     * @param timeout  max time to wait for the consumer
+     * @param unit     unit of the timeout
+     * @return the last sequence of the range or NO_SEQUENCE if the claim was rejected or timed out
+     * @throws ConsumerInterruptedException if the consumer was interrupted
+     * @throws InterruptedException         if the current thread was interrupted
+     */
+    public long producerNextByPriority(
+            final int priority,
+            final int n,
+            final OverflowPolicy policy,
+            final long timeout,
+            final TimeUnit unit) throws ConsumerInterruptedException, InterruptedException {
+
+        checkPriority(priority);
+
+        if (priority == 0) {
+            return producerNext(n, policy, timeout, unit);
+        }
+        return sequence(priority, rings[priority].producerNext(n, policy, timeout, unit));
+    }
+
+    @Override
+    public void producerCommit(final long sequence) {
+        final int priority = priority(sequence);
+
+        if (priority == 0) {
+            super.producerCommit(sequence);
+            return;
+        }
+
+        rings[priority].setEntryStateRelease(prioritySequence(sequence), COMMITTED);
+
+        markPending(priority);
+
+        signalConsumer();
+    }
+
+    @Override
+    public void producerCommit(final long firstSequence, final long lastSequence) {
+        final int priority = priority(firstSequence);
+
+        if (priority == 0) {
+            super.producerCommit(firstSequence, lastSequence);
+            return;
+        }
+
+        final Cab<E, M> ring = rings[priority];
+
+        final long lastPrioritySequence = prioritySequence(lastSequence);
+        for (long s = prioritySequence(firstSequence); s <= lastPrioritySequence; s++) {
+            ring.setEntryStateRelease(s, COMMITTED);
+        }
+
+        markPending(priority);
+
+        signalConsumer();
+    }
+
+    @Override
+    protected long consumerPoll() {
+        int pending = pendingPriorities;
+
+        if (pending != 0) {
+            final int starving = starvingPriority(pending);
+
+            if (starving != 0) {
+                final long sequence = pollPriority(starving);
+                if (sequence != NO_SEQUENCE) {
+                    return sequence;
+                }
+                pending &= ~(1 << starving);
+            }
+        }
+
+        final long sequence = super.consumerPoll();
+        if (sequence != NO_SEQUENCE) {
+            return sequence;
+        }
+
+        while (pending != 0) { // only the pending priorities are looked into
+            final int priority = Integer.numberOfTrailingZeros(pending);
+
+            final long prioritySequence = pollPriority(priority);
+            if (prioritySequence != NO_SEQUENCE) {
+                return prioritySequence;
+            }
+
+            pending &= ~(1 << priority);
+        }
+
+        return NO_SEQUENCE;
+    }
+
+    @Override
+    public long consumerNextBatch(final long sequence, final int maxBatchSize) {
+        final int priority = priority(sequence);
+
+        if (priority == 0) {
+            return super.consumerNextBatch(sequence, maxBatchSize);
+        }
+
+        return sequence(priority, rings[priority].consumerNextBatch(prioritySequence(sequence), maxBatchSize));
+    }
+
+    @Override
+    public void consumerCommit(final long sequence) {
+        if (sequence == MESSAGE_RECEIVED_SEQUENCE) {
+            super.consumerCommit(sequence);
+            return;
+        }
+
+        final int priority = priority(sequence);
+
+        if (priority == 0) {
+            super.consumerCommit(sequence);
+        } else {
+            rings[priority].consumerCommit(prioritySequence(sequence));
+        }
+
+        served(priority);
+    }
+
+    @Override
+    public void consumerCommitBatch(final long lastSequence) {
+        final int priority = priority(lastSequence);
+
+        if (priority == 0) {
+            super.consumerCommitBatch(lastSequence);
+        } else {
+            rings[priority].consumerCommitBatch(prioritySequence(lastSequence));
+        }
+
+        served(priority);
+    }
+
+    @Override
+    public void consumerInterrupt() {
+        for (int i = 1; i < rings.length; i++) {
+            rings[i].consumerInterrupt();
+        }
+
+        super.consumerInterrupt();
+    }
+
+    @Override
+    public E getEntry(final long sequence) {
+        final int priority = priority(sequence);
+
+        if (priority == 0) {
+            return super.getEntry(sequence);
+        }
+        return rings[priority].getEntry(prioritySequence(sequence));
+    }
+
+    @Override
+    public E removeEntry(final long sequence) {
+        final int priority = priority(sequence);
+
+        if (priority == 0) {
+            return super.removeEntry(sequence);
+        }
+        return rings[priority].removeEntry(prioritySequence(sequence));
+    }
+
+    @Override
+    public void setEntry(final long sequence, final E entry) {
+        final int priority = priority(sequence);
+
+        if (priority == 0) {
+            super.setEntry(sequence, entry);
+            return;
+        }
+        rings[priority].setEntry(prioritySequence(sequence), entry);
+    }
+
+    private void checkPriority(final int priority) {
+        if (priority < 0 || priority >= rings.length) {
+            throw new IllegalArgumentException(PRIORITY_OUT_OF_RANGE_MESSAGE + priority);
+        }
+    }
+
+    private void markPending(final int priority) {
+        final int bit = 1 << priority;
+
+        // the entry's state must be visible before the mask is read, otherwise the consumer might clear
+        // the bit after it has seen the Ring Buffer empty and the producer would not set it again
+        VarHandle.fullFence();
+
+        if ((pendingPriorities & bit) == 0) {
+            setPending(bit);
+        }
+    }
+
+    private void setPending(final int bit) {
+        int pending;
+        while (((pending = pendingPriorities) & bit) == 0 &&
+                !PENDING_PRIORITIES_UPDATER.compareAndSet(this, pending, pending | bit)) {
+            // another producer has changed the mask
+        }
+    }
+
+    private void clearPending(final int bit) {
+        int pending;
+        while (((pending = pendingPriorities) & bit) != 0 &&
+                !PENDING_PRIORITIES_UPDATER.compareAndSet(this, pending, pending & ~bit)) {
+            // a producer has changed the mask
+        }
+    }
+
+    private long pollPriority(final int priority) {
+        final Cab<E, M> ring = rings[priority];
+
+        long sequence = ring.consumerPoll();
+
+        if (sequence == NO_SEQUENCE) {
+            final int bit = 1 << priority;
+
+            clearPending(bit);
+
+            sequence = ring.consumerPoll(); // an entry might be committed before the bit was cleared
+            if (sequence == NO_SEQUENCE) {
+                return NO_SEQUENCE;
+            }
+
+            setPending(bit);
+        }
+
+        return sequence(priority, sequence);
+    }
+
+    private int starvingPriority(final int pending) {
+        final int bound = starvationBound;
+
+        if (bound > 0) {
+            int priorities = pending;
+
+            while (priorities != 0) {
+                final int priority = Integer.numberOfTrailingZeros(priorities);
+
+                if (servedAhead[priority] >= bound) {
+                    return priority;
+                }
+
+                priorities &= ~(1 << priority);
+            }
+        }
+
+        return 0;
+    }
+
+    private void served(final int priority) {
+        servedAhead[priority] = 0;
+
+        int lowerPriorities = pendingPriorities & -(2 << priority); // pending priorities lower than the served one
+
+        while (lowerPriorities != 0) {
+            final int lowerPriority = Integer.numberOfTrailingZeros(lowerPriorities);
+
+            servedAhead[lowerPriority]++;
+
+            lowerPriorities &= ~(1 << lowerPriority);
+        }
+    }
+
+    private static long sequence(final int priority, final long prioritySequence) {
+        if (prioritySequence == NO_SEQUENCE) {
+            return NO_SEQUENCE;
+        }
+        return ((long) priority << PRIORITY_SHIFT) | prioritySequence;
+    }
+
+    private static int priority(final long sequence) {
+        return (int) (sequence >>> PRIORITY_SHIFT);
+    }
+
+    private static long prioritySequence(final long sequence) {
+        return sequence & PRIORITY_SEQUENCE_MASK;
+    }
+}
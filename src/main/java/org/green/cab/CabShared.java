@@ -0,0 +1,370 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2019-2023 Anatoly Gudkov
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.green.cab;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Supplier;
+
+import static org.green.cab.Utils.nextPowerOfTwo;
+
+/**
+ * A flavour of the {@link CabOffHeap} whose Ring Buffer is kept in a memory-mapped file, so, producers of other
+ * processes of the same host can put entries into it with {@link CabSharedProducer} without any socket hop.
+ * A file of a RAM-backed file system like /dev/shm is expected. The file is created (or recreated) by the Cab,
+ * which is the consumer's side, and producers of other processes open it.
+ * <p>
+ * The file starts with a header followed by the Ring Buffer of binary entries with the same layout
+ * as the one of the {@link CabOffHeap}:
+ * <ul>
+ * <li>the magic number, the version of the layout, the size of the Ring Buffer, the size of an entry and
+ * the offsets of the Ring Buffer and the command slot;</li>
+ * <li>the sequence of the producers, which is claimed by local and remote producers alike;</li>
+ * <li>the sequence of the consumer, which is {@link Cab#CONSUMER_INTERRUPTED_SEQUENCE} once the consumer
+ * was interrupted;</li>
+ * <li>the state of the command slot and the slot itself, which holds one binary command of slotSize() bytes.</li>
+ * </ul>
+ * Every sequence lives on its own pair of cache lines. A remote command is passed to the decoder set with
+ * setRemoteCommandDecoder() and is received by the consumer as a message of the Channel, so, remote commands
+ * are executed in order with local ones. Local messages of the Channel aren't visible to other processes.
+ * <p>
+ * Since remote producers cannot signal the consumer, the consumer must not wait for a signal, so,
+ * {@link BlockingWaitStrategy} isn't accepted. {@link OverflowPolicy#DROP_OLDEST} isn't supported either.
+ * The file isn't removed when the consumer is interrupted, the process which owns the Cab removes it.
+ *
+ * @param <E> type of the consumer's view of entries, must implement {@link OffHeapEntry}
+ * @param <M> type of message in the Channel
+ */
+public class CabShared<E, M> extends CabOffHeap<E, M> {
+
+    /**
+     * Turns a binary command received from another process into a message of the Channel.
+     *
+     * @param <M> type of message in the Channel
+     */
+    @FunctionalInterface
+    public interface RemoteCommandDecoder<M> {
+
+        /**
+         * Decodes a command which occupies slotSize() bytes of the buffer from the offset. The buffer
+         * must not be accessed after the method returns.
+         *
+         * @param buffer the buffer which holds the command
+         * @param offset the offset of the command's first byte
+         * @return the message, or null if the command should be ignored
+         */
+        M decode(ByteBuffer buffer, int offset);
+    }
+
+    static final int MAGIC = 0x67436162; // gCab
+    static final int VERSION = 1;
+
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int BUFFER_SIZE_OFFSET = 8;
+    static final int SLOT_SIZE_OFFSET = 12;
+    static final int STRIDE_OFFSET = 16;
+    static final int RING_OFFSET_OFFSET = 20;
+    static final int COMMAND_OFFSET_OFFSET = 24;
+
+    // the layout is shared by processes which may have different cache line size settings, so, it's fixed
+    static final int LINE = 128;
+
+    static final int PRODUCER_SEQUENCE_OFFSET = LINE;
+    static final int CONSUMER_SEQUENCE_OFFSET = 2 * LINE;
+    static final int COMMAND_STATE_OFFSET = 3 * LINE;
+    static final int COMMAND_OFFSET = 4 * LINE;
+
+    static final int COMMAND_FREE = 0;
+    static final int COMMAND_SENT = 1;
+    static final int COMMAND_WRITING = 2;
+
+    static final VarHandle INT_HANDLE = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    static final VarHandle LONG_HANDLE = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private static final long INITIAL_SEQUENCE = -1;
+
+    private static final String BLOCKING_WAIT_STRATEGY_MESSAGE = "Remote producers cannot signal the consumer, " +
+            BlockingWaitStrategy.class.getSimpleName() + " isn't supported";
+    private static final String DROP_OLDEST_MESSAGE = OverflowPolicy.DROP_OLDEST + " isn't supported by " +
+            CabShared.class.getSimpleName();
+    private static final String FILE_IS_TOO_LARGE_MESSAGE = "The file is too large: ";
+
+    public static <E, M> CabShared<E, M> busySpinning(
+            final Path file,
+            final int bufferSize,
+            final int slotSize,
+            final Supplier<E> viewSupplier) throws IOException {
+
+        return withWaitStrategy(file, bufferSize, slotSize, new BusySpinningWaitStrategy(), viewSupplier);
+    }
+
+    public static <E, M> CabShared<E, M> yielding(
+            final Path file,
+            final int bufferSize,
+            final int slotSize,
+            final Supplier<E> viewSupplier) throws IOException {
+
+        return withWaitStrategy(file, bufferSize, slotSize, new YieldingWaitStrategy(), viewSupplier);
+    }
+
+    public static <E, M> CabShared<E, M> backingOff(
+            final Path file,
+            final int bufferSize,
+            final int slotSize,
+            final long maxSpins,
+            final long maxYields,
+            final Supplier<E> viewSupplier) throws IOException {
+
+        return withWaitStrategy(file, bufferSize, slotSize,
+                new BackingOffWaitStrategy(maxSpins, maxYields), viewSupplier);
+    }
+
+    public static <E, M> CabShared<E, M> parking(
+            final Path file,
+            final int bufferSize,
+            final int slotSize,
+            final long minParkNanos,
+            final long maxParkNanos,
+            final Supplier<E> viewSupplier) throws IOException {
+
+        return withWaitStrategy(file, bufferSize, slotSize,
+                new ParkingWaitStrategy(minParkNanos, maxParkNanos), viewSupplier);
+    }
+
+    public static <E, M> CabShared<E, M> withWaitStrategy(
+            final Path file,
+            final int bufferSize,
+            final int slotSize,
+            final WaitStrategy waitStrategy,
+            final Supplier<E> viewSupplier) throws IOException {
+
+        if (waitStrategy instanceof BlockingWaitStrategy) {
+            throw new IllegalArgumentException(BLOCKING_WAIT_STRATEGY_MESSAGE);
+        }
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("bufferSize must not be less than 1");
+        }
+        if (slotSize < 1) {
+            throw new IllegalArgumentException("slotSize must not be less than 1");
+        }
+        final int normalizedBufferSize = nextPowerOfTwo(bufferSize);
+        final int headerSize = COMMAND_OFFSET + (slotSize + LINE - 1) / LINE * LINE;
+        final long fileSize = headerSize + ringSize(normalizedBufferSize, slotSize);
+
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(FILE_IS_TOO_LARGE_MESSAGE + fileSize);
+        }
+
+        final MappedByteBuffer header;
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+
+            channel.truncate(0); // producers of a previous consumer must see nothing but zeroes
+            header = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize); // the mapping outlives the channel
+        }
+        header.order(ByteOrder.nativeOrder());
+
+        return new CabShared<>(file, normalizedBufferSize, slotSize, waitStrategy, viewSupplier, header, headerSize);
+    }
+
+    private final Path file;
+    private final ByteBuffer header;
+
+    private volatile RemoteCommandDecoder<? extends M> remoteCommandDecoder;
+
+    private M remoteCommand; // decoded and not committed yet, used by Consumer only
+
+    private CabShared(
+            final Path file,
+            final int bufferSize,
+            final int slotSize,
+            final WaitStrategy waitStrategy,
+            final Supplier<E> viewSupplier,
+            final MappedByteBuffer header,
+            final int headerSize) {
+
+        super(bufferSize, slotSize, waitStrategy, viewSupplier,
+                header.duplicate().limit(header.capacity()).position(headerSize).slice() // slice(int, int) needs JDK 13
+                        .order(ByteOrder.nativeOrder()));
+
+        this.file = file;
+        this.header = header;
+
+        header.putInt(VERSION_OFFSET, VERSION);
+        header.putInt(BUFFER_SIZE_OFFSET, bufferSize());
+        header.putInt(SLOT_SIZE_OFFSET, slotSize);
+        header.putInt(STRIDE_OFFSET, stride(slotSize));
+        header.putInt(RING_OFFSET_OFFSET, headerSize + ringPad());
+        header.putInt(COMMAND_OFFSET_OFFSET, COMMAND_OFFSET);
+
+        LONG_HANDLE.set(header, PRODUCER_SEQUENCE_OFFSET, INITIAL_SEQUENCE);
+        LONG_HANDLE.set(header, CONSUMER_SEQUENCE_OFFSET, INITIAL_SEQUENCE);
+
+        INT_HANDLE.setRelease(header, MAGIC_OFFSET, MAGIC); // the producers may open the file from now
+    }
+
+    /**
+     * Returns the file the Ring Buffer is kept in.
+     *
+     * @return the file
+     */
+    public Path file() {
+        return file;
+    }
+
+    /**
+     * Sets the decoder of commands sent by remote producers with {@link CabSharedProducer#sendCommand}.
+     * Remote commands are left in the command slot until the decoder is set.
+     *
+     * @param decoder the decoder, or null if remote commands aren't received
+     */
+    public void setRemoteCommandDecoder(final RemoteCommandDecoder<? extends M> decoder) {
+        this.remoteCommandDecoder = decoder;
+    }
+
+    @Override
+    public long producerNext(final int n) throws ConsumerInterruptedException, InterruptedException {
+        if (n < 1 || n > bufferSize()) {
+            throw new IllegalArgumentException(NUMBER_OF_SEQUENCES_OUT_OF_RANGE_MESSAGE + n);
+        }
+
+        final long nextSequence = (long) LONG_HANDLE.getAndAdd(header, PRODUCER_SEQUENCE_OFFSET, (long) n) + n;
+
+        final long consumerSequence = CONSUMER_SEQUENCE_UPDATER.get(this);
+
+        if (consumerSequence == CONSUMER_INTERRUPTED_SEQUENCE) {
+            throw new ConsumerInterruptedException();
+        }
+
+        if (nextSequence - consumerSequence > bufferSize()) { // the buffer is full
+            awaitConsumer(nextSequence - bufferSize(), nextSequence - n);
+        }
+
+        return nextSequence;
+    }
+
+    @Override
+    protected long producerClaim(
+            final int n,
+            final OverflowPolicy policy,
+            final boolean timed,
+            final long deadlineNanos) throws ConsumerInterruptedException, InterruptedException {
+
+        checkClaim(n, policy);
+
+        if (policy == OverflowPolicy.DROP_OLDEST) {
+            throw new UnsupportedOperationException(DROP_OLDEST_MESSAGE);
+        }
+
+        final int bufferSize = bufferSize();
+
+        while (true) {
+            final long currentSequence = (long) LONG_HANDLE.getVolatile(header, PRODUCER_SEQUENCE_OFFSET);
+            final long nextSequence = currentSequence + n;
+
+            final long consumerSequence = CONSUMER_SEQUENCE_UPDATER.get(this);
+
+            if (consumerSequence == CONSUMER_INTERRUPTED_SEQUENCE) {
+                throw new ConsumerInterruptedException();
+            }
+
+            if (nextSequence - consumerSequence <= bufferSize) {
+                if (LONG_HANDLE.compareAndSet(header, PRODUCER_SEQUENCE_OFFSET, currentSequence, nextSequence)) {
+                    return nextSequence;
+                }
+                continue; // another producer was faster
+            }
+
+            // the buffer is full
+            final long requiredSequence = nextSequence - bufferSize;
+
+            if (awaitConsumer(policy, requiredSequence, currentSequence, timed, deadlineNanos) < requiredSequence) {
+                return NO_SEQUENCE;
+            }
+        }
+    }
+
+    @Override
+    protected long consumerPoll() {
+        if (remoteCommand != null || pollRemoteCommand()) {
+            messageCache = remoteCommand;
+            return MESSAGE_RECEIVED_SEQUENCE;
+        }
+        return super.consumerPoll();
+    }
+
+    @Override
+    public void consumerCommit(final long sequence) {
+        if (sequence == MESSAGE_RECEIVED_SEQUENCE && remoteCommand != null && messageCache == remoteCommand) {
+            messageCache = null;
+            remoteCommand = null;
+
+            INT_HANDLE.setRelease(header, COMMAND_STATE_OFFSET, COMMAND_FREE);
+
+            signalProducers();
+            return;
+        }
+
+        super.consumerCommit(sequence);
+    }
+
+    @Override
+    public void consumerInterrupt() {
+        LONG_HANDLE.setRelease(header, CONSUMER_SEQUENCE_OFFSET, CONSUMER_INTERRUPTED_SEQUENCE);
+
+        super.consumerInterrupt();
+    }
+
+    @Override
+    void consumed(final long sequence) {
+        LONG_HANDLE.setRelease(header, CONSUMER_SEQUENCE_OFFSET, sequence);
+
+        super.consumed(sequence);
+    }
+
+    private boolean pollRemoteCommand() {
+        final RemoteCommandDecoder<? extends M> decoder = remoteCommandDecoder;
+
+        if (decoder == null || (int) INT_HANDLE.getAcquire(header, COMMAND_STATE_OFFSET) != COMMAND_SENT) {
+            return false;
+        }
+
+        final M command = decoder.decode(header, COMMAND_OFFSET);
+        if (command == null) { // ignored
+            INT_HANDLE.setRelease(header, COMMAND_STATE_OFFSET, COMMAND_FREE);
+            return false;
+        }
+
+        remoteCommand = command;
+        return true;
+    }
+}
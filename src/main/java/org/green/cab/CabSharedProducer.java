@@ -0,0 +1,296 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2019-2023 Anatoly Gudkov
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.green.cab;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.green.cab.CabShared.BUFFER_SIZE_OFFSET;
+import static org.green.cab.CabShared.COMMAND_FREE;
+import static org.green.cab.CabShared.COMMAND_OFFSET_OFFSET;
+import static org.green.cab.CabShared.COMMAND_SENT;
+import static org.green.cab.CabShared.COMMAND_STATE_OFFSET;
+import static org.green.cab.CabShared.COMMAND_WRITING;
+import static org.green.cab.CabShared.CONSUMER_SEQUENCE_OFFSET;
+import static org.green.cab.CabShared.INT_HANDLE;
+import static org.green.cab.CabShared.LONG_HANDLE;
+import static org.green.cab.CabShared.MAGIC;
+import static org.green.cab.CabShared.MAGIC_OFFSET;
+import static org.green.cab.CabShared.PRODUCER_SEQUENCE_OFFSET;
+import static org.green.cab.CabShared.RING_OFFSET_OFFSET;
+import static org.green.cab.CabShared.SLOT_SIZE_OFFSET;
+import static org.green.cab.CabShared.STRIDE_OFFSET;
+import static org.green.cab.CabShared.VERSION;
+import static org.green.cab.CabShared.VERSION_OFFSET;
+import static org.green.cab.Utils.copyBytes;
+
+/**
+ * The producer's side of a {@link CabShared} for a process other than the consumer's one. The producer maps
+ * the file of the Cab and follows the same protocol as local producers do: claims sequences with the shared
+ * producers' sequence, writes entries in place and commits them with their states.
+ * <p>
+ * The consumer of another process cannot be signaled, so, it notices new entries by polling. A producer waiting
+ * for free space polls the consumer's sequence with parkNanos(1) as well. Once the consumer was interrupted,
+ * the methods throw {@link ConsumerInterruptedException}.
+ * <p>
+ * An instance may be used by several threads, but as with any Cab each claimed sequence must be committed
+ * by the thread which has claimed it.
+ */
+public class CabSharedProducer implements OffHeapProducer {
+
+    private static final String NOT_A_CAB_MESSAGE = "The file is not a Cab or isn't initialized yet: ";
+    private static final String WRONG_VERSION_MESSAGE = "Unsupported version of the Cab's layout: ";
+    private static final String DROP_OLDEST_MESSAGE = OverflowPolicy.DROP_OLDEST + " isn't supported by " +
+            CabShared.class.getSimpleName();
+
+    /**
+     * Opens the file of a {@link CabShared} created by the consumer's process.
+     *
+     * @param file the file of the Cab
+     * @return the producer
+     * @throws IOException           if the file cannot be mapped
+     * @throws IllegalStateException if the file is not a Cab's one
+     */
+    public static CabSharedProducer open(final Path file) throws IOException {
+        final MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        }
+        buffer.order(ByteOrder.nativeOrder());
+
+        if (buffer.capacity() < CabShared.COMMAND_OFFSET ||
+                (int) INT_HANDLE.getAcquire(buffer, MAGIC_OFFSET) != MAGIC) {
+            throw new IllegalStateException(NOT_A_CAB_MESSAGE + file);
+        }
+        final int version = buffer.getInt(VERSION_OFFSET);
+        if (version != VERSION) {
+            throw new IllegalStateException(WRONG_VERSION_MESSAGE + version);
+        }
+        return new CabSharedProducer(buffer);
+    }
+
+    private final ByteBuffer buffer;
+
+    private final int bufferSize;
+    private final long indexMask;
+    private final int slotSize;
+    private final int stride;
+    private final int ringOffset;
+    private final int commandOffset;
+
+    private CabSharedProducer(final ByteBuffer buffer) {
+        this.buffer = buffer;
+
+        this.bufferSize = buffer.getInt(BUFFER_SIZE_OFFSET);
+        this.indexMask = bufferSize - 1;
+        this.slotSize = buffer.getInt(SLOT_SIZE_OFFSET);
+        this.stride = buffer.getInt(STRIDE_OFFSET);
+        this.ringOffset = buffer.getInt(RING_OFFSET_OFFSET);
+        this.commandOffset = buffer.getInt(COMMAND_OFFSET_OFFSET);
+    }
+
+    @Override
+    public int bufferSize() {
+        return bufferSize;
+    }
+
+    @Override
+    public int slotSize() {
+        return slotSize;
+    }
+
+    /**
+     * Returns true if the consumer was interrupted and doesn't consume entries any more.
+     *
+     * @return true if the consumer was interrupted
+     */
+    public boolean isConsumerInterrupted() {
+        return consumerSequence() == Cab.CONSUMER_INTERRUPTED_SEQUENCE;
+    }
+
+    public long producerNext() throws ConsumerInterruptedException, InterruptedException {
+        return producerNext(1);
+    }
+
+    @Override
+    public long producerNext(final int n) throws ConsumerInterruptedException, InterruptedException {
+        checkSize(n);
+
+        final long nextSequence = (long) LONG_HANDLE.getAndAdd(buffer, PRODUCER_SEQUENCE_OFFSET, (long) n) + n;
+
+        awaitConsumer(nextSequence - bufferSize, false, 0);
+
+        return nextSequence;
+    }
+
+    @Override
+    public long producerNext(final int n, final OverflowPolicy policy)
+            throws ConsumerInterruptedException, InterruptedException {
+
+        return producerClaim(n, policy, false, 0);
+    }
+
+    @Override
+    public long producerNext(final int n, final OverflowPolicy policy, final long timeout, final TimeUnit unit)
+            throws ConsumerInterruptedException, InterruptedException {
+
+        return producerClaim(n, policy, true, System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    @Override
+    public void wrapEntry(final long sequence, final OffHeapEntry view) {
+        view.wrap(buffer, entryOffset(sequence));
+    }
+
+    @Override
+    public void putEntry(final long sequence, final ByteBuffer src, final int offset) {
+        copyBytes(src, offset, buffer, entryOffset(sequence), slotSize);
+    }
+
+    @Override
+    public void producerCommit(final long sequence) {
+        INT_HANDLE.setRelease(buffer, stateOffset(sequence), 1);
+    }
+
+    @Override
+    public void producerCommit(final long firstSequence, final long lastSequence) {
+        for (long sequence = firstSequence; sequence <= lastSequence; sequence++) {
+            INT_HANDLE.setRelease(buffer, stateOffset(sequence), 1);
+        }
+    }
+
+    /**
+     * Sends a binary command of slotSize() bytes which start at the offset of the source buffer to the consumer.
+     * The Cab has one single command slot, so, the method waits while a command sent before isn't consumed yet.
+     * The position and the limit of the source buffer are not changed.
+     *
+     * @param src    the source buffer
+     * @param offset the offset of the first byte to be copied
+     * @throws ConsumerInterruptedException if the consumer was interrupted
+     * @throws InterruptedException         if the current thread was interrupted
+     */
+    public void sendCommand(final ByteBuffer src, final int offset)
+            throws ConsumerInterruptedException, InterruptedException {
+
+        while (!INT_HANDLE.compareAndSet(buffer, COMMAND_STATE_OFFSET, COMMAND_FREE, COMMAND_WRITING)) {
+            checkConsumer();
+
+            LockSupport.parkNanos(1);
+
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+
+        copyBytes(src, offset, buffer, commandOffset, slotSize);
+
+        INT_HANDLE.setRelease(buffer, COMMAND_STATE_OFFSET, COMMAND_SENT);
+    }
+
+    private long producerClaim(
+            final int n,
+            final OverflowPolicy policy,
+            final boolean timed,
+            final long deadlineNanos) throws ConsumerInterruptedException, InterruptedException {
+
+        checkSize(n);
+
+        if (policy == null) {
+            throw new NullPointerException("policy must not be null");
+        }
+        if (policy == OverflowPolicy.DROP_OLDEST) {
+            throw new UnsupportedOperationException(DROP_OLDEST_MESSAGE);
+        }
+
+        while (true) {
+            final long currentSequence = (long) LONG_HANDLE.getVolatile(buffer, PRODUCER_SEQUENCE_OFFSET);
+            final long nextSequence = currentSequence + n;
+
+            final long consumerSequence = checkConsumer();
+
+            if (nextSequence - consumerSequence <= bufferSize) {
+                if (LONG_HANDLE.compareAndSet(buffer, PRODUCER_SEQUENCE_OFFSET, currentSequence, nextSequence)) {
+                    return nextSequence;
+                }
+                continue; // another producer was faster
+            }
+
+            // the buffer is full
+            if (policy != OverflowPolicy.BLOCK ||
+                    !awaitConsumer(nextSequence - bufferSize, timed, deadlineNanos)) {
+                return Cab.NO_SEQUENCE;
+            }
+        }
+    }
+
+    private boolean awaitConsumer(final long requiredSequence, final boolean timed, final long deadlineNanos)
+            throws ConsumerInterruptedException, InterruptedException {
+
+        while (checkConsumer() < requiredSequence) {
+            if (timed && deadlineNanos - System.nanoTime() <= 0) {
+                return false;
+            }
+
+            LockSupport.parkNanos(1); // let's give a good chance to the consumer
+
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+        return true;
+    }
+
+    private long checkConsumer() throws ConsumerInterruptedException {
+        final long consumerSequence = consumerSequence();
+        if (consumerSequence == Cab.CONSUMER_INTERRUPTED_SEQUENCE) {
+            throw new ConsumerInterruptedException();
+        }
+        return consumerSequence;
+    }
+
+    private long consumerSequence() {
+        return (long) LONG_HANDLE.getAcquire(buffer, CONSUMER_SEQUENCE_OFFSET);
+    }
+
+    private void checkSize(final int n) {
+        if (n < 1 || n > bufferSize) {
+            throw new IllegalArgumentException(Cab.NUMBER_OF_SEQUENCES_OUT_OF_RANGE_MESSAGE + n);
+        }
+    }
+
+    private int stateOffset(final long sequence) {
+        return ringOffset + (int) (sequence & indexMask) * stride;
+    }
+
+    private int entryOffset(final long sequence) {
+        return stateOffset(sequence) + CabOffHeap.STATE_SIZE;
+    }
+}
@@ -0,0 +1,258 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2019-2023 Anatoly Gudkov
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.green.cab;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Supplier;
+
+abstract class CabSingleProducerPad0<E, M> extends Cab<E, M> {
+    protected long p00, p01, p02, p03, p04, p05, p06, p07;
+    protected long p08, p09, p010, p011, p012, p013, p014, p015;
+
+    CabSingleProducerPad0(
+            final int bufferSize,
+            final WaitStrategy waitStrategy,
+            final Supplier<E> supplier) {
+        super(bufferSize, waitStrategy, supplier);
+    }
+}
+
+abstract class ProducerState<E, M> extends CabSingleProducerPad0<E, M> {
+    @SuppressWarnings("rawtypes")
+    protected static final AtomicReferenceFieldUpdater<ProducerState, Thread> PRODUCER_THREAD_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(ProducerState.class, Thread.class, "producerThread");
+
+    protected volatile Thread producerThread; // set once by the first producing thread
+    protected volatile boolean consumerInterrupted; // set once by the consumer
+
+    protected long producerSequence; // used by Producer only, no any membars required
+    protected long consumerSequenceCache; // used by Producer only, no any membars required
+
+    ProducerState(
+            final int bufferSize,
+            final WaitStrategy waitStrategy,
+            final Supplier<E> supplier) {
+        super(bufferSize, waitStrategy, supplier);
+    }
+}
+
+abstract class CabSingleProducerPad1<E, M> extends ProducerState<E, M> {
+    protected long p10, p11, p12, p13, p14, p15, p16, p17;
+    protected long p18, p19, p110, p111, p112, p113, p114, p115;
+
+    CabSingleProducerPad1(
+            final int bufferSize,
+            final WaitStrategy waitStrategy,
+            final Supplier<E> supplier) {
+        super(bufferSize, waitStrategy, supplier);
+    }
+}
+
+/**
+ * A flavour of the {@link Cab} for the case when entries are produced by one single thread.
+ * <p>
+ * The producer's sequence is claimed with plain and ordered writes instead of an atomic increment, and
+ * the consumer's sequence is cached by the producer and re-read only when the cached value says the Ring Buffer
+ * is full. The producing thread is bound on the first claim, so, producerNext() called from any other thread
+ * fails with IllegalStateException. Messages still can be sent to the Channel from any thread.
+ *
+ * @param <E> types of entries in the Ring Buffer
+ * @param <M> type of message in the Channel
+ */
+public class CabSingleProducer<E, M> extends CabSingleProducerPad1<E, M> {
+
+    private static final String ANOTHER_PRODUCER_THREAD_MESSAGE = "Entries can be produced by one single thread only: ";
+
+    public static <E, M> CabSingleProducer<E, M> busySpinning(final int bufferSize) {
+        return new CabSingleProducer<>(bufferSize, new BusySpinningWaitStrategy(), null);
+    }
+
+    public static <E, M> CabSingleProducer<E, M> busySpinning(final int bufferSize, final Supplier<E> supplier) {
+        return new CabSingleProducer<>(bufferSize, new BusySpinningWaitStrategy(), supplier);
+    }
+
+    public static <E, M> CabSingleProducer<E, M> yielding(final int bufferSize) {
+        return new CabSingleProducer<>(bufferSize, new YieldingWaitStrategy(), null);
+    }
+
+    public static <E, M> CabSingleProducer<E, M> yielding(final int bufferSize, final Supplier<E> supplier) {
+        return new CabSingleProducer<>(bufferSize, new YieldingWaitStrategy(), supplier);
+    }
+
+    public static <E, M> CabSingleProducer<E, M> backingOff(
+            final int bufferSize,
+            final long maxSpins,
+            final long maxYields) {
+
+        return new CabSingleProducer<>(bufferSize, new BackingOffWaitStrategy(maxSpins, maxYields), null);
+    }
+
+    public static <E, M> CabSingleProducer<E, M> backingOff(
+            final int bufferSize,
+            final long maxSpins,
+            final long maxYields,
+            final Supplier<E> supplier) {
+
+        return new CabSingleProducer<>(bufferSize, new BackingOffWaitStrategy(maxSpins, maxYields), supplier);
+    }
+
+    public static <E, M> CabSingleProducer<E, M> blocking(final int bufferSize) {
+        return new CabSingleProducer<>(bufferSize, new BlockingWaitStrategy(), null);
+    }
+
+    public static <E, M> CabSingleProducer<E, M> blocking(final int bufferSize, final Supplier<E> supplier) {
+        return new CabSingleProducer<>(bufferSize, new BlockingWaitStrategy(), supplier);
+    }
+
+    public static <E, M> CabSingleProducer<E, M> withWaitStrategy(
+            final int bufferSize,
+            final WaitStrategy waitStrategy) {
+
+        return new CabSingleProducer<>(bufferSize, waitStrategy, null);
+    }
+
+    public static <E, M> CabSingleProducer<E, M> withWaitStrategy(
+            final int bufferSize,
+            final WaitStrategy waitStrategy,
+            final Supplier<E> supplier) {
+
+        return new CabSingleProducer<>(bufferSize, waitStrategy, supplier);
+    }
+
+    CabSingleProducer(
+            final int bufferSize,
+            final WaitStrategy waitStrategy,
+            final Supplier<E> supplier) {
+
+        super(bufferSize, waitStrategy, supplier);
+
+        producerSequence = uncommittedProducersSequence;
+        consumerSequenceCache = consumerSequence;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException if another thread has already produced entries into this Cab
+     */
+    @Override
+    public long producerNext(final int n) throws ConsumerInterruptedException, InterruptedException {
+        checkProducerThread();
+
+        final int bufferSize = bufferSize();
+
+        if (n < 1 || n > bufferSize) {
+            throw new IllegalArgumentException(NUMBER_OF_SEQUENCES_OUT_OF_RANGE_MESSAGE + n);
+        }
+
+        if (consumerInterrupted) {
+            throw new ConsumerInterruptedException();
+        }
+
+        final long nextSequence = producerSequence + n;
+
+        if (nextSequence - consumerSequenceCache > bufferSize) { // the cache says the buffer is full, let's check
+            final long consumerSequence = CONSUMER_SEQUENCE_UPDATER.get(this);
+
+            if (consumerSequence == CONSUMER_INTERRUPTED_SEQUENCE) {
+                throw new ConsumerInterruptedException();
+            }
+
+            consumerSequenceCache = nextSequence - consumerSequence <= bufferSize ?
+                    consumerSequence : awaitConsumer(nextSequence - bufferSize, producerSequence);
+        }
+
+        producerSequence = nextSequence;
+        UNCOMMITTED_PRODUCER_SEQUENCE_UPDATER.lazySet(this, nextSequence);
+
+        return nextSequence;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException if another thread has already produced entries into this Cab
+     */
+    @Override
+    protected long producerClaim(
+            final int n,
+            final OverflowPolicy policy,
+            final boolean timed,
+            final long deadlineNanos) throws ConsumerInterruptedException, InterruptedException {
+
+        checkProducerThread();
+        checkClaim(n, policy);
+
+        if (consumerInterrupted) {
+            throw new ConsumerInterruptedException();
+        }
+
+        final int bufferSize = bufferSize();
+        final long nextSequence = producerSequence + n;
+
+        if (nextSequence - consumerSequenceCache > bufferSize) { // the cache says the buffer is full, let's check
+            final long consumerSequence = CONSUMER_SEQUENCE_UPDATER.get(this);
+
+            if (consumerSequence == CONSUMER_INTERRUPTED_SEQUENCE) {
+                throw new ConsumerInterruptedException();
+            }
+
+            if (nextSequence - consumerSequence <= bufferSize) {
+                consumerSequenceCache = consumerSequence;
+            } else {
+                final long requiredSequence = nextSequence - bufferSize;
+
+                if (policy == OverflowPolicy.DROP_OLDEST) {
+                    raiseStaleSequence(requiredSequence);
+                }
+
+                final long cs = awaitConsumer(policy, requiredSequence, producerSequence, timed, deadlineNanos);
+                if (cs < requiredSequence) {
+                    return NO_SEQUENCE;
+                }
+                consumerSequenceCache = cs;
+            }
+        }
+
+        producerSequence = nextSequence;
+        UNCOMMITTED_PRODUCER_SEQUENCE_UPDATER.lazySet(this, nextSequence);
+
+        return nextSequence;
+    }
+
+    @Override
+    public void consumerInterrupt() {
+        consumerInterrupted = true;
+
+        super.consumerInterrupt();
+    }
+
+    private void checkProducerThread() {
+        final Thread currentThread = Thread.currentThread();
+        if (producerThread != currentThread &&
+                !PRODUCER_THREAD_UPDATER.compareAndSet(this, null, currentThread)) {
+            throw new IllegalStateException(ANOTHER_PRODUCER_THREAD_MESSAGE + producerThread);
+        }
+    }
+}
\ No newline at end of file
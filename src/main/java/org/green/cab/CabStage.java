@@ -0,0 +1,223 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2019-2023 Anatoly Gudkov
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.green.cab;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.function.BooleanSupplier;
+
+abstract class CabStagePad0 {
+    protected long p00, p01, p02, p03, p04, p05, p06, p07;
+    protected long p08, p09, p010, p011, p012, p013, p014, p015;
+}
+
+abstract class StageSequence extends CabStagePad0 {
+    protected static final AtomicLongFieldUpdater<StageSequence> STAGE_SEQUENCE_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(StageSequence.class, "stageSequence");
+
+    protected volatile long stageSequence = -1; // written by the stage's consumer only
+}
+
+abstract class CabStagePad1 extends StageSequence {
+    protected long p10, p11, p12, p13, p14, p15, p16, p17;
+    protected long p18, p19, p110, p111, p112, p113, p114, p115;
+}
+
+/**
+ * A consumer of a {@link CabMulticast} which reads all the entries of the Ring Buffer with its own sequence
+ * independently of other stages. A stage created with dependencies receives an entry only after all
+ * the dependencies have committed it. The stage is used by one single thread the same way as the consumer
+ * side of a Cab, except that there is no Channel: consumerNext() returns sequences of entries only and
+ * throws {@link ConsumerInterruptedException} once the Cab is interrupted.
+ *
+ * @param <E> types of entries in the Ring Buffer
+ */
+public final class CabStage<E> extends CabStagePad1 {
+    private static final WaitStrategy[] NO_DEPENDENTS = new WaitStrategy[0];
+
+    private final CabMulticast<E, ?> cab;
+    private final WaitStrategy waitStrategy;
+    private final CabStage<?>[] dependencies;
+
+    private final BooleanSupplier wakeupCondition = () -> poll() != Cab.NO_SEQUENCE || isInterrupted();
+
+    private WaitStrategy[] dependents = NO_DEPENDENTS; // set up before the consumers start
+    private boolean leaf = true; // no other stage depends on this one
+
+    CabStage(final CabMulticast<E, ?> cab, final WaitStrategy waitStrategy, final CabStage<?>[] dependencies) {
+        this.cab = cab;
+        this.waitStrategy = waitStrategy;
+        this.dependencies = dependencies;
+    }
+
+    /**
+     * Returns the sequence of the next entry available for the stage, waits if there is no such an entry.
+     * <p>
+     * This method can be called from one single consumer thread of the stage only.
+     *
+     * @return sequence to be read with getEntry(sequence)
+     * @throws ConsumerInterruptedException if the Cab was interrupted
+     * @throws InterruptedException         if the current thread was interrupted
+     */
+    public long consumerNext() throws ConsumerInterruptedException, InterruptedException {
+        final WaitStrategy strategy = waitStrategy;
+
+        long idles = 0;
+
+        while (true) {
+            final long nextSequence = poll();
+            if (nextSequence != Cab.NO_SEQUENCE) {
+                return nextSequence;
+            }
+
+            if (isInterrupted()) {
+                throw new ConsumerInterruptedException();
+            }
+
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+
+            idles = strategy.consumerIdle(idles, wakeupCondition);
+        }
+    }
+
+    /**
+     * Returns the last sequence of a contiguous range of entries available for the stage which starts with
+     * the sequence returned by consumerNext(), see {@link Cab#consumerNextBatch(long, int)}.
+     * <p>
+     * This method can be called from one single consumer thread of the stage only.
+     *
+     * @param sequence     an entry's sequence returned by consumerNext()
+     * @param maxBatchSize max number of entries in the range
+     * @return the last sequence of the range
+     */
+    public long consumerNextBatch(final long sequence, final int maxBatchSize) {
+        final long limitSequence = Math.min(sequence + Math.min(maxBatchSize, cab.bufferSize()) - 1, gate());
+
+        long lastSequence = sequence;
+
+        while (lastSequence < limitSequence && cab.isCommitted(lastSequence + 1)) {
+            lastSequence++;
+        }
+
+        return lastSequence;
+    }
+
+    /**
+     * Returns the entry of the sequence. The entry must not be modified since other stages read it too.
+     *
+     * @param sequence an entry's sequence returned by consumerNext() or consumerNextBatch() and not committed yet
+     * @return the entry
+     */
+    public E getEntry(final long sequence) {
+        return cab.getEntry(sequence);
+    }
+
+    /**
+     * Commits the entry, so, it becomes available for the stages which depend on this one.
+     * <p>
+     * This method can be called from one single consumer thread of the stage only.
+     *
+     * @param sequence to be committed
+     */
+    public void consumerCommit(final long sequence) {
+        consumerCommitBatch(sequence);
+    }
+
+    /**
+     * Commits all the entries up to lastSequence inclusively. The dependent stages and the producers are
+     * signaled only once for the whole batch.
+     * <p>
+     * This method can be called from one single consumer thread of the stage only.
+     *
+     * @param lastSequence the last sequence of the batch returned by consumerNextBatch()
+     */
+    public void consumerCommitBatch(final long lastSequence) {
+        STAGE_SEQUENCE_UPDATER.set(this, lastSequence);
+
+        final WaitStrategy[] ds = dependents;
+        for (int i = 0; i < ds.length; i++) {
+            ds[i].signalConsumer();
+        }
+
+        if (leaf) {
+            cab.stageCommitted();
+        }
+    }
+
+    /**
+     * Returns the sequence of the last entry committed by the stage.
+     *
+     * @return the sequence, -1 if nothing is committed yet
+     */
+    public long sequence() {
+        return stageSequence;
+    }
+
+    long poll() {
+        final long nextSequence = stageSequence + 1;
+
+        return nextSequence <= gate() && cab.isCommitted(nextSequence) ? nextSequence : Cab.NO_SEQUENCE;
+    }
+
+    boolean isLeaf() {
+        return leaf;
+    }
+
+    boolean isRoot() {
+        return dependencies.length == 0;
+    }
+
+    WaitStrategy waitStrategy() {
+        return waitStrategy;
+    }
+
+    void addDependent(final WaitStrategy dependent) {
+        final WaitStrategy[] ds = new WaitStrategy[dependents.length + 1];
+        System.arraycopy(dependents, 0, ds, 0, dependents.length);
+        ds[dependents.length] = dependent;
+
+        dependents = ds;
+        leaf = false;
+    }
+
+    boolean belongsTo(final CabMulticast<?, ?> multicast) {
+        return cab == multicast;
+    }
+
+    private long gate() {
+        long gate = Long.MAX_VALUE;
+
+        final CabStage<?>[] ds = dependencies;
+        for (int i = 0; i < ds.length; i++) {
+            gate = Math.min(gate, ds[i].stageSequence);
+        }
+
+        return gate;
+    }
+
+    private boolean isInterrupted() {
+        return cab.isConsumerInterrupted();
+    }
+}
@@ -0,0 +1,240 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2019-2023 Anatoly Gudkov
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.green.cab;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.Supplier;
+
+import static org.green.cab.Utils.ARRAY_PAD;
+
+/**
+ * A flavour of the {@link Cab} whose Ring Buffer keeps each entry together with the sequence it was committed for
+ * in one slot object instead of two parallel arrays of entries and their states. A producer writes the entry
+ * and the stamp of the slot, which share a cache line, and the consumer reads the entry in the same cache line
+ * it has checked the stamp in. Since the stamp of the next lap differs from the current one, the consumer doesn't
+ * reset the slot when the entry is consumed, so, committing entries is free of writes to the Ring Buffer.
+ * <p>
+ * The slots are allocated in a row when the Cab is created, so, the neighbouring slots are usually adjacent
+ * in memory too. The entries are read and written with plain accesses ordered by the stamps and the consumer's
+ * sequence: a producer may access the entry of a sequence it has claimed, the consumer may access the entry of
+ * a sequence returned by consumerNext() or consumerNextBatch() until it is committed.
+ *
+ * @param <E> types of entries in the Ring Buffer
+ * @param <M> type of message in the Channel
+ */
+public class CabStamped<E, M> extends Cab<E, M> {
+
+    private static final VarHandle STAMP_HANDLE;
+
+    static {
+        try {
+            STAMP_HANDLE = MethodHandles.lookup().findVarHandle(Slot.class, "stamp", long.class);
+        } catch (final ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static final long NO_STAMP = -1; // sequences start with 0, so, no sequence matches a fresh slot
+
+    public static <E, M> CabStamped<E, M> busySpinning(final int bufferSize) {
+        return new CabStamped<>(bufferSize, new BusySpinningWaitStrategy(), null);
+    }
+
+    public static <E, M> CabStamped<E, M> busySpinning(final int bufferSize, final Supplier<E> supplier) {
+        return new CabStamped<>(bufferSize, new BusySpinningWaitStrategy(), supplier);
+    }
+
+    public static <E, M> CabStamped<E, M> yielding(final int bufferSize) {
+        return new CabStamped<>(bufferSize, new YieldingWaitStrategy(), null);
+    }
+
+    public static <E, M> CabStamped<E, M> yielding(final int bufferSize, final Supplier<E> supplier) {
+        return new CabStamped<>(bufferSize, new YieldingWaitStrategy(), supplier);
+    }
+
+    public static <E, M> CabStamped<E, M> backingOff(
+            final int bufferSize,
+            final long maxSpins,
+            final long maxYields) {
+
+        return new CabStamped<>(bufferSize, new BackingOffWaitStrategy(maxSpins, maxYields), null);
+    }
+
+    public static <E, M> CabStamped<E, M> backingOff(
+            final int bufferSize,
+            final long maxSpins,
+            final long maxYields,
+            final Supplier<E> supplier) {
+
+        return new CabStamped<>(bufferSize, new BackingOffWaitStrategy(maxSpins, maxYields), supplier);
+    }
+
+    public static <E, M> CabStamped<E, M> blocking(final int bufferSize) {
+        return new CabStamped<>(bufferSize, new BlockingWaitStrategy(), null);
+    }
+
+    public static <E, M> CabStamped<E, M> blocking(final int bufferSize, final Supplier<E> supplier) {
+        return new CabStamped<>(bufferSize, new BlockingWaitStrategy(), supplier);
+    }
+
+    public static <E, M> CabStamped<E, M> withWaitStrategy(
+            final int bufferSize,
+            final WaitStrategy waitStrategy,
+            final Supplier<E> supplier) {
+
+        return new CabStamped<>(bufferSize, waitStrategy, supplier);
+    }
+
+    static final class Slot {
+        long stamp; // the sequence the entry was committed for, accessed via STAMP_HANDLE
+        Object entry;
+    }
+
+    private final long indexMask;
+
+    private final Slot[] slots;
+
+    CabStamped(
+            final int bufferSize,
+            final WaitStrategy waitStrategy,
+            final Supplier<E> supplier) {
+
+        super(bufferSize, DEFAULT_CHANNEL_SIZE, waitStrategy, null, false);
+
+        this.indexMask = bufferSize() - 1;
+
+        final Slot[] s = new Slot[bufferSize() + 2 * ARRAY_PAD];
+        for (int i = ARRAY_PAD; i < ARRAY_PAD + bufferSize(); i++) {
+            final Slot slot = new Slot();
+            slot.stamp = NO_STAMP;
+            slot.entry = supplier != null ? supplier.get() : null;
+            s[i] = slot;
+        }
+        this.slots = s;
+    }
+
+    @Override
+    public void producerCommit(final long sequence) {
+        STAMP_HANDLE.setRelease(slot(sequence), sequence);
+
+        signalConsumer();
+    }
+
+    @Override
+    public void producerCommit(final long firstSequence, final long lastSequence) {
+        for (long sequence = firstSequence; sequence <= lastSequence; sequence++) {
+            STAMP_HANDLE.setRelease(slot(sequence), sequence);
+        }
+
+        signalConsumer();
+    }
+
+    @Override
+    protected long consumerPoll() {
+        long nextConsumerSequence = consumerSequence + 1;
+
+        while (isCommitted(nextConsumerSequence)) {
+            if (nextConsumerSequence > staleSequence) {
+                return nextConsumerSequence;
+            }
+
+            // the entry was dropped by a producer with DROP_OLDEST policy
+            dropEntry(getEntry(nextConsumerSequence));
+
+            publishConsumerSequence(nextConsumerSequence);
+
+            nextConsumerSequence++;
+        }
+
+        return NO_SEQUENCE;
+    }
+
+    @Override
+    public void consumerCommit(final long sequence) {
+        if (sequence == MESSAGE_RECEIVED_SEQUENCE) {
+            super.consumerCommit(sequence);
+            return;
+        }
+
+        publishConsumerSequence(sequence);
+
+        signalProducers();
+    }
+
+    @Override
+    public long consumerNextBatch(final long sequence, final int maxBatchSize) {
+        final long limitSequence = sequence + Math.min(maxBatchSize, bufferSize()) - 1;
+
+        long lastSequence = sequence;
+
+        while (lastSequence < limitSequence &&
+                isCommitted(lastSequence + 1)) {
+            lastSequence++;
+        }
+
+        return lastSequence;
+    }
+
+    @Override
+    public void consumerCommitBatch(final long lastSequence) {
+        publishConsumerSequence(lastSequence);
+
+        signalProducers();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public E getEntry(final long sequence) {
+        return (E) slot(sequence).entry;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public E removeEntry(final long sequence) {
+        final Slot slot = slot(sequence);
+        final Object entry = slot.entry;
+        slot.entry = null;
+        return (E) entry;
+    }
+
+    @Override
+    public void setEntry(final long sequence, final E entry) {
+        slot(sequence).entry = entry;
+    }
+
+    /**
+     * Returns true if the entry of the sequence is committed by a producer and not overwritten yet.
+     *
+     * @param sequence identifier of the entry's position
+     * @return true if the slot is stamped with the sequence
+     */
+    final boolean isCommitted(final long sequence) {
+        return (long) STAMP_HANDLE.getAcquire(slot(sequence)) == sequence;
+    }
+
+    private Slot slot(final long sequence) {
+        return slots[ARRAY_PAD + (int) (sequence & indexMask)];
+    }
+}
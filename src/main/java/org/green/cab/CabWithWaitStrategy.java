@@ -0,0 +1,51 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2019-2023 Anatoly Gudkov
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.green.cab;
+
+import java.util.function.Supplier;
+
+/**
+ * A Cab which waits and signals with a given {@link WaitStrategy}, so, custom strategies can be plugged in.
+ *
+ * @param <E> types of entries in the Ring Buffer
+ * @param <M> type of message in the Channel
+ */
+public class CabWithWaitStrategy<E, M> extends Cab<E, M> {
+    public CabWithWaitStrategy(final int bufferSize, final WaitStrategy waitStrategy) {
+        super(bufferSize, waitStrategy, null);
+    }
+
+    public CabWithWaitStrategy(final int bufferSize, final WaitStrategy waitStrategy, final Supplier<E> supplier) {
+        super(bufferSize, waitStrategy, supplier);
+    }
+
+    public CabWithWaitStrategy(
+            final int bufferSize,
+            final int channelSize,
+            final WaitStrategy waitStrategy,
+            final Supplier<E> supplier) {
+
+        super(bufferSize, channelSize, waitStrategy, supplier);
+    }
+}
\ No newline at end of file
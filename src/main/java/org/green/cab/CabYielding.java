@@ -27,13 +27,13 @@ import java.util.function.Supplier;
 
 public class CabYielding<E, M> extends Cab<E, M> {
     public CabYielding(final int bufferSize) {
-        super(bufferSize, WaitingStaregy.YIELDING, 0, 0, null);
+        super(bufferSize, new YieldingWaitStrategy(), null);
     }
 
     public CabYielding(
             final int bufferSize,
             final Supplier<E> supplier) {
 
-        super(bufferSize, WaitingStaregy.YIELDING, 0, 0, supplier);
+        super(bufferSize, new YieldingWaitStrategy(), supplier);
     }
 }
\ No newline at end of file
@@ -0,0 +1,206 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2019-2023 Anatoly Gudkov
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.green.cab;
+
+import static org.green.cab.Utils.ARRAY_PAD;
+import static org.green.cab.Utils.INT_ARRAY_HANDLE;
+
+/**
+ * A Ring Buffer of primitive longs attached to a {@link Cab} with attachLongCab(), so, single long values
+ * (ids, packed prices etc.) are passed to the consumer of the Cab without any entry objects, pools or
+ * references. Producers claim sequences with producerNext() as usual, store the values with setLong() and
+ * commit the sequences.
+ * <p>
+ * The Ring Buffer shares the wait strategy of the Cab it is attached to and has no Channel of its own, the consumer
+ * receives {@link Cab#LONGS_RECEIVED_SEQUENCE} from consumerNext() of the Cab when values are available, takes
+ * them with consumerNext() and consumerNextBatch() of this Ring Buffer, which don't wait then, reads them with
+ * getLong() and commits them with consumerCommitBatch(). The Cab alternates between its entries and the longs,
+ * so, neither starves the other. The Ring Buffer is interrupted together with the Cab.
+ * <p>
+ * getEntry(), setEntry(), removeEntry() and send() are not supported since there are no objects here.
+ */
+public final class LongCab extends Cab<Void, Void> {
+
+    private static final String NO_OBJECTS_MESSAGE = "Entries of " + LongCab.class.getSimpleName() +
+            " are primitive longs";
+    private static final String NO_CHANNEL_MESSAGE = LongCab.class.getSimpleName() + " has no Channel";
+
+    private final long indexMask;
+
+    private final long[] values;
+    private final int[] states;
+
+    LongCab(final int bufferSize, final WaitStrategy waitStrategy) {
+        super(bufferSize, 1, waitStrategy, null, false);
+
+        this.indexMask = bufferSize() - 1;
+
+        this.values = new long[bufferSize() + 2 * ARRAY_PAD];
+        this.states = new int[values.length];
+    }
+
+    /**
+     * Stores the value of the sequence claimed with producerNext(). The value is visible to the consumer once
+     * the sequence is committed.
+     *
+     * @param sequence the sequence claimed
+     * @param value    the value
+     */
+    public void setLong(final long sequence, final long value) {
+        values[arrayIndex(sequence)] = value;
+    }
+
+    /**
+     * Returns the value of the sequence taken with consumerNext() or consumerNextBatch().
+     * <p>
+     * This method can be called from one single consumer thread only.
+     *
+     * @param sequence the sequence of the value
+     * @return the value
+     */
+    public long getLong(final long sequence) {
+        return values[arrayIndex(sequence)];
+    }
+
+    @Override
+    public void producerCommit(final long sequence) {
+        INT_ARRAY_HANDLE.setRelease(states, arrayIndex(sequence), 1);
+
+        signalConsumer();
+    }
+
+    @Override
+    public void producerCommit(final long firstSequence, final long lastSequence) {
+        final int[] s = states;
+
+        for (long sequence = firstSequence; sequence <= lastSequence; sequence++) {
+            INT_ARRAY_HANDLE.setRelease(s, arrayIndex(sequence), 1);
+        }
+
+        signalConsumer();
+    }
+
+    @Override
+    protected long consumerPoll() {
+        long nextConsumerSequence = consumerSequence + 1;
+
+        while ((int) INT_ARRAY_HANDLE.getVolatile(states, arrayIndex(nextConsumerSequence)) != 0) {
+            if (nextConsumerSequence > staleSequence) {
+                return nextConsumerSequence;
+            }
+
+            dropEntry(null); // the value was dropped by a producer with DROP_OLDEST policy
+
+            INT_ARRAY_HANDLE.set(states, arrayIndex(nextConsumerSequence), 0);
+
+            publishConsumerSequence(nextConsumerSequence);
+
+            nextConsumerSequence++;
+        }
+
+        return NO_SEQUENCE;
+    }
+
+    @Override
+    public void consumerCommit(final long sequence) {
+        INT_ARRAY_HANDLE.set(states, arrayIndex(sequence), 0);
+
+        publishConsumerSequence(sequence);
+
+        signalProducers();
+    }
+
+    @Override
+    public long consumerNextBatch(final long sequence, final int maxBatchSize) {
+        final long limitSequence = sequence + Math.min(maxBatchSize, bufferSize()) - 1;
+
+        final int[] s = states;
+
+        long lastSequence = sequence;
+
+        while (lastSequence < limitSequence &&
+                (int) INT_ARRAY_HANDLE.getVolatile(s, arrayIndex(lastSequence + 1)) != 0) {
+            lastSequence++;
+        }
+
+        return lastSequence;
+    }
+
+    @Override
+    public void consumerCommitBatch(final long lastSequence) {
+        final int[] s = states;
+
+        for (long sequence = consumerSequence + 1; sequence <= lastSequence; sequence++) {
+            INT_ARRAY_HANDLE.set(s, arrayIndex(sequence), 0);
+        }
+
+        publishConsumerSequence(lastSequence);
+
+        signalProducers();
+    }
+
+    /**
+     * Not supported since there are no entry objects.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public Void getEntry(final long sequence) {
+        throw new UnsupportedOperationException(NO_OBJECTS_MESSAGE);
+    }
+
+    /**
+     * Not supported since there are no entry objects.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public Void removeEntry(final long sequence) {
+        throw new UnsupportedOperationException(NO_OBJECTS_MESSAGE);
+    }
+
+    /**
+     * Not supported since there are no entry objects, use setLong(sequence, value).
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void setEntry(final long sequence, final Void entry) {
+        throw new UnsupportedOperationException(NO_OBJECTS_MESSAGE);
+    }
+
+    /**
+     * Not supported, messages are sent to the Channel of the Cab the Ring Buffer is attached to.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void send(final Void msg) {
+        throw new UnsupportedOperationException(NO_CHANNEL_MESSAGE);
+    }
+
+    private int arrayIndex(final long sequence) {
+        return ARRAY_PAD + (int) (sequence & indexMask);
+    }
+}
@@ -0,0 +1,43 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2019-2023 Anatoly Gudkov
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.green.cab;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A flyweight view of a fixed-size binary entry which lives outside of the heap, see {@link CabOffHeap}.
+ * The same view is moved over different entries, so, it must not be kept once the entry is committed.
+ */
+public interface OffHeapEntry {
+
+    /**
+     * Points the view to the entry which starts at the offset of the buffer. The view reads and writes
+     * the buffer with absolute accessors only, the position and the limit of the buffer must not be changed.
+     *
+     * @param buffer the buffer which holds the entry
+     * @param offset the offset of the entry's first byte
+     */
+    void wrap(ByteBuffer buffer, int offset);
+
+}
\ No newline at end of file
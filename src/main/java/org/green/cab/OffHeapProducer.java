@@ -0,0 +1,118 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2019-2023 Anatoly Gudkov
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.green.cab;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The producer's side of a Ring Buffer of fixed-size binary entries, see {@link CabOffHeap}. The same protocol
+ * is provided by the Cab itself to producers of its own process and by {@link CabSharedProducer} to producers
+ * of other processes, so, a sender of binary entries may work with both.
+ */
+public interface OffHeapProducer {
+
+    /**
+     * Returns actual Ring Buffer's size.
+     *
+     * @return actual buffer size
+     */
+    int bufferSize();
+
+    /**
+     * Returns the number of bytes of one entry.
+     *
+     * @return size of the entry
+     */
+    int slotSize();
+
+    /**
+     * Claims a contiguous range of n sequences, waits while the Ring Buffer is full.
+     *
+     * @param n number of sequences to be claimed, must not be greater than the size of the Ring Buffer
+     * @return the last sequence of the claimed range
+     * @throws ConsumerInterruptedException if the consumer was interrupted
+     * @throws InterruptedException         if the current thread was interrupted
+     */
+    long producerNext(int n) throws ConsumerInterruptedException, InterruptedException;
+
+    /**
+     * Claims a contiguous range of n sequences, follows the policy if the Ring Buffer is full.
+     *
+     * @param n      number of sequences to be claimed, must not be greater than the size of the Ring Buffer
+     * @param policy what to do if the Ring Buffer is full
+     * @return the last sequence of the claimed range or {@link Cab#NO_SEQUENCE} if the claim was rejected
+     * @throws ConsumerInterruptedException if the consumer was interrupted
+     * @throws InterruptedException         if the current thread was interrupted
+     */
+    long producerNext(int n, OverflowPolicy policy) throws ConsumerInterruptedException, InterruptedException;
+
+    /**
+     * Claims a contiguous range of n sequences like producerNext(n, policy), but the policies which wait for
+     * the consumer give up once the timeout elapses.
+     *
+     * @param n       number of sequences to be claimed, must not be greater than the size of the Ring Buffer
+     * @param policy  what to do if the Ring Buffer is full
+     * @param timeout max time to wait for the consumer
+     * @param unit    unit of the timeout
+     * @return the last sequence of the claimed range or {@link Cab#NO_SEQUENCE} if the claim was rejected
+     * @throws ConsumerInterruptedException if the consumer was interrupted
+     * @throws InterruptedException         if the current thread was interrupted
+     */
+    long producerNext(int n, OverflowPolicy policy, long timeout, TimeUnit unit)
+            throws ConsumerInterruptedException, InterruptedException;
+
+    /**
+     * Points the producer's view to the entry of the sequence claimed, so, the entry can be written in place.
+     *
+     * @param sequence the sequence claimed
+     * @param view     the producer's own view
+     */
+    void wrapEntry(long sequence, OffHeapEntry view);
+
+    /**
+     * Copies slotSize() bytes which start at the offset of the source buffer to the entry of the sequence claimed.
+     *
+     * @param sequence the sequence claimed
+     * @param src      the source buffer
+     * @param offset   the offset of the first byte to be copied
+     */
+    void putEntry(long sequence, ByteBuffer src, int offset);
+
+    /**
+     * Commits the sequence to make the entry available for the consumer.
+     *
+     * @param sequence to be committed
+     */
+    void producerCommit(long sequence);
+
+    /**
+     * Commits the range of sequences claimed with producerNext(n).
+     *
+     * @param firstSequence the first sequence of the range
+     * @param lastSequence  the last sequence of the range
+     */
+    void producerCommit(long firstSequence, long lastSequence);
+
+}
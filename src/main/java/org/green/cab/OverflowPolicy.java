@@ -0,0 +1,58 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2019-2023 Anatoly Gudkov
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.green.cab;
+
+/**
+ * Defines what a producer does when the Ring Buffer of a {@link Cab} is full and a sequence is claimed with
+ * producerNext(n, policy) or producerNext(n, policy, timeout, unit).
+ */
+public enum OverflowPolicy {
+    /**
+     * Waits until the consumer frees the space (or the timeout elapses). An elapsed timeout is accounted
+     * in {@link Cab#numberOfRejects()}.
+     */
+    BLOCK,
+
+    /**
+     * Doesn't wait and rejects the claim. The producer still owns its entry and may try again later.
+     * Accounted in {@link Cab#numberOfRejects()}.
+     */
+    REJECT,
+
+    /**
+     * Doesn't wait and rejects the claim, the producer is expected to discard its entry.
+     * Accounted in {@link Cab#numberOfDroppedNewest()}.
+     */
+    DROP_NEWEST,
+
+    /**
+     * Marks the oldest entries not taken by the consumer yet as stale and waits while the consumer skips them.
+     * The consumer doesn't process stale entries but passes them to the dropped entry handler. A consumer busy
+     * with a slow entry skips nothing, so, the producer rejects the claim like REJECT does once the consumer
+     * hasn't moved for {@link Cab#DROP_OLDEST_MAX_STALLED_CHECKS} checks in a row (or the timeout elapses).
+     * The producer never waits for the consumer to process an entry. Accounted in
+     * {@link Cab#numberOfDroppedOldest()}, rejected claims in {@link Cab#numberOfRejects()}.
+     */
+    DROP_OLDEST
+}
@@ -0,0 +1,124 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2019-2023 Anatoly Gudkov
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.green.cab;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.function.LongSupplier;
+
+import static org.green.cab.Cab.CONSUMER_INTERRUPTED_SEQUENCE;
+
+/**
+ * Blocks producers stalled on a full Ring Buffer until the consumer reaches the lowest sequence they wait for.
+ * The consumer checks the gate with one volatile read per commit and enters the monitor only if there is
+ * a stalled producer to be woken up.
+ */
+final class OverloadGate {
+    private static final AtomicLongFieldUpdater<OverloadGate> WAKEUP_SEQUENCE_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(OverloadGate.class, "wakeupSequence");
+
+    private static final long NO_WAKEUP_SEQUENCE = Long.MAX_VALUE;
+
+    private final Object mutex = new Object();
+
+    private volatile long wakeupSequence = NO_WAKEUP_SEQUENCE; // the lowest sequence stalled producers wait for
+
+    /**
+     * Waits until the consumer's sequence reaches the given sequence or the consumer is interrupted.
+     *
+     * @param sequence         consumer's sequence to wait for
+     * @param consumerSequence returns current consumer's sequence, must be a volatile read
+     * @throws InterruptedException if the current thread was interrupted
+     */
+    void await(final long sequence, final LongSupplier consumerSequence) throws InterruptedException {
+        await(sequence, consumerSequence, false, 0);
+    }
+
+    /**
+     * Waits until the consumer's sequence reaches the given sequence, the consumer is interrupted or,
+     * if the wait is timed, the deadline passes.
+     *
+     * @param sequence         consumer's sequence to wait for
+     * @param consumerSequence returns current consumer's sequence, must be a volatile read
+     * @param timed            true if the wait is bounded by the deadline
+     * @param deadlineNanos    the deadline in terms of System.nanoTime()
+     * @throws InterruptedException if the current thread was interrupted
+     */
+    void await(
+            final long sequence,
+            final LongSupplier consumerSequence,
+            final boolean timed,
+            final long deadlineNanos) throws InterruptedException {
+
+        final Object mtx = mutex;
+
+        synchronized (mtx) {
+            while (true) {
+                if (sequence < wakeupSequence) {
+                    // must be published before the consumer's sequence is checked, see signal()
+                    WAKEUP_SEQUENCE_UPDATER.set(this, sequence);
+                }
+
+                final long cs = consumerSequence.getAsLong();
+                if (cs >= sequence || cs == CONSUMER_INTERRUPTED_SEQUENCE) {
+                    return;
+                }
+
+                if (!timed) {
+                    mtx.wait();
+                } else {
+                    final long remainingNanos = deadlineNanos - System.nanoTime();
+                    if (remainingNanos <= 0) {
+                        return;
+                    }
+
+                    mtx.wait(remainingNanos / 1_000_000, (int) (remainingNanos % 1_000_000));
+                }
+            }
+        }
+    }
+
+    /**
+     * Wakes up stalled producers if the consumer has reached the sequence they wait for. Must be called by
+     * the consumer after its sequence is published with a volatile store.
+     *
+     * @param consumerSequence just published consumer's sequence
+     */
+    void signal(final long consumerSequence) {
+        if (consumerSequence >= wakeupSequence) {
+            wakeUp();
+        }
+    }
+
+    /**
+     * Wakes up all stalled producers. The ones whose sequences are not reached yet will wait again.
+     */
+    void wakeUp() {
+        final Object mtx = mutex;
+
+        synchronized (mtx) {
+            WAKEUP_SEQUENCE_UPDATER.set(this, NO_WAKEUP_SEQUENCE);
+            mtx.notifyAll();
+        }
+    }
+}
\ No newline at end of file
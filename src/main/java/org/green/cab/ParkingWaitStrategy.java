@@ -0,0 +1,72 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2019-2023 Anatoly Gudkov
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.green.cab;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Parks the waiting thread for a period which starts with minParkNanos and is doubled with each idle
+ * iteration up to maxParkNanos. No signalling is required, so, producers never pay for it, but the consumer
+ * may notice a new entry with a delay up to maxParkNanos.
+ */
+public final class ParkingWaitStrategy implements WaitStrategy {
+    private final long minParkNanos;
+    private final long maxParkNanos;
+
+    public ParkingWaitStrategy(final long minParkNanos, final long maxParkNanos) {
+        if (minParkNanos < 1 || maxParkNanos < minParkNanos) {
+            throw new IllegalArgumentException("Wrong park period: [" + minParkNanos + ", " + maxParkNanos + "]");
+        }
+        this.minParkNanos = minParkNanos;
+        this.maxParkNanos = maxParkNanos;
+    }
+
+    @Override
+    public long consumerIdle(final long idles, final BooleanSupplier wakeupCondition) {
+        LockSupport.parkNanos(parkNanos(idles));
+        return idles + 1;
+    }
+
+    @Override
+    public void signalConsumer() {
+    }
+
+    @Override
+    public long producerIdle(final long idles, final BooleanSupplier wakeupCondition) {
+        LockSupport.parkNanos(parkNanos(idles));
+        return idles + 1;
+    }
+
+    @Override
+    public void signalProducers() {
+    }
+
+    private long parkNanos(final long idles) {
+        if (idles >= Long.numberOfLeadingZeros(minParkNanos) - 1) {
+            return maxParkNanos; // the shift would overflow
+        }
+        return Math.min(minParkNanos << idles, maxParkNanos);
+    }
+}
\ No newline at end of file
@@ -25,6 +25,7 @@ package org.green.cab;
 
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
 
 public class Utils {
     public static final int CACHE_LINE_SIZE = Integer.getInteger("org.green.cab.cache.line.size", 64);
@@ -36,7 +37,39 @@ public class Utils {
 
     public static final VarHandle INT_ARRAY_HANDLE = MethodHandles.arrayElementVarHandle(int[].class);
 
+    public static final VarHandle LONG_ARRAY_HANDLE = MethodHandles.arrayElementVarHandle(long[].class);
+
     public static int nextPowerOfTwo(final int value) {
         return 1 << (32 - Integer.numberOfLeadingZeros(value - 1));
     }
+
+    /**
+     * Copies bytes between absolute offsets of two buffers. The positions and the limits of the buffers
+     * are not changed and nothing is allocated, unlike with duplicates or ByteBuffer.put(int, ByteBuffer, int, int),
+     * which requires JDK 16.
+     *
+     * @param src       the source buffer
+     * @param srcOffset the offset of the first byte in the source
+     * @param dst       the destination buffer
+     * @param dstOffset the offset of the first byte in the destination
+     * @param length    number of bytes
+     */
+    public static void copyBytes(
+            final ByteBuffer src,
+            final int srcOffset,
+            final ByteBuffer dst,
+            final int dstOffset,
+            final int length) {
+
+        final boolean swap = src.order() != dst.order(); // the bytes are copied as they are
+
+        int i = 0;
+        for (; i <= length - Long.BYTES; i += Long.BYTES) {
+            final long value = src.getLong(srcOffset + i);
+            dst.putLong(dstOffset + i, swap ? Long.reverseBytes(value) : value);
+        }
+        for (; i < length; i++) {
+            dst.put(dstOffset + i, src.get(srcOffset + i));
+        }
+    }
 }
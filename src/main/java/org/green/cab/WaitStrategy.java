@@ -0,0 +1,76 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2019-2023 Anatoly Gudkov
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.green.cab;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * A strategy of waiting used by the {@link Cab} when there is nothing to consume (on the consumer side)
+ * or the Channel is busy (on the producer side), and of signalling the other side once the state of the Cab
+ * has changed.
+ * <p>
+ * The Cab calls idle methods in a loop until it finally gets what it was waiting for. A number of idle
+ * iterations the current waiting has already done is passed to the method and a new value returned
+ * by the method is passed to the next call, so, the strategy can change its behaviour from spinning
+ * to yielding or blocking without any state kept between the calls. The Cab checks the interrupt status
+ * of the current thread between the idle iterations.
+ * <p>
+ * A strategy blocking the waiting thread must wait until the wakeup condition is met or a corresponding
+ * signal method is called. Others may return at any moment.
+ * <p>
+ * An instance may hold the state shared between waiting and signalling threads of one Cab,
+ * so, it must not be shared between several Cabs.
+ */
+public interface WaitStrategy {
+
+    /**
+     * Called by the consumer while there is neither committed entry nor message in the Cab.
+     *
+     * @param idles           number of idle iterations already done by the current waiting, 0 for the first call
+     * @param wakeupCondition returns true if there is something to be consumed
+     * @return number of idle iterations to be passed to the next call
+     * @throws InterruptedException if the current thread was interrupted
+     */
+    long consumerIdle(long idles, BooleanSupplier wakeupCondition) throws InterruptedException;
+
+    /**
+     * Called by producers and senders after a new entry or message became available for the consumer.
+     */
+    void signalConsumer();
+
+    /**
+     * Called by a sender while the Channel is occupied by another message.
+     *
+     * @param idles           number of idle iterations already done by the current waiting, 0 for the first call
+     * @param wakeupCondition returns true if the Channel is free or the consumer was interrupted
+     * @return number of idle iterations to be passed to the next call
+     * @throws InterruptedException if the current thread was interrupted
+     */
+    long producerIdle(long idles, BooleanSupplier wakeupCondition) throws InterruptedException;
+
+    /**
+     * Called by the consumer after a message or entries were consumed or the consumer was interrupted.
+     */
+    void signalProducers();
+}
\ No newline at end of file
@@ -24,31 +24,59 @@
 package org.green.tractor;
 
 import org.green.cab.Cab;
+import org.green.cab.CabConflating;
+import org.green.cab.CabGrowable;
+import org.green.cab.CabMultiLane;
+import org.green.cab.CabMulticast;
+import org.green.cab.CabOffHeap;
+import org.green.cab.CabPrioritized;
 import org.green.cab.ConsumerInterruptedException;
+import org.green.cab.LongCab;
+import org.green.cab.OverflowPolicy;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.IdentityHashMap;
-import java.util.function.BooleanSupplier;
+import java.util.concurrent.TimeUnit;
 
 public abstract class AbstractTractor
         <E extends Executor, L extends TractorListener<E>>
         implements Tractor<E, L> {
 
+    // a caller may keep this many not synced commands of the same class, see Future
     private static final int SIMULTANEOUS_COMMANDS_PER_THREAD_MAX = 10;
 
+    // max number of entries the Worker drains from the Cab between two checks of incoming commands
+    private static final int MAX_ENTRIES_PER_BATCH = Integer.getInteger("org.green.tractor.max.entries.per.batch", 256);
+
     private static final ThreadLocal<IdentityHashMap<
             Class<? extends Command<?>>,
             SbsrConsatantObjectPool<? extends Command<?>>>> COMMAND_POOLS_THREAD_LOCAL
             = ThreadLocal.withInitial(() -> new IdentityHashMap<>());
 
-    private final BooleanSupplier closedMutex = new BooleanSupplier() {
-        @Override
-        public boolean getAsBoolean() {
-            return closed;
+    private static final VarHandle COMPLETIONS_HANDLE;
+
+    static {
+        try {
+            COMPLETIONS_HANDLE = MethodHandles.lookup().findVarHandle(AbstractTractor.class, "completions",
+                    Command.class);
+        } catch (final ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
         }
+    }
+
+    // the head of the completions once the Worker has stopped, nothing can be queued after it
+    private static final Command<?> NO_MORE_COMPLETIONS = new Command<ErrorableResult>(null) {
     };
 
     private final Cab<Entry, Command<?>> cab;
+    private final CabConflating<Entry, Command<?>> conflatingCab; // null if the Cab doesn't conflate entries
+    private final CabPrioritized<Entry, Command<?>> prioritizedCab; // null if the Cab has one single priority
+    private final CabOffHeap<Entry, Command<?>> offHeapCab; // null if the Cab keeps entries in the heap
+    private final boolean multicast; // entries are read by other stages too, so, senders release them
+    private final CabGrowable<?, ?> growableCab;
     private final Executor executor;
+    private final Journal journal; // null if entries aren't journaled
 
     protected final ErrorHandler exceptionHandler;
 
@@ -56,6 +84,10 @@ public abstract class AbstractTractor
 
     private boolean closing; // guarded by this
     private volatile boolean closed;
+    private final CommandWaiters commandWaiters = new CommandWaiters(() -> closed); // callers parked in sync()
+
+    // the commands executed by other tractors whose handlers the Worker calls, the last queued first
+    private volatile Command<?> completions;
 
     protected AbstractTractor(final Cab<Entry, Command<?>> cab, final Executor executor) {
         this(cab, executor, new JulLoggingErrorHandler(AbstractTractor.class));
@@ -65,18 +97,182 @@ public abstract class AbstractTractor
             final Cab<Entry, Command<?>> cab,
             final Executor executor,
             final ErrorHandler exceptionHandler) {
+        this(cab, executor, exceptionHandler, null);
+    }
+
+    protected AbstractTractor(final Cab<Entry, Command<?>> cab, final Executor executor, final Journal journal) {
+        this(cab, executor, new JulLoggingErrorHandler(AbstractTractor.class), journal);
+    }
+
+    /**
+     * Creates the tractor and starts its Worker. If the journal isn't null, the Worker replays the entries
+     * of the journal to the Executor first and appends every entry taken from the Cab to the journal before
+     * the Executor processes it. If the Executor is {@link Snapshotable}, the Worker loads the latest snapshot
+     * of the journal before the entries are replayed. The journal is closed when the Worker stops.
+     *
+     * @param cab              the Cab of entries and commands
+     * @param executor         the Executor
+     * @param exceptionHandler the handler of errors of the Worker
+     * @param journal          the journal of entries or null
+     */
+    @SuppressWarnings("unchecked")
+    protected AbstractTractor(
+            final Cab<Entry, Command<?>> cab,
+            final Executor executor,
+            final ErrorHandler exceptionHandler,
+            final Journal journal) {
 
         this.cab = cab;
+        this.conflatingCab = cab instanceof CabConflating ? (CabConflating<Entry, Command<?>>) cab : null; // unchecked
+        this.prioritizedCab = cab instanceof CabPrioritized ?
+                (CabPrioritized<Entry, Command<?>>) cab : null; // unchecked
+        this.offHeapCab = cab instanceof CabOffHeap ? (CabOffHeap<Entry, Command<?>>) cab : null; // unchecked
+        this.multicast = cab instanceof CabMulticast;
+        this.growableCab = cab instanceof CabGrowable ? (CabGrowable<?, ?>) cab : null;
         this.executor = executor;
+        this.journal = journal;
         this.exceptionHandler = exceptionHandler;
 
+        if (journal != null && journal.snapshotInterval() > 0 && snapshotable() == null) {
+            throw new IllegalArgumentException("Periodic snapshots need the Executor to be " +
+                    Snapshotable.class.getSimpleName());
+        }
+
+        cab.setDroppedEntryHandler(this::releaseEntry); // entries dropped with DROP_OLDEST policy
+
         worker = new Worker();
         worker.start();
     }
 
     @Override
     public final <E extends Entry> EntrySender<E> newEntrySender(final Class<E> classOfEntry) {
-        return new EntrySenderImpl<>(classOfEntry);
+        return new EntrySenderImpl<>(classOfEntry, OverflowPolicy.BLOCK, false, 0);
+    }
+
+    @Override
+    public final <E extends Entry> EntrySender<E> newEntrySender(
+            final Class<E> classOfEntry,
+            final OverflowPolicy overflowPolicy) {
+
+        if (overflowPolicy == null) {
+            throw new NullPointerException("overflowPolicy must not be null");
+        }
+        return new EntrySenderImpl<>(classOfEntry, overflowPolicy, false, 0);
+    }
+
+    @Override
+    public final <E extends Entry> EntrySender<E> newEntrySender(final Class<E> classOfEntry, final int priority) {
+        return newEntrySender(classOfEntry, priority, OverflowPolicy.BLOCK);
+    }
+
+    @Override
+    public final <E extends Entry> EntrySender<E> newEntrySender(
+            final Class<E> classOfEntry,
+            final int priority,
+            final OverflowPolicy overflowPolicy) {
+
+        if (overflowPolicy == null) {
+            throw new NullPointerException("overflowPolicy must not be null");
+        }
+        final int numberOfPriorities = prioritizedCab == null ? 1 : prioritizedCab.numberOfPriorities();
+        if (priority < 0 || priority >= numberOfPriorities) {
+            throw new IllegalArgumentException("Priority out of range: " + priority);
+        }
+        return new EntrySenderImpl<>(classOfEntry, overflowPolicy, false, priority);
+    }
+
+    @Override
+    public final <E extends KeyedEntry> EntrySender<E> newConflatingEntrySender(final Class<E> classOfEntry) {
+        return newConflatingEntrySender(classOfEntry, OverflowPolicy.BLOCK);
+    }
+
+    @Override
+    public final <E extends KeyedEntry> EntrySender<E> newConflatingEntrySender(
+            final Class<E> classOfEntry,
+            final OverflowPolicy overflowPolicy) {
+
+        if (overflowPolicy == null) {
+            throw new NullPointerException("overflowPolicy must not be null");
+        }
+        if (conflatingCab == null) {
+            throw new IllegalStateException("Entries can be conflated by " + CabConflating.class.getSimpleName() +
+                    " only");
+        }
+        return new EntrySenderImpl<>(classOfEntry, overflowPolicy, true, 0);
+    }
+
+    @Override
+    public final <E extends BinaryEntry> EntrySender<E> newBinaryEntrySender(final Class<E> classOfEntry) {
+        return newBinaryEntrySender(classOfEntry, OverflowPolicy.BLOCK);
+    }
+
+    @Override
+    public final <E extends BinaryEntry> EntrySender<E> newBinaryEntrySender(
+            final Class<E> classOfEntry,
+            final OverflowPolicy overflowPolicy) {
+
+        if (overflowPolicy == null) {
+            throw new NullPointerException("overflowPolicy must not be null");
+        }
+        if (offHeapCab == null) {
+            throw new IllegalStateException("Binary entries can be sent to " + CabOffHeap.class.getSimpleName() +
+                    " only");
+        }
+        return new BinaryEntrySenderImpl<>(offHeapCab, classOfEntry, overflowPolicy);
+    }
+
+    @Override
+    public final void awaitDurable(final long sequence) throws TractorClosedException, InterruptedException {
+        awaitDurable(sequence, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public final boolean awaitDurable(final long sequence, final long timeout, final TimeUnit unit)
+            throws TractorClosedException, InterruptedException {
+
+        if (journal == null) {
+            throw new IllegalStateException("The tractor has no journal");
+        }
+        if (prioritizedCab != null || cab instanceof CabMultiLane) {
+            throw new IllegalStateException("Entries of " + cab.getClass().getSimpleName() +
+                    " cannot be acknowledged by their sequences");
+        }
+        if (journal.awaitDurable(sequence, timeout, unit)) {
+            return true;
+        }
+        if (closed) {
+            throw new TractorClosedException();
+        }
+        return false;
+    }
+
+    @Override
+    public final LongEntrySender newLongEntrySender() {
+        return newLongEntrySender(OverflowPolicy.BLOCK);
+    }
+
+    @Override
+    public final LongEntrySender newLongEntrySender(final OverflowPolicy overflowPolicy) {
+        if (overflowPolicy == null) {
+            throw new NullPointerException("overflowPolicy must not be null");
+        }
+        final LongCab longCab = cab.longCab();
+        if (longCab == null) {
+            throw new IllegalStateException("Long values can be sent to a Cab with an attached " +
+                    LongCab.class.getSimpleName() + " only");
+        }
+        return new LongEntrySenderImpl(longCab, overflowPolicy);
+    }
+
+    @Override
+    public final Future<SnapshotResult> takeSnapshot() throws TractorClosedException, InterruptedException {
+        if (journal == null) {
+            throw new IllegalStateException("The tractor has no journal");
+        }
+        if (snapshotable() == null) {
+            throw new IllegalStateException("The Executor isn't " + Snapshotable.class.getSimpleName());
+        }
+        return executeCommand(prepareCommand(TakeSnapshot.class));
     }
 
     @Override
@@ -119,7 +315,7 @@ public abstract class AbstractTractor
         }
         try {
             final C result = pool.borrow();
-            result.set(cab, closedMutex);
+            result.set(cab, commandWaiters);
             return result;
         } catch (final InterruptedException e) {
             Thread.currentThread().interrupt();
@@ -137,15 +333,103 @@ public abstract class AbstractTractor
         return command;
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Sends the command to the Worker like executeCommand(), but nobody waits for its result: the Worker
+     * doesn't signal the execution and returns the command to its pool as soon as it is executed, like an entry.
+     * The command mustn't be accessed after it is posted. An error of the execution is reported to
+     * the error handler only.
+     *
+     * @param command the command prepared with prepareCommand()
+     * @throws TractorClosedException if the tractor is closed
+     * @throws InterruptedException   if the current thread was interrupted
+     */
+    protected final void postCommand(final Command<?> command) throws TractorClosedException, InterruptedException {
+        try {
+            command.post();
+        } catch (final ConsumerInterruptedException e) {
+            throw new TractorClosedException();
+        }
+    }
+
+    private Snapshotable snapshotable() {
+        return executor instanceof Snapshotable ? (Snapshotable) executor : null;
+    }
+
     private void releaseCommandExecution(final Command<?> execution) {
-        execution.executed();
-        execution.owner().release(execution); // unchecked
+        if (execution.executed()) { // a completion handler is registered
+            final AbstractTractor<?, ?> context = execution.handlerContext();
+            if (context != null && context != this) {
+                if (context.queueCompletion(execution)) {
+                    return; // the context's worker calls the handler and releases the command
+                }
+                execution.result.setError(new TractorClosedException()); // nobody else calls the handler
+                complete(execution);
+            } else {
+                complete(execution);
+            }
+        }
+
+        releaseCommand(execution);
+    }
+
+    // called by the Worker of another tractor, never waits, returns false if this tractor's Worker has stopped
+    private boolean queueCompletion(final Command<?> execution) {
+        Command<?> head;
+        do {
+            head = completions;
+            if (head == NO_MORE_COMPLETIONS) {
+                return false;
+            }
+            execution.nextCompletion = head;
+        } while (!COMPLETIONS_HANDLE.compareAndSet(this, head, execution));
+
+        if (head == null) { // otherwise the Worker is woken up already and takes this command with the others
+            cab.wakeUpConsumer();
+        }
+        return true;
+    }
+
+    // called by the Worker with the commands taken from the completions, the last queued first
+    private void completeQueued(final Command<?> last) {
+        Command<?> first = null;
+        for (Command<?> c = last; c != null; ) { // the handlers are called in the order the commands were queued
+            final Command<?> next = c.nextCompletion;
+            c.nextCompletion = first;
+            first = c;
+            c = next;
+        }
+
+        for (Command<?> c = first; c != null; ) {
+            final Command<?> next = c.nextCompletion;
+            c.nextCompletion = null;
+            complete(c);
+            releaseCommand(c);
+            c = next;
+        }
+    }
+
+    private void complete(final Command<?> execution) {
+        try {
+            execution.complete();
+        } catch (final Exception e) {
+            exceptionHandler.onError(this, "An error in the completion handler of the command: " + execution, e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void releaseCommand(final Command<?> execution) {
+        final SbsrConsatantObjectPool<PoolableObject> owner = execution.owner();
+        if (owner != null) { // commands received from another process may be not pooled
+            owner.release(execution); // unchecked
+        }
     }
 
     @SuppressWarnings("unchecked")
     private void releaseEntry(final Entry entry) {
-        entry.owner().release(entry); // unchecked
+        final SbsrConsatantObjectPool<PoolableObject> owner = entry.owner();
+        if (owner != null) { // views of off-heap entries are not pooled
+            owner.release(entry); // unchecked
+        }
     }
 
     private class Worker extends Thread {
@@ -157,6 +441,10 @@ public abstract class AbstractTractor
         @SuppressWarnings("unchecked")
         public void run() {
             try {
+                if (journal != null) {
+                    journal.replay(snapshotable(), this::processReplayedEntry);
+                }
+
                 while (true) {
                     final long cs = cab.consumerNext();
 
@@ -164,25 +452,72 @@ public abstract class AbstractTractor
                         final Command<?> ce = cab.getMessage();
 
                         try {
-                            executor.executeCommand(ce);
+                            if (ce instanceof TakeSnapshot) {
+                                takeSnapshot(((TakeSnapshot) ce).result());
+                            } else {
+                                executor.executeCommand(ce);
+                            }
                         } catch (final Exception e) {
                             exceptionHandler.onError(this, "An error while executing the command: " + ce, e);
                         }
 
-                        releaseCommandExecution(ce);
+                        if (ce.isPosted()) { // nobody waits for the result
+                            releaseCommand(ce);
+                        } else {
+                            releaseCommandExecution(ce);
+                        }
+
+                        cab.consumerCommit(cs);
+                    } else if (cs == Cab.WOKEN_UP_SEQUENCE) { // commands executed by other tractors are queued
+                        completeQueued((Command<?>) COMPLETIONS_HANDLE.getAndSet(AbstractTractor.this, null));
+                    } else if (cs == Cab.LONGS_RECEIVED_SEQUENCE) {
+                        final LongCab longCab = cab.longCab();
+
+                        final long firstLs = longCab.consumerNext(); // doesn't wait, the values are available
+                        final long lastLs = longCab.consumerNextBatch(firstLs, MAX_ENTRIES_PER_BATCH);
+
+                        for (long s = firstLs; s <= lastLs; s++) {
+                            final long value = longCab.getLong(s);
+
+                            try {
+                                executor.processLong(value);
+                            } catch (final Exception e) {
+                                exceptionHandler.onError(this, "An error while processing the long: " + value, e);
+                            }
+                        }
+
+                        longCab.consumerCommitBatch(lastLs);
                     } else {
-                        final Entry entry = cab.getEntry(cs);
+                        final long lastCs = cab.consumerNextBatch(cs, MAX_ENTRIES_PER_BATCH);
 
-                        try {
-                            executor.processEntry(entry);
-                        } catch (final Exception e) {
-                            exceptionHandler.onError(this, "An error while processing the entry: " + entry, e);
+                        for (long s = cs; s <= lastCs; s++) {
+                            final Entry entry = cab.getEntry(s);
+
+                            if (journal != null) {
+                                journal.append(s, entry);
+                            }
+
+                            try {
+                                executor.processEntry(entry);
+                            } catch (final Exception e) {
+                                exceptionHandler.onError(this, "An error while processing the entry: " + entry, e);
+                            }
+
+                            if (!multicast) {
+                                releaseEntry(entry);
+                            }
                         }
 
-                        releaseEntry(entry);
-                    }
+                        cab.consumerCommitBatch(lastCs);
 
-                    cab.consumerCommit(cs);
+                        if (journal != null) {
+                            journal.commit();
+
+                            if (journal.snapshotDue()) {
+                                takeSnapshot(null);
+                            }
+                        }
+                    }
                 }
             } catch (final InterruptedException e) {
                 // ignore
@@ -192,30 +527,89 @@ public abstract class AbstractTractor
 
             closed = true;
 
+            if (journal != null) {
+                journal.close(); // syncs the entries appended
+            }
+
+            // the commands queued meanwhile are completed here, the ones queued later by their own Workers
+            completeQueued((Command<?>) COMPLETIONS_HANDLE.getAndSet(AbstractTractor.this, NO_MORE_COMPLETIONS));
+
             cab.consumerInterrupt();
 
-            synchronized (closedMutex) {
-                closedMutex.notifyAll();
+            commandWaiters.wakeUpAll();
+        }
+
+        private void takeSnapshot(final SnapshotResult result) { // the result is null if the snapshot is periodic
+            try {
+                journal.takeSnapshot(snapshotable(), result);
+            } catch (final Exception e) {
+                if (result != null) {
+                    result.setError(e);
+                } else {
+                    exceptionHandler.onError(this, "An error while taking the snapshot", e);
+                }
             }
         }
+
+        private void processReplayedEntry(final Entry entry) {
+            try {
+                executor.processEntry(entry);
+            } catch (final Exception e) {
+                exceptionHandler.onError(this, "An error while processing the replayed entry: " + entry, e);
+            }
+
+            releaseEntry(entry);
+        }
     }
 
     private class EntrySenderImpl<E extends Entry> implements EntrySender<E>, EntryEnvelope<E> {
         private final SbsrConsatantObjectPool<E> entryPool;
         private final Thread creator;
+        private final OverflowPolicy overflowPolicy;
+        private final boolean conflating;
+        private final int priority; // 0 if the Cab has one single priority
 
         private E nextEntry;
+        private boolean unsent; // nextEntry was borrowed but neither sent nor dropped yet
+        private long sentSequence = Cab.NO_SEQUENCE;
+
+        private EntryBatchEnvelopeImpl batchEnvelope; // created on the first demand
 
-        EntrySenderImpl(final Class<E> classOfEntry) {
-            entryPool = SbsrConsatantObjectPool.constructorBasedPool(classOfEntry, cab.bufferSize());
+        EntrySenderImpl(
+                final Class<E> classOfEntry,
+                final OverflowPolicy overflowPolicy,
+                final boolean conflating,
+                final int priority) {
+
+            if (offHeapCab != null) {
+                throw new IllegalStateException("Entries of " + CabOffHeap.class.getSimpleName() +
+                        " can be sent with binary entry senders only");
+            }
+            // one entry more than the Cab can hold, so, an envelope can be filled while the Cab is full.
+            // Entries of a multicast Cab stay there until the next lap, so, a whole batch may be filled meanwhile.
+            // The pool of a growable Cab grows with it
+            entryPool = growableCab != null ?
+                    SbsrConsatantObjectPool.constructorBasedPool(classOfEntry,
+                            cab.bufferSize() + 1, growableCab.maxCapacity() + 1) :
+                    SbsrConsatantObjectPool.constructorBasedPool(classOfEntry,
+                            multicast ? 2 * cab.bufferSize() : cab.bufferSize() + 1);
             creator = Thread.currentThread();
+            this.overflowPolicy = overflowPolicy;
+            this.conflating = conflating;
+            this.priority = priority;
         }
 
         @Override
         public EntryEnvelope<E> nextEnvelope() {
             checkCurrentThread();
+            if (unsent) { // the previous entry was rejected and abandoned
+                unsent = false;
+                entryPool.release(nextEntry);
+            }
             try {
                 nextEntry = entryPool.borrow();
+                unsent = true;
+                sentSequence = Cab.NO_SEQUENCE;
             } catch (final InterruptedException e) {
                 Thread.currentThread().interrupt();
                 throw new IllegalStateException("Interrupted", e);
@@ -223,6 +617,19 @@ public abstract class AbstractTractor
             return this;
         }
 
+        @Override
+        public EntryBatchEnvelope<E> nextBatchEnvelope(final int size) {
+            checkCurrentThread();
+            if (size < 1 || size > cab.bufferSize()) {
+                throw new IllegalArgumentException("Size of the batch out of range: " + size);
+            }
+            if (batchEnvelope == null) {
+                batchEnvelope = new EntryBatchEnvelopeImpl();
+            }
+            batchEnvelope.prepare(size);
+            return batchEnvelope;
+        }
+
         @Override
         public E entry() {
             checkCurrentThread();
@@ -233,18 +640,174 @@ public abstract class AbstractTractor
         public void send() throws TractorClosedException, InterruptedException {
             checkCurrentThread();
             try {
-                final long ps = cab.producerNext();
-                cab.setEntry(ps, nextEntry);
-                cab.producerCommit(ps);
+                send(conflating ? conflatingCab.producerNextByKey(key()) : next(1));
+            } catch (final ConsumerInterruptedException e) {
+                throw new TractorClosedException();
+            }
+        }
+
+        @Override
+        public boolean trySend() throws TractorClosedException, InterruptedException {
+            checkCurrentThread();
+            try {
+                return send(conflating ?
+                        conflatingCab.producerNextByKey(key(), overflowPolicy) :
+                        priority == 0 ?
+                                cab.producerNext(1, overflowPolicy) :
+                                prioritizedCab.producerNextByPriority(priority, 1, overflowPolicy));
             } catch (final ConsumerInterruptedException e) {
                 throw new TractorClosedException();
             }
         }
 
+        @Override
+        public boolean send(final long timeout, final TimeUnit unit)
+                throws TractorClosedException, InterruptedException {
+
+            checkCurrentThread();
+            try {
+                return send(conflating ?
+                        conflatingCab.producerNextByKey(key(), overflowPolicy, timeout, unit) :
+                        priority == 0 ?
+                                cab.producerNext(1, overflowPolicy, timeout, unit) :
+                                prioritizedCab.producerNextByPriority(priority, 1, overflowPolicy, timeout, unit));
+            } catch (final ConsumerInterruptedException e) {
+                throw new TractorClosedException();
+            }
+        }
+
+        private boolean send(final long ps) {
+            if (ps == Cab.NO_SEQUENCE) {
+                if (overflowPolicy == OverflowPolicy.DROP_NEWEST) {
+                    unsent = false;
+                    entryPool.release(nextEntry);
+                }
+                return false;
+            }
+
+            if (CabConflating.isConflated(ps)) { // the queued entry with the same key is replaced
+                final Entry replaced = cab.getEntry(ps);
+                cab.setEntry(ps, nextEntry);
+                cab.producerCommit(ps);
+                releaseEntry(replaced);
+                sentSequence = CabConflating.sequenceOf(ps);
+            } else if (multicast) { // the entry of the previous lap is committed by all the stages already
+                final Entry replaced = cab.getEntry(ps);
+                cab.setEntry(ps, nextEntry);
+                cab.producerCommit(ps);
+                if (replaced != null) {
+                    releaseEntry(replaced);
+                }
+                sentSequence = ps;
+            } else {
+                cab.setEntry(ps, nextEntry);
+                cab.producerCommit(ps);
+                sentSequence = ps;
+            }
+            unsent = false;
+            return true;
+        }
+
+        @Override
+        public long sequence() {
+            checkCurrentThread();
+            return sentSequence;
+        }
+
+        private long next(final int n) throws ConsumerInterruptedException, InterruptedException {
+            return priority == 0 ? cab.producerNext(n) : prioritizedCab.producerNextByPriority(priority, n);
+        }
+
+        private long key() {
+            return ((KeyedEntry) nextEntry).key();
+        }
+
         private void checkCurrentThread() {
             if (creator != Thread.currentThread()) {
                 throw new IllegalStateException("Cannot be used from another thread");
             }
         }
+
+        private class EntryBatchEnvelopeImpl implements EntryBatchEnvelope<E> {
+            private Entry[] entries = new Entry[0];
+            private int size;
+            private boolean unsent; // the entries were borrowed but not sent yet
+            private long lastSequence = Cab.NO_SEQUENCE;
+
+            void prepare(final int size) {
+                if (unsent) { // the previous batch was abandoned
+                    unsent = false;
+                    for (int i = 0; i < this.size; i++) {
+                        releaseEntry(entries[i]);
+                        entries[i] = null;
+                    }
+                }
+                if (entries.length < size) {
+                    entries = new Entry[size];
+                }
+                try {
+                    for (int i = 0; i < size; i++) {
+                        entries[i] = entryPool.borrow();
+                        this.size = i + 1; // released by the next prepare() if the rest isn't borrowed
+                        unsent = true;
+                    }
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted", e);
+                }
+                this.size = size;
+                lastSequence = Cab.NO_SEQUENCE;
+            }
+
+            @Override
+            public int size() {
+                checkCurrentThread();
+                return size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E entry(final int index) {
+                checkCurrentThread();
+                if (index < 0 || index >= size) {
+                    throw new IndexOutOfBoundsException(index);
+                }
+                return (E) entries[index]; // unchecked
+            }
+
+            @Override
+            public void send() throws TractorClosedException, InterruptedException {
+                checkCurrentThread();
+                if (!unsent) { // the entries were passed to the Worker by the previous send()
+                    throw new IllegalStateException("The batch was sent already, prepare the next one");
+                }
+                try {
+                    final long lastPs = next(size);
+                    final long firstPs = lastPs - size + 1;
+                    for (int i = 0; i < size; i++) {
+                        final Entry replaced = multicast ? cab.getEntry(firstPs + i) : null;
+                        cab.setEntry(firstPs + i, entries[i]);
+                        entries[i] = replaced; // released after the batch is committed
+                    }
+                    unsent = false;
+                    cab.producerCommit(firstPs, lastPs);
+                    for (int i = 0; i < size; i++) {
+                        if (entries[i] != null) {
+                            releaseEntry(entries[i]);
+                            entries[i] = null;
+                        }
+                    }
+                    lastSequence = lastPs;
+                } catch (final ConsumerInterruptedException e) {
+                    throw new TractorClosedException();
+                }
+            }
+
+            @Override
+            public long lastSequence() {
+                checkCurrentThread();
+                return lastSequence;
+            }
+        }
     }
 }
\ No newline at end of file
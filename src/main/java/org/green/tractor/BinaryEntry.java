@@ -0,0 +1,89 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2019-2023 Anatoly Gudkov
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.green.tractor;
+
+import org.green.cab.CabOffHeap;
+import org.green.cab.OffHeapEntry;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A flyweight view of a fixed-size binary entry of a {@link CabOffHeap}. Subclasses define the layout of
+ * the entry with the accessors below, indexes are relative to the first byte of the entry and must fit
+ * the slot size of the Cab.
+ * <p>
+ * Views are not pooled and not queued: a sender returned by {@link Tractor#newBinaryEntrySender(Class)} copies
+ * the entry to the Cab when it is sent, and the Executor gets the Cab's own view pointed to the entry being
+ * processed, so, the view must not be kept after processEntry() returns.
+ */
+public abstract class BinaryEntry extends Entry implements OffHeapEntry {
+    private ByteBuffer buffer;
+    private int offset;
+
+    @Override
+    public final void wrap(final ByteBuffer buffer, final int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+    }
+
+    public final ByteBuffer buffer() {
+        return buffer;
+    }
+
+    public final int offset() {
+        return offset;
+    }
+
+    public final byte getByte(final int index) {
+        return buffer.get(offset + index);
+    }
+
+    public final void putByte(final int index, final byte value) {
+        buffer.put(offset + index, value);
+    }
+
+    public final int getInt(final int index) {
+        return buffer.getInt(offset + index);
+    }
+
+    public final void putInt(final int index, final int value) {
+        buffer.putInt(offset + index, value);
+    }
+
+    public final long getLong(final int index) {
+        return buffer.getLong(offset + index);
+    }
+
+    public final void putLong(final int index, final long value) {
+        buffer.putLong(offset + index, value);
+    }
+
+    public final double getDouble(final int index) {
+        return buffer.getDouble(offset + index);
+    }
+
+    public final void putDouble(final int index, final double value) {
+        buffer.putDouble(offset + index, value);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,234 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2019-2023 Anatoly Gudkov
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.green.tractor;
+
+import org.green.cab.Cab;
+import org.green.cab.ConsumerInterruptedException;
+import org.green.cab.OffHeapProducer;
+import org.green.cab.OverflowPolicy;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A sender of fixed-size binary entries to a Ring Buffer kept off-heap, in the same process or in another one.
+ * The entry of an envelope is written to a buffer of the sender and is copied to the Ring Buffer when it is sent,
+ * so, neither entries nor their pools are needed.
+ *
+ * @param <E> type of entries
+ */
+class BinaryEntrySenderImpl<E extends BinaryEntry> implements EntrySender<E>, EntryEnvelope<E> {
+    private final OffHeapProducer producer;
+    private final MethodHandle entryConstructor;
+    private final Thread creator;
+    private final OverflowPolicy overflowPolicy;
+    private final int slotSize;
+
+    private final E nextEntry; // a view of the sender's own buffer the entry is copied from
+    private final ByteBuffer buffer;
+    private long sentSequence = Cab.NO_SEQUENCE;
+
+    private BinaryEntryBatchEnvelopeImpl batchEnvelope; // created on the first demand
+
+    BinaryEntrySenderImpl(
+            final OffHeapProducer producer,
+            final Class<E> classOfEntry,
+            final OverflowPolicy overflowPolicy) {
+
+        this.producer = producer;
+        try {
+            entryConstructor = MethodHandles.lookup().findConstructor(
+                    classOfEntry, MethodType.methodType(void.class));
+        } catch (final Exception e) {
+            throw new IllegalArgumentException("Cannot find default constructor of " + classOfEntry, e);
+        }
+        creator = Thread.currentThread();
+        this.overflowPolicy = overflowPolicy;
+        slotSize = producer.slotSize();
+
+        buffer = ByteBuffer.allocateDirect(slotSize).order(ByteOrder.nativeOrder());
+        nextEntry = newEntry();
+        nextEntry.wrap(buffer, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The entry of the envelope is the same for all the envelopes and keeps the bytes of the previous one.
+     */
+    @Override
+    public EntryEnvelope<E> nextEnvelope() {
+        checkCurrentThread();
+        sentSequence = Cab.NO_SEQUENCE;
+        return this;
+    }
+
+    @Override
+    public EntryBatchEnvelope<E> nextBatchEnvelope(final int size) {
+        checkCurrentThread();
+        if (size < 1 || size > producer.bufferSize()) {
+            throw new IllegalArgumentException("Size of the batch out of range: " + size);
+        }
+        if (batchEnvelope == null) {
+            batchEnvelope = new BinaryEntryBatchEnvelopeImpl();
+        }
+        batchEnvelope.prepare(size);
+        return batchEnvelope;
+    }
+
+    @Override
+    public E entry() {
+        checkCurrentThread();
+        return nextEntry;
+    }
+
+    @Override
+    public void send() throws TractorClosedException, InterruptedException {
+        checkCurrentThread();
+        try {
+            send(producer.producerNext(1));
+        } catch (final ConsumerInterruptedException e) {
+            throw new TractorClosedException();
+        }
+    }
+
+    @Override
+    public boolean trySend() throws TractorClosedException, InterruptedException {
+        checkCurrentThread();
+        try {
+            return send(producer.producerNext(1, overflowPolicy));
+        } catch (final ConsumerInterruptedException e) {
+            throw new TractorClosedException();
+        }
+    }
+
+    @Override
+    public boolean send(final long timeout, final TimeUnit unit)
+            throws TractorClosedException, InterruptedException {
+
+        checkCurrentThread();
+        try {
+            return send(producer.producerNext(1, overflowPolicy, timeout, unit));
+        } catch (final ConsumerInterruptedException e) {
+            throw new TractorClosedException();
+        }
+    }
+
+    private boolean send(final long ps) {
+        if (ps == Cab.NO_SEQUENCE) {
+            return false; // the entry is kept in the sender's buffer, nothing to be released
+        }
+        producer.putEntry(ps, buffer, 0);
+        producer.producerCommit(ps);
+        sentSequence = ps;
+        return true;
+    }
+
+    @Override
+    public long sequence() {
+        checkCurrentThread();
+        return sentSequence;
+    }
+
+    @SuppressWarnings("unchecked")
+    private E newEntry() {
+        try {
+            return (E) entryConstructor.invoke(); // unchecked
+        } catch (final Throwable t) {
+            throw new IllegalStateException("Cannot create instance of an entry", t);
+        }
+    }
+
+    private void checkCurrentThread() {
+        if (creator != Thread.currentThread()) {
+            throw new IllegalStateException("Cannot be used from another thread");
+        }
+    }
+
+    private class BinaryEntryBatchEnvelopeImpl implements EntryBatchEnvelope<E> {
+        private Entry[] entries = new Entry[0];
+        private ByteBuffer batchBuffer;
+        private int size;
+        private long lastSequence = Cab.NO_SEQUENCE;
+
+        void prepare(final int size) {
+            if (entries.length < size) { // the views and the buffer grow together
+                final Entry[] newEntries = new Entry[size];
+                final ByteBuffer newBuffer =
+                        ByteBuffer.allocateDirect(size * slotSize).order(ByteOrder.nativeOrder());
+                for (int i = 0; i < size; i++) {
+                    final BinaryEntry entry = i < entries.length ? (BinaryEntry) entries[i] : newEntry();
+                    entry.wrap(newBuffer, i * slotSize);
+                    newEntries[i] = entry;
+                }
+                entries = newEntries;
+                batchBuffer = newBuffer;
+            }
+            this.size = size;
+            lastSequence = Cab.NO_SEQUENCE;
+        }
+
+        @Override
+        public int size() {
+            checkCurrentThread();
+            return size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E entry(final int index) {
+            checkCurrentThread();
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return (E) entries[index]; // unchecked
+        }
+
+        @Override
+        public void send() throws TractorClosedException, InterruptedException {
+            checkCurrentThread();
+            try {
+                final long lastPs = producer.producerNext(size);
+                final long firstPs = lastPs - size + 1;
+                for (int i = 0; i < size; i++) {
+                    producer.putEntry(firstPs + i, batchBuffer, i * slotSize);
+                }
+                producer.producerCommit(firstPs, lastPs);
+                lastSequence = lastPs;
+            } catch (final ConsumerInterruptedException e) {
+                throw new TractorClosedException();
+            }
+        }
+
+        @Override
+        public long lastSequence() {
+            checkCurrentThread();
+            return lastSequence;
+        }
+    }
+}
\ No newline at end of file
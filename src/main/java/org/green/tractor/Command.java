@@ -26,45 +26,109 @@ package org.green.tractor;
 import org.green.cab.Cab;
 import org.green.cab.ConsumerInterruptedException;
 
-import java.util.function.BooleanSupplier;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
 
 public abstract class Command<R extends ErrorableResult> extends PoolableObject
         implements Future<R> {
+    private static final VarHandle STATE_HANDLE;
+
+    static {
+        try {
+            STATE_HANDLE = MethodHandles.lookup().findVarHandle(Command.class, "state", int.class);
+        } catch (final ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static final int PENDING = 0;
+    private static final int HANDLED = 1; // a completion handler is registered
+    private static final int EXECUTED = 2;
+    private static final int POSTED = 3; // nobody waits for the result, the worker just releases the command
+
     protected final R result;
 
-    private volatile boolean executed;
+    private volatile int state;
+
+    // these fields are set by the original thread before the state is HANDLED and read by the worker after it
+    private CompletionHandler<? super R> handler;
+    private AbstractTractor<?, ?> handlerContext; // null if the handler is called by the worker
+
+    // links the executed commands queued for the context's worker, see AbstractTractor.queueCompletion()
+    Command<?> nextCompletion;
+
+    // the bridge to a CompletableFuture, the fields are set by the original thread and cleared by the handler
+    private final CompletionHandler<R> stageCompleter = this::completeStage;
+    private CompletableFuture<Object> stage;
+    private Function<? super R, ?> stageMapper;
+
+    private volatile Thread waiter; // the caller parked in sync(), unparked by the worker
 
     // these fields are set by one single thread (owner) in the set() method
     private Cab<Entry, Command<?>> cab; // the same thread reads this property in execute() and result()
-    private BooleanSupplier closedMutex; // the worker's thread reads this in methods executed() after appropriate
-    // membars happened in Cab structure (with strong CAS and volatile read) when this object was passed from
-    // the original/owner thread to the worker
+    private CommandWaiters waiters; // null if the command is received from another process
 
     protected Command(final R result) {
         this.result = result;
     }
 
     // called by the original thread
-    final void set(final Cab<Entry, Command<?>> cab, final BooleanSupplier closedMutex) {
+    final void set(final Cab<Entry, Command<?>> cab, final CommandWaiters waiters) {
         this.cab = cab;
-        this.closedMutex = closedMutex;
+        this.waiters = waiters;
     }
 
     // called by the original thread
     final void execute() throws ConsumerInterruptedException, InterruptedException {
-        executed = false;
+        waiter = null;
+        state = PENDING;
 
         cab.send(this);
     }
 
-    // called by the worker's thread
-    final void executed() {
-        executed = true;
+    // called by the original thread, the state is published to the worker by the cab,
+    // so, neither the caller nor the worker pays for a volatile write
+    final void post() throws ConsumerInterruptedException, InterruptedException {
+        STATE_HANDLE.set(this, POSTED);
 
-        final BooleanSupplier closed = closedMutex;
-        synchronized (closed) {
-            closed.notifyAll();
+        cab.send(this);
+    }
+
+    // called by the worker's thread instead of executed(), the cab has published the state
+    final boolean isPosted() {
+        return (int) STATE_HANDLE.get(this) == POSTED;
+    }
+
+    // called by the worker's thread, returns true if a completion handler is to be called
+    final boolean executed() {
+        final boolean handled = (int) STATE_HANDLE.getAndSet(this, EXECUTED) == HANDLED;
+
+        // the caller publishes itself before it checks the state, so, it either sees the state or is unparked here
+        final Thread w = waiter;
+        if (w != null) {
+            LockSupport.unpark(w);
         }
+        return handled;
+    }
+
+    // called by the worker's thread after executed(), returns null if the handler is called by the worker
+    final AbstractTractor<?, ?> handlerContext() {
+        return handlerContext;
+    }
+
+    // called by the worker's thread or by the context's worker
+    final void complete() {
+        handler.onComplete(result);
+    }
+
+    @Override
+    void onReleased() {
+        handler = null;
+        handlerContext = null;
     }
 
     public final R result() {
@@ -74,24 +138,158 @@ public abstract class Command<R extends ErrorableResult> extends PoolableObject
     @Override
     // optionally can be called by the original thread
     // all writes made by the worker will be seen after return from this method
-    // because of at least 2 HB's in executed()/resultSync():
-    // 1. volatile write/read (of executed field)
-    // 2. synchronized on closedMutex
+    // because of the volatile write/read of the state field in executed()/sync().
+    // Only the caller of this command is woken up, and the worker doesn't signal anybody if nobody waits
     public final R sync() throws InterruptedException {
-        if (!executed) {
-            final BooleanSupplier closed = closedMutex;
-            synchronized (closed) {
-                while (!executed) {
-                    if (closed.getAsBoolean()) {
-                        result.setError(new TractorClosedException());
-                        break;
-                    }
-
-                    closed.wait();
+        awaitExecuted(false, 0);
+        return result;
+    }
+
+    @Override
+    public final R sync(final long maxSpins, final long maxYields) throws InterruptedException {
+        for (long spins = 0; spins < maxSpins; spins++) {
+            if (state >= EXECUTED) {
+                return result;
+            }
+            Thread.onSpinWait();
+        }
+        for (long yields = 0; yields < maxYields; yields++) {
+            if (state >= EXECUTED) {
+                return result;
+            }
+            Thread.yield();
+        }
+        return sync();
+    }
+
+    @Override
+    public final R sync(final long timeout, final TimeUnit unit) throws InterruptedException {
+        return awaitExecuted(true, System.nanoTime() + unit.toNanos(timeout)) ? result : null;
+    }
+
+    @Override
+    public final boolean isDone() {
+        return state >= EXECUTED;
+    }
+
+    // returns false if the deadline has passed
+    private boolean awaitExecuted(final boolean timed, final long deadlineNanos) throws InterruptedException {
+        if (state >= EXECUTED) {
+            return true;
+        }
+
+        waiter = Thread.currentThread();
+        if (state >= EXECUTED) {
+            return true;
+        }
+
+        // the Worker marks the tractor closed before it unparks the registered threads
+        final CommandWaiters w = waiters;
+        w.register();
+
+        while (state < EXECUTED) {
+            if (w.isClosed()) {
+                if (state < EXECUTED) {
+                    result.setError(new TractorClosedException());
                 }
+                break;
+            }
+
+            if (timed) {
+                final long nanos = deadlineNanos - System.nanoTime();
+                if (nanos <= 0) {
+                    return false;
+                }
+                LockSupport.parkNanos(this, nanos);
+            } else {
+                LockSupport.park(this);
+            }
+
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
             }
         }
-        return result;
+        return true;
+    }
+
+    @Override
+    // called by the original thread, the handler is published to the worker with CAS of the state
+    public final void onComplete(final CompletionHandler<? super R> handler) {
+        onComplete(handler, null);
+    }
+
+    @Override
+    public final void onComplete(final CompletionHandler<? super R> handler, final Tractor<?, ?> context) {
+        if (handler == null) {
+            throw new NullPointerException("handler must not be null");
+        }
+        if (context != null && !(context instanceof AbstractTractor)) {
+            throw new IllegalArgumentException("Unsupported context: " + context);
+        }
+
+        final int s = state;
+        if (s == HANDLED) {
+            throw new IllegalStateException("A completion handler is registered already");
+        }
+        if (s == PENDING) {
+            if (waiters.isClosed()) {
+                result.setError(new TractorClosedException());
+            } else {
+                this.handler = handler;
+                this.handlerContext = (AbstractTractor<?, ?>) context;
+                if (STATE_HANDLE.compareAndSet(this, PENDING, HANDLED)) {
+                    return;
+                }
+                this.handler = null;
+                this.handlerContext = null;
+            }
+        }
+        // executed already
+        handler.onComplete(result);
+    }
+
+    @Override
+    public final <T> CompletableFuture<T> toCompletableFuture(final Function<? super R, ? extends T> mapper) {
+        return toCompletableFuture(mapper, null);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public final <T> CompletableFuture<T> toCompletableFuture(final Function<? super R, ? extends T> mapper,
+                                                             final Tractor<?, ?> context) {
+        if (mapper == null) {
+            throw new NullPointerException("mapper must not be null");
+        }
+        if (state == HANDLED) { // checked before the fields of the registered bridge are overwritten
+            throw new IllegalStateException("A completion handler is registered already");
+        }
+
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        stage = (CompletableFuture<Object>) future; // unchecked, the value is T
+        stageMapper = mapper;
+        onComplete(stageCompleter, context);
+        return future;
+    }
+
+    private void completeStage(final R result) {
+        final CompletableFuture<Object> s = stage;
+        final Function<? super R, ?> m = stageMapper;
+        stage = null;
+        stageMapper = null;
+
+        final Exception error = result.error();
+        if (error != null) {
+            s.completeExceptionally(error);
+            return;
+        }
+        final Object value;
+        try {
+            value = m.apply(result);
+        } catch (final RuntimeException e) {
+            s.completeExceptionally(e);
+            return;
+        }
+        s.complete(value);
     }
 
     @Override
@@ -0,0 +1,69 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2019-2023 Anatoly Gudkov
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.green.tractor;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * The threads which have parked in sync() for the commands of a tractor. A caller is unparked by the Worker
+ * directly once its command is executed, so, the threads are needed only to wake all the callers up when the
+ * tractor is closed. A thread is registered the first time it parks and stays registered while it is alive,
+ * so, parking for a command neither allocates nor takes a lock. The registered threads are kept in a lock-free
+ * queue, and the dead ones are removed when a new thread is registered.
+ * <p>
+ * A caller registers itself and publishes itself in its command before it checks whether the tractor is closed,
+ * and the Worker marks the tractor closed before it unparks the registered threads, so, either the caller sees
+ * the tractor closed, or the Worker sees the caller and unparks it.
+ */
+final class CommandWaiters {
+    private final BooleanSupplier closed;
+    private final ConcurrentLinkedQueue<Thread> threads = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Boolean> registered = new ThreadLocal<>(); // non-null if the thread is in threads
+
+    CommandWaiters(final BooleanSupplier closed) {
+        this.closed = closed;
+    }
+
+    boolean isClosed() {
+        return closed.getAsBoolean();
+    }
+
+    // called by a caller before it checks whether the tractor is closed and parks
+    void register() {
+        if (registered.get() == null) {
+            threads.removeIf(t -> !t.isAlive());
+            threads.add(Thread.currentThread());
+            registered.set(Boolean.TRUE);
+        }
+    }
+
+    // called once the tractor is closed
+    void wakeUpAll() {
+        for (final Thread thread : threads) {
+            LockSupport.unpark(thread);
+        }
+    }
+}
@@ -52,6 +52,10 @@ public class DefaultExecutor<D extends DefaultExecutor<D, L>, L extends TractorL
     public void processEntry(final Entry entry) {
     }
 
+    @Override
+    public void processLong(final long value) {
+    }
+
     @Override
     public final void executeCommand(final Command<?> command) {
         if (tryAddListener(command)) {
@@ -32,6 +32,10 @@ public class DefaultTractor<E extends Executor, L extends TractorListener<E>>
         super(cab, executor);
     }
 
+    public DefaultTractor(final Cab<Entry, Command<?>> cab, final Executor executor, final Journal journal) {
+        super(cab, executor, journal);
+    }
+
     @Override
     public final Future<ListenerResult> addListener(final L listener)
             throws TractorClosedException, InterruptedException {
@@ -0,0 +1,48 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2019-2023 Anatoly Gudkov
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.green.tractor;
+
+public interface EntryBatchEnvelope<E extends Entry> {
+
+    int size();
+
+    E entry(int index);
+
+    /**
+     * Sends the entries of the batch to the Worker. A batch can be sent once only.
+     *
+     * @throws TractorClosedException if the tractor is closed
+     * @throws InterruptedException   if the current thread was interrupted
+     * @throws IllegalStateException  if the batch was sent already
+     */
+    void send() throws TractorClosedException, InterruptedException;
+
+    /**
+     * Returns the sequence of the Cab the last entry of the batch was sent with, see {@link EntryEnvelope#sequence()}.
+     *
+     * @return the sequence or {@link org.green.cab.Cab#NO_SEQUENCE} if the batch wasn't sent
+     */
+    long lastSequence();
+
+}
\ No newline at end of file
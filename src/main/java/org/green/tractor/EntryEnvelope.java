@@ -23,10 +23,51 @@
  */
 package org.green.tractor;
 
+import java.util.concurrent.TimeUnit;
+
 public interface EntryEnvelope<E extends Entry> {
 
     E entry();
 
+    /**
+     * Sends the entry, waits while the Cab is full regardless of the sender's overflow policy.
+     *
+     * @throws TractorClosedException if the tractor was closed
+     * @throws InterruptedException   if the current thread was interrupted
+     */
     void send() throws TractorClosedException, InterruptedException;
 
+    /**
+     * Sends the entry if the Cab has free space, otherwise follows the overflow policy of the sender:
+     * BLOCK waits for the free space, REJECT keeps the entry in the envelope to be sent again, DROP_NEWEST returns
+     * the entry to the pool and DROP_OLDEST drops the oldest entries the Worker hasn't taken yet and waits
+     * while the Worker skips them. If the Worker is busy with an entry or a command, DROP_OLDEST doesn't wait
+     * for it but keeps the entry in the envelope to be sent again like REJECT does.
+     *
+     * @return true if the entry was sent, false if it was rejected or dropped
+     * @throws TractorClosedException if the tractor was closed
+     * @throws InterruptedException   if the current thread was interrupted
+     */
+    boolean trySend() throws TractorClosedException, InterruptedException;
+
+    /**
+     * Sends the entry like trySend(), but the policies which wait for the Worker give up once the timeout elapses.
+     * The entry of a timed out envelope is kept to be sent again.
+     *
+     * @param timeout max time to wait for the Worker
+     * @param unit    unit of the timeout
+     * @return true if the entry was sent, false if it was rejected, dropped or the timeout elapsed
+     * @throws TractorClosedException if the tractor was closed
+     * @throws InterruptedException   if the current thread was interrupted
+     */
+    boolean send(long timeout, TimeUnit unit) throws TractorClosedException, InterruptedException;
+
+    /**
+     * Returns the sequence of the Cab the entry of the envelope was sent with. The tractor created with
+     * a {@link Journal} acknowledges the entry with awaitDurable(sequence) once it is synced to the journal.
+     *
+     * @return the sequence or {@link org.green.cab.Cab#NO_SEQUENCE} if the entry wasn't sent
+     */
+    long sequence();
+
 }
\ No newline at end of file
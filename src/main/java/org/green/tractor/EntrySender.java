@@ -27,4 +27,14 @@ public interface EntrySender<E extends Entry> {
 
     EntryEnvelope<E> nextEnvelope();
 
+    /**
+     * Returns an envelope with the number of entries to be filled and sent to the Worker at once.
+     * The entries are claimed in the Cab with one single atomic operation and the Worker
+     * is signaled only once when the envelope is sent.
+     *
+     * @param size number of entries, must not be greater than the size of the Cab
+     * @return the envelope
+     */
+    EntryBatchEnvelope<E> nextBatchEnvelope(int size);
+
 }
\ No newline at end of file
@@ -29,6 +29,17 @@ public interface Executor {
 
     void processEntry(Entry entry);
 
+    /**
+     * Processes a value sent with a {@link LongEntrySender}. Executors which don't expect long values
+     * don't need to implement it, the default implementation rejects the value, so, the Worker reports
+     * the value to its error handler.
+     *
+     * @param value the value
+     */
+    default void processLong(final long value) {
+        throw new UnsupportedOperationException("The Executor " + name() + " doesn't process long values: " + value);
+    }
+
     void executeCommand(Command<?> command) throws Exception;
 
 }
\ No newline at end of file
@@ -23,8 +23,126 @@
  */
 package org.green.tractor;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * A result of a command which is executed by the Worker asynchronously. Commands are queued in a bounded
+ * channel of the Cab, so, a caller may execute several commands in a row and sync() them later.
+ * Since the commands are reused, a caller's thread can keep not more than ten not synced commands of
+ * the same class (a command with a completion handler is kept until the handler has been called).
+ *
+ * @param <R> type of the result
+ */
 public interface Future<R extends Result> {
 
+    /**
+     * Waits for all the futures given to be done.
+     *
+     * @param futures to be waited for
+     * @throws InterruptedException if the current thread was interrupted
+     */
+    static void syncAll(final Future<?>... futures) throws InterruptedException {
+        for (final Future<?> future : futures) {
+            future.sync();
+        }
+    }
+
+    /**
+     * Waits for all the futures given to be done.
+     *
+     * @param futures to be waited for
+     * @throws InterruptedException if the current thread was interrupted
+     */
+    static void syncAll(final Iterable<? extends Future<?>> futures) throws InterruptedException {
+        for (final Future<?> future : futures) {
+            future.sync();
+        }
+    }
+
     R sync() throws InterruptedException;
 
+    /**
+     * Waits for the command to be executed like sync(), but spins first and yields then, and parks only
+     * if the command isn't executed yet. A spinning caller doesn't ask the Worker to wake it up, so, a command
+     * which is expected back quickly doesn't pay for parking on both sides.
+     *
+     * @param maxSpins  max number of spins before the caller yields
+     * @param maxYields max number of yields before the caller parks
+     * @return the result
+     * @throws InterruptedException if the current thread was interrupted
+     */
+    R sync(long maxSpins, long maxYields) throws InterruptedException;
+
+    /**
+     * Waits for the command to be executed like sync(), but not longer than the timeout.
+     *
+     * @param timeout max time to wait
+     * @param unit    unit of the timeout
+     * @return the result or null if the command isn't executed within the timeout
+     * @throws InterruptedException if the current thread was interrupted
+     */
+    R sync(long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Returns true if the command is executed, so, sync() returns its result without waiting.
+     *
+     * @return true if the command is executed
+     */
+    boolean isDone();
+
+    /**
+     * Registers a handler to be called by the Worker once the command is executed, so, the caller doesn't wait
+     * for the result. The command is returned to its pool after the handler has returned. If the command is
+     * executed already, or the tractor is closed already (the result has TractorClosedException as its error then),
+     * the handler is called by the current thread at once. The handler of a command the tractor is closed before
+     * executing isn't called. One single handler can be registered for a command.
+     *
+     * @param handler to be called with the result
+     */
+    void onComplete(CompletionHandler<? super R> handler);
+
+    /**
+     * Registers a handler like onComplete(handler), but the handler is called by the Worker of the context
+     * tractor (e.g. the tractor the caller runs in), which takes the executed command next to the commands of
+     * its Channel. The executed command is queued without waiting for the context
+     * tractor, so, two tractors waiting for each other's commands can't deadlock. If the Worker of the context
+     * tractor has stopped meanwhile, the Worker executing the command calls the handler with
+     * a {@link TractorClosedException} as the error of the result.
+     * Since the command returns to its pool only then, a Worker mustn't wait for more commands of the same class
+     * than its pool holds.
+     *
+     * @param handler to be called with the result
+     * @param context the tractor whose Worker calls the handler
+     */
+    void onComplete(CompletionHandler<? super R> handler, Tractor<?, ?> context);
+
+    /**
+     * Returns a CompletableFuture completed by the Worker once the command is executed, so, a CompletableFuture
+     * pipeline doesn't need a thread to sync() the command. Since the result is reused with the command,
+     * the mapper takes the values needed out of it, and the future is completed with the mapper's value,
+     * or exceptionally with the error of the result or the mapper. Stages which aren't async are run
+     * by the Worker, like a completion handler. The bridge between the command and the future is reused
+     * with the command, so, the future is the only object allocated. A caller which needs one single
+     * continuation only registers a completion handler instead, which allocates nothing.
+     *
+     * @param mapper takes the value of the future out of the result
+     * @param <T>    type of the value
+     * @return the future
+     * @see #onComplete(CompletionHandler)
+     */
+    <T> CompletableFuture<T> toCompletableFuture(Function<? super R, ? extends T> mapper);
+
+    /**
+     * Returns a CompletableFuture like toCompletableFuture(mapper), but completed by the Worker of the context
+     * tractor, see onComplete(handler, context).
+     *
+     * @param mapper  takes the value of the future out of the result
+     * @param context the tractor whose Worker completes the future
+     * @param <T>     type of the value
+     * @return the future
+     */
+    <T> CompletableFuture<T> toCompletableFuture(Function<? super R, ? extends T> mapper, Tractor<?, ?> context);
+
 }
\ No newline at end of file
@@ -0,0 +1,737 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2019-2023 Anatoly Gudkov
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.green.tractor;
+
+import org.green.cab.Cab;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * A write-ahead journal of entries in memory-mapped segment files of a directory. The Worker of a tractor created
+ * with a journal appends every entry before the Executor processes it and publishes the appended entries once per
+ * batch. A syncer thread forces the appended part of the segments to the storage and covers all the entries
+ * appended while the previous force was in progress with the next one (group commit), so, the number of forces
+ * doesn't grow with the rate of entries.
+ * <p>
+ * A record of the journal is the length of the encoded entry, the CRC32C of the encoded bytes and the bytes
+ * themselves, aligned to 8 bytes. A record never spans two segments. When the tractor is created, the Worker
+ * replays all the records to the Executor before it takes anything from the Cab and continues the journal after
+ * the last valid record. A torn record after the last force is treated as the end of the journal.
+ * <p>
+ * Durable acknowledgements are given in terms of the sequences of the Cab: durableSequence() is the sequence
+ * the last synced entry was taken from the Cab with. Since the sequences of a {@link org.green.cab.CabPrioritized}
+ * or a {@link org.green.cab.CabMultiLane} don't grow in the order the entries are processed, the tractors with
+ * such Cabs journal and replay entries, but don't acknowledge them.
+ * <p>
+ * If the Executor is {@link Snapshotable}, the Worker writes its state to a snapshot file of the directory
+ * at the position of the journal the last entry was appended at, either on takeSnapshot() command of the tractor
+ * or after every setSnapshotInterval() entries. The Worker doesn't wait for the storage: the syncer forces
+ * the snapshot, publishes it under its final name and deletes the older snapshots and the segments which
+ * precede the position of the snapshot. On replay the Worker loads the latest snapshot and replays only
+ * the entries appended after it.
+ */
+public class Journal implements AutoCloseable {
+
+    /**
+     * Writes entries to and reads them from the journal.
+     */
+    public interface Codec {
+
+        /**
+         * Encodes the entry to the buffer. Not more than maxEntrySize() bytes may be written.
+         *
+         * @param entry  the entry to be encoded
+         * @param buffer the buffer of a segment
+         * @param offset the offset to encode the entry from
+         * @return number of bytes written, must be positive
+         */
+        int encode(Entry entry, ByteBuffer buffer, int offset);
+
+        /**
+         * Decodes an entry while the journal is replayed. The entry returned is returned to its pool,
+         * if it has one, after the Executor has processed it.
+         *
+         * @param buffer the buffer of a segment, must not be accessed after the method returns
+         * @param offset the offset the entry was encoded from
+         * @param length number of bytes of the encoded entry
+         * @return the entry
+         */
+        Entry decode(ByteBuffer buffer, int offset, int length);
+    }
+
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    public static final int DEFAULT_MAX_ENTRY_SIZE = 1024;
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private static final long SNAPSHOT_MAGIC = 0x6754726163536e70L;
+    private static final int SNAPSHOT_HEADER_SIZE = 3 * Long.BYTES; // magic, position and size of the state
+    private static final int SNAPSHOT_BUFFER_SIZE = 64 * 1024;
+
+    private static final int HEADER_SIZE = 2 * Integer.BYTES; // length and CRC32C
+    private static final int ALIGNMENT = Long.BYTES;
+
+    private static final int END_OF_SEGMENT = -1; // the rest of the segment isn't used, 0 means the end of the journal
+
+    // MappedByteBuffer.force(int, int) exists since JDK 13, the whole segment is forced on older JDKs
+    private static final MethodHandle FORCE_RANGE_HANDLE = forceRangeHandle();
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxEntrySize;
+    private final Codec codec;
+
+    // accessed by the Worker only
+    private final CRC32C crc = new CRC32C();
+    private boolean replayed;
+    private MappedByteBuffer buffer;
+    private ByteBuffer checksumView;
+    private long segmentIndex;
+    private int offset;
+    private long lastSequence = Cab.NO_SEQUENCE;
+    private long appendedSinceSnapshot;
+    private SnapshotWriter snapshotWriter; // created on the first demand
+    private ByteBuffer snapshotHeader;
+
+    private long snapshotInterval;
+    private final ArrayDeque<PendingSnapshot> pendingSnapshots = new ArrayDeque<>(); // guarded by itself
+    private volatile long numberOfSnapshots;
+    private volatile long snapshotNanos;
+    private volatile long lastSnapshotSize;
+
+    private final ArrayDeque<MappedByteBuffer> rolledSegments = new ArrayDeque<>(); // guarded by itself
+    private volatile MappedByteBuffer currentSegment;
+    private volatile long currentSegmentIndex;
+    private volatile long appendedPosition; // segment index * segment size + offset
+    private volatile long appendedSequence = Cab.NO_SEQUENCE;
+    private volatile long durableSequence = Cab.NO_SEQUENCE;
+
+    private volatile long numberOfSyncs;
+    private volatile long syncNanos;
+
+    private final ErrorHandler errorHandler = new JulLoggingErrorHandler(Journal.class);
+    private final Object durableMutex = new Object();
+    private final Syncer syncer;
+    private volatile boolean syncerIdle;
+    private volatile boolean closed;
+
+    public Journal(final Path directory, final Codec codec) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE, DEFAULT_MAX_ENTRY_SIZE, codec);
+    }
+
+    /**
+     * Opens the journal in the directory, the directory is created if it doesn't exist.
+     *
+     * @param directory    the directory of the segment files
+     * @param segmentSize  size of a segment file
+     * @param maxEntrySize max number of bytes the codec writes for an entry
+     * @param codec        the codec of entries
+     * @throws IOException if the directory cannot be created
+     */
+    public Journal(
+            final Path directory,
+            final int segmentSize,
+            final int maxEntrySize,
+            final Codec codec) throws IOException {
+
+        if (codec == null) {
+            throw new NullPointerException("codec must not be null");
+        }
+        if (maxEntrySize < 1) {
+            throw new IllegalArgumentException("maxEntrySize must be positive: " + maxEntrySize);
+        }
+        if (segmentSize % ALIGNMENT != 0 || segmentSize < align(HEADER_SIZE + maxEntrySize) + Integer.BYTES) {
+            throw new IllegalArgumentException("segmentSize must be a multiple of " + ALIGNMENT +
+                    " and fit an entry of maxEntrySize: " + segmentSize);
+        }
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        this.maxEntrySize = maxEntrySize;
+        this.codec = codec;
+
+        syncer = new Syncer();
+        syncer.start();
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    public int segmentSize() {
+        return segmentSize;
+    }
+
+    public int maxEntrySize() {
+        return maxEntrySize;
+    }
+
+    /**
+     * Returns the sequence of the Cab the last entry synced to the storage was taken with. Entries replayed
+     * from the journal don't count.
+     *
+     * @return the sequence or {@link Cab#NO_SEQUENCE} if nothing was synced yet
+     */
+    public long durableSequence() {
+        return durableSequence;
+    }
+
+    /**
+     * Waits until the entry taken from the Cab with the sequence is synced to the storage.
+     *
+     * @param sequence the sequence the entry was sent with
+     * @param timeout  max time to wait
+     * @param unit     unit of the timeout
+     * @return true if the entry is synced, false if the timeout elapsed or the journal was closed before
+     * @throws InterruptedException if the current thread was interrupted
+     */
+    public boolean awaitDurable(final long sequence, final long timeout, final TimeUnit unit)
+            throws InterruptedException {
+
+        if (durableSequence >= sequence) {
+            return true;
+        }
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (durableMutex) {
+            while (durableSequence < sequence && !closed) {
+                final long nanos = deadline - System.nanoTime();
+                if (nanos <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(durableMutex, nanos);
+            }
+        }
+        return durableSequence >= sequence;
+    }
+
+    /**
+     * Makes the Worker take a snapshot after every numberOfEntries entries it appends, 0 disables periodic
+     * snapshots. Must be set before the tractor is created, the Executor of the tractor must be {@link Snapshotable}.
+     *
+     * @param numberOfEntries number of entries between two periodic snapshots
+     */
+    public void setSnapshotInterval(final long numberOfEntries) {
+        if (numberOfEntries < 0) {
+            throw new IllegalArgumentException("numberOfEntries must not be negative: " + numberOfEntries);
+        }
+        snapshotInterval = numberOfEntries;
+    }
+
+    public long snapshotInterval() {
+        return snapshotInterval;
+    }
+
+    public long numberOfSnapshots() {
+        return numberOfSnapshots;
+    }
+
+    /**
+     * Returns total time in nanoseconds the Worker spent writing snapshots instead of processing entries.
+     *
+     * @return total snapshot time
+     */
+    public long snapshotNanos() {
+        return snapshotNanos;
+    }
+
+    /**
+     * Returns the number of bytes the Executor has written to the last snapshot.
+     *
+     * @return size of the last snapshot
+     */
+    public long lastSnapshotSize() {
+        return lastSnapshotSize;
+    }
+
+    /**
+     * Returns the number of forces made by the syncer, one force covers all the entries appended since
+     * the previous one.
+     *
+     * @return number of forces
+     */
+    public long numberOfSyncs() {
+        return numberOfSyncs;
+    }
+
+    /**
+     * Returns total time in nanoseconds the syncer spent forcing the segments.
+     *
+     * @return total sync time
+     */
+    public long syncNanos() {
+        return syncNanos;
+    }
+
+    /**
+     * Syncs the entries appended and stops the syncer. The Worker closes the journal when it stops.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(syncer);
+        try {
+            syncer.join();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (durableMutex) {
+            durableMutex.notifyAll();
+        }
+    }
+
+    /**
+     * Loads the latest snapshot to the snapshotable, passes the entries of the journal appended after it
+     * to the consumer and prepares the journal to append new entries after the last valid record. Called
+     * by the Worker before it takes anything from the Cab.
+     *
+     * @param snapshotable the Executor if it is {@link Snapshotable} or null
+     * @param consumer     the consumer of the replayed entries
+     */
+    void replay(final Snapshotable snapshotable, final Consumer<Entry> consumer) {
+        if (replayed) {
+            throw new IllegalStateException("Already replayed");
+        }
+        try {
+            for (final Path file : files(TEMPORARY_SUFFIX)) { // snapshots which were never published
+                Files.delete(file);
+            }
+
+            final long start = loadLatestSnapshot(snapshotable);
+            final long startIndex = start / segmentSize;
+
+            final List<Long> indices = segmentIndices();
+            while (!indices.isEmpty() && indices.get(0) < startIndex) { // the truncation was interrupted
+                Files.delete(segmentFile(indices.remove(0)));
+            }
+
+            int i = 0;
+            long index = startIndex;
+            MappedByteBuffer segment = map(index, !indices.isEmpty() && indices.get(0) == startIndex);
+            int position = (int) (start % segmentSize);
+            while (true) {
+                final int length = segment.getInt(position);
+                if (length == END_OF_SEGMENT && i + 1 < indices.size() && indices.get(i + 1) == index + 1) {
+                    i++;
+                    index++;
+                    segment = map(index, true);
+                    position = 0;
+                    continue;
+                }
+                if (length < 1 || length > maxEntrySize || !checksumMatches(segment, position, length)) {
+                    break; // the end of the journal or a torn record
+                }
+                consumer.accept(codec.decode(segment, position + HEADER_SIZE, length));
+                position += align(HEADER_SIZE + length);
+            }
+
+            for (int j = position; j < segmentSize; j += Long.BYTES) { // the torn tail isn't replayed next time
+                if (segment.getLong(j) != 0) { // untouched pages of the file stay sparse
+                    segment.putLong(j, 0);
+                }
+            }
+            for (int j = i + 1; j < indices.size(); j++) { // nothing valid follows the end of the journal
+                Files.delete(segmentFile(indices.get(j)));
+            }
+
+            startSegment(index, segment, position);
+            replayed = true;
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Appends the entry taken from the Cab with the sequence. The entry is neither visible to the syncer
+     * nor replayed after a crash of the process until commit() is called. Called by the Worker.
+     *
+     * @param sequence the sequence the entry was taken from the Cab with
+     * @param entry    the entry
+     */
+    void append(final long sequence, final Entry entry) {
+        if (!replayed) {
+            throw new IllegalStateException("Journal must be replayed first");
+        }
+        if (segmentSize - offset < align(HEADER_SIZE + maxEntrySize) + Integer.BYTES) {
+            roll();
+        }
+        final int length = codec.encode(entry, buffer, offset + HEADER_SIZE);
+        if (length < 1 || length > maxEntrySize) {
+            throw new IllegalStateException("Length of the encoded entry out of range: " + length);
+        }
+        checksumView.limit(offset + HEADER_SIZE + length).position(offset + HEADER_SIZE);
+        crc.reset();
+        crc.update(checksumView);
+        buffer.putInt(offset + Integer.BYTES, (int) crc.getValue());
+        buffer.putInt(offset, length); // the length is the last, so, a torn record has no length or a wrong CRC
+
+        offset += align(HEADER_SIZE + length);
+        lastSequence = sequence;
+        appendedSinceSnapshot++;
+    }
+
+    /**
+     * Returns true if the Worker should take a periodic snapshot.
+     *
+     * @return true if setSnapshotInterval() entries were appended since the last snapshot
+     */
+    boolean snapshotDue() {
+        return snapshotInterval > 0 && appendedSinceSnapshot >= snapshotInterval;
+    }
+
+    /**
+     * Writes the state of the snapshotable to a temporary snapshot file at the position of the journal the last
+     * entry was appended at and passes the file to the syncer to be published. Called by the Worker between
+     * batches, so, all the entries appended are committed.
+     *
+     * @param snapshotable the Executor
+     * @param result       the result of the command to be set or null
+     * @throws IOException if the snapshot cannot be written
+     */
+    void takeSnapshot(final Snapshotable snapshotable, final SnapshotResult result) throws IOException {
+        if (!replayed) {
+            throw new IllegalStateException("Journal must be replayed first");
+        }
+        if (snapshotWriter == null) {
+            snapshotWriter = new SnapshotWriter(SNAPSHOT_BUFFER_SIZE);
+            snapshotHeader = ByteBuffer.allocateDirect(SNAPSHOT_HEADER_SIZE).order(ByteOrder.nativeOrder());
+        }
+        final long position = segmentIndex * segmentSize + offset;
+        // the name is unique, since the previous snapshot of the same position may be being published
+        final Path file = directory.resolve(String.format("%020d-%d%s%s",
+                position, numberOfSnapshots, SNAPSHOT_SUFFIX, TEMPORARY_SUFFIX));
+
+        final long startTime = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            snapshotWriter.begin(channel, SNAPSHOT_HEADER_SIZE);
+            snapshotable.writeSnapshot(snapshotWriter);
+            snapshotWriter.finish();
+
+            snapshotHeader.clear();
+            snapshotHeader.putLong(SNAPSHOT_MAGIC).putLong(position).putLong(snapshotWriter.size()).flip();
+            while (snapshotHeader.hasRemaining()) {
+                channel.write(snapshotHeader, snapshotHeader.position());
+            }
+        } catch (final IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        final long nanos = System.nanoTime() - startTime;
+
+        appendedSinceSnapshot = 0;
+        snapshotNanos += nanos;
+        lastSnapshotSize = snapshotWriter.size();
+        numberOfSnapshots++;
+        if (result != null) {
+            result.set(position, snapshotWriter.size(), nanos);
+        }
+
+        synchronized (pendingSnapshots) {
+            pendingSnapshots.add(new PendingSnapshot(file, position));
+        }
+        LockSupport.unpark(syncer);
+    }
+
+    /**
+     * Makes the entries appended visible to the syncer and wakes it up if it is idle. Called by the Worker
+     * after a batch.
+     */
+    void commit() {
+        appendedPosition = segmentIndex * segmentSize + offset; // the position first, see Syncer
+        appendedSequence = lastSequence;
+        if (syncerIdle) {
+            LockSupport.unpark(syncer);
+        }
+    }
+
+    private void roll() {
+        buffer.putInt(offset, END_OF_SEGMENT);
+        try {
+            final MappedByteBuffer next = map(segmentIndex + 1, false);
+            synchronized (rolledSegments) {
+                rolledSegments.add(buffer); // before the current segment changes, see Syncer
+            }
+            startSegment(segmentIndex + 1, next, 0);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void startSegment(final long index, final MappedByteBuffer segment, final int position) {
+        buffer = segment;
+        checksumView = segment.duplicate();
+        segmentIndex = index;
+        offset = position;
+        currentSegmentIndex = index;
+        currentSegment = segment;
+    }
+
+    private long loadLatestSnapshot(final Snapshotable snapshotable) throws IOException {
+        Path latest = null;
+        long latestPosition = 0;
+        long latestSize = 0;
+        final ByteBuffer header = ByteBuffer.allocate(SNAPSHOT_HEADER_SIZE).order(ByteOrder.nativeOrder());
+        for (final Path file : files(SNAPSHOT_SUFFIX)) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                header.clear();
+                if (channel.read(header, 0) < SNAPSHOT_HEADER_SIZE || header.getLong(0) != SNAPSHOT_MAGIC ||
+                        header.getLong(2 * Long.BYTES) != channel.size() - SNAPSHOT_HEADER_SIZE) {
+                    continue;
+                }
+                final long position = header.getLong(Long.BYTES);
+                if (latest == null || position > latestPosition) {
+                    latest = file;
+                    latestPosition = position;
+                    latestSize = header.getLong(2 * Long.BYTES);
+                }
+            }
+        }
+        if (latest == null) {
+            return 0;
+        }
+        if (snapshotable == null) {
+            throw new IllegalStateException("The journal has a snapshot, but the Executor isn't " +
+                    Snapshotable.class.getSimpleName());
+        }
+        try (FileChannel channel = FileChannel.open(latest, StandardOpenOption.READ)) {
+            channel.position(SNAPSHOT_HEADER_SIZE);
+            snapshotable.readSnapshot(new SnapshotReader(channel, latestSize, SNAPSHOT_BUFFER_SIZE));
+        }
+        return latestPosition;
+    }
+
+    private void publishSnapshot(final PendingSnapshot snapshot) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot.file, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        final Path published = directory.resolve(String.format("%020d%s", snapshot.position, SNAPSHOT_SUFFIX));
+        Files.move(snapshot.file, published, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        for (final Path file : files(SNAPSHOT_SUFFIX)) {
+            if (!file.equals(published)) {
+                Files.delete(file);
+            }
+        }
+        final long startIndex = snapshot.position / segmentSize;
+        for (final long index : segmentIndices()) {
+            if (index < startIndex) {
+                Files.delete(segmentFile(index));
+            }
+        }
+    }
+
+    private boolean checksumMatches(final ByteBuffer segment, final int position, final int length) {
+        if (segmentSize - position - HEADER_SIZE < length) {
+            return false;
+        }
+        final ByteBuffer view = segment.duplicate();
+        view.limit(position + HEADER_SIZE + length).position(position + HEADER_SIZE);
+        crc.reset();
+        crc.update(view);
+        return (int) crc.getValue() == segment.getInt(position + Integer.BYTES);
+    }
+
+    private MappedByteBuffer map(final long index, final boolean exists) throws IOException {
+        final Path file = segmentFile(index);
+        try (FileChannel channel = exists ?
+                FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE) :
+                FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final MappedByteBuffer result = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            result.order(ByteOrder.nativeOrder());
+            return result;
+        }
+    }
+
+    private Path segmentFile(final long index) {
+        return directory.resolve(String.format("%020d%s", index, SEGMENT_SUFFIX));
+    }
+
+    private List<Path> files(final String suffix) throws IOException {
+        final List<Path> result = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(f -> f.getFileName().toString().endsWith(suffix)).forEach(result::add);
+        }
+        return result;
+    }
+
+    private List<Long> segmentIndices() throws IOException {
+        final List<Long> result = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(f -> f.getFileName().toString())
+                    .filter(n -> n.endsWith(SEGMENT_SUFFIX))
+                    .map(n -> Long.parseLong(n.substring(0, n.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .forEach(result::add);
+        }
+        return result;
+    }
+
+    private static int align(final int length) {
+        return (length + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+
+    private static MethodHandle forceRangeHandle() {
+        try {
+            return MethodHandles.publicLookup().findVirtual(MappedByteBuffer.class, "force",
+                    MethodType.methodType(MappedByteBuffer.class, int.class, int.class));
+        } catch (final ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static void force(final MappedByteBuffer segment, final int offset, final int length) {
+        if (FORCE_RANGE_HANDLE == null) {
+            segment.force();
+            return;
+        }
+        try {
+            FORCE_RANGE_HANDLE.invoke(segment, offset, length);
+        } catch (final RuntimeException | Error e) {
+            throw e;
+        } catch (final Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    private static final class PendingSnapshot {
+        private final Path file;
+        private final long position;
+
+        PendingSnapshot(final Path file, final long position) {
+            this.file = file;
+            this.position = position;
+        }
+    }
+
+    private class Syncer extends Thread {
+        private long forcedIndex = -1;
+        private int forcedOffset;
+
+        Syncer() {
+            super("Syncer@" + directory);
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            long syncedPosition = 0;
+            while (true) {
+                final boolean closing = closed; // the last round syncs everything appended before close()
+
+                // the sequence first: the position published before it covers the sequence
+                final long sequence = appendedSequence;
+                final long position = appendedPosition;
+                final PendingSnapshot snapshot;
+                if (position != syncedPosition || sequence != durableSequence) {
+                    sync(sequence, position);
+                    syncedPosition = position;
+                } else if ((snapshot = nextPendingSnapshot()) != null) {
+                    try {
+                        publishSnapshot(snapshot);
+                    } catch (final Exception e) {
+                        errorHandler.onError(this, "An error while publishing the snapshot: " + snapshot.file, e);
+                    }
+                } else if (closing) {
+                    return;
+                } else {
+                    syncerIdle = true;
+                    if (appendedPosition == syncedPosition && appendedSequence == durableSequence &&
+                            !closed && !hasPendingSnapshots()) {
+                        LockSupport.park(this);
+                    }
+                    syncerIdle = false;
+                }
+            }
+        }
+
+        private PendingSnapshot nextPendingSnapshot() {
+            synchronized (pendingSnapshots) {
+                return pendingSnapshots.poll();
+            }
+        }
+
+        private boolean hasPendingSnapshots() {
+            synchronized (pendingSnapshots) {
+                return !pendingSnapshots.isEmpty();
+            }
+        }
+
+        private void sync(final long sequence, final long position) {
+            final long index = position / segmentSize;
+            final int end = (int) (position % segmentSize);
+            final long segmentIndex = currentSegmentIndex; // a segment rolled after is among the rolled ones
+            final MappedByteBuffer segment = currentSegment;
+
+            final long startTime = System.nanoTime();
+            while (true) {
+                final MappedByteBuffer rolled;
+                synchronized (rolledSegments) {
+                    rolled = rolledSegments.poll();
+                }
+                if (rolled == null) {
+                    break;
+                }
+                rolled.force();
+            }
+            if (segmentIndex == index) {
+                final int start = forcedIndex == index ? forcedOffset : 0;
+                force(segment, start, end - start);
+                forcedIndex = index;
+                forcedOffset = end;
+            }
+            syncNanos += System.nanoTime() - startTime;
+            numberOfSyncs++;
+
+            durableSequence = sequence;
+            synchronized (durableMutex) {
+                durableMutex.notifyAll();
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2019-2023 Anatoly Gudkov
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.green.tractor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends primitive long values to the Worker through the {@link org.green.cab.LongCab} attached to the Cab
+ * of the tractor, the Executor gets them with processLong(value). No entry objects are involved, so, the sender
+ * needs neither pools nor envelopes and can be shared by any number of threads.
+ */
+public interface LongEntrySender {
+
+    /**
+     * Sends the value, waits while the Ring Buffer of longs is full regardless of the sender's overflow policy.
+     *
+     * @param value the value
+     * @throws TractorClosedException if the tractor was closed
+     * @throws InterruptedException   if the current thread was interrupted
+     */
+    void send(long value) throws TractorClosedException, InterruptedException;
+
+    /**
+     * Sends the value if the Ring Buffer of longs has free space, otherwise follows the overflow policy
+     * of the sender like {@link EntryEnvelope#trySend()}.
+     *
+     * @param value the value
+     * @return true if the value was sent, false if it was rejected or dropped
+     * @throws TractorClosedException if the tractor was closed
+     * @throws InterruptedException   if the current thread was interrupted
+     */
+    boolean trySend(long value) throws TractorClosedException, InterruptedException;
+
+    /**
+     * Sends the value like trySend(value), but the policies which wait for the Worker give up once
+     * the timeout elapses.
+     *
+     * @param value   the value
+     * @param timeout max time to wait for the Worker
+     * @param unit    unit of the timeout
+     * @return true if the value was sent, false if it was rejected, dropped or the timeout elapsed
+     * @throws TractorClosedException if the tractor was closed
+     * @throws InterruptedException   if the current thread was interrupted
+     */
+    boolean send(long value, long timeout, TimeUnit unit) throws TractorClosedException, InterruptedException;
+
+    /**
+     * Sends the values at once: they are claimed with one single atomic operation and the Worker is signaled
+     * only once. Waits while the Ring Buffer of longs is full.
+     *
+     * @param values the array of values
+     * @param offset the index of the first value to be sent
+     * @param length number of values, must not be greater than the size of the Ring Buffer of longs
+     * @throws TractorClosedException   if the tractor was closed
+     * @throws InterruptedException     if the current thread was interrupted
+     * @throws IllegalArgumentException if the length or the range of the values is out of bounds
+     */
+    void send(long[] values, int offset, int length) throws TractorClosedException, InterruptedException;
+
+}
@@ -0,0 +1,101 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2019-2023 Anatoly Gudkov
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.green.tractor;
+
+import org.green.cab.Cab;
+import org.green.cab.ConsumerInterruptedException;
+import org.green.cab.LongCab;
+import org.green.cab.OverflowPolicy;
+
+import java.util.concurrent.TimeUnit;
+
+class LongEntrySenderImpl implements LongEntrySender {
+    private final LongCab longCab;
+    private final OverflowPolicy overflowPolicy;
+
+    LongEntrySenderImpl(final LongCab longCab, final OverflowPolicy overflowPolicy) {
+        this.longCab = longCab;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    @Override
+    public void send(final long value) throws TractorClosedException, InterruptedException {
+        try {
+            send(longCab.producerNext(1), value);
+        } catch (final ConsumerInterruptedException e) {
+            throw new TractorClosedException();
+        }
+    }
+
+    @Override
+    public boolean trySend(final long value) throws TractorClosedException, InterruptedException {
+        try {
+            return send(longCab.producerNext(1, overflowPolicy), value);
+        } catch (final ConsumerInterruptedException e) {
+            throw new TractorClosedException();
+        }
+    }
+
+    @Override
+    public boolean send(final long value, final long timeout, final TimeUnit unit)
+            throws TractorClosedException, InterruptedException {
+
+        try {
+            return send(longCab.producerNext(1, overflowPolicy, timeout, unit), value);
+        } catch (final ConsumerInterruptedException e) {
+            throw new TractorClosedException();
+        }
+    }
+
+    @Override
+    public void send(final long[] values, final int offset, final int length)
+            throws TractorClosedException, InterruptedException {
+
+        if (length < 1 || length > longCab.bufferSize()) {
+            throw new IllegalArgumentException("Number of values out of range: " + length);
+        }
+        if (offset < 0 || offset > values.length - length) {
+            throw new IllegalArgumentException("Values out of range: offset=" + offset + ", length=" + length);
+        }
+        try {
+            final long lastPs = longCab.producerNext(length);
+            final long firstPs = lastPs - length + 1;
+            for (int i = 0; i < length; i++) {
+                longCab.setLong(firstPs + i, values[offset + i]);
+            }
+            longCab.producerCommit(firstPs, lastPs);
+        } catch (final ConsumerInterruptedException e) {
+            throw new TractorClosedException();
+        }
+    }
+
+    private boolean send(final long ps, final long value) {
+        if (ps == Cab.NO_SEQUENCE) {
+            return false;
+        }
+        longCab.setLong(ps, value);
+        longCab.producerCommit(ps);
+        return true;
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2019-2023 Anatoly Gudkov
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.green.tractor;
+
+import org.green.cab.CabShared;
+import org.green.cab.CabSharedProducer;
+import org.green.cab.ConsumerInterruptedException;
+import org.green.cab.OverflowPolicy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * The producers' side of a tractor of another process on the same host. The tractor must be created with
+ * a {@link CabShared}, and its file is opened here, so, entries are put into the Ring Buffer of the tractor
+ * directly, without any socket hop.
+ * <p>
+ * Entry senders work like the ones returned by {@link Tractor#newBinaryEntrySender(Class)}, except that
+ * {@link OverflowPolicy#DROP_OLDEST} isn't supported. Binary commands sent with sendCommand() are turned
+ * into {@link Command}s by the decoder set to the Cab with setRemoteCommandDecoder(), nobody can sync() them.
+ */
+public class RemoteTractor {
+
+    /**
+     * Opens the file of the tractor's Cab.
+     *
+     * @param file the file of the {@link CabShared} the tractor was created with
+     * @return the remote tractor
+     * @throws IOException           if the file cannot be mapped
+     * @throws IllegalStateException if the file is not a Cab's one
+     */
+    public static RemoteTractor connect(final Path file) throws IOException {
+        return new RemoteTractor(CabSharedProducer.open(file));
+    }
+
+    private final CabSharedProducer producer;
+
+    private RemoteTractor(final CabSharedProducer producer) {
+        this.producer = producer;
+    }
+
+    /**
+     * Returns true if the Worker of the tractor was stopped.
+     *
+     * @return true if the tractor was closed
+     */
+    public boolean isClosed() {
+        return producer.isConsumerInterrupted();
+    }
+
+    /**
+     * Returns a sender of fixed-size binary entries with {@link OverflowPolicy#BLOCK} policy.
+     *
+     * @param classOfEntry class of entries to be sent, must have a public no-arg constructor
+     * @param <E>          type of entries
+     * @return the sender
+     */
+    public <E extends BinaryEntry> EntrySender<E> newBinaryEntrySender(final Class<E> classOfEntry) {
+        return newBinaryEntrySender(classOfEntry, OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * Returns a sender of fixed-size binary entries which follows the overflow policy in trySend() and
+     * send(timeout, unit) if the Cab is full.
+     *
+     * @param classOfEntry   class of entries to be sent, must have a public no-arg constructor
+     * @param overflowPolicy what the sender does if the Cab is full
+     * @param <E>            type of entries
+     * @return the sender
+     * @throws UnsupportedOperationException if the policy is {@link OverflowPolicy#DROP_OLDEST}
+     */
+    public <E extends BinaryEntry> EntrySender<E> newBinaryEntrySender(
+            final Class<E> classOfEntry,
+            final OverflowPolicy overflowPolicy) {
+
+        if (overflowPolicy == null) {
+            throw new NullPointerException("overflowPolicy must not be null");
+        }
+        if (overflowPolicy == OverflowPolicy.DROP_OLDEST) {
+            throw new UnsupportedOperationException(overflowPolicy + " isn't supported by remote senders");
+        }
+        return new BinaryEntrySenderImpl<>(producer, classOfEntry, overflowPolicy);
+    }
+
+    /**
+     * Sends a binary command of the size of an entry which starts at the offset of the source buffer.
+     * Waits while a command sent before isn't taken by the Worker yet.
+     *
+     * @param src    the source buffer
+     * @param offset the offset of the command's first byte
+     * @throws TractorClosedException if the tractor was closed
+     * @throws InterruptedException   if the current thread was interrupted
+     */
+    public void sendCommand(final ByteBuffer src, final int offset)
+            throws TractorClosedException, InterruptedException {
+
+        try {
+            producer.sendCommand(src, offset);
+        } catch (final ConsumerInterruptedException e) {
+            throw new TractorClosedException();
+        }
+    }
+}
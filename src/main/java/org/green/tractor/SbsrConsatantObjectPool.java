@@ -27,34 +27,81 @@ import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.concurrent.locks.LockSupport;
 import java.util.function.Supplier;
 
 import static org.green.cab.Utils.ARRAY_PAD;
+import static org.green.cab.Utils.LONG_ARRAY_HANDLE;
 import static org.green.cab.Utils.OBJECT_ARRAY_HANDLE;
+import static org.green.cab.Utils.nextPowerOfTwo;
 
 abstract class SbsrConsatantObjectPoolPad0 {
     protected long p01, p02, p03, p04, p05, p06, p07;
     protected long p08, p09, p010, p011, p012, p013, p014, p015;
 }
 
-abstract class LastAvailableObjectIndex extends SbsrConsatantObjectPoolPad0 {
-    protected static final AtomicIntegerFieldUpdater<LastAvailableObjectIndex> LAST_AVAILABLE_OBJECT_INDEX_UPDATER =
-            AtomicIntegerFieldUpdater.newUpdater(LastAvailableObjectIndex.class, "lastAvailableObjectIndex");
+abstract class BorrowSequence extends SbsrConsatantObjectPoolPad0 {
+    protected static final AtomicLongFieldUpdater<BorrowSequence> BORROW_SEQUENCE_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(BorrowSequence.class, "borrowSequence");
 
-    protected volatile int lastAvailableObjectIndex;
+    protected volatile long borrowSequence;
 }
 
-abstract class SbsrConsatantObjectPoolPad1 extends LastAvailableObjectIndex {
+abstract class SbsrConsatantObjectPoolPad1 extends BorrowSequence {
     protected long p11, p12, p13, p14, p15, p16, p17;
     protected long p18, p19, p110, p111, p112, p113, p114, p115;
 }
 
-public class SbsrConsatantObjectPool<O extends PoolableObject> extends SbsrConsatantObjectPoolPad1 {
+abstract class ReleaseSequence extends SbsrConsatantObjectPoolPad1 {
+    protected static final AtomicLongFieldUpdater<ReleaseSequence> RELEASE_SEQUENCE_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(ReleaseSequence.class, "releaseSequence");
+
+    protected volatile long releaseSequence;
+}
+
+abstract class SbsrConsatantObjectPoolPad2 extends ReleaseSequence {
+    protected long p21, p22, p23, p24, p25, p26, p27;
+    protected long p28, p29, p210, p211, p212, p213, p214, p215;
+}
+
+abstract class CreatedObjects extends SbsrConsatantObjectPoolPad2 {
+    protected static final AtomicIntegerFieldUpdater<CreatedObjects> CREATED_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(CreatedObjects.class, "created");
+
+    protected volatile int created;
+}
+
+/**
+ * A bounded pool of objects. The name is historical: the pool was created for one single borrower, one single
+ * releaser and a constant number of objects, but now several threads may borrow and release objects
+ * concurrently, and the number of objects may grow. The name is kept as the class is public, so, the
+ * code which refers to it keeps compiling.
+ * <p>
+ * The available objects are kept in a ring of {@link #size()} rounded up to a power of two positions, so, a
+ * sequence is mapped to its position with a mask. The objects are borrowed from the head of the ring and released
+ * to its tail, so, a released object is borrowed again as late as possible. Each position of the ring has a
+ * sequence telling whether the position can be borrowed from or released to. The ring never holds more than
+ * {@link #size()} objects.
+ * <p>
+ * The pool may be created with fewer objects than its size, then an object is created when the pool is empty
+ * until the size is reached, so, the pool grows on demand and never shrinks.
+ *
+ * @param <O> type of the objects
+ */
+public class SbsrConsatantObjectPool<O extends PoolableObject> extends CreatedObjects {
+
+    public static <O extends PoolableObject> SbsrConsatantObjectPool<O> constructorBasedPool(
+            final Class<O> objectClass,
+            final int size) {
+
+        return constructorBasedPool(objectClass, size, size);
+    }
 
     @SuppressWarnings("unchecked")
     public static <O extends PoolableObject> SbsrConsatantObjectPool<O> constructorBasedPool(
             final Class<O> objectClass,
+            final int initialSize,
             final int size) {
 
         final MethodHandles.Lookup lookup = MethodHandles.lookup();
@@ -65,7 +112,7 @@ public class SbsrConsatantObjectPool<O extends PoolableObject> extends SbsrConsa
         } catch (final Exception e) {
             throw new RuntimeException("Cannot find default constructor: " + constructorType, e);
         }
-        return new SbsrConsatantObjectPool<>(size, () -> {
+        return new SbsrConsatantObjectPool<>(initialSize, size, () -> {
             try {
                 return (O) objectConstructor.invoke(); // unchecked
             } catch (final Throwable t) {
@@ -75,21 +122,52 @@ public class SbsrConsatantObjectPool<O extends PoolableObject> extends SbsrConsa
     }
 
     private final int size;
+    private final long indexMask;
+    private final Supplier<O> supplier; // null if the pool is created with all its objects
     private final Object[] objects;
+    private final long[] sequences; // a position can be released to if its sequence equals to the release
+    // sequence, and can be borrowed from if its sequence is the next to the borrow sequence
 
-    @SuppressWarnings("unchecked")
     public SbsrConsatantObjectPool(final int size, final Supplier<O> supplier) {
+        this(size, size, supplier);
+    }
+
+    /**
+     * Creates a pool which grows on demand.
+     *
+     * @param initialSize number of the objects created in advance, in range [0, size]
+     * @param size        max number of the objects
+     * @param supplier    creates the objects
+     */
+    @SuppressWarnings("unchecked")
+    public SbsrConsatantObjectPool(final int initialSize, final int size, final Supplier<O> supplier) {
+        if (initialSize < 0 || initialSize > size) {
+            throw new IllegalArgumentException("initialSize out of range: " + initialSize);
+        }
+
+        final int capacity = nextPowerOfTwo(size);
+
         this.size = size;
+        this.indexMask = capacity - 1;
+        this.supplier = initialSize < size ? supplier : null;
 
-        this.objects = new Object[size + 2 * ARRAY_PAD];
+        this.objects = new Object[capacity + 2 * ARRAY_PAD];
+        this.sequences = new long[capacity + 2 * ARRAY_PAD];
 
-        for (int i = 0; i < size; i++) {
-            final O object = supplier.get();
-            object.setOwner((SbsrConsatantObjectPool<PoolableObject>) this); // unchecked
-            OBJECT_ARRAY_HANDLE.setVolatile(objects, objectIndex(i), object);
+        for (int i = 0; i < capacity; i++) {
+            if (i < initialSize) {
+                final O object = supplier.get();
+                object.setOwner((SbsrConsatantObjectPool<PoolableObject>) this); // unchecked
+                OBJECT_ARRAY_HANDLE.setVolatile(objects, objectIndex(i), object);
+                LONG_ARRAY_HANDLE.setVolatile(sequences, objectIndex(i), (long) i + 1);
+            } else {
+                LONG_ARRAY_HANDLE.setVolatile(sequences, objectIndex(i), (long) i);
+            }
         }
 
-        LAST_AVAILABLE_OBJECT_INDEX_UPDATER.set(this, size - 1);
+        CREATED_UPDATER.set(this, initialSize);
+        BORROW_SEQUENCE_UPDATER.set(this, 0);
+        RELEASE_SEQUENCE_UPDATER.set(this, initialSize);
     }
 
     public int size() {
@@ -98,47 +176,86 @@ public class SbsrConsatantObjectPool<O extends PoolableObject> extends SbsrConsa
 
     @SuppressWarnings("unchecked")
     public O borrow() throws InterruptedException {
-        Object result;
-        int v;
+        while (true) {
+            final long sequence = BORROW_SEQUENCE_UPDATER.get(this);
+            final int index = objectIndex(sequence);
+
+            final long diff = (long) LONG_ARRAY_HANDLE.getAcquire(sequences, index) - (sequence + 1);
 
-        do {
-            v = LAST_AVAILABLE_OBJECT_INDEX_UPDATER.get(this);
+            if (diff == 0) {
+                if (BORROW_SEQUENCE_UPDATER.compareAndSet(this, sequence, sequence + 1)) {
+                    final Object result = OBJECT_ARRAY_HANDLE.get(objects, index);
+                    OBJECT_ARRAY_HANDLE.set(objects, index, null);
 
-            while (v == -1) { // the pool is empty, this is not typical
+                    // the position can be released to in the next round
+                    LONG_ARRAY_HANDLE.setRelease(sequences, index, sequence + indexMask + 1);
+
+                    return (O) result;
+                }
+            } else if (diff < 0) { // the pool is empty, this is not typical
+                final O object = create();
+                if (object != null) {
+                    return object;
+                }
                 if (Thread.interrupted()) {
                     throw new InterruptedException();
                 }
-                LockSupport.parkNanos(1); // so, let's give a good chance to the releaser
-                v = LAST_AVAILABLE_OBJECT_INDEX_UPDATER.get(this);
+                LockSupport.parkNanos(1); // so, let's give a good chance to releasers
             }
-
-            result = OBJECT_ARRAY_HANDLE.get(objects, objectIndex(v));
-
-        } while (!LAST_AVAILABLE_OBJECT_INDEX_UPDATER.compareAndSet(this, v, v - 1));
-
-        return (O) result;
+        }
     }
 
     public void release(final O object) {
         try {
             object.onReleased();
         } finally {
-            int v;
+            add(object);
+        }
+    }
 
-            do {
-                v = LAST_AVAILABLE_OBJECT_INDEX_UPDATER.get(this) + 1;
+    private void add(final O object) {
+        while (true) {
+            final long sequence = RELEASE_SEQUENCE_UPDATER.get(this);
+            if (sequence - BORROW_SEQUENCE_UPDATER.get(this) >= size) { // the spare positions aren't a room
+                throw new IllegalStateException("The pool is full already");
+            }
+            final int index = objectIndex(sequence);
+
+            final long diff = (long) LONG_ARRAY_HANDLE.getAcquire(sequences, index) - sequence;
+
+            if (diff == 0) {
+                if (RELEASE_SEQUENCE_UPDATER.compareAndSet(this, sequence, sequence + 1)) {
+                    OBJECT_ARRAY_HANDLE.set(objects, index, object);
 
-                if (v == size) {
-                    throw new IllegalStateException("The pool is full already");
+                    // the position can be borrowed from
+                    LONG_ARRAY_HANDLE.setRelease(sequences, index, sequence + 1);
+
+                    return;
                 }
+            } else if (diff < 0) {
+                throw new IllegalStateException("The pool is full already");
+            }
+        }
+    }
 
-                OBJECT_ARRAY_HANDLE.setVolatile(objects, objectIndex(v), object);
+    @SuppressWarnings("unchecked")
+    private O create() {
+        if (supplier == null) {
+            return null;
+        }
 
-            } while (!LAST_AVAILABLE_OBJECT_INDEX_UPDATER.compareAndSet(this, v - 1, v));
+        int c;
+        while ((c = CREATED_UPDATER.get(this)) < size) {
+            if (CREATED_UPDATER.compareAndSet(this, c, c + 1)) {
+                final O object = supplier.get();
+                object.setOwner((SbsrConsatantObjectPool<PoolableObject>) this); // unchecked
+                return object;
+            }
         }
+        return null;
     }
 
-    private static int objectIndex(final int index) {
-        return ARRAY_PAD + index;
+    private int objectIndex(final long sequence) {
+        return ARRAY_PAD + (int) (sequence & indexMask);
     }
-}
+}
\ No newline at end of file
@@ -0,0 +1,133 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2019-2023 Anatoly Gudkov
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.green.tractor;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+import static org.green.cab.Utils.copyBytes;
+
+/**
+ * Reads the state of a {@link Snapshotable} Executor from a snapshot file in the order
+ * the {@link SnapshotWriter} has written it.
+ */
+public final class SnapshotReader {
+    private final ByteBuffer buffer;
+    private final FileChannel channel;
+    private long remaining;
+
+    SnapshotReader(final FileChannel channel, final long size, final int bufferSize) {
+        this.channel = channel;
+        remaining = size;
+        buffer = ByteBuffer.allocateDirect(bufferSize).order(ByteOrder.nativeOrder());
+        buffer.limit(0);
+    }
+
+    /**
+     * Returns the number of bytes of the snapshot not read yet.
+     *
+     * @return number of bytes
+     */
+    public long remaining() {
+        return remaining + buffer.remaining();
+    }
+
+    public byte getByte() throws IOException {
+        ensure(Byte.BYTES);
+        return buffer.get();
+    }
+
+    public int getInt() throws IOException {
+        ensure(Integer.BYTES);
+        return buffer.getInt();
+    }
+
+    public long getLong() throws IOException {
+        ensure(Long.BYTES);
+        return buffer.getLong();
+    }
+
+    public double getDouble() throws IOException {
+        ensure(Double.BYTES);
+        return buffer.getDouble();
+    }
+
+    /**
+     * Reads bytes to the destination buffer, the position of the destination doesn't change.
+     *
+     * @param dst    the destination buffer
+     * @param offset the offset of the first byte in the destination
+     * @param length number of bytes
+     * @throws IOException if the snapshot cannot be read
+     */
+    public void getBytes(final ByteBuffer dst, final int offset, final int length) throws IOException {
+        int read = 0;
+        while (read < length) {
+            ensure(1);
+            final int n = Math.min(buffer.remaining(), length - read);
+            copyBytes(buffer, buffer.position(), dst, offset + read, n);
+            buffer.position(buffer.position() + n);
+            read += n;
+        }
+    }
+
+    /**
+     * Appends the chars written by {@link SnapshotWriter#putChars(CharSequence)} to the builder.
+     *
+     * @param to the builder
+     * @throws IOException if the snapshot cannot be read
+     */
+    public void getChars(final StringBuilder to) throws IOException {
+        final int length = getInt();
+        for (int i = 0; i < length; i++) {
+            ensure(Character.BYTES);
+            to.append(buffer.getChar());
+        }
+    }
+
+    private void ensure(final int n) throws IOException {
+        if (buffer.remaining() >= n) {
+            return;
+        }
+        buffer.compact();
+        while (buffer.position() < n) {
+            if (remaining == 0) {
+                throw new EOFException("Unexpected end of the snapshot");
+            }
+            if (buffer.remaining() > remaining) {
+                buffer.limit(buffer.position() + (int) remaining);
+            }
+            final int read = channel.read(buffer);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of the snapshot file");
+            }
+            remaining -= read;
+            buffer.limit(buffer.capacity());
+        }
+        buffer.flip();
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2019-2023 Anatoly Gudkov
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.green.tractor;
+
+public class SnapshotResult extends ErrorableResult {
+    private long position;
+    private long size;
+    private long nanos;
+
+    void set(final long position, final long size, final long nanos) {
+        this.position = position;
+        this.size = size;
+        this.nanos = nanos;
+    }
+
+    /**
+     * Returns the position of the journal the snapshot was taken at, the entries after it are replayed
+     * after the snapshot is loaded.
+     *
+     * @return the position
+     */
+    public long position() {
+        return position;
+    }
+
+    /**
+     * Returns the number of bytes the Executor has written to the snapshot.
+     *
+     * @return size of the snapshot
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns time in nanoseconds the Worker spent writing the snapshot.
+     *
+     * @return duration of the snapshot
+     */
+    public long nanos() {
+        return nanos;
+    }
+
+    @Override
+    public String toString() {
+        return super.toString() + ", position=" + position + ", size=" + size + ", nanos=" + nanos;
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2019-2023 Anatoly Gudkov
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.green.tractor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+import static org.green.cab.Utils.copyBytes;
+
+/**
+ * Streams the state of a {@link Snapshotable} Executor to a snapshot file through a buffer which is reused
+ * by all the snapshots of a journal, so, writing a snapshot allocates nothing. Values are written
+ * in the native byte order.
+ */
+public final class SnapshotWriter {
+    private final ByteBuffer buffer;
+
+    private FileChannel channel;
+    private long size;
+
+    SnapshotWriter(final int bufferSize) {
+        buffer = ByteBuffer.allocateDirect(bufferSize).order(ByteOrder.nativeOrder());
+    }
+
+    void begin(final FileChannel channel, final long position) throws IOException {
+        this.channel = channel;
+        channel.position(position);
+        buffer.clear();
+        size = 0;
+    }
+
+    void finish() throws IOException {
+        flush();
+        channel = null;
+    }
+
+    /**
+     * Returns the number of bytes written to the snapshot so far.
+     *
+     * @return size of the snapshot
+     */
+    public long size() {
+        return size;
+    }
+
+    public void putByte(final byte value) throws IOException {
+        ensure(Byte.BYTES);
+        buffer.put(value);
+        size += Byte.BYTES;
+    }
+
+    public void putInt(final int value) throws IOException {
+        ensure(Integer.BYTES);
+        buffer.putInt(value);
+        size += Integer.BYTES;
+    }
+
+    public void putLong(final long value) throws IOException {
+        ensure(Long.BYTES);
+        buffer.putLong(value);
+        size += Long.BYTES;
+    }
+
+    public void putDouble(final double value) throws IOException {
+        ensure(Double.BYTES);
+        buffer.putDouble(value);
+        size += Double.BYTES;
+    }
+
+    /**
+     * Writes the bytes of the source buffer, the position of the source doesn't change.
+     *
+     * @param src    the source buffer
+     * @param offset the offset of the first byte in the source
+     * @param length number of bytes
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void putBytes(final ByteBuffer src, final int offset, final int length) throws IOException {
+        int written = 0;
+        while (written < length) {
+            ensure(1);
+            final int n = Math.min(buffer.remaining(), length - written);
+            copyBytes(src, offset + written, buffer, buffer.position(), n);
+            buffer.position(buffer.position() + n);
+            written += n;
+        }
+        size += length;
+    }
+
+    /**
+     * Writes the number of chars followed by the chars, see {@link SnapshotReader#getChars(StringBuilder)}.
+     *
+     * @param value the chars
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void putChars(final CharSequence value) throws IOException {
+        final int length = value.length();
+        putInt(length);
+        for (int i = 0; i < length; i++) {
+            ensure(Character.BYTES);
+            buffer.putChar(value.charAt(i));
+        }
+        size += (long) length * Character.BYTES;
+    }
+
+    private void ensure(final int n) throws IOException {
+        if (buffer.remaining() < n) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -23,11 +23,122 @@
  */
 package org.green.tractor;
 
+import org.green.cab.OverflowPolicy;
+
+import java.util.concurrent.TimeUnit;
+
 public interface Tractor<E extends Executor, L extends TractorListener<E>>
         extends AutoCloseable {
 
     <E extends Entry> EntrySender<E> newEntrySender(Class<E> classOfEntry);
 
+    /**
+     * Returns a sender whose envelopes follow the overflow policy in trySend() and send(timeout, unit)
+     * when the Cab is full. newEntrySender(classOfEntry) returns a sender with {@link OverflowPolicy#BLOCK} policy.
+     *
+     * @param classOfEntry   class of entries to be sent
+     * @param overflowPolicy what the sender does if the Cab is full
+     * @param <E>            type of entries
+     * @return the sender
+     */
+    <E extends Entry> EntrySender<E> newEntrySender(Class<E> classOfEntry, OverflowPolicy overflowPolicy);
+
+    /**
+     * Returns a sender of entries of the priority, 0 is the highest one. The tractor must be created with
+     * a {@link org.green.cab.CabPrioritized} if the priority is not 0. The Worker processes entries of higher
+     * priorities first, entries of lower priorities wait not more than the starvation bound of the Cab.
+     *
+     * @param classOfEntry   class of entries to be sent
+     * @param priority       priority of the entries
+     * @param overflowPolicy what the sender does if the Cab is full
+     * @param <E>            type of entries
+     * @return the sender
+     * @throws IllegalArgumentException if the Cab of the tractor has no such a priority
+     */
+    <E extends Entry> EntrySender<E> newEntrySender(Class<E> classOfEntry, int priority, OverflowPolicy overflowPolicy);
+
+    /**
+     * Returns a sender of entries of the priority with {@link OverflowPolicy#BLOCK} policy.
+     *
+     * @param classOfEntry class of entries to be sent
+     * @param priority     priority of the entries
+     * @param <E>          type of entries
+     * @return the sender
+     * @throws IllegalArgumentException if the Cab of the tractor has no such a priority
+     */
+    <E extends Entry> EntrySender<E> newEntrySender(Class<E> classOfEntry, int priority);
+
+    /**
+     * Returns a sender which conflates entries by their keys: if an entry with the same key is still queued
+     * in the Cab, the entry sent replaces it and the queued one is returned to its pool. The tractor must be
+     * created with a {@link org.green.cab.CabConflating}.
+     *
+     * @param classOfEntry class of entries to be sent
+     * @param <E>          type of entries
+     * @return the sender with {@link OverflowPolicy#BLOCK} policy
+     * @throws IllegalStateException if the Cab of the tractor doesn't conflate entries
+     */
+    <E extends KeyedEntry> EntrySender<E> newConflatingEntrySender(Class<E> classOfEntry);
+
+    /**
+     * Returns a sender which conflates entries by their keys like newConflatingEntrySender(classOfEntry) and
+     * follows the overflow policy in trySend() and send(timeout, unit) if a new entry doesn't fit the Cab.
+     *
+     * @param classOfEntry   class of entries to be sent
+     * @param overflowPolicy what the sender does if the Cab is full
+     * @param <E>            type of entries
+     * @return the sender
+     * @throws IllegalStateException if the Cab of the tractor doesn't conflate entries
+     */
+    <E extends KeyedEntry> EntrySender<E> newConflatingEntrySender(
+            Class<E> classOfEntry,
+            OverflowPolicy overflowPolicy);
+
+    /**
+     * Returns a sender of fixed-size binary entries with {@link OverflowPolicy#BLOCK} policy. The tractor must be
+     * created with a {@link org.green.cab.CabOffHeap}, the entry of an envelope is written to a buffer of the sender
+     * and is copied to the Cab when it is sent. The Executor gets entries as views created by the supplier
+     * the Cab was created with, so, the views are expected to have the same layout as the entries sent.
+     *
+     * @param classOfEntry class of entries to be sent, must have a public no-arg constructor
+     * @param <E>          type of entries
+     * @return the sender
+     * @throws IllegalStateException if the Cab of the tractor doesn't keep entries off-heap
+     */
+    <E extends BinaryEntry> EntrySender<E> newBinaryEntrySender(Class<E> classOfEntry);
+
+    /**
+     * Returns a sender of fixed-size binary entries like newBinaryEntrySender(classOfEntry), which follows
+     * the overflow policy in trySend() and send(timeout, unit) if the Cab is full.
+     *
+     * @param classOfEntry   class of entries to be sent, must have a public no-arg constructor
+     * @param overflowPolicy what the sender does if the Cab is full
+     * @param <E>            type of entries
+     * @return the sender
+     * @throws IllegalStateException if the Cab of the tractor doesn't keep entries off-heap
+     */
+    <E extends BinaryEntry> EntrySender<E> newBinaryEntrySender(Class<E> classOfEntry, OverflowPolicy overflowPolicy);
+
+    /**
+     * Returns a sender of primitive long values with {@link OverflowPolicy#BLOCK} policy. The Cab of the tractor
+     * must have a {@link org.green.cab.LongCab} attached with attachLongCab() before the tractor is created.
+     * The values are passed to processLong(value) of the Executor, they aren't journaled.
+     *
+     * @return the sender, which can be used by any thread
+     * @throws IllegalStateException if the Cab of the tractor has no Ring Buffer of longs
+     */
+    LongEntrySender newLongEntrySender();
+
+    /**
+     * Returns a sender of primitive long values like newLongEntrySender(), which follows the overflow policy
+     * in trySend(value) and send(value, timeout, unit) if the Ring Buffer of longs is full.
+     *
+     * @param overflowPolicy what the sender does if the Ring Buffer of longs is full
+     * @return the sender, which can be used by any thread
+     * @throws IllegalStateException if the Cab of the tractor has no Ring Buffer of longs
+     */
+    LongEntrySender newLongEntrySender(OverflowPolicy overflowPolicy);
+
     Future<ListenerResult> addListener(L listener) throws TractorClosedException, InterruptedException;
 
     Future<ListenerResult> removeListener(L listener) throws TractorClosedException, InterruptedException;
@@ -36,6 +147,42 @@ public interface Tractor<E extends Executor, L extends TractorListener<E>>
 
     Future<VoidResult> stop() throws TractorClosedException, InterruptedException;
 
+    /**
+     * Waits until the entry sent with the sequence is synced to the journal of the tractor,
+     * see {@link EntryEnvelope#sequence()}.
+     *
+     * @param sequence the sequence the entry was sent with
+     * @throws TractorClosedException if the tractor was closed before the entry was synced
+     * @throws InterruptedException   if the current thread was interrupted
+     * @throws IllegalStateException  if the tractor has no journal or its Cab cannot acknowledge entries
+     */
+    void awaitDurable(long sequence) throws TractorClosedException, InterruptedException;
+
+    /**
+     * Waits like awaitDurable(sequence), but not longer than the timeout.
+     *
+     * @param sequence the sequence the entry was sent with
+     * @param timeout  max time to wait
+     * @param unit     unit of the timeout
+     * @return true if the entry is synced, false if the timeout elapsed
+     * @throws TractorClosedException if the tractor was closed before the entry was synced
+     * @throws InterruptedException   if the current thread was interrupted
+     * @throws IllegalStateException  if the tractor has no journal or its Cab cannot acknowledge entries
+     */
+    boolean awaitDurable(long sequence, long timeout, TimeUnit unit)
+            throws TractorClosedException, InterruptedException;
+
+    /**
+     * Makes the Worker write the state of the Executor to a snapshot of the journal between two batches
+     * of entries, so, the journal can be truncated and the entries before the snapshot aren't replayed anymore.
+     *
+     * @return the future of the snapshot's position, size and duration
+     * @throws TractorClosedException if the tractor was closed
+     * @throws InterruptedException   if the current thread was interrupted
+     * @throws IllegalStateException  if the tractor has no journal or its Executor isn't {@link Snapshotable}
+     */
+    Future<SnapshotResult> takeSnapshot() throws TractorClosedException, InterruptedException;
+
 
     void closeSync(long timeout) throws InterruptedException;
 
@@ -26,15 +26,30 @@ package org.green.cab;
 import org.green.TestParameters;
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 import static java.time.Duration.ofSeconds;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class CabConcurrencyTest extends TestParameters {
     private static final int BUFFER_SIZE = 10_000;
+    private static final int LANE_SHIFT = 56;
+    private static final int SPINNING_PHASE = 0;
+    private static final int YIELDING_PHASE = 1;
+    private static final int PARKING_PHASE = 2;
     private static final int NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER = 1_000_000 * TEST_AMOUNT_OF_WORK_MULTIPLIER;
 
     @Test
@@ -162,22 +177,1460 @@ public class CabConcurrencyTest extends TestParameters {
         testNpSc(new CabBlocking<>(BUFFER_SIZE), 3, NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER, false);
     }
 
+    @Test
+    public void testSpScBlockingBatched() throws InterruptedException {
+        testNpSc(new CabBlocking<>(BUFFER_SIZE), 1, NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER, false, 100);
+    }
+
+    @Test
+    public void test3pScYieldingBatched() throws InterruptedException {
+        testNpSc(new CabYielding<>(BUFFER_SIZE), 3, NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER, false, 100);
+    }
+
+    @Test
+    public void test3pScBackingOffSlowBatched() throws InterruptedException {
+        testNpSc(new CabBackingOff<>(BUFFER_SIZE, 1000, 10000), 3, NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER, true,
+                BUFFER_SIZE * 2);
+    }
+
+    @Test
+    public void testSpScBlockingProducerBatches() throws InterruptedException {
+        testNpSc(new CabBlocking<>(BUFFER_SIZE), 1, NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER, false, 0, 50);
+    }
+
+    @Test
+    public void test3pScBackingOffProducerBatches() throws InterruptedException {
+        testNpSc(new CabBackingOff<>(BUFFER_SIZE, 1000, 10000), 3, NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER, false,
+                100, 20);
+    }
+
+    @Test
+    public void testSpScSpinHint() throws InterruptedException {
+        testNpSc(new CabWithWaitStrategy<>(BUFFER_SIZE, new SpinHintWaitStrategy()), 1,
+                NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER, false);
+    }
+
+    @Test
+    public void test3pScParking() throws InterruptedException {
+        testNpSc(new CabWithWaitStrategy<>(BUFFER_SIZE, new ParkingWaitStrategy(1_000, 1_000_000)), 3,
+                NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER, false);
+    }
+
+    @Test
+    public void test3pScSleeping() throws InterruptedException {
+        // each sleep takes a millisecond at least, so, less work here
+        testNpSc(new CabWithWaitStrategy<>(BUFFER_SIZE, new SleepingWaitStrategy(1)), 3,
+                NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER / 100, false);
+    }
+
+    @Test
+    public void test3pScAdaptiveBackingOff() throws InterruptedException {
+        testNpSc(new CabWithWaitStrategy<>(BUFFER_SIZE, new AdaptiveBackingOffWaitStrategy()), 3,
+                NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER, false);
+    }
+
+    @Test
+    public void testSpScAdaptiveBackingOffSlow() throws InterruptedException {
+        testNpSc(new CabWithWaitStrategy<>(BUFFER_SIZE, new AdaptiveBackingOffWaitStrategy()), 1,
+                NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER, true);
+    }
+
+    @Test
+    public void testAdaptiveBackingOffBudgets() throws InterruptedException {
+        final long targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(50);
+        final AdaptiveBackingOffWaitStrategy strategy =
+                new AdaptiveBackingOffWaitStrategy(4, 64, 2, 16, 1, 1, targetLatencyNanos);
+
+        // short waits ended at the end of spinning make spinning longer
+        for (int i = 0; i < 10; i++) {
+            waitUntil(strategy, SPINNING_PHASE, 0);
+        }
+
+        assertEquals(64, strategy.spinBudget());
+        assertEquals(2, strategy.yieldBudget());
+        assertEquals(4, strategy.numberOfSpinBudgetIncreases());
+
+        // short waits reached parking make yielding longer
+        for (int i = 0; i < 10; i++) {
+            waitUntil(strategy, PARKING_PHASE, 0);
+        }
+
+        assertEquals(64, strategy.spinBudget());
+        assertEquals(16, strategy.yieldBudget());
+        assertEquals(3, strategy.numberOfYieldBudgetIncreases());
+
+        // long waits ended at the end of yielding make spinning shorter
+        for (int i = 0; i < 10; i++) {
+            waitUntil(strategy, YIELDING_PHASE, targetLatencyNanos + 1);
+        }
+
+        assertEquals(4, strategy.spinBudget());
+        assertEquals(16, strategy.yieldBudget());
+        assertEquals(4, strategy.numberOfSpinBudgetDecreases());
+        assertEquals(0, strategy.numberOfYieldBudgetDecreases());
+
+        // long waits reached parking make yielding shorter
+        for (int i = 0; i < 10; i++) {
+            waitUntil(strategy, PARKING_PHASE, targetLatencyNanos + 1);
+        }
+
+        assertEquals(4, strategy.spinBudget());
+        assertEquals(2, strategy.yieldBudget());
+        assertEquals(4, strategy.numberOfSpinBudgetDecreases());
+        assertEquals(3, strategy.numberOfYieldBudgetDecreases());
+    }
+
+    @Test
+    public void testSpScSingleProducerParkingSlow() throws InterruptedException {
+        testNpSc(CabSingleProducer.withWaitStrategy(BUFFER_SIZE, new ParkingWaitStrategy(1_000, 1_000_000)), 1,
+                NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER, true);
+    }
+
+    @Test
+    public void test3pScMultiLaneBlocking() throws InterruptedException {
+        testNpSc(CabMultiLane.blocking(BUFFER_SIZE, 3), 3, NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER, false);
+    }
+
+    @Test
+    public void test3pScMultiLaneYieldingBatched() throws InterruptedException {
+        testNpSc(CabMultiLane.yielding(BUFFER_SIZE, 3), 3, NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER, false, 100, 20);
+    }
+
+    @Test
+    public void test3pScMultiLaneBackingOffSlowShared() throws InterruptedException {
+        // only one lane for three producers, so, two of them share the base Ring Buffer
+        testNpSc(CabMultiLane.backingOff(BUFFER_SIZE, 1, 1000, 10000), 3, NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER, true,
+                100);
+    }
+
+    @Test
+    public void testMultiLaneConsumerInterrupted() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final CabMultiLane<Long, Object> cab = CabMultiLane.busySpinning(BUFFER_SIZE, 2);
+
+            cab.producerCommit(cab.producerNext());
+
+            assertEquals(1, cab.numberOfRegisteredLanes());
+
+            cab.consumerInterrupt();
+
+            assertThrows(ConsumerInterruptedException.class, cab::producerNext);
+        });
+    }
+
+    @Test
+    public void testMultiLaneLanesReused() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final int numberOfProducers = 10;
+
+            final CabMultiLane<Long, Object> cab = CabMultiLane.busySpinning(BUFFER_SIZE, 2);
+
+            for (int i = 0; i < numberOfProducers; i++) {
+                final long value = i;
+                final boolean release = i % 2 == 0; // the lanes of the others are taken over once they terminate
+                final Thread producer = new Thread(() -> {
+                    try {
+                        final long sequence = cab.producerNext();
+                        cab.setEntry(sequence, value);
+                        cab.producerCommit(sequence);
+                        if (release) {
+                            cab.releaseProducerLane();
+                        }
+                    } catch (final Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+                producer.start();
+                producer.join();
+
+                final long sequence = cab.consumerNext();
+                assertEquals(value, (long) cab.getEntry(sequence));
+                cab.consumerCommit(sequence);
+            }
+
+            assertEquals(1, cab.numberOfRegisteredLanes());
+        });
+    }
+
+    @Test
+    public void testMultiLaneReleasedLaneKeepsOrder() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final CabMultiLane<Long, Object> cab = CabMultiLane.busySpinning(BUFFER_SIZE, 1);
+
+            // the current thread releases its lane before its entries are consumed
+            produce(cab, 1);
+            produce(cab, 2);
+            cab.releaseProducerLane();
+
+            // another thread doesn't get the lane, which isn't drained yet, but shares the base Ring Buffer
+            final CountDownLatch produced = new CountDownLatch(1);
+            final CountDownLatch done = new CountDownLatch(1);
+            final Thread other = new Thread(() -> {
+                try {
+                    produce(cab, 100);
+                    produced.countDown();
+                    done.await(); // the thread is alive while the current thread claims again
+                } catch (final Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            other.start();
+            produced.await();
+
+            produce(cab, 3); // the current thread gets its lane back
+
+            final List<Long> values = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                final long sequence = cab.consumerNext();
+                final long value = cab.getEntry(sequence);
+                if (value < 100) {
+                    values.add(value);
+                }
+                cab.consumerCommit(sequence);
+            }
+            assertEquals(List.of(1L, 2L, 3L), values);
+            assertEquals(1, cab.numberOfRegisteredLanes());
+
+            done.countDown();
+            other.join();
+        });
+    }
+
+    @Test
+    public void testMultiLaneUncommittedLaneAbandoned() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final CabMultiLane<Long, Object> cab = CabMultiLane.busySpinning(BUFFER_SIZE, 1);
+
+            // the producer claims a sequence and terminates without committing it
+            final Thread producer = new Thread(() -> {
+                try {
+                    produce(cab, 1);
+                    cab.producerNext();
+                } catch (final Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            producer.start();
+            producer.join();
+
+            // the lane isn't taken over, the consumer would wait for the claimed sequence forever
+            produce(cab, 2);
+
+            final List<Long> values = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                final long sequence = cab.consumerNext();
+                values.add(cab.getEntry(sequence));
+                cab.consumerCommit(sequence);
+            }
+            values.sort(null);
+            assertEquals(List.of(1L, 2L), values);
+            assertEquals(1, cab.numberOfRegisteredLanes());
+        });
+    }
+
+    private static void produce(final Cab<Long, Object> cab, final long value)
+            throws ConsumerInterruptedException, InterruptedException {
+
+        final long sequence = cab.producerNext();
+        cab.setEntry(sequence, value);
+        cab.producerCommit(sequence);
+    }
+
+    @Test
+    public void testProducerNextOutOfRange() {
+        final Cab<Long, Object> cab = new CabBlocking<>(BUFFER_SIZE);
+
+        assertThrows(IllegalArgumentException.class, () -> cab.producerNext(0));
+        assertThrows(IllegalArgumentException.class, () -> cab.producerNext(cab.bufferSize() + 1));
+    }
+
+    @Test
+    public void testSpScSingleProducerYielding() throws InterruptedException {
+        testNpSc(CabSingleProducer.yielding(BUFFER_SIZE), 1, NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER, false);
+    }
+
+    @Test
+    public void testSpScSingleProducerBackingOffSlow() throws InterruptedException {
+        testNpSc(CabSingleProducer.backingOff(BUFFER_SIZE, 10, 100), 1, NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER, true);
+    }
+
+    @Test
+    public void testSpScSingleProducerBlockingBatches() throws InterruptedException {
+        testNpSc(CabSingleProducer.blocking(BUFFER_SIZE), 1, NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER, false, 100, 30);
+    }
+
+    @Test
+    public void testSingleProducerFromAnotherThread() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final Cab<Long, Object> cab = CabSingleProducer.blocking(BUFFER_SIZE);
+
+            cab.producerCommit(cab.producerNext());
+
+            final Exception[] error = new Exception[1];
+            final Thread anotherProducer = new Thread(() -> {
+                try {
+                    cab.producerNext();
+                } catch (final Exception e) {
+                    error[0] = e;
+                }
+            });
+            anotherProducer.start();
+            anotherProducer.join();
+
+            assertTrue(error[0] instanceof IllegalStateException);
+        });
+    }
+
+    @Test
+    public void testSingleProducerConsumerInterrupted() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final Cab<Long, Object> cab = CabSingleProducer.busySpinning(BUFFER_SIZE);
+
+            cab.producerCommit(cab.producerNext());
+
+            cab.consumerInterrupt();
+
+            assertThrows(ConsumerInterruptedException.class, cab::producerNext);
+        });
+    }
+
+    @Test
+    public void test3pScBlockingOverloadLowWaterMarkSlow() throws InterruptedException {
+        final Cab<Long, Message> cab = new CabBlocking<>(BUFFER_SIZE);
+        cab.setOverloadLowWaterMark(cab.bufferSize() / 4);
+
+        testNpSc(cab, 3, NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER, true);
+    }
+
+    @Test
+    public void testSpScSingleProducerOverloadLowWaterMarkSlow() throws InterruptedException {
+        final Cab<Long, Message> cab = CabSingleProducer.blocking(BUFFER_SIZE);
+        cab.setOverloadLowWaterMark(cab.bufferSize());
+
+        testNpSc(cab, 1, NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER, true, 0, 20);
+    }
+
+    @Test
+    public void test3pScMultiLaneOverloadLowWaterMarkSlow() throws InterruptedException {
+        final Cab<Long, Message> cab = CabMultiLane.yielding(BUFFER_SIZE, 2);
+        cab.setOverloadLowWaterMark(1);
+
+        testNpSc(cab, 3, NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER, true, 100);
+    }
+
+    @Test
+    public void testOverloadLowWaterMark() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final Cab<Long, Object> cab = new CabBlocking<>(16);
+            cab.setOverloadLowWaterMark(4);
+
+            final long lastSequence = cab.producerNext(cab.bufferSize());
+            cab.producerCommit(0, lastSequence);
+
+            final Thread producer = new Thread(() -> {
+                try {
+                    cab.producerCommit(cab.producerNext()); // stalls, the buffer is full
+                } catch (final ConsumerInterruptedException | InterruptedException e) {
+                    e.printStackTrace(System.err);
+                }
+            });
+            producer.start();
+
+            while (producer.getState() != Thread.State.WAITING) {
+                Thread.sleep(1);
+            }
+
+            for (int i = 0; i < 3; i++) {
+                cab.consumerCommit(cab.consumerNext());
+            }
+
+            Thread.sleep(100);
+            assertTrue(producer.isAlive()); // 3 entries freed only
+
+            cab.consumerCommit(cab.consumerNext());
+
+            producer.join();
+
+            assertEquals(1, cab.numberOfOverloads());
+            assertTrue(cab.overloadNanos() >= 100_000_000L);
+        });
+    }
+
+    @Test
+    public void testOverloadEndedByInterruption() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final Cab<Long, Object> cab = new CabBlocking<>(16);
+            cab.setOverloadLowWaterMark(4);
+
+            final long lastSequence = cab.producerNext(cab.bufferSize());
+            cab.producerCommit(0, lastSequence);
+
+            final Exception[] error = new Exception[1];
+            final Thread producer = new Thread(() -> {
+                try {
+                    cab.producerCommit(cab.producerNext()); // stalls, the buffer is full
+                } catch (final ConsumerInterruptedException | InterruptedException e) {
+                    error[0] = e;
+                }
+            });
+            producer.start();
+
+            while (producer.getState() != Thread.State.WAITING) {
+                Thread.sleep(1);
+            }
+
+            cab.consumerInterrupt();
+
+            producer.join();
+
+            assertTrue(error[0] instanceof ConsumerInterruptedException);
+            assertEquals(0, cab.numberOfOverloads()); // a shutdown isn't a stall
+            assertEquals(0, cab.overloadNanos());
+        });
+    }
+
+    @Test
+    public void testOverloadLowWaterMarkOutOfRange() {
+        final Cab<Long, Object> cab = new CabBlocking<>(BUFFER_SIZE);
+
+        assertThrows(IllegalArgumentException.class, () -> cab.setOverloadLowWaterMark(-1));
+        assertThrows(IllegalArgumentException.class, () -> cab.setOverloadLowWaterMark(cab.bufferSize() + 1));
+    }
+
+    @Test
+    public void test3pScBlockingRejectingSlow() throws InterruptedException {
+        testNpSc(new CabBlocking<>(BUFFER_SIZE), 3, NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER, true, 0, 1,
+                OverflowPolicy.REJECT);
+    }
+
+    @Test
+    public void test3pScYieldingTimedBlockBatches() throws InterruptedException {
+        testNpSc(new CabYielding<>(BUFFER_SIZE), 3, NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER, true, 100, 20,
+                OverflowPolicy.BLOCK);
+    }
+
+    @Test
+    public void test3pScMultiLaneRejectingSlow() throws InterruptedException {
+        testNpSc(CabMultiLane.yielding(BUFFER_SIZE, 2), 3, NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER, true, 0, 1,
+                OverflowPolicy.REJECT);
+    }
+
+    @Test
+    public void testOverflowPolicies() {
+        testOverflowPolicies(new CabBlocking<>(4));
+        testOverflowPolicies(CabSingleProducer.blocking(4));
+        testOverflowPolicies(CabMultiLane.blocking(4, 1));
+    }
+
+    @Test
+    public void testOverflowPolicyDropOldest() {
+        testOverflowPolicyDropOldest(new CabBlocking<>(4));
+        testOverflowPolicyDropOldest(CabSingleProducer.blocking(4));
+        testOverflowPolicyDropOldest(CabMultiLane.blocking(4, 1));
+    }
+
+    @Test
+    public void testConflation() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final CabConflating<Long, Object> cab = CabConflating.blocking(8);
+
+            produceByKey(cab, 1, 10);
+            produceByKey(cab, 2, 20);
+            assertTrue(CabConflating.isConflated(produceByKey(cab, 1, 11))); // overwrites 10 in place
+
+            assertEquals(1, cab.numberOfConflations());
+
+            final long sequence = cab.consumerNext();
+            assertEquals(11L, (long) cab.getEntry(sequence));
+
+            // the entry is taken by the consumer, so, a new one is queued after 20
+            assertTrue(!CabConflating.isConflated(produceByKey(cab, 1, 12)));
+
+            cab.consumerCommit(sequence);
+
+            for (final long value : new long[]{20, 12}) {
+                final long s = cab.consumerNext();
+                assertEquals(value, (long) cab.getEntry(s));
+                cab.consumerCommit(s);
+            }
+
+            assertEquals(1, cab.numberOfConflations());
+        });
+    }
+
+    @Test
+    public void test3pScConflatingYieldingSlow() {
+        testNpScConflating(CabConflating.yielding(64), 3, 0);
+    }
+
+    @Test
+    public void test3pScConflatingBlockingSlowBatched() {
+        testNpScConflating(CabConflating.blocking(64), 3, 100);
+    }
+
+    @Test
+    public void testBlockingConsumerParkedAndInterrupted() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final Cab<Long, Object> cab = new CabBlocking<>(BUFFER_SIZE);
+
+            final long[] consumed = {-1, -1}; // the sequence consumed and 1 if the consumer was interrupted
+            final Thread consumer = new Thread(() -> {
+                try {
+                    consumed[0] = cab.consumerNext(); // parks until the entry is committed
+                    cab.consumerCommit(consumed[0]);
+
+                    cab.consumerNext(); // parks until interrupted
+                } catch (final InterruptedException e) {
+                    consumed[1] = 1;
+                }
+            });
+            consumer.start();
+
+            Thread.sleep(100);
+            cab.producerCommit(cab.producerNext());
+
+            Thread.sleep(100);
+            consumer.interrupt();
+            consumer.join();
+
+            assertEquals(0, consumed[0]);
+            assertEquals(1, consumed[1]);
+        });
+    }
+
+    @Test
+    public void testChannel() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final Cab<Long, Object> cab = new CabWithWaitStrategy<>(8, 3, new BlockingWaitStrategy(), null);
+
+            assertEquals(4, cab.channelSize());
+
+            final long channelSize = cab.channelSize();
+
+            cab.producerCommit(cab.producerNext());
+
+            for (long i = 0; i < channelSize; i++) {
+                cab.send(i); // doesn't wait, the Channel has room for all the messages
+            }
+
+            final boolean[] sent = {false};
+            final Thread sender = new Thread(() -> {
+                try {
+                    cab.send(channelSize); // waits until the first message is received
+                    sent[0] = true;
+                } catch (final ConsumerInterruptedException | InterruptedException e) {
+                    e.printStackTrace(System.err);
+                }
+            });
+            sender.start();
+
+            Thread.sleep(100);
+            assertTrue(!sent[0]);
+
+            // messages are received in the order they were sent and before the entry
+            for (long i = 0; i <= channelSize; i++) {
+                final long sequence = cab.consumerNext();
+                assertEquals(Cab.MESSAGE_RECEIVED_SEQUENCE, sequence);
+                assertEquals(i, (long) cab.getMessage());
+                cab.consumerCommit(sequence);
+
+                if (i == 0) {
+                    sender.join();
+                    assertTrue(sent[0]);
+                }
+            }
+
+            final long sequence = cab.consumerNext();
+            assertEquals(0, sequence);
+            cab.consumerCommit(sequence);
+
+            // several wake-ups before the consumer wakes up are received as one, before the entries
+            cab.wakeUpConsumer();
+            cab.wakeUpConsumer();
+            cab.producerCommit(cab.producerNext());
+            assertEquals(Cab.WOKEN_UP_SEQUENCE, cab.consumerNext());
+            assertEquals(1, cab.consumerNext());
+            cab.consumerCommit(1);
+
+            assertThrows(IllegalArgumentException.class,
+                    () -> new CabWithWaitStrategy<>(8, 0, new BlockingWaitStrategy(), null));
+        });
+    }
+
+    @Test
+    public void test3pScYieldingOneMessageChannel() throws InterruptedException {
+        testNpSc(new CabWithWaitStrategy<>(BUFFER_SIZE, 1, new YieldingWaitStrategy(), null), 3,
+                NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER, false);
+    }
+
+    @Test
+    public void test8pScBlockingSlow() throws InterruptedException {
+        testNpSc(new CabBlocking<>(BUFFER_SIZE), 8, NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER / 4, true);
+    }
+
+    @Test
+    public void testPriorities() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final CabPrioritized<Long, Object> cab = CabPrioritized.blocking(16, 3);
+
+            cab.setStarvationBound(2);
+
+            for (long i = 0; i < 4; i++) {
+                for (int priority = 2; priority >= 0; priority--) {
+                    final long sequence = cab.producerNextByPriority(priority, 1);
+                    cab.setEntry(sequence, priority * 10 + i);
+                    cab.producerCommit(sequence);
+                }
+            }
+
+            // the lower priorities are served after higher ones were served twice
+            final long[] expected = {0, 1, 10, 20, 2, 3, 11, 21, 12, 13, 22, 23};
+            for (final long value : expected) {
+                final long sequence = cab.consumerNext();
+                assertEquals(value, (long) cab.getEntry(sequence));
+                cab.consumerCommit(sequence);
+            }
+
+            assertEquals(Cab.NO_SEQUENCE, cab.consumerPoll()); // all the rings are empty, the poll clears the mask
+            assertEquals(0, cab.pendingPriorities);
+
+            assertThrows(IllegalArgumentException.class, () -> cab.producerNextByPriority(3, 1));
+            assertThrows(IllegalArgumentException.class, () -> cab.setStarvationBound(-1));
+        });
+    }
+
+    @Test
+    public void test3pScPrioritizedBlocking() throws InterruptedException {
+        testNpSc(CabPrioritized.blocking(BUFFER_SIZE, 3), 3, NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER, false);
+    }
+
+    @Test
+    public void test3pScPrioritizedYieldingSlowBatched() throws InterruptedException {
+        testNpSc(CabPrioritized.yielding(BUFFER_SIZE, 2), 3, NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER, true, 100, 10);
+    }
+
+    @Test
+    public void test3pScPrioritizedBackingOffRejectingSlow() throws InterruptedException {
+        testNpSc(CabPrioritized.backingOff(BUFFER_SIZE, 3, 1000, 10000), 3, NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER,
+                true, 0, 1, OverflowPolicy.REJECT);
+    }
+
+    @Test
+    public void testOffHeap() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final CabOffHeap<LongView, Object> cab = CabOffHeap.blocking(4, Long.BYTES, LongView::new);
+            assertEquals(Long.BYTES, cab.slotSize());
+
+            final List<Long> dropped = new ArrayList<>();
+            cab.setDroppedEntryHandler(view -> dropped.add(view.get()));
+
+            final LongView producerView = new LongView();
+            for (long i = 0; i < cab.bufferSize(); i++) {
+                final long sequence = cab.producerNext();
+                cab.wrapEntry(sequence, producerView);
+                producerView.set(i);
+                cab.producerCommit(sequence);
+            }
+
+            // the oldest entry is dropped, the new one is copied from a buffer
+            final ByteBuffer src = ByteBuffer.allocateDirect(2 * Long.BYTES).order(ByteOrder.nativeOrder());
+            src.putLong(Long.BYTES, 4);
+            final long sequence = cab.producerNext(1, OverflowPolicy.DROP_OLDEST, 0, TimeUnit.MILLISECONDS);
+            assertEquals(Cab.NO_SEQUENCE, sequence); // the consumer hasn't skipped the stale entry yet
+
+            final long first = cab.consumerNext();
+            assertEquals(List.of(0L), dropped);
+            final long last = cab.consumerNextBatch(first, 16);
+            assertEquals(first + 2, last);
+            for (long s = first, i = 1; s <= last; s++, i++) {
+                assertEquals(i, cab.getEntry(s).get());
+            }
+            cab.consumerCommitBatch(last);
+
+            final long next = cab.producerNext(1, OverflowPolicy.REJECT);
+            cab.putEntry(next, src, Long.BYTES);
+            cab.producerCommit(next);
+
+            final long s = cab.consumerNext();
+            assertEquals(4, cab.getEntry(s).get());
+            cab.consumerCommit(s);
+
+            assertEquals(1, cab.numberOfDroppedOldest());
+            assertThrows(UnsupportedOperationException.class, () -> cab.setEntry(0, producerView));
+            assertThrows(UnsupportedOperationException.class, () -> cab.removeEntry(0));
+            assertThrows(IllegalArgumentException.class, () -> CabOffHeap.blocking(4, Long.BYTES, Object::new));
+            assertThrows(IllegalArgumentException.class, () -> CabOffHeap.blocking(4, 0, LongView::new));
+            assertThrows(IllegalArgumentException.class,
+                    () -> CabOffHeap.blocking(1 << 30, Long.BYTES, LongView::new));
+        });
+    }
+
+    @Test
+    public void testCopyBytes() {
+        final ByteBuffer src = ByteBuffer.allocate(24).order(ByteOrder.BIG_ENDIAN);
+        for (int i = 0; i < src.capacity(); i++) {
+            src.put(i, (byte) i);
+        }
+        final ByteBuffer dst = ByteBuffer.allocateDirect(24).order(ByteOrder.LITTLE_ENDIAN);
+
+        Utils.copyBytes(src, 1, dst, 3, 19); // two longs and three bytes, the bytes don't depend on the orders
+
+        for (int i = 0; i < dst.capacity(); i++) {
+            assertEquals(i < 3 || i >= 22 ? 0 : i - 2, dst.get(i));
+        }
+        assertEquals(0, src.position());
+        assertEquals(0, dst.position());
+    }
+
+    @Test
+    public void test3pScOffHeapYieldingBatched() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final CabOffHeap<LongView, Object> cab = CabOffHeap.yielding(1 << 20, Long.BYTES, LongView::new);
+
+            final int numberOfProducers = 3;
+            final Thread[] producers = new Thread[numberOfProducers];
+            for (int p = 0; p < numberOfProducers; p++) {
+                final long id = p;
+                producers[p] = new Thread(() -> {
+                    final LongView view = new LongView();
+                    try {
+                        for (int i = 0; i < NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER; ) {
+                            final int n = Math.min(1 + i % 7, NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER - i);
+                            final long lastSequence = cab.producerNext(n);
+                            final long firstSequence = lastSequence - n + 1;
+                            for (long sequence = firstSequence; sequence <= lastSequence; sequence++, i++) {
+                                cab.wrapEntry(sequence, view);
+                                view.set((id << 32) | i);
+                            }
+                            cab.producerCommit(firstSequence, lastSequence);
+                        }
+                    } catch (final ConsumerInterruptedException | InterruptedException e) {
+                        e.printStackTrace(System.err);
+                    }
+                });
+                producers[p].start();
+            }
+
+            final long[] lastValues = {-1, -1, -1};
+            long maxValueDiff = 0;
+
+            for (int numberOfEntries = 0; numberOfEntries < numberOfProducers * NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER; ) {
+                final long sequence = cab.consumerNext();
+                final long lastSequence = cab.consumerNextBatch(sequence, 100);
+                for (long s = sequence; s <= lastSequence; s++, numberOfEntries++) {
+                    final long entry = cab.getEntry(s).get();
+                    final int id = (int) (entry >>> 32);
+                    final long value = entry & 0xffffffffL;
+                    maxValueDiff = Math.max(maxValueDiff, value - lastValues[id]);
+                    lastValues[id] = value;
+                }
+                cab.consumerCommitBatch(lastSequence);
+            }
+
+            for (final Thread producer : producers) {
+                producer.join();
+            }
+
+            assertEquals(1, maxValueDiff);
+            for (final long lastValue : lastValues) {
+                assertEquals(NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER - 1, lastValue);
+            }
+        });
+    }
+
+    @Test
+    public void test3pScLongCabBlocking() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final Cab<Long, Long> cab = new CabBlocking<>(1024);
+            final LongCab longs = cab.attachLongCab(1024);
+            assertSame(longs, cab.longCab());
+            assertThrows(IllegalStateException.class, () -> cab.attachLongCab(1024));
+
+            final int numberOfProducers = 3;
+            final Thread[] producers = new Thread[numberOfProducers];
+            for (int p = 0; p < numberOfProducers; p++) {
+                final long id = p;
+                producers[p] = new Thread(() -> {
+                    try {
+                        for (int i = 0; i < NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER; ) {
+                            final int n = Math.min(1 + i % 7, NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER - i);
+                            final long lastSequence = longs.producerNext(n);
+                            final long firstSequence = lastSequence - n + 1;
+                            for (long sequence = firstSequence; sequence <= lastSequence; sequence++, i++) {
+                                longs.setLong(sequence, (id << 32) | i);
+                            }
+                            longs.producerCommit(firstSequence, lastSequence);
+                        }
+                    } catch (final ConsumerInterruptedException | InterruptedException e) {
+                        e.printStackTrace(System.err);
+                    }
+                });
+                producers[p].start();
+            }
+
+            // the entries of the Cab take turns with the longs
+            final Thread entryProducer = new Thread(() -> {
+                try {
+                    for (long i = 0; i < NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER; i++) {
+                        final long sequence = cab.producerNext();
+                        cab.setEntry(sequence, i);
+                        cab.producerCommit(sequence);
+                    }
+                } catch (final ConsumerInterruptedException | InterruptedException e) {
+                    e.printStackTrace(System.err);
+                }
+            });
+            entryProducer.start();
+
+            final long[] lastValues = {-1, -1, -1};
+            long maxValueDiff = 0;
+            long lastEntry = -1;
+
+            for (int numberOfLongs = 0, numberOfEntries = 0;
+                 numberOfLongs < numberOfProducers * NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER ||
+                         numberOfEntries < NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER; ) {
+
+                final long sequence = cab.consumerNext();
+                if (sequence == Cab.LONGS_RECEIVED_SEQUENCE) {
+                    final long first = longs.consumerNext();
+                    final long last = longs.consumerNextBatch(first, 100);
+                    for (long s = first; s <= last; s++, numberOfLongs++) {
+                        final long value = longs.getLong(s);
+                        final int id = (int) (value >>> 32);
+                        maxValueDiff = Math.max(maxValueDiff, (value & 0xffffffffL) - lastValues[id]);
+                        lastValues[id] = value & 0xffffffffL;
+                    }
+                    longs.consumerCommitBatch(last);
+                    continue;
+                }
+                final long entry = cab.removeEntry(sequence);
+                assertEquals(lastEntry + 1, entry);
+                lastEntry = entry;
+                numberOfEntries++;
+                cab.consumerCommit(sequence);
+            }
+
+            for (final Thread producer : producers) {
+                producer.join();
+            }
+            entryProducer.join();
+
+            assertEquals(1, maxValueDiff);
+            for (final long lastValue : lastValues) {
+                assertEquals(NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER - 1, lastValue);
+            }
+
+            assertThrows(UnsupportedOperationException.class, () -> longs.getEntry(0));
+            assertThrows(UnsupportedOperationException.class, () -> longs.setEntry(0, null));
+            assertThrows(UnsupportedOperationException.class, () -> longs.send(null));
+
+            cab.consumerInterrupt();
+            assertThrows(ConsumerInterruptedException.class, longs::producerNext);
+        });
+    }
+
+    @Test
+    public void test3pScStampedBlocking() throws InterruptedException {
+        testNpSc(CabStamped.blocking(BUFFER_SIZE), 3, NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER, false);
+    }
+
+    @Test
+    public void test3pScStampedYieldingBatched() throws InterruptedException {
+        testNpSc(CabStamped.yielding(BUFFER_SIZE), 3, NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER, false, 100);
+    }
+
+    @Test
+    public void test3pScStampedBackingOffSlowProducerBatches() throws InterruptedException {
+        testNpSc(CabStamped.backingOff(BUFFER_SIZE, 1000, 10000), 3, NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER, true,
+                100, 50);
+    }
+
+    @Test
+    public void testStampedDroppingOldest() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final CabStamped<Long, Object> cab = CabStamped.blocking(4, () -> -1L);
+            assertEquals(-1L, (long) cab.getEntry(3));
+
+            final List<Long> dropped = new ArrayList<>();
+            cab.setDroppedEntryHandler(dropped::add);
+
+            // several laps, so, the stamps of the previous laps must not be taken for the committed ones
+            for (long i = 0; i < 3 * cab.bufferSize(); i++) {
+                final long sequence = cab.producerNext();
+                cab.setEntry(sequence, i);
+                cab.producerCommit(sequence);
+
+                final long s = cab.consumerNext();
+                assertEquals(i, s);
+                assertEquals(cab.consumerNextBatch(s, 16), s);
+                assertEquals(i, (long) cab.removeEntry(s));
+                cab.consumerCommit(s);
+            }
+
+            final long first = 3 * cab.bufferSize();
+            for (long i = 0; i < cab.bufferSize(); i++) {
+                final long sequence = cab.producerNext();
+                cab.setEntry(sequence, first + i);
+                cab.producerCommit(sequence);
+            }
+            assertEquals(Cab.NO_SEQUENCE, cab.producerNext(1, OverflowPolicy.DROP_OLDEST, 0, TimeUnit.MILLISECONDS));
+
+            final long s = cab.consumerNext();
+            assertEquals(List.of(first), dropped);
+            final long last = cab.consumerNextBatch(s, 16);
+            assertEquals(s + 2, last);
+            for (long sequence = s, i = first + 1; sequence <= last; sequence++, i++) {
+                assertEquals(i, (long) cab.getEntry(sequence));
+            }
+            cab.consumerCommitBatch(last);
+            assertEquals(1, cab.numberOfDroppedOldest());
+        });
+    }
+
+    @Test
+    public void test3pScGrowableBlocking() throws InterruptedException {
+        testNpSc(CabGrowable.blocking(16, BUFFER_SIZE), 3, NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER, false);
+    }
+
+    @Test
+    public void test3pScGrowableYieldingBatches() throws InterruptedException {
+        testNpSc(CabGrowable.yielding(16, BUFFER_SIZE), 3, NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER, true, 100, 10);
+    }
+
+    @Test
+    public void test3pScGrowableBackingOffShrinking() throws InterruptedException {
+        final CabGrowable<Long, Message> cab = CabGrowable.backingOff(16, BUFFER_SIZE, 1000, 10000);
+        cab.setShrinkDelay(0, TimeUnit.NANOSECONDS); // shrinks at each chunk boundary unless a growth is requested
+        testNpSc(cab, 3, NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER, false, 0, 1, OverflowPolicy.BLOCK);
+    }
+
+    @Test
+    public void testGrowableGrowsAndShrinks() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            assertThrows(IllegalArgumentException.class, () -> CabGrowable.blocking(8, 4));
+
+            final CabGrowable<Long, Object> cab = CabGrowable.blocking(4, 16);
+            assertEquals(4, cab.bufferSize());
+            assertEquals(4, cab.capacity());
+            assertEquals(16, cab.maxCapacity());
+            assertEquals(1, cab.chunkSize());
+            assertThrows(IllegalArgumentException.class, () -> cab.producerNext(5));
+
+            final List<Long> dropped = new ArrayList<>();
+            cab.setDroppedEntryHandler(dropped::add);
+            cab.setShrinkDelay(1, TimeUnit.HOURS);
+
+            long produced = 0;
+            long consumed = 0;
+
+            // a burst: the consumer takes one entry each time the producer finds the buffer full
+            while (cab.capacity() < cab.maxCapacity()) {
+                long sequence;
+                while ((sequence = cab.producerNext(1, OverflowPolicy.REJECT)) != Cab.NO_SEQUENCE) {
+                    cab.setEntry(sequence, produced++);
+                    cab.producerCommit(sequence);
+                }
+                final long s = cab.consumerNext();
+                assertEquals(consumed++, (long) cab.getEntry(s));
+                cab.consumerCommit(s);
+            }
+            assertEquals(12, cab.numberOfGrowths());
+
+            long sequence;
+            while ((sequence = cab.producerNext(1, OverflowPolicy.REJECT)) != Cab.NO_SEQUENCE) {
+                cab.setEntry(sequence, produced++);
+                cab.producerCommit(sequence);
+            }
+            assertEquals(16, produced - consumed);
+
+            // the hard cap is reached, so, the oldest entry is dropped
+            assertEquals(Cab.NO_SEQUENCE, cab.producerNext(1, OverflowPolicy.DROP_OLDEST, 0, TimeUnit.MILLISECONDS));
+            long s = cab.consumerNext();
+            assertEquals(List.of(consumed++), dropped);
+            assertEquals(consumed++, (long) cab.getEntry(s));
+            cab.consumerCommit(s);
+            assertEquals(12, cab.numberOfGrowths());
+
+            // quiet: each chunk left by the consumer is dropped, even if the entries are still in the buffer
+            cab.setShrinkDelay(0, TimeUnit.NANOSECONDS);
+            while (consumed < produced) {
+                s = cab.consumerNext();
+                assertEquals(consumed++, (long) cab.getEntry(s));
+                cab.consumerCommit(s);
+            }
+            assertEquals(4, cab.capacity());
+            assertEquals(12, cab.numberOfShrinks());
+
+            // several laps of the shrunk buffer
+            for (int i = 0; i < 10 * cab.maxCapacity(); i++) {
+                sequence = cab.producerNext(2);
+                cab.setEntry(sequence - 1, produced++);
+                cab.setEntry(sequence, produced++);
+                cab.producerCommit(sequence - 1, sequence);
+
+                s = cab.consumerNext();
+                assertEquals(s + 1, cab.consumerNextBatch(s, 16));
+                assertEquals(consumed++, (long) cab.getEntry(s));
+                assertEquals(consumed++, (long) cab.removeEntry(s + 1));
+                cab.consumerCommitBatch(s + 1);
+            }
+            assertEquals(4, cab.capacity());
+            assertEquals(12, cab.numberOfGrowths());
+        });
+    }
+
+    @Test
+    public void test3pScMulticastBlocking() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final CabMulticast<Long, Long> cab = CabMulticast.blocking(1024);
+            final CabStage<Long> journaler = cab.newStage();
+            final CabStage<Long> replicator = cab.newStage();
+            final CabStage<Long> auditor = cab.newStage(journaler, replicator);
+            cab.gateConsumer(journaler);
+
+            assertThrows(IllegalStateException.class, () -> cab.gateConsumer(replicator));
+            assertThrows(IllegalArgumentException.class,
+                    () -> CabMulticast.<Long, Long>yielding(16).newStage(journaler));
+
+            final int numberOfProducers = 3;
+            final long total = (long) numberOfProducers * NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER;
+
+            final Thread[] producers = new Thread[numberOfProducers];
+            for (int p = 0; p < numberOfProducers; p++) {
+                final long id = p;
+                producers[p] = new Thread(() -> {
+                    try {
+                        for (int i = 0; i < NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER; ) {
+                            final int n = Math.min(1 + i % 7, NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER - i);
+                            final long lastSequence = cab.producerNext(n);
+                            final long firstSequence = lastSequence - n + 1;
+                            for (long sequence = firstSequence; sequence <= lastSequence; sequence++, i++) {
+                                cab.setEntry(sequence, (id << 32) | i);
+                            }
+                            cab.producerCommit(firstSequence, lastSequence);
+                        }
+                    } catch (final ConsumerInterruptedException | InterruptedException e) {
+                        e.printStackTrace(System.err);
+                    }
+                });
+                producers[p].start();
+            }
+
+            // each stage reads all the entries, the auditor only after both the journaler and the replicator
+            final CabStage<?>[] stages = {journaler, replicator, auditor};
+            final long[] sums = new long[stages.length];
+            final boolean[] interrupted = new boolean[stages.length];
+            final Thread[] stageThreads = new Thread[stages.length];
+            for (int i = 0; i < stages.length; i++) {
+                final int index = i;
+                final CabStage<?> stage = stages[i];
+                stageThreads[i] = new Thread(() -> {
+                    try {
+                        while (true) {
+                            final long sequence = stage.consumerNext();
+                            final long lastSequence = stage.consumerNextBatch(sequence, index * 50 + 1);
+                            for (long s = sequence; s <= lastSequence; s++) {
+                                sums[index] += (Long) stage.getEntry(s);
+                                if (stage == auditor && (journaler.sequence() < s || replicator.sequence() < s)) {
+                                    sums[index] = Long.MIN_VALUE;
+                                }
+                            }
+                            stage.consumerCommitBatch(lastSequence);
+                        }
+                    } catch (final ConsumerInterruptedException e) {
+                        interrupted[index] = true;
+                    } catch (final InterruptedException e) {
+                        e.printStackTrace(System.err);
+                    }
+                });
+                stageThreads[i].start();
+            }
+
+            cab.send(42L);
+
+            long sum = 0;
+            int numberOfMessages = 0;
+            for (long numberOfEntries = 0; numberOfEntries < total; ) {
+                final long sequence = cab.consumerNext();
+                if (sequence == Cab.MESSAGE_RECEIVED_SEQUENCE) {
+                    assertEquals(42L, (long) cab.getMessage());
+                    numberOfMessages++;
+                    cab.consumerCommit(sequence);
+                    continue;
+                }
+                final long lastSequence = cab.consumerNextBatch(sequence, 100);
+                for (long s = sequence; s <= lastSequence; s++, numberOfEntries++) {
+                    assertTrue(journaler.sequence() >= s);
+                    sum += cab.getEntry(s);
+                }
+                cab.consumerCommitBatch(lastSequence);
+            }
+
+            for (final Thread producer : producers) {
+                producer.join();
+            }
+            while (auditor.sequence() < total - 1 || replicator.sequence() < total - 1) {
+                Thread.sleep(1);
+            }
+
+            cab.consumerInterrupt();
+            for (final Thread stageThread : stageThreads) {
+                stageThread.join();
+            }
+
+            long expectedSum = 0;
+            for (long id = 0; id < numberOfProducers; id++) {
+                expectedSum += (id << 32) * NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER +
+                        (long) NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER * (NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER - 1) / 2;
+            }
+            assertEquals(1, numberOfMessages);
+            assertEquals(expectedSum, sum);
+            for (int i = 0; i < stages.length; i++) {
+                assertEquals(expectedSum, sums[i]);
+                assertTrue(interrupted[i]);
+            }
+            assertThrows(ConsumerInterruptedException.class, journaler::consumerNext);
+            assertThrows(ConsumerInterruptedException.class, cab::producerNext);
+        });
+    }
+
+    @Test
+    public void test3pScSharedYieldingBatched() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final Path file = Files.createTempFile("cab", ".shm");
+            try {
+                final CabShared<LongView, Object> cab = CabShared.yielding(file, 1024, Long.BYTES, LongView::new);
+                cab.setRemoteCommandDecoder((buffer, offset) -> buffer.getLong(offset));
+
+                final int numberOfProducers = 3;
+                final Thread[] producers = new Thread[numberOfProducers];
+                for (int p = 0; p < numberOfProducers; p++) {
+                    final long id = p;
+                    // the first producer is a local one, others map the file like other processes do
+                    final OffHeapProducer producer = p == 0 ? cab : CabSharedProducer.open(file);
+                    producers[p] = new Thread(() -> {
+                        final LongView view = new LongView();
+                        try {
+                            for (int i = 0; i < NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER; ) {
+                                final int n = Math.min(1 + i % 7, NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER - i);
+                                final long lastSequence = n == 1 ?
+                                        producer.producerNext(1, OverflowPolicy.BLOCK) : producer.producerNext(n);
+                                final long firstSequence = lastSequence - n + 1;
+                                for (long sequence = firstSequence; sequence <= lastSequence; sequence++, i++) {
+                                    producer.wrapEntry(sequence, view);
+                                    view.set((id << 32) | i);
+                                }
+                                producer.producerCommit(firstSequence, lastSequence);
+                            }
+                        } catch (final ConsumerInterruptedException | InterruptedException e) {
+                            e.printStackTrace(System.err);
+                        }
+                    });
+                    producers[p].start();
+                }
+
+                final CabSharedProducer commandSender = CabSharedProducer.open(file);
+                final ByteBuffer command = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.nativeOrder());
+                command.putLong(0, 42);
+                commandSender.sendCommand(command, 0);
+
+                final long[] lastValues = {-1, -1, -1};
+                long maxValueDiff = 0;
+                int numberOfCommands = 0;
+
+                for (int numberOfEntries = 0;
+                     numberOfEntries < numberOfProducers * NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER; ) {
+
+                    final long sequence = cab.consumerNext();
+                    if (sequence == Cab.MESSAGE_RECEIVED_SEQUENCE) {
+                        assertEquals(42L, cab.getMessage());
+                        numberOfCommands++;
+                        cab.consumerCommit(sequence);
+                        continue;
+                    }
+                    final long lastSequence = cab.consumerNextBatch(sequence, 100);
+                    for (long s = sequence; s <= lastSequence; s++, numberOfEntries++) {
+                        final long entry = cab.getEntry(s).get();
+                        final int id = (int) (entry >>> 32);
+                        final long value = entry & 0xffffffffL;
+                        maxValueDiff = Math.max(maxValueDiff, value - lastValues[id]);
+                        lastValues[id] = value;
+                    }
+                    cab.consumerCommitBatch(lastSequence);
+                }
+
+                for (final Thread producer : producers) {
+                    producer.join();
+                }
+
+                assertEquals(1, numberOfCommands);
+                assertEquals(1, maxValueDiff);
+                for (final long lastValue : lastValues) {
+                    assertEquals(NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER - 1, lastValue);
+                }
+
+                cab.consumerInterrupt();
+                assertTrue(commandSender.isConsumerInterrupted());
+                assertThrows(ConsumerInterruptedException.class, () -> commandSender.producerNext(1));
+                assertThrows(UnsupportedOperationException.class,
+                        () -> cab.producerNext(1, OverflowPolicy.DROP_OLDEST));
+                assertThrows(IllegalArgumentException.class,
+                        () -> CabShared.withWaitStrategy(file, 16, Long.BYTES, new BlockingWaitStrategy(),
+                                LongView::new));
+            } finally {
+                Files.delete(file);
+            }
+        });
+    }
+
+    private static void testOverflowPolicies(final Cab<Long, Object> cab) {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            for (long i = 0; i < cab.bufferSize(); i++) {
+                final long sequence = cab.producerNext(1, OverflowPolicy.REJECT);
+                cab.setEntry(sequence, i);
+                cab.producerCommit(sequence);
+            }
+
+            // the buffer is full
+            assertEquals(Cab.NO_SEQUENCE, cab.producerNext(1, OverflowPolicy.REJECT));
+            assertEquals(Cab.NO_SEQUENCE, cab.producerNext(1, OverflowPolicy.DROP_NEWEST));
+            assertEquals(Cab.NO_SEQUENCE, cab.producerNext(1, OverflowPolicy.BLOCK, 10, TimeUnit.MILLISECONDS));
+            assertEquals(Cab.NO_SEQUENCE, cab.producerNext(2, OverflowPolicy.DROP_OLDEST, 0, TimeUnit.MILLISECONDS));
+
+            assertEquals(3, cab.numberOfRejects()); // REJECT and timed out BLOCK and DROP_OLDEST
+            assertEquals(1, cab.numberOfDroppedNewest());
+            assertEquals(2, cab.numberOfOverloads());
+
+            // two oldest entries are stale now, the consumer skips them
+            final long sequence = cab.consumerNext();
+            assertEquals(2L, (long) cab.getEntry(sequence));
+            cab.consumerCommit(sequence);
+
+            assertEquals(2, cab.numberOfDroppedOldest());
+
+            // nothing was over-claimed by the rejected claims, so, three entries fit exactly
+            final long lastSequence = cab.producerNext(3, OverflowPolicy.REJECT);
+            assertTrue(lastSequence != Cab.NO_SEQUENCE);
+            for (long s = lastSequence - 2, i = 4; s <= lastSequence; s++, i++) {
+                cab.setEntry(s, i);
+            }
+            cab.producerCommit(lastSequence - 2, lastSequence);
+
+            assertEquals(Cab.NO_SEQUENCE, cab.producerNext(1, OverflowPolicy.REJECT));
+
+            for (long i = 3; i < 7; i++) {
+                final long s = cab.consumerNext();
+                assertEquals(i, (long) cab.getEntry(s));
+                cab.consumerCommit(s);
+            }
+        });
+    }
+
+    private static void testOverflowPolicyDropOldest(final Cab<Long, Object> cab) {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final List<Long> dropped = new ArrayList<>();
+            cab.setDroppedEntryHandler(dropped::add);
+
+            for (long i = 0; i < cab.bufferSize(); i++) {
+                final long sequence = cab.producerNext();
+                cab.setEntry(sequence, i);
+                cab.producerCommit(sequence);
+            }
+
+            // the consumer is stalled, so, the producer marks the oldest entries as stale and gives up
+            assertEquals(Cab.NO_SEQUENCE, cab.producerNext(2, OverflowPolicy.DROP_OLDEST));
+            assertEquals(1, cab.numberOfRejects());
+            assertTrue(dropped.isEmpty());
+
+            final long first = cab.consumerNext(); // skips the stale entries
+            assertEquals(2, (long) cab.getEntry(first));
+            assertEquals(List.of(0L, 1L), dropped);
+
+            final long lastSequence = cab.producerNext(2, OverflowPolicy.DROP_OLDEST); // the space is free now
+            cab.setEntry(lastSequence - 1, 4L);
+            cab.setEntry(lastSequence, 5L);
+            cab.producerCommit(lastSequence - 1, lastSequence);
+
+            cab.consumerCommit(first);
+            for (long i = 3; i < 6; i++) {
+                final long sequence = cab.consumerNext();
+                assertEquals(i, (long) cab.getEntry(sequence));
+                cab.consumerCommit(sequence);
+            }
+
+            assertEquals(2, cab.numberOfDroppedOldest());
+        });
+    }
+
+    private static long produceByKey(final CabConflating<Long, Object> cab, final long key, final long value)
+            throws ConsumerInterruptedException, InterruptedException {
+
+        final long sequence = cab.producerNextByKey(key);
+        cab.setEntry(sequence, value);
+        cab.producerCommit(sequence);
+        return sequence;
+    }
+
+    // producers send increasing values for their own keys, the consumer checks the values of each key
+    // are increasing and the last value of each key is delivered
+    private static void testNpScConflating(
+            final CabConflating<Long, Object> cab,
+            final int numberOfProducers,
+            final int maxBatchSize) {
+
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final int numberOfKeysForEach = 16;
+            final int numberOfValuesForEach = NUMBER_OF_ENTRIES_FOR_EACH_PRODUCER / 10;
+            final int numberOfKeys = numberOfProducers * numberOfKeysForEach;
+
+            final Thread[] producers = new Thread[numberOfProducers];
+            for (int p = 0; p < numberOfProducers; p++) {
+                final int firstKey = p * numberOfKeysForEach;
+                producers[p] = new Thread(() -> {
+                    try {
+                        for (int value = 1; value <= numberOfValuesForEach; value++) {
+                            final long key = firstKey + value % numberOfKeysForEach;
+                            produceByKey(cab, key, (key << 32) | value);
+                        }
+                    } catch (final ConsumerInterruptedException | InterruptedException e) {
+                        e.printStackTrace(System.err);
+                    }
+                });
+            }
+
+            final long[] lastValues = new long[numberOfKeys];
+            final long[] expectedLastValues = new long[numberOfKeys];
+            for (int key = 0; key < numberOfKeys; key++) {
+                final int k = key % numberOfKeysForEach;
+                expectedLastValues[key] = numberOfValuesForEach - (numberOfValuesForEach - k) % numberOfKeysForEach;
+            }
+
+            final boolean[] outOfOrder = {false};
+            final Thread consumer = new Thread(() -> {
+                try {
+                    int numberOfKeysDone = 0;
+                    long iterations = 0;
+                    while (numberOfKeysDone < numberOfKeys) {
+                        final long sequence = cab.consumerNext();
+                        final long lastSequence = maxBatchSize > 0 ?
+                                cab.consumerNextBatch(sequence, maxBatchSize) : sequence;
+
+                        for (long s = sequence; s <= lastSequence; s++) {
+                            final long entry = cab.getEntry(s);
+                            final int key = (int) (entry >>> 32);
+                            final long value = entry & 0xffffffffL;
+
+                            if (value <= lastValues[key]) {
+                                outOfOrder[0] = true;
+                            }
+                            lastValues[key] = value;
+
+                            if (value == expectedLastValues[key]) {
+                                numberOfKeysDone++;
+                            }
+                        }
+
+                        cab.consumerCommitBatch(lastSequence);
+
+                        if (++iterations % 1_000 == 0) {
+                            Thread.sleep(1); // slow consumer, so, the producers conflate
+                        }
+                    }
+                } catch (final InterruptedException e) {
+                    e.printStackTrace(System.err);
+                }
+            });
+
+            consumer.start();
+            for (final Thread producer : producers) {
+                producer.start();
+            }
+            for (final Thread producer : producers) {
+                producer.join();
+            }
+            consumer.join();
+
+            assertTrue(!outOfOrder[0]);
+            assertTrue(cab.numberOfConflations() > 0);
+        });
+    }
+
+    private static void waitUntil(
+            final AdaptiveBackingOffWaitStrategy strategy,
+            final int phase,
+            final long lastIdleNanos) throws InterruptedException {
+
+        long idles = strategy.consumerIdle(0, () -> false); // the previous wait is accounted here
+
+        final long numberOfIdles;
+        switch (phase) {
+            case SPINNING_PHASE:
+                numberOfIdles = strategy.spinBudget();
+                break;
+            case YIELDING_PHASE:
+                numberOfIdles = strategy.spinBudget() + strategy.yieldBudget();
+                break;
+            default:
+                numberOfIdles = strategy.spinBudget() + strategy.yieldBudget() + 1;
+        }
+
+        while (idles < numberOfIdles - 1) {
+            idles = strategy.consumerIdle(idles, () -> false);
+        }
+        if (lastIdleNanos > 0) { // the wait lasts for longer, the last idle iteration takes the time
+            Thread.sleep(TimeUnit.NANOSECONDS.toMillis(lastIdleNanos) + 1);
+        }
+        strategy.consumerIdle(idles, () -> false);
+    }
+
     private void testNpSc(
             final Cab<Long, Message> cab,
             final int numberOfProducersSenders,
             final int numberOfEntriesForEach,
             final boolean slowConsumer) {
+        testNpSc(cab, numberOfProducersSenders, numberOfEntriesForEach, slowConsumer, 0);
+    }
+
+    private void testNpSc(
+            final Cab<Long, Message> cab,
+            final int numberOfProducersSenders,
+            final int numberOfEntriesForEach,
+            final boolean slowConsumer,
+            final int maxBatchSize) {
+        testNpSc(cab, numberOfProducersSenders, numberOfEntriesForEach, slowConsumer, maxBatchSize, 1);
+    }
+
+    private void testNpSc(
+            final Cab<Long, Message> cab,
+            final int numberOfProducersSenders,
+            final int numberOfEntriesForEach,
+            final boolean slowConsumer,
+            final int maxBatchSize,
+            final int producerBatchSize) {
+        testNpSc(cab, numberOfProducersSenders, numberOfEntriesForEach, slowConsumer, maxBatchSize,
+                producerBatchSize, null);
+    }
+
+    private void testNpSc(
+            final Cab<Long, Message> cab,
+            final int numberOfProducersSenders,
+            final int numberOfEntriesForEach,
+            final boolean slowConsumer,
+            final int maxBatchSize,
+            final int producerBatchSize,
+            final OverflowPolicy overflowPolicy) {
         assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
 
-            final ProducerSenderGroup psSet =
-                    new ProducerSenderGroup(cab, numberOfProducersSenders, numberOfEntriesForEach);
+            final ProducerSenderGroup psSet = new ProducerSenderGroup(
+                    cab, numberOfProducersSenders, numberOfEntriesForEach, producerBatchSize, overflowPolicy);
 
             final Consumer cs = new Consumer(
                     cab,
                     psSet.size(),
                     psSet.getTotalNumberOfEntries(),
                     psSet.getTotalNumberOfMessages(),
-                    slowConsumer);
+                    slowConsumer,
+                    maxBatchSize);
 
             cs.start();
             psSet.start();
@@ -193,6 +1646,25 @@ public class CabConcurrencyTest extends TestParameters {
         });
     }
 
+    static class LongView implements OffHeapEntry {
+        private ByteBuffer buffer;
+        private int offset;
+
+        @Override
+        public void wrap(final ByteBuffer buffer, final int offset) {
+            this.buffer = buffer;
+            this.offset = offset;
+        }
+
+        long get() {
+            return buffer.getLong(offset);
+        }
+
+        void set(final long value) {
+            buffer.putLong(offset, value);
+        }
+    }
+
     class Message {
         private long value;
 
@@ -228,14 +1700,23 @@ public class CabConcurrencyTest extends TestParameters {
         private final Cab<Long, Message> cab;
         private final int numberOfEntries;
         private final int numberOfMessages;
+        private final int batchSize;
+        private final OverflowPolicy overflowPolicy; // null means producerNext(n) is used
 
-        ProducerSender(final int id, final Cab<Long, Message> cab, final int numberOfEntries) {
+        ProducerSender(
+                final int id,
+                final Cab<Long, Message> cab,
+                final int numberOfEntries,
+                final int batchSize,
+                final OverflowPolicy overflowPolicy) {
             super(ProducerSender.class.getSimpleName() + "#" + id);
             this.id = id;
             this.cab = cab;
 
             this.numberOfEntries = numberOfEntries;
             this.numberOfMessages = numberOfEntries / MESSAGING_FACTOR;
+            this.batchSize = batchSize;
+            this.overflowPolicy = overflowPolicy;
         }
 
         int getNumberOfEntries() {
@@ -249,19 +1730,56 @@ public class CabConcurrencyTest extends TestParameters {
         public void run() {
             try {
                 int messageCount = 0;
-                for (int i = 0; i < numberOfEntries; i++) {
-                    final long sequence = cab.producerNext();
-                    cab.setEntry(sequence, sequence);
-                    cab.producerCommit(sequence);
+                for (int i = 0; i < numberOfEntries; ) {
+                    final int n = Math.min(batchSize, numberOfEntries - i);
+
+                    final long lastSequence = next(n);
+                    final long firstSequence = lastSequence - n + 1;
+                    for (long sequence = firstSequence; sequence <= lastSequence; sequence++) {
+                        cab.setEntry(sequence, sequence);
+                    }
+                    cab.producerCommit(firstSequence, lastSequence);
 
-                    if (i % MESSAGING_FACTOR == 0) {
-                        cab.send(new Message(id, messageCount++));
+                    for (int j = 0; j < n; j++, i++) {
+                        if (i % MESSAGING_FACTOR == 0) {
+                            cab.send(new Message(id, messageCount++));
+                        }
                     }
                 }
             } catch (final ConsumerInterruptedException | InterruptedException e) {
                 e.printStackTrace(System.err);
             }
         }
+
+        private long next(final int n) throws ConsumerInterruptedException, InterruptedException {
+            if (cab instanceof CabPrioritized) { // each producer has its own priority
+                final CabPrioritized<Long, Message> prioritizedCab = (CabPrioritized<Long, Message>) cab;
+                final int priority = id % prioritizedCab.numberOfPriorities();
+
+                if (overflowPolicy == null) {
+                    return prioritizedCab.producerNextByPriority(priority, n);
+                }
+
+                long sequence;
+                while ((sequence = prioritizedCab.producerNextByPriority(priority, n, overflowPolicy)) ==
+                        Cab.NO_SEQUENCE) {
+                    Thread.yield(); // the buffer is full, try again
+                }
+                return sequence;
+            }
+
+            if (overflowPolicy == null) {
+                return cab.producerNext(n);
+            }
+
+            long sequence;
+            while ((sequence = overflowPolicy == OverflowPolicy.BLOCK ?
+                    cab.producerNext(n, overflowPolicy, 1, TimeUnit.MILLISECONDS) :
+                    cab.producerNext(n, overflowPolicy)) == Cab.NO_SEQUENCE) {
+                Thread.yield(); // the buffer is full, try again
+            }
+            return sequence;
+        }
     }
 
     class ProducerSenderGroup {
@@ -273,11 +1791,14 @@ public class CabConcurrencyTest extends TestParameters {
         ProducerSenderGroup(
                 final Cab<Long, Message> cab,
                 final int numberOfProducers,
-                final int numberOfEntriesForEach) {
+                final int numberOfEntriesForEach,
+                final int batchSize,
+                final OverflowPolicy overflowPolicy) {
 
             this.set = new ProducerSender[numberOfProducers];
             for (int i = 0; i < set.length; i++) {
-                final ProducerSender ps = new ProducerSender(i, cab, numberOfEntriesForEach);
+                final ProducerSender ps = new ProducerSender(
+                        i, cab, numberOfEntriesForEach, batchSize, overflowPolicy);
                 set[i] = ps;
                 totalNumberOfEntries += ps.getNumberOfEntries();
                 totalNumbersOfMessages += ps.getNumberOfMessages();
@@ -317,10 +1838,12 @@ public class CabConcurrencyTest extends TestParameters {
 
         private final boolean isSlow;
 
+        private final int maxBatchSize; // 0 means entries are consumed one by one
+
         private final int[] lastReceivedMessageValues;
         private final int[] maxMessageValueDiff;
 
-        private long lastReceivedEntryValue;
+        private final long[] lastReceivedEntryValues; // per lane, see onEntry
         private long maxEntryValueDiff;
 
         private int numberOfEntries = 0;
@@ -331,7 +1854,8 @@ public class CabConcurrencyTest extends TestParameters {
                 final int numberOfSenders,
                 final int totalNumberOfEntries,
                 final int totalNumbersOfMessages,
-                final boolean isSlow) {
+                final boolean isSlow,
+                final int maxBatchSize) {
 
             super(Consumer.class.getName());
             this.cab = cab;
@@ -341,6 +1865,8 @@ public class CabConcurrencyTest extends TestParameters {
 
             this.isSlow = isSlow;
 
+            this.maxBatchSize = maxBatchSize;
+
             lastReceivedMessageValues = new int[numberOfSenders];
             for (int i = 0; i < lastReceivedMessageValues.length; i++) {
                 lastReceivedMessageValues[i] = -1;
@@ -348,7 +1874,10 @@ public class CabConcurrencyTest extends TestParameters {
 
             maxMessageValueDiff = new int[numberOfSenders];
 
-            lastReceivedEntryValue = -1;
+            lastReceivedEntryValues = new long[1 << (Long.SIZE - LANE_SHIFT)];
+            for (int i = 0; i < lastReceivedEntryValues.length; i++) {
+                lastReceivedEntryValues[i] = -1;
+            }
 
             maxEntryValueDiff = 0;
         }
@@ -400,21 +1929,21 @@ public class CabConcurrencyTest extends TestParameters {
                         }
 
                         lastReceivedMessageValues[msg.id()] = newValue;
-                    } else {
-                        numberOfEntries++;
 
-                        final Long entry = cab.getEntry(sequence);
+                        cab.consumerCommit(sequence);
+                    } else if (maxBatchSize > 0) {
+                        final long lastSequence = cab.consumerNextBatch(sequence, maxBatchSize);
 
-                        final long newDiff = entry - lastReceivedEntryValue;
-
-                        if (newDiff > maxEntryValueDiff) {
-                            maxEntryValueDiff = newDiff;
+                        for (long s = sequence; s <= lastSequence; s++) {
+                            onEntry(cab.getEntry(s));
                         }
 
-                        lastReceivedEntryValue = entry;
-                    }
+                        cab.consumerCommitBatch(lastSequence);
+                    } else {
+                        onEntry(cab.getEntry(sequence));
 
-                    cab.consumerCommit(sequence);
+                        cab.consumerCommit(sequence);
+                    }
 
                     if (isSlow) {
                         if (slowIterations % slowPeriod == 0) {
@@ -427,5 +1956,22 @@ public class CabConcurrencyTest extends TestParameters {
                 e.printStackTrace(System.err);
             }
         }
+
+        private void onEntry(final Long entry) {
+            numberOfEntries++;
+
+            // sequences of a multi-lane Cab carry the lane in the upper bits,
+            // the order is guaranteed within the lane only
+            final int lane = (int) (entry >>> LANE_SHIFT);
+            final long value = entry & ((1L << LANE_SHIFT) - 1);
+
+            final long newDiff = value - lastReceivedEntryValues[lane];
+
+            if (newDiff > maxEntryValueDiff) {
+                maxEntryValueDiff = newDiff;
+            }
+
+            lastReceivedEntryValues[lane] = value;
+        }
     }
 }
\ No newline at end of file
@@ -4,6 +4,10 @@ import org.green.TestParameters;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.atomic.AtomicLong;
@@ -31,42 +35,98 @@ class SbsrConsatantObjectPoolConcurrencyTest extends TestParameters {
         testWithPoolSize(100, MINIMAL_TEST_TIME * TEST_AMOUNT_OF_WORK_MULTIPLIER);
     }
 
+    @Test
+    void testGrowingPoolSize100() throws InterruptedException {
+        testWithPoolSize(1, 100, MINIMAL_TEST_TIME * TEST_AMOUNT_OF_WORK_MULTIPLIER);
+    }
+
+    @Test
+    void testPoolSize3With3Borrowers3Releasers() throws InterruptedException {
+        testWithPoolSize(3, 3, 3, 3, MINIMAL_TEST_TIME * TEST_AMOUNT_OF_WORK_MULTIPLIER);
+    }
+
+    @Test
+    void testPoolSize10With4Borrowers2Releasers() throws InterruptedException {
+        testWithPoolSize(10, 10, 4, 2, MINIMAL_TEST_TIME * TEST_AMOUNT_OF_WORK_MULTIPLIER);
+    }
+
+    @Test
+    void testGrowingPoolSize100With2Borrowers4Releasers() throws InterruptedException {
+        testWithPoolSize(1, 100, 2, 4, MINIMAL_TEST_TIME * TEST_AMOUNT_OF_WORK_MULTIPLIER);
+    }
+
     private void testWithPoolSize(final int poolSize, final long time) throws InterruptedException {
-        final SbsrConsatantObjectPool<TestPoolableObject> pool
-                = SbsrConsatantObjectPool.constructorBasedPool(TestPoolableObject.class, poolSize);
+        testWithPoolSize(poolSize, poolSize, time);
+    }
+
+    private void testWithPoolSize(final int initialPoolSize, final int poolSize, final long time)
+            throws InterruptedException {
+        testWithPoolSize(initialPoolSize, poolSize, 1, 1, time);
+    }
+
+    private void testWithPoolSize(final int initialPoolSize,
+                                  final int poolSize,
+                                  final int borrowers,
+                                  final int releasers,
+                                  final long time) throws InterruptedException {
+        final SbsrConsatantObjectPool<TestPoolableObject> pool = SbsrConsatantObjectPool.constructorBasedPool(
+                TestPoolableObject.class, initialPoolSize, poolSize);
 
         final BlockingQueue<TestPoolableObject> queue = new ArrayBlockingQueue<>(pool.size() * 2);
 
-        final Releaser r = new Releaser(queue);
-        final Borrower b = new Borrower(pool, queue);
+        final List<Releaser> rs = new ArrayList<>();
+        for (int i = 0; i < releasers; i++) {
+            rs.add(new Releaser(queue));
+        }
+        final List<Borrower> bs = new ArrayList<>();
+        for (int i = 0; i < borrowers; i++) {
+            bs.add(new Borrower(pool, queue));
+        }
 
-        r.start();
-        b.start();
+        rs.forEach(Thread::start);
+        bs.forEach(Thread::start);
 
         Thread.sleep(time);
 
-        b.interrupt();
-        try {
+        for (final Borrower b : bs) {
+            b.interrupt();
             b.join();
-        } catch (final InterruptedException e) {
-            throw new RuntimeException(e);
         }
-        r.interrupt();
-        try {
+        for (final Releaser r : rs) {
+            r.interrupt();
             r.join();
-        } catch (final InterruptedException e) {
-            throw new RuntimeException(e);
         }
 
-        if (r.error != null) {
-            r.error.printStackTrace();
+        for (final Releaser r : rs) {
+            if (r.error != null) {
+                r.error.printStackTrace();
+            }
+            Assertions.assertNull(r.error);
+        }
+        for (final Borrower b : bs) {
+            if (b.error != null) {
+                b.error.printStackTrace();
+            }
+            Assertions.assertNull(b.error);
         }
-        Assertions.assertNull(r.error);
 
-        if (b.error != null) {
-            b.error.printStackTrace();
+        // all the objects are back in the pool, each of them once
+        TestPoolableObject o;
+        while ((o = queue.poll()) != null) {
+            o.owner().release(o);
+        }
+        final Map<TestPoolableObject, Boolean> borrowed = new IdentityHashMap<>();
+        for (int i = 0; i < pool.size(); i++) {
+            o = pool.borrow();
+            o.onBorrow();
+            Assertions.assertNull(borrowed.put(o, Boolean.TRUE));
+        }
+        for (final TestPoolableObject b : borrowed.keySet()) {
+            b.owner().release(b);
         }
-        Assertions.assertNull(b.error);
+        final TestPoolableObject extra = new TestPoolableObject();
+        extra.setOwner(o.owner());
+        Assertions.assertThrows(IllegalStateException.class, () -> pool.release(extra));
     }
 
     public static class TestPoolableObject extends PoolableObject {
@@ -0,0 +1,52 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2019-2023 Anatoly Gudkov
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.green.tractor;
+
+public class TestBinaryEntry extends BinaryEntry {
+    public static final int SIZE = 2 * Long.BYTES;
+
+    private static final int KEY_INDEX = 0;
+    private static final int VALUE_INDEX = Long.BYTES;
+
+    public TestBinaryEntry() {
+    }
+
+    public void set(final long key, final long value) {
+        putLong(KEY_INDEX, key);
+        putLong(VALUE_INDEX, value);
+    }
+
+    public long key() {
+        return getLong(KEY_INDEX);
+    }
+
+    public long value() {
+        return getLong(VALUE_INDEX);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{key=" + key() + ", value=" + value() + '}';
+    }
+}
\ No newline at end of file
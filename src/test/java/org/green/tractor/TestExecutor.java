@@ -37,19 +37,34 @@ public class TestExecutor extends DefaultExecutor<TestExecutor, TestTractorListe
     public final AtomicLong entriesA = new AtomicLong();
     public final AtomicLong entriesB = new AtomicLong();
 
+    /**
+     * The callbacks of the Worker, the ones a test doesn't check are ignored.
+     */
     public interface Listener {
 
-        void onTestEntryAProcessed();
+        default void onTestEntryAProcessed() {
+        }
 
-        void onTestEntryBProcessed();
+        default void onTestEntryBProcessed() {
+        }
 
-        void onStartExecuted();
+        default void onKeyedEntryProcessed(final long key, final long value) {
+        }
 
-        void onStopExecuted();
+        default void onLongProcessed(final long value) {
+        }
 
-        void onTestCommandAExecuted();
+        default void onStartExecuted() {
+        }
+
+        default void onStopExecuted() {
+        }
+
+        default void onTestCommandAExecuted() {
+        }
 
-        void onTestCommandBExecuted();
+        default void onTestCommandBExecuted() {
+        }
     }
 
     private final Listener listener;
@@ -73,9 +88,24 @@ public class TestExecutor extends DefaultExecutor<TestExecutor, TestTractorListe
             listener.onTestEntryBProcessed();
             return;
         }
+        if (entry instanceof TestKeyedEntry) {
+            final TestKeyedEntry keyedEntry = (TestKeyedEntry) entry;
+            listener.onKeyedEntryProcessed(keyedEntry.key(), keyedEntry.value());
+            return;
+        }
+        if (entry instanceof TestBinaryEntry) { // the view of the Cab, valid until the method returns
+            final TestBinaryEntry binaryEntry = (TestBinaryEntry) entry;
+            listener.onKeyedEntryProcessed(binaryEntry.key(), binaryEntry.value());
+            return;
+        }
         throw new IllegalArgumentException("Unknown entry: " + entry);
     }
 
+    @Override
+    public void processLong(final long value) {
+        listener.onLongProcessed(value);
+    }
+
     @Override
     protected void doStart() {
         listener.onStartExecuted();
@@ -35,6 +35,12 @@ public class TestTractor extends DefaultTractor<TestExecutor, TestTractorListene
         super(cab, executor);
     }
 
+    public TestTractor(final Cab<Entry, Command<?>> cab,
+                       final TestExecutor executor,
+                       final Journal journal) {
+        super(cab, executor, journal);
+    }
+
     public Future<TestResult> testCommandA(final int id, final int value)
             throws TractorClosedException, InterruptedException {
 
@@ -44,6 +50,14 @@ public class TestTractor extends DefaultTractor<TestExecutor, TestTractorListene
         return result;
     }
 
+    public void postTestCommandA(final int id, final int value)
+            throws TractorClosedException, InterruptedException {
+
+        final TestCommandA result = prepareCommand(TestCommandA.class);
+        result.set(id, value);
+        postCommand(result);
+    }
+
     public Future<TestResult> testCommandB(final int id, final int value)
             throws TractorClosedException, InterruptedException {
 
@@ -24,13 +24,45 @@
 package org.green.tractor;
 
 import org.green.TestParameters;
+import org.green.cab.BlockingWaitStrategy;
 import org.green.cab.CabBackingOff;
+import org.green.cab.Cab;
+import org.green.cab.CabBlocking;
+import org.green.cab.CabConflating;
+import org.green.cab.CabGrowable;
+import org.green.cab.CabMulticast;
+import org.green.cab.CabOffHeap;
+import org.green.cab.CabPrioritized;
+import org.green.cab.CabShared;
+import org.green.cab.CabStage;
+import org.green.cab.CabYielding;
+import org.green.cab.CabWithWaitStrategy;
+import org.green.cab.ConsumerInterruptedException;
+import org.green.cab.OverflowPolicy;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static java.time.Duration.ofSeconds;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -45,50 +77,1293 @@ public class TractorConcurrencyTest extends TestParameters {
             final int sleep = 2_000;
 
             final TestExecutor.Listener listener = new TestExecutor.Listener() {
+                @Override
+                public void onStartExecuted() {
+                    try {
+                        Thread.sleep(sleep);
+                    } catch (final InterruptedException ignore) {
+                    }
+                }
+            };
+
+            try (TestTractor process =
+                         new TestTractor(
+                                 new CabBackingOff<>(CAB_SIZE,
+                                         BACKING_OFF_MAX_SPINS,
+                                         BACKING_OFF_MAX_YIELDS), listener)) {
+
+                final long startTime = System.nanoTime();
+
+                process.start().sync();
+
+                final long spentTime = (System.nanoTime() - startTime) / 1_000_000;
+
+                final long jitterThreshold = sleep / 5; // useful with single CPU core test environment
+
+                assertTrue(spentTime >= (sleep - jitterThreshold));
+            }
+        });
+    }
+
+    @Test
+    public void testSendBatch() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final int batchSize = 20;
+            final int numberOfBatches = 10_000 * TEST_AMOUNT_OF_WORK_MULTIPLIER;
+
+            final ExecutionTarget target = new ExecutionTarget(1, batchSize * numberOfBatches, 0, 0, 0, 0, 0);
+
+            try (TestTractor process = new TestTractor(new CabBlocking<>(CAB_SIZE), target)) {
+                final EntrySender<TestEntryA> sender = process.newEntrySender(TestEntryA.class);
+
+                for (int i = 0; i < numberOfBatches; i++) {
+                    sender.nextBatchEnvelope(batchSize); // abandoned, its entries return to the pool
+                    final EntryBatchEnvelope<TestEntryA> envelope = sender.nextBatchEnvelope(batchSize);
+                    assertEquals(batchSize, envelope.size());
+                    for (int j = 0; j < envelope.size(); j++) {
+                        envelope.entry(j).set(0, i * batchSize + j);
+                    }
+                    envelope.send();
+                    assertThrows(IllegalStateException.class, envelope::send);
+                }
+
+                target.reach();
+            }
+        });
+    }
+
+    @Test
+    public void testPipelinedCommands() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final int numberOfCommands = 8;
+
+            final CountDownLatch submitted = new CountDownLatch(1);
+            final int[] executed = {0}; // written by the Worker only
+
+            final TestExecutor.Listener listener = new TestExecutor.Listener() {
+                @Override
+                public void onStartExecuted() {
+                    try {
+                        submitted.await(); // the Worker is stuck until all the commands are submitted
+                    } catch (final InterruptedException ignore) {
+                    }
+                    executed[0]++;
+                }
+            };
+
+            try (TestTractor process = new TestTractor(new CabBlocking<>(CAB_SIZE), listener)) {
+                final List<Future<VoidResult>> futures = new ArrayList<>();
+
+                for (int i = 0; i < numberOfCommands; i++) {
+                    futures.add(process.start()); // doesn't wait for the previous commands
+                }
+
+                submitted.countDown();
+
+                Future.syncAll(futures);
+
+                for (final Future<VoidResult> future : futures) {
+                    assertNull(future.sync().error());
+                }
+                assertEquals(numberOfCommands, executed[0]);
+
+                Future.syncAll(process.start(), process.stop());
+                assertEquals(numberOfCommands + 1, executed[0]);
+            }
+        });
+    }
+
+    @Test
+    public void testManySyncCallers() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final int numberOfCallers = 32;
+            final int numberOfCommands = 2_000;
+
+            final ExecutionTarget target = new ExecutionTarget(1, 0, 0, 0, 0, numberOfCallers * numberOfCommands, 0);
+
+            try (TestTractor process = new TestTractor(new CabBlocking<>(CAB_SIZE), target)) {
+                final AtomicLong wrongResults = new AtomicLong();
+
+                final Thread[] callers = new Thread[numberOfCallers];
+                for (int i = 0; i < numberOfCallers; i++) {
+                    final int id = i;
+                    callers[i] = new Thread(() -> {
+                        try {
+                            for (int j = 0; j < numberOfCommands; j++) {
+                                final TestResult result = process.testCommandA(id, j).sync();
+                                if (result.error() != null || result.id() != id || result.value() != j) {
+                                    wrongResults.incrementAndGet();
+                                }
+                            }
+                        } catch (final TractorClosedException | InterruptedException e) {
+                            wrongResults.incrementAndGet();
+                        }
+                    });
+                    callers[i].start();
+                }
+
+                for (final Thread caller : callers) {
+                    caller.join();
+                }
+
+                target.reach();
+                assertEquals(0, wrongResults.get());
+            }
+        });
+    }
+
+    @Test
+    public void testSyncCallersOfClosedTractor() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final int numberOfCallers = 4;
+
+            final TestExecutor executor = new TestExecutor(new TestExecutor.Listener() {
+                @Override
+                public void onTestCommandAExecuted() {
+                    while (!Thread.currentThread().isInterrupted()) { // stalls the Worker until it's closed
+                        LockSupport.park();
+                    }
+                    throw new Error("The Worker stops before the next commands"); // not caught as Exception
+                }
+            });
+
+            final TestTractor process = new TestTractor(new CabBlocking<>(CAB_SIZE), executor);
+
+            final Future<TestResult> stalling = process.testCommandA(0, 0);
+
+            final Exception[] errors = new Exception[numberOfCallers];
+            final Thread[] callers = new Thread[numberOfCallers];
+            for (int i = 0; i < numberOfCallers; i++) {
+                final int index = i;
+                callers[i] = new Thread(() -> {
+                    try {
+                        errors[index] = process.testCommandB(index, index).sync().error();
+                    } catch (final TractorClosedException | InterruptedException e) {
+                        errors[index] = e;
+                    }
+                });
+                callers[i].start();
+            }
+
+            for (final Thread caller : callers) {
+                while (caller.getState() != Thread.State.WAITING) { // parked in sync()
+                    Thread.sleep(1);
+                }
+            }
+
+            process.close();
+
+            assertTrue(stalling.sync().error() instanceof TractorClosedException);
+            for (int i = 0; i < numberOfCallers; i++) {
+                callers[i].join();
+                assertTrue(errors[i] instanceof TractorClosedException);
+            }
+        });
+    }
+
+    @Test
+    public void testCompletionHandlers() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final int numberOfCommands = 10_000;
+
+            // the Worker executes a command once its handler is registered, so, it's not called by the caller
+            final Semaphore registered = new Semaphore(0);
+
+            final TestExecutor executor = new TestExecutor(new TestExecutor.Listener() {
+                @Override
+                public void onTestCommandAExecuted() {
+                    registered.acquireUninterruptibly();
+                }
+            });
+            final TestExecutor loopExecutor = new TestExecutor(new ExecutionTarget(1, 0, 0, 0, 0, 0, 0));
+
+            try (TestTractor process = new TestTractor(new CabBlocking<>(CAB_SIZE), executor);
+                 TestTractor loop = new TestTractor(new CabYielding<>(CAB_SIZE), loopExecutor)) {
+
+                final Thread[] workers = new Thread[2];
+                final CountDownLatch found = new CountDownLatch(2);
+                process.testCommandA(0, 0).onComplete(result -> {
+                    workers[0] = Thread.currentThread();
+                    found.countDown();
+                });
+                registered.release();
+                process.testCommandA(0, 0).onComplete(result -> { // the loop's Worker calls it
+                    workers[1] = Thread.currentThread();
+                    found.countDown();
+                }, loop);
+                registered.release();
+                found.await();
+                assertTrue(workers[0] != workers[1]);
+
+                final long[] sums = new long[2]; // written by the Workers only
+                final AtomicLong wrongThreads = new AtomicLong();
+                final CountDownLatch completed = new CountDownLatch(2 * numberOfCommands);
+
+                final CompletionHandler<TestResult> onWorker = result -> {
+                    if (Thread.currentThread() != workers[0]) {
+                        wrongThreads.incrementAndGet();
+                    }
+                    sums[0] += result.value();
+                    completed.countDown();
+                };
+                final CompletionHandler<TestResult> onLoop = result -> {
+                    if (Thread.currentThread() != workers[1]) {
+                        wrongThreads.incrementAndGet();
+                    }
+                    sums[1] += result.value();
+                    completed.countDown();
+                };
+
+                // the commands return to the pool once their handlers have been called
+                for (int i = 1; i <= numberOfCommands; i++) {
+                    process.testCommandA(i, i).onComplete(onWorker);
+                    registered.release();
+                    process.testCommandA(i, i).onComplete(onLoop, loop);
+                    registered.release();
+                }
+
+                completed.await();
+                assertEquals(0, wrongThreads.get());
+                final long expectedSum = (long) numberOfCommands * (numberOfCommands + 1) / 2;
+                assertEquals(expectedSum, sums[0]);
+                assertEquals(expectedSum, sums[1]);
+
+                // executed already, so, the handler is called by the current thread at once
+                final Future<TestResult> future = process.testCommandA(7, 7);
+                registered.release();
+                future.sync();
+                final Thread[] caller = new Thread[1];
+                future.onComplete(result -> caller[0] = Thread.currentThread());
+                assertTrue(caller[0] == Thread.currentThread());
+                assertThrows(NullPointerException.class, () -> future.onComplete(null));
+
+                final Future<TestResult> pending = process.testCommandA(8, 8);
+                pending.onComplete(onWorker);
+                assertThrows(IllegalStateException.class, () -> pending.onComplete(onWorker));
+                registered.release();
+            }
+        });
+    }
+
+    @Test
+    public void testCompletionHandlersOfBusyContext() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final int numberOfCommands = 8; // more than the Channel of the context holds, less than the pool
+
+            // the context's Worker is stalled by a command, which occupies its only Channel slot
+            final Thread[] contextWorker = new Thread[1];
+            final CountDownLatch busy = new CountDownLatch(1);
+            final CountDownLatch release = new CountDownLatch(1);
+            final TestExecutor contextExecutor = new TestExecutor(new TestExecutor.Listener() {
+                @Override
+                public void onTestCommandAExecuted() {
+                    contextWorker[0] = Thread.currentThread();
+                    busy.countDown();
+                    try {
+                        release.await();
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+
+            // the Worker executes a command once its handler is registered
+            final Semaphore registered = new Semaphore(0);
+            final TestExecutor executor = new TestExecutor(new TestExecutor.Listener() {
+                @Override
+                public void onTestCommandAExecuted() {
+                    registered.acquireUninterruptibly();
+                }
+            });
+
+            try (TestTractor process = new TestTractor(new CabBlocking<>(CAB_SIZE), executor)) {
+                final TestTractor context = new TestTractor(
+                        new CabWithWaitStrategy<>(CAB_SIZE, 1, new BlockingWaitStrategy(), null), contextExecutor);
+
+                final Future<TestResult> stall = context.testCommandA(0, 0);
+                busy.await();
+
+                final long[] values = new long[numberOfCommands]; // written by the context's Worker only
+                final int[] completed = {0};
+                final AtomicLong wrongThreads = new AtomicLong();
+                final CountDownLatch allCompleted = new CountDownLatch(numberOfCommands);
+                final CompletionHandler<TestResult> onContext = result -> {
+                    if (Thread.currentThread() != contextWorker[0]) {
+                        wrongThreads.incrementAndGet();
+                    }
+                    values[completed[0]++] = result.value();
+                    allCompleted.countDown();
+                };
+
+                for (int i = 1; i <= numberOfCommands; i++) {
+                    process.testCommandA(i, i).onComplete(onContext, context);
+                    registered.release();
+                }
+
+                // the process' Worker doesn't wait for the context, it keeps executing its commands
+                final Future<TestResult> next = process.testCommandA(0, 0);
+                registered.release();
+                next.sync();
+                assertEquals(numberOfCommands, allCompleted.getCount());
+
+                release.countDown();
+                stall.sync();
+                allCompleted.await();
+
+                assertEquals(0, wrongThreads.get());
+                for (int i = 0; i < numberOfCommands; i++) {
+                    assertEquals(i + 1, values[i]); // in the order the commands were executed
+                }
+
+                // once the context is closed, the process' Worker calls the handler with the error
+                context.closeSync();
+                final Thread[] caller = new Thread[1];
+                final Exception[] error = new Exception[1];
+                final CountDownLatch closedCompleted = new CountDownLatch(1);
+                process.testCommandA(1, 1).onComplete(result -> {
+                    caller[0] = Thread.currentThread();
+                    error[0] = result.error();
+                    closedCompleted.countDown();
+                }, context);
+                registered.release();
+                closedCompleted.await();
+                assertTrue(caller[0] != contextWorker[0]);
+                assertTrue(error[0] instanceof TractorClosedException);
+            }
+        });
+    }
+
+    @Test
+    public void testCompletableFutures() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final int numberOfCommands = 10_000;
+
+            // the Worker executes a command once its future is returned, so, the Worker completes it
+            final Semaphore registered = new Semaphore(0);
+
+            final TestExecutor executor = new TestExecutor(new TestExecutor.Listener() {
+                @Override
+                public void onTestCommandAExecuted() {
+                    registered.acquireUninterruptibly();
+                }
+            });
+            final TestExecutor loopExecutor = new TestExecutor(new ExecutionTarget(1, 0, 0, 0, 0, 0, 0));
+
+            try (TestTractor process = new TestTractor(new CabBlocking<>(CAB_SIZE), executor);
+                 TestTractor loop = new TestTractor(new CabYielding<>(CAB_SIZE), loopExecutor)) {
+
+                final CompletableFuture<Thread> worker = process.testCommandA(0, 0)
+                        .toCompletableFuture(result -> Thread.currentThread());
+                registered.release();
+                final CompletableFuture<Thread> loopWorker = process.testCommandA(0, 0)
+                        .toCompletableFuture(result -> Thread.currentThread(), loop);
+                registered.release();
+                assertTrue(worker.get() != loopWorker.get());
+                assertTrue(worker.get() != Thread.currentThread());
+
+                final AtomicLong wrongThreads = new AtomicLong();
+                CompletableFuture<Long> onWorker = CompletableFuture.completedFuture(0L);
+                CompletableFuture<Long> onLoop = CompletableFuture.completedFuture(0L);
+                for (int i = 1; i <= numberOfCommands; i++) {
+                    onWorker = onWorker.thenCombine(process.testCommandA(i, i).toCompletableFuture(result -> {
+                        if (Thread.currentThread() != worker.join()) {
+                            wrongThreads.incrementAndGet();
+                        }
+                        return (long) result.value();
+                    }), Long::sum);
+                    registered.release();
+                    onLoop = onLoop.thenCombine(process.testCommandA(i, i).toCompletableFuture(result -> {
+                        if (Thread.currentThread() != loopWorker.join()) {
+                            wrongThreads.incrementAndGet();
+                        }
+                        return (long) result.value();
+                    }, loop), Long::sum);
+                    registered.release();
+                }
+
+                final long expectedSum = (long) numberOfCommands * (numberOfCommands + 1) / 2;
+                assertEquals(expectedSum, onWorker.get().longValue());
+                assertEquals(expectedSum, onLoop.get().longValue());
+                assertEquals(0, wrongThreads.get());
+
+                final CompletableFuture<Integer> failing = process.testCommandA(7, 7).toCompletableFuture(result -> {
+                    throw new IllegalStateException("Test");
+                });
+                registered.release();
+                final ExecutionException e = assertThrows(ExecutionException.class, failing::get);
+                assertTrue(e.getCause() instanceof IllegalStateException);
+
+                // executed already, so, the future is completed by the current thread at once
+                final Future<TestResult> future = process.testCommandA(8, 8);
+                registered.release();
+                future.sync();
+                assertTrue(future.toCompletableFuture(TestResult::value).isDone());
+                assertThrows(NullPointerException.class, () -> future.toCompletableFuture(null));
+
+                final Future<TestResult> pending = process.testCommandA(9, 9);
+                final CompletableFuture<Integer> value = pending.toCompletableFuture(TestResult::value);
+                assertThrows(IllegalStateException.class, () -> pending.toCompletableFuture(TestResult::id));
+                registered.release();
+                assertEquals(9, value.get().intValue());
+            }
+        });
+    }
+
+    @Test
+    public void testPostedCommands() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final int numberOfPosters = 4;
+            final int numberOfCommands = 20_000; // per poster, much more than the pool of a thread holds
+
+            final AtomicLong executed = new AtomicLong();
+
+            final TestExecutor executor = new TestExecutor(new TestExecutor.Listener() {
+                @Override
+                public void onTestCommandAExecuted() {
+                    executed.incrementAndGet();
+                }
+            });
+
+            final TestTractor process = new TestTractor(new CabYielding<>(CAB_SIZE), executor);
+            try {
+                final Thread[] posters = new Thread[numberOfPosters];
+                final Exception[] errors = new Exception[numberOfPosters];
+                for (int i = 0; i < numberOfPosters; i++) {
+                    final int id = i;
+                    posters[i] = new Thread(() -> {
+                        try {
+                            // posted commands return to the pool without being synced
+                            for (int j = 0; j < numberOfCommands; j++) {
+                                process.postTestCommandA(id, j);
+                            }
+                            // the channel keeps the order, so, the posted commands are executed already
+                            final TestResult result = process.testCommandB(id, numberOfCommands).sync();
+                            if (result.error() != null || result.value() != numberOfCommands) {
+                                throw new IllegalStateException("Unexpected result: " + result);
+                            }
+                        } catch (final Exception e) {
+                            errors[id] = e;
+                        }
+                    });
+                    posters[i].start();
+                }
+                for (int i = 0; i < numberOfPosters; i++) {
+                    posters[i].join();
+                    assertNull(errors[i]);
+                }
+                assertEquals((long) numberOfPosters * numberOfCommands, executed.get());
+            } finally {
+                process.closeSync();
+            }
+
+            assertThrows(TractorClosedException.class, () -> process.postTestCommandA(0, 0));
+        });
+    }
+
+    @Test
+    public void testSpinningAndTimedSync() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final int numberOfCommands = 10_000;
+
+            final Semaphore allowed = new Semaphore(0);
+
+            final TestExecutor executor = new TestExecutor(new TestExecutor.Listener() {
+                @Override
+                public void onTestCommandAExecuted() {
+                    allowed.acquireUninterruptibly();
+                }
+            });
+
+            try (TestTractor process = new TestTractor(new CabYielding<>(CAB_SIZE), executor)) {
+                final Future<TestResult> stalled = process.testCommandA(1, 1);
+                assertFalse(stalled.isDone());
+                assertNull(stalled.sync(10, TimeUnit.MILLISECONDS));
+                assertFalse(stalled.isDone());
+
+                allowed.release();
+                final TestResult result = stalled.sync(1_000, 100);
+                assertEquals(1, result.value());
+                assertTrue(stalled.isDone());
+                assertTrue(stalled.sync(0, TimeUnit.MILLISECONDS) == result);
+
+                // a short spin budget falls back to parking, a long timeout never expires
+                allowed.release(2 * numberOfCommands);
+                for (int i = 0; i < numberOfCommands; i++) {
+                    assertEquals(i, process.testCommandA(i, i).sync(10, 0).value());
+                    assertEquals(i, process.testCommandA(i, i).sync(1, TimeUnit.MINUTES).value());
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testPrioritizedSenders() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final int numberOfEntries = 5;
+
+            final CountDownLatch stall = new CountDownLatch(1);
+            final StringBuilder processed = new StringBuilder(); // written by the Worker only
+
+            final TestExecutor executor = new TestExecutor(new TestExecutor.Listener() {
                 @Override
                 public void onTestEntryAProcessed() {
+                    processed.append('A');
                 }
 
                 @Override
                 public void onTestEntryBProcessed() {
+                    processed.append('B');
                 }
 
                 @Override
                 public void onStartExecuted() {
                     try {
-                        Thread.sleep(sleep);
+                        stall.await(); // the Worker is stalled until all the entries are sent
                     } catch (final InterruptedException ignore) {
                     }
                 }
+            });
+
+            try (TestTractor process = new TestTractor(CabPrioritized.blocking(16, 3), executor)) {
+                final EntrySender<TestEntryA> lowSender = process.newEntrySender(TestEntryA.class, 2);
+                final EntrySender<TestEntryB> highSender = process.newEntrySender(TestEntryB.class, 0);
+
+                process.start();
+
+                for (int i = 0; i < numberOfEntries; i++) {
+                    lowSender.nextEnvelope().send();
+                }
+                for (int i = 0; i < numberOfEntries; i++) {
+                    highSender.nextEnvelope().send();
+                }
+
+                stall.countDown();
+
+                while (executor.entries.get() < 2 * numberOfEntries) {
+                    Thread.sleep(1);
+                }
 
+                assertEquals("BBBBBAAAAA", processed.toString());
+
+                assertThrows(IllegalArgumentException.class, () -> process.newEntrySender(TestEntryA.class, 3));
+            }
+
+            try (TestTractor process = new TestTractor(new CabBlocking<>(CAB_SIZE), executor)) {
+                assertThrows(IllegalArgumentException.class, () -> process.newEntrySender(TestEntryA.class, 1));
+            }
+        });
+    }
+
+    @Test
+    public void testTrySend() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final CountDownLatch stall = new CountDownLatch(1);
+
+            final TestExecutor executor = new TestExecutor(new TestExecutor.Listener() {
                 @Override
-                public void onStopExecuted() {
+                public void onTestEntryAProcessed() {
+                    try {
+                        stall.await(); // the Worker is stalled on the first entry
+                    } catch (final InterruptedException ignore) {
+                    }
                 }
+            });
+
+            final Cab<Entry, Command<?>> cab = new CabBlocking<>(4);
+
+            try (TestTractor process = new TestTractor(cab, executor)) {
+                final EntrySender<TestEntryA> rejecting = process.newEntrySender(TestEntryA.class,
+                        OverflowPolicy.REJECT);
+
+                for (int i = 0; i < cab.bufferSize(); i++) {
+                    assertTrue(rejecting.nextEnvelope().trySend());
+                }
+
+                // the Cab is full
+                final EntryEnvelope<TestEntryA> rejected = rejecting.nextEnvelope();
+                assertFalse(rejected.trySend());
+                assertFalse(rejected.send(10, TimeUnit.MILLISECONDS)); // REJECT doesn't wait
+
+                final EntrySender<TestEntryA> droppingNewest = process.newEntrySender(TestEntryA.class,
+                        OverflowPolicy.DROP_NEWEST);
+                assertFalse(droppingNewest.nextEnvelope().trySend());
+
+                final EntrySender<TestEntryA> blocking = process.newEntrySender(TestEntryA.class);
+                final EntryEnvelope<TestEntryA> timedOut = blocking.nextEnvelope();
+                assertFalse(timedOut.send(10, TimeUnit.MILLISECONDS));
+
+                assertEquals(3, cab.numberOfRejects());
+                assertEquals(1, cab.numberOfDroppedNewest());
+
+                stall.countDown();
+
+                assertTrue(timedOut.send(CONCURRENCY_TEST_TIMEOUT_SECONDS, TimeUnit.SECONDS)); // the entry was kept
+                rejected.send(); // the entry was kept as well
+
+                while (executor.entriesA.get() < cab.bufferSize() + 2) {
+                    Thread.sleep(1);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testTrySendDroppingOldest() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final int numberOfEntries = 100_000 * TEST_AMOUNT_OF_WORK_MULTIPLIER;
 
+            final TestExecutor executor = new TestExecutor(new ExecutionTarget(1, numberOfEntries, 0, 0, 0, 0, 0));
+
+            final Cab<Entry, Command<?>> cab = new CabYielding<>(16);
+
+            try (TestTractor process = new TestTractor(cab, executor)) {
+                final EntrySender<TestEntryA> sender = process.newEntrySender(TestEntryA.class,
+                        OverflowPolicy.DROP_OLDEST);
+
+                for (int i = 0; i < numberOfEntries; i++) {
+                    final EntryEnvelope<TestEntryA> envelope = sender.nextEnvelope(); // dropped entries are recycled
+                    envelope.entry().set(0, i);
+                    while (!envelope.trySend()) { // the Worker hasn't skipped the stale entries, the entry is kept
+                        Thread.yield();
+                    }
+                }
+
+                while (executor.entriesA.get() + cab.numberOfDroppedOldest() < numberOfEntries) {
+                    Thread.sleep(1);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testTrySendDroppingOldestToStalledWorker() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final CountDownLatch stall = new CountDownLatch(1);
+            final CountDownLatch stalled = new CountDownLatch(1);
+
+            final TestExecutor executor = new TestExecutor(new TestExecutor.Listener() {
                 @Override
-                public void onTestCommandAExecuted() {
+                public void onTestEntryAProcessed() {
+                    stalled.countDown();
+                    try {
+                        stall.await(); // the Worker is stalled on the first entry
+                    } catch (final InterruptedException ignore) {
+                    }
+                }
+            });
+
+            final Cab<Entry, Command<?>> cab = new CabBlocking<>(16);
+
+            try (TestTractor process = new TestTractor(cab, executor)) {
+                final EntrySender<TestEntryA> sender = process.newEntrySender(TestEntryA.class,
+                        OverflowPolicy.DROP_OLDEST);
+
+                sender.nextEnvelope().send();
+                stalled.await();
+                for (int i = 1; i < cab.bufferSize(); i++) { // the stalled entry isn't committed, it holds a slot
+                    assertTrue(sender.nextEnvelope().trySend());
                 }
 
+                // the Worker can't skip the stale entries while it is stalled, the sender doesn't wait for it
+                final EntryEnvelope<TestEntryA> envelope = sender.nextEnvelope();
+                assertFalse(envelope.trySend());
+                assertEquals(1, cab.numberOfRejects());
+
+                stall.countDown();
+                while (!envelope.trySend()) { // the entry was kept
+                    Thread.yield();
+                }
+
+                while (executor.entriesA.get() + cab.numberOfDroppedOldest() < cab.bufferSize() + 1) {
+                    Thread.sleep(1);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testConflatingSender() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final int numberOfKeys = 4;
+            final int numberOfEntries = 1_000;
+
+            final CountDownLatch stall = new CountDownLatch(1);
+
+            final KeyedEntryTracker tracker = new KeyedEntryTracker(numberOfKeys) {
                 @Override
-                public void onTestCommandBExecuted() {
+                public void onTestEntryAProcessed() {
+                    try {
+                        stall.await(); // the Worker is stalled on the first entry
+                    } catch (final InterruptedException ignore) {
+                    }
                 }
             };
+            final TestExecutor executor = new TestExecutor(tracker);
 
-            try (TestTractor process =
-                         new TestTractor(
-                                 new CabBackingOff<>(CAB_SIZE,
-                                         BACKING_OFF_MAX_SPINS,
-                                         BACKING_OFF_MAX_YIELDS), listener)) {
+            final CabConflating<Entry, Command<?>> cab = CabConflating.blocking(16);
 
-                final long startTime = System.nanoTime();
+            try (TestTractor process = new TestTractor(cab, executor)) {
+                process.newEntrySender(TestEntryA.class).nextEnvelope().send();
 
-                process.start().sync();
+                final EntrySender<TestKeyedEntry> sender = process.newConflatingEntrySender(TestKeyedEntry.class,
+                        OverflowPolicy.REJECT);
 
-                final long spentTime = (System.nanoTime() - startTime) / 1_000_000;
+                for (int i = 1; i <= numberOfEntries; i++) {
+                    final EntryEnvelope<TestKeyedEntry> envelope = sender.nextEnvelope();
+                    envelope.entry().set(i % numberOfKeys, i);
+                    assertTrue(envelope.trySend()); // never full, one entry per key is queued at most
+                }
 
-                final long jitterThreshold = sleep / 5; // useful with single CPU core test environment
+                assertEquals(numberOfEntries - numberOfKeys, cab.numberOfConflations());
 
-                assertTrue(spentTime >= (sleep - jitterThreshold));
+                stall.countDown();
+
+                while (tracker.entries.get() < numberOfKeys) {
+                    Thread.sleep(1);
+                }
+
+                assertFalse(tracker.outOfOrder);
+                for (int key = 0; key < numberOfKeys; key++) {
+                    assertEquals(numberOfEntries - (numberOfEntries - key) % numberOfKeys, tracker.lastValues[key]);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testBinaryEntrySender() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final int numberOfKeys = 4;
+            final int numberOfEntries = 100_000;
+
+            final KeyedEntryTracker tracker = new KeyedEntryTracker(numberOfKeys);
+            final TestExecutor executor = new TestExecutor(tracker);
+
+            final CabOffHeap<Entry, Command<?>> cab = CabOffHeap.blocking(1024, TestBinaryEntry.SIZE,
+                    TestBinaryEntry::new);
+
+            try (TestTractor process = new TestTractor(cab, executor)) {
+                final EntrySender<TestBinaryEntry> sender = process.newBinaryEntrySender(TestBinaryEntry.class);
+
+                int value = 1;
+                while (value <= numberOfEntries) {
+                    if (value % 10 == 0) {
+                        final EntryBatchEnvelope<TestBinaryEntry> envelope = sender.nextBatchEnvelope(
+                                Math.min(1 + value % 7, numberOfEntries - value + 1));
+                        for (int i = 0; i < envelope.size(); i++, value++) {
+                            envelope.entry(i).set(value % numberOfKeys, value);
+                        }
+                        envelope.send();
+                    } else {
+                        final EntryEnvelope<TestBinaryEntry> envelope = sender.nextEnvelope();
+                        envelope.entry().set(value % numberOfKeys, value);
+                        envelope.send();
+                        value++;
+                    }
+                }
+
+                while (tracker.entries.get() < numberOfEntries) {
+                    Thread.sleep(1);
+                }
+
+                assertEquals(numberOfEntries, tracker.entries.get());
+                assertFalse(tracker.outOfOrder);
+                for (int key = 0; key < numberOfKeys; key++) {
+                    assertEquals(numberOfEntries - (numberOfEntries - key) % numberOfKeys, tracker.lastValues[key]);
+                }
+
+                assertThrows(IllegalStateException.class, () -> process.newEntrySender(TestEntryA.class));
+            }
+
+            try (TestTractor process = new TestTractor(new CabBlocking<>(16), executor)) {
+                assertThrows(IllegalStateException.class, () -> process.newBinaryEntrySender(TestBinaryEntry.class));
+            }
+        });
+    }
+
+    @Test
+    public void testLongEntrySender() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final int numberOfSenders = 3;
+            final int numberOfLongs = 100_000;
+
+            final AtomicLong longs = new AtomicLong();
+            final AtomicLong sumOfLongs = new AtomicLong();
+            final TestExecutor executor = new TestExecutor(new TestExecutor.Listener() {
+                @Override
+                public void onLongProcessed(final long value) {
+                    sumOfLongs.addAndGet(value);
+                    longs.incrementAndGet();
+                }
+            });
+
+            final Cab<Entry, Command<?>> cab = new CabYielding<>(1024);
+            cab.attachLongCab(1024);
+
+            try (TestTractor process = new TestTractor(cab, executor)) {
+                final Thread[] senders = new Thread[numberOfSenders];
+                for (int i = 0; i < numberOfSenders; i++) {
+                    senders[i] = new Thread(() -> {
+                        final LongEntrySender sender = process.newLongEntrySender();
+                        final long[] batch = new long[7];
+
+                        try {
+                            long value = 1;
+                            while (value <= numberOfLongs) {
+                                if (value % 10 == 0) {
+                                    final int length = (int) Math.min(1 + value % batch.length,
+                                            numberOfLongs - value + 1);
+                                    for (int j = 0; j < length; j++, value++) {
+                                        batch[j] = value;
+                                    }
+                                    sender.send(batch, 0, length);
+                                } else {
+                                    sender.send(value++);
+                                }
+                            }
+                        } catch (final TractorClosedException | InterruptedException e) {
+                            e.printStackTrace(System.err);
+                        }
+                    });
+                    senders[i].start();
+                }
+
+                // the entries are processed together with the longs
+                final EntrySender<TestEntryA> entrySender = process.newEntrySender(TestEntryA.class);
+                for (int i = 0; i < numberOfLongs; i++) {
+                    entrySender.nextEnvelope().send();
+                }
+
+                for (final Thread sender : senders) {
+                    sender.join();
+                }
+
+                while (longs.get() < numberOfSenders * numberOfLongs ||
+                        executor.entriesA.get() < numberOfLongs) {
+                    Thread.sleep(1);
+                }
+
+                assertEquals(numberOfSenders * (long) numberOfLongs * (numberOfLongs + 1) / 2,
+                        sumOfLongs.get());
+
+                final LongEntrySender sender = process.newLongEntrySender(OverflowPolicy.REJECT);
+                assertThrows(IllegalArgumentException.class, () -> sender.send(new long[1], 0, 2));
+                assertThrows(NullPointerException.class, () -> process.newLongEntrySender(null));
+            }
+
+            try (TestTractor process = new TestTractor(new CabBlocking<>(16), executor)) {
+                assertThrows(IllegalStateException.class, process::newLongEntrySender);
+            }
+
+            // an Executor which doesn't expect long values needn't implement processLong()
+            final Executor entriesOnly = new Executor() {
+                @Override
+                public String name() {
+                    return "Entries only";
+                }
+
+                @Override
+                public void processEntry(final Entry entry) {
+                }
+
+                @Override
+                public void executeCommand(final Command<?> command) {
+                }
+            };
+            assertThrows(UnsupportedOperationException.class, () -> entriesOnly.processLong(1));
+        });
+    }
+
+    @Test
+    public void testMulticastStages() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final int numberOfSenders = 2;
+            final int numberOfEntries = 100_000;
+
+            final CabMulticast<Entry, Command<?>> cab = CabMulticast.blocking(256);
+            final CabStage<Entry> journaler = cab.newStage();
+            final CabStage<Entry> replicator = cab.newStage();
+            cab.gateConsumer(journaler); // the Executor sees the entries the journaler has committed only
+
+            final long[] sums = new long[2];
+            final CabStage<?>[] stages = {journaler, replicator};
+            final Thread[] stageThreads = new Thread[stages.length];
+            for (int i = 0; i < stages.length; i++) {
+                final int index = i;
+                final CabStage<?> stage = stages[i];
+                stageThreads[i] = new Thread(() -> {
+                    try {
+                        while (true) {
+                            final long sequence = stage.consumerNext();
+                            final long lastSequence = stage.consumerNextBatch(sequence, 64);
+                            for (long s = sequence; s <= lastSequence; s++) {
+                                sums[index] += ((TestEntry) stage.getEntry(s)).value();
+                            }
+                            stage.consumerCommitBatch(lastSequence);
+                        }
+                    } catch (final ConsumerInterruptedException e) {
+                        // the tractor is closed
+                    } catch (final InterruptedException e) {
+                        e.printStackTrace(System.err);
+                    }
+                });
+                stageThreads[i].start();
+            }
+
+            final TestExecutor executor = new TestExecutor(
+                    new ExecutionTarget(1, numberOfSenders * numberOfEntries, 0, 0, 0, 0, 0));
+
+            try (TestTractor process = new TestTractor(cab, executor)) {
+                final Thread[] senders = new Thread[numberOfSenders];
+                for (int i = 0; i < numberOfSenders; i++) {
+                    senders[i] = new Thread(() -> {
+                        try {
+                            final EntrySender<TestEntryA> sender = process.newEntrySender(TestEntryA.class);
+                            int value = 1;
+                            while (value <= numberOfEntries) {
+                                if (value % 10 == 0) {
+                                    final EntryBatchEnvelope<TestEntryA> envelope = sender.nextBatchEnvelope(
+                                            Math.min(1 + value % 7, numberOfEntries - value + 1));
+                                    for (int j = 0; j < envelope.size(); j++, value++) {
+                                        envelope.entry(j).set(0, value);
+                                    }
+                                    envelope.send();
+                                } else {
+                                    final EntryEnvelope<TestEntryA> envelope = sender.nextEnvelope();
+                                    envelope.entry().set(0, value++);
+                                    envelope.send();
+                                }
+                            }
+                        } catch (final TractorClosedException | InterruptedException e) {
+                            e.printStackTrace(System.err);
+                        }
+                    });
+                    senders[i].start();
+                }
+
+                for (final Thread sender : senders) {
+                    sender.join();
+                }
+
+                while (executor.entriesA.get() < numberOfSenders * numberOfEntries ||
+                        replicator.sequence() < numberOfSenders * numberOfEntries - 1) {
+                    Thread.sleep(1);
+                }
+                assertTrue(journaler.sequence() >= numberOfSenders * numberOfEntries - 1);
+            }
+
+            for (final Thread stageThread : stageThreads) {
+                stageThread.join(); // interrupted with the tractor
+            }
+
+            // the entries are released to the pools only after all the stages have read them
+            final long expectedSum = numberOfSenders * (long) numberOfEntries * (numberOfEntries + 1) / 2;
+            assertEquals(expectedSum, sums[0]);
+            assertEquals(expectedSum, sums[1]);
+        });
+    }
+
+    @Test
+    public void testGrowableCab() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final int numberOfSenders = 2;
+            final int numberOfEntries = 100_000;
+
+            final CabGrowable<Entry, Command<?>> cab = CabGrowable.blocking(16, 1024);
+            cab.setShrinkDelay(1, TimeUnit.MILLISECONDS);
+
+            final TestExecutor executor = new TestExecutor(
+                    new ExecutionTarget(1, numberOfSenders * numberOfEntries, 0, 0, 0, 0, 0));
+
+            try (TestTractor process = new TestTractor(cab, executor)) {
+                final Thread[] senders = new Thread[numberOfSenders];
+                for (int i = 0; i < numberOfSenders; i++) {
+                    senders[i] = new Thread(() -> {
+                        try {
+                            // the pool of the sender grows with the Cab
+                            final EntrySender<TestEntryA> sender = process.newEntrySender(TestEntryA.class);
+                            int value = 1;
+                            while (value <= numberOfEntries) {
+                                if (value % 10 == 0) {
+                                    final EntryBatchEnvelope<TestEntryA> envelope = sender.nextBatchEnvelope(
+                                            Math.min(1 + value % cab.bufferSize(), numberOfEntries - value + 1));
+                                    for (int j = 0; j < envelope.size(); j++, value++) {
+                                        envelope.entry(j).set(0, value);
+                                    }
+                                    envelope.send();
+                                } else {
+                                    final EntryEnvelope<TestEntryA> envelope = sender.nextEnvelope();
+                                    envelope.entry().set(0, value++);
+                                    envelope.send();
+                                }
+                            }
+                        } catch (final TractorClosedException | InterruptedException e) {
+                            e.printStackTrace(System.err);
+                        }
+                    });
+                    senders[i].start();
+                }
+
+                for (final Thread sender : senders) {
+                    sender.join();
+                }
+
+                while (executor.entriesA.get() < numberOfSenders * numberOfEntries) {
+                    Thread.sleep(1);
+                }
+            }
+
+            assertTrue(cab.capacity() >= cab.bufferSize() && cab.capacity() <= cab.maxCapacity());
+            assertTrue(cab.numberOfShrinks() <= cab.numberOfGrowths());
+        });
+    }
+
+    @Test
+    public void testRemoteTractor() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final int numberOfKeys = 4;
+            final int numberOfEntries = 100_000;
+
+            final KeyedEntryTracker tracker = new KeyedEntryTracker(numberOfKeys);
+            final TestExecutor executor = new TestExecutor(tracker);
+
+            final Path file = Files.createTempFile("tractor", ".shm");
+            try {
+                final CabShared<Entry, Command<?>> cab = CabShared.yielding(file, 1024, TestBinaryEntry.SIZE,
+                        TestBinaryEntry::new);
+                final TestCommandA remoteCommand = new TestCommandA(); // not pooled, reused by the Worker
+                cab.setRemoteCommandDecoder((buffer, offset) -> {
+                    remoteCommand.set((int) buffer.getLong(offset), (int) buffer.getLong(offset + Long.BYTES));
+                    return remoteCommand;
+                });
+
+                final RemoteTractor remote;
+                try (TestTractor process = new TestTractor(cab, executor)) {
+                    assertNull(process.start().sync().error());
+
+                    remote = RemoteTractor.connect(file);
+
+                    final Thread producer = new Thread(() -> {
+                        try {
+                            final EntrySender<TestBinaryEntry> sender =
+                                    remote.newBinaryEntrySender(TestBinaryEntry.class);
+                            int value = 1;
+                            while (value <= numberOfEntries) {
+                                if (value % 10 == 0) {
+                                    final EntryBatchEnvelope<TestBinaryEntry> envelope = sender.nextBatchEnvelope(
+                                            Math.min(1 + value % 7, numberOfEntries - value + 1));
+                                    for (int i = 0; i < envelope.size(); i++, value++) {
+                                        envelope.entry(i).set(value % numberOfKeys, value);
+                                    }
+                                    envelope.send();
+                                } else {
+                                    final EntryEnvelope<TestBinaryEntry> envelope = sender.nextEnvelope();
+                                    envelope.entry().set(value % numberOfKeys, value);
+                                    envelope.send();
+                                    value++;
+                                }
+                            }
+                        } catch (final TractorClosedException | InterruptedException e) {
+                            e.printStackTrace(System.err);
+                        }
+                    });
+                    producer.start();
+
+                    final ByteBuffer command = ByteBuffer.allocate(TestBinaryEntry.SIZE).order(ByteOrder.nativeOrder());
+                    for (int i = 1; i <= 10; i++) {
+                        command.putLong(0, i);
+                        command.putLong(Long.BYTES, i * 10);
+                        remote.sendCommand(command, 0);
+                    }
+
+                    producer.join();
+
+                    while (tracker.entries.get() < numberOfEntries || executor.commandsA.get() < 10) {
+                        Thread.sleep(1);
+                    }
+
+                    assertEquals(numberOfEntries, tracker.entries.get());
+                    assertEquals(10, executor.commandsA.get());
+                    assertFalse(tracker.outOfOrder);
+                    assertFalse(remote.isClosed());
+
+                    assertThrows(UnsupportedOperationException.class,
+                            () -> remote.newBinaryEntrySender(TestBinaryEntry.class, OverflowPolicy.DROP_OLDEST));
+                }
+
+                assertTrue(remote.isClosed());
+                assertThrows(TractorClosedException.class,
+                        () -> remote.newBinaryEntrySender(TestBinaryEntry.class).nextEnvelope().send());
+            } finally {
+                Files.delete(file);
+            }
+        });
+    }
+
+    @Test
+    public void testJournal() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final int numberOfEntries = 50_000;
+            final int[] nextReplayedValue = new int[1];
+            final boolean[] replayedOutOfOrder = new boolean[1];
+
+            final Journal.Codec codec = new Journal.Codec() {
+                @Override
+                public int encode(final Entry entry, final ByteBuffer buffer, final int offset) {
+                    buffer.putInt(offset, ((TestEntry) entry).value());
+                    return Integer.BYTES;
+                }
+
+                @Override
+                public Entry decode(final ByteBuffer buffer, final int offset, final int length) {
+                    final TestEntryA result = new TestEntryA();
+                    result.set(0, buffer.getInt(offset));
+                    if (result.value() != nextReplayedValue[0]++) {
+                        replayedOutOfOrder[0] = true;
+                    }
+                    return result;
+                }
+            };
+
+            final Path directory = Files.createTempDirectory("journal");
+            try {
+                for (int run = 1; run <= 3; run++) {
+                    final ExecutionTarget target = new ExecutionTarget(1, numberOfEntries * run, 0, 0, 0, 0, 0);
+                    final Journal journal = new Journal(directory, 64 * 1024, Integer.BYTES, codec);
+                    nextReplayedValue[0] = 0;
+
+                    final TestTractor closedProcess;
+                    try (TestTractor process = new TestTractor(new CabBlocking<>(1024), new TestExecutor(target),
+                            journal)) {
+                        closedProcess = process;
+                        final EntrySender<TestEntryA> sender = process.newEntrySender(TestEntryA.class);
+
+                        int value = numberOfEntries * (run - 1);
+                        while (value < numberOfEntries * run) {
+                            final long sequence;
+                            if (value % 10 == 0) {
+                                final EntryBatchEnvelope<TestEntryA> envelope = sender.nextBatchEnvelope(
+                                        Math.min(1 + value % 7, numberOfEntries * run - value));
+                                for (int i = 0; i < envelope.size(); i++, value++) {
+                                    envelope.entry(i).set(0, value);
+                                }
+                                envelope.send();
+                                sequence = envelope.lastSequence();
+                            } else {
+                                final EntryEnvelope<TestEntryA> envelope = sender.nextEnvelope();
+                                envelope.entry().set(0, value++);
+                                envelope.send();
+                                sequence = envelope.sequence();
+                            }
+                            if (value % 1_000 == 0) {
+                                process.awaitDurable(sequence);
+                                assertTrue(journal.durableSequence() >= sequence);
+                            }
+                        }
+
+                        target.reach(); // the replayed entries and the new ones
+
+                        assertTrue(journal.numberOfSyncs() > 0);
+                        assertEquals(numberOfEntries * (run - 1), nextReplayedValue[0]);
+                        assertFalse(replayedOutOfOrder[0]);
+                    }
+
+                    assertThrows(TractorClosedException.class, () -> closedProcess.awaitDurable(Long.MAX_VALUE));
+                }
+
+                try (TestTractor process = new TestTractor(new CabBlocking<>(16),
+                        new ExecutionTarget(1, 0, 0, 0, 0, 0, 0))) {
+                    assertThrows(IllegalStateException.class, () -> process.awaitDurable(0));
+                }
+            } finally {
+                try (Stream<Path> files = Files.list(directory)) {
+                    for (final Path file : files.collect(Collectors.toList())) {
+                        Files.delete(file);
+                    }
+                }
+                Files.delete(directory);
+            }
+        });
+    }
+
+    @Test
+    public void testJournalSnapshots() {
+        assertTimeoutPreemptively(ofSeconds(CONCURRENCY_TEST_TIMEOUT_SECONDS), () -> {
+            final int numberOfEntries = 20_000;
+            final int segmentSize = 4 * 1024;
+            final long[] replayed = new long[1];
+
+            final Journal.Codec codec = new Journal.Codec() {
+                @Override
+                public int encode(final Entry entry, final ByteBuffer buffer, final int offset) {
+                    buffer.putInt(offset, ((TestEntry) entry).value());
+                    return Integer.BYTES;
+                }
+
+                @Override
+                public Entry decode(final ByteBuffer buffer, final int offset, final int length) {
+                    replayed[0]++;
+                    final TestEntryA result = new TestEntryA();
+                    result.set(0, buffer.getInt(offset));
+                    return result;
+                }
+            };
+
+            final Path directory = Files.createTempDirectory("journal");
+            try {
+                final long expectedSum = (long) numberOfEntries * (numberOfEntries - 1) / 2;
+
+                final Journal journal = new Journal(directory, segmentSize, Integer.BYTES, codec);
+                journal.setSnapshotInterval(1_000);
+                final SnapshotableExecutor executor =
+                        new SnapshotableExecutor(new ExecutionTarget(1, 0, 0, 0, 0, 0, 0));
+                try (TestTractor process = new TestTractor(new CabBlocking<>(1024), executor, journal)) {
+                    final EntrySender<TestEntryA> sender = process.newEntrySender(TestEntryA.class);
+                    for (int value = 0; value < numberOfEntries; value++) {
+                        final EntryEnvelope<TestEntryA> envelope = sender.nextEnvelope();
+                        envelope.entry().set(0, value);
+                        envelope.send();
+
+                        if (value == numberOfEntries / 2) {
+                            final SnapshotResult result = process.takeSnapshot().sync();
+                            assertNull(result.error());
+                            assertEquals(2 * Long.BYTES, result.size());
+                        }
+                    }
+                    while (executor.count < numberOfEntries) {
+                        Thread.sleep(1);
+                    }
+                    assertEquals(expectedSum, executor.sum);
+                }
+                // the interval is counted from the batch a snapshot was taken after, so, it may be exceeded a bit
+                assertTrue(journal.numberOfSnapshots() >= numberOfEntries / 2_000);
+                assertEquals(2 * Long.BYTES, journal.lastSnapshotSize());
+
+                try (Stream<Path> files = Files.list(directory)) { // the segments before the snapshot are deleted
+                    assertTrue(files.count() < numberOfEntries * 16L / segmentSize / 2);
+                }
+
+                final SnapshotableExecutor recovered =
+                        new SnapshotableExecutor(new ExecutionTarget(1, 0, 0, 0, 0, 0, 0));
+                try (TestTractor process = new TestTractor(new CabBlocking<>(1024), recovered,
+                        new Journal(directory, segmentSize, Integer.BYTES, codec))) {
+                    assertNull(process.takeSnapshot().sync().error()); // executed after the replay
+                    assertEquals(numberOfEntries, recovered.count);
+                    assertEquals(expectedSum, recovered.sum);
+                    assertTrue(replayed[0] < 1_000);
+                }
+
+                try (TestTractor process = new TestTractor(new CabBlocking<>(16),
+                        new TestExecutor(new ExecutionTarget(1, 0, 0, 0, 0, 0, 0)))) {
+                    assertThrows(IllegalStateException.class, process::takeSnapshot);
+                }
+            } finally {
+                try (Stream<Path> files = Files.list(directory)) {
+                    for (final Path file : files.collect(Collectors.toList())) {
+                        Files.delete(file);
+                    }
+                }
+                Files.delete(directory);
             }
         });
     }
@@ -161,6 +1436,53 @@ public class TractorConcurrencyTest extends TestParameters {
         }
     }
 
+    static class SnapshotableExecutor extends TestExecutor implements Snapshotable {
+        private volatile long count; // written by the Worker only
+        private volatile long sum;
+
+        SnapshotableExecutor(final Listener listener) {
+            super(listener);
+        }
+
+        @Override
+        public void processEntry(final Entry entry) {
+            super.processEntry(entry);
+            sum = sum + ((TestEntry) entry).value();
+            count = count + 1;
+        }
+
+        @Override
+        public void writeSnapshot(final SnapshotWriter writer) throws IOException {
+            writer.putLong(count);
+            writer.putLong(sum);
+        }
+
+        @Override
+        public void readSnapshot(final SnapshotReader reader) throws IOException {
+            count = reader.getLong();
+            sum = reader.getLong();
+        }
+    }
+
+    class KeyedEntryTracker implements TestExecutor.Listener {
+        final AtomicLong entries = new AtomicLong();
+        final long[] lastValues; // written by the Worker only
+        volatile boolean outOfOrder;
+
+        KeyedEntryTracker(final int numberOfKeys) {
+            lastValues = new long[numberOfKeys];
+        }
+
+        @Override
+        public void onKeyedEntryProcessed(final long key, final long value) {
+            if (value <= lastValues[(int) key]) {
+                outOfOrder = true;
+            }
+            lastValues[(int) key] = value;
+            entries.incrementAndGet();
+        }
+    }
+
     class ExecutionTarget implements TestExecutor.Listener {
         private final int numberOfTestEntriesAPerScenario;
         private final int numberOfTestEntriesBPerScenario;